@@ -0,0 +1,12 @@
+#!/bin/sh
+# Start the backend in fast-start mode (build it first with: mvn -Pfaststart package)
+# Extra arguments are passed to the application, e.g. --server.port=8081
+set -e
+
+DIR="$(cd "$(dirname "$0")/../target/faststart" && pwd)"
+
+exec java $JAVA_OPTS \
+    -XX:SharedArchiveFile="$DIR/todo-backend.jsa" \
+    -Dspring.aot.enabled=true \
+    -jar "$DIR/todo-backend-faststart.jar" \
+    --spring.profiles.active=faststart "$@"
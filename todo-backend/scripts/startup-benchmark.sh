@@ -0,0 +1,83 @@
+#!/bin/bash
+# Time from JVM launch to the first successful GET /tasks, regular jar vs fast-start mode
+#
+# Needs the database (docker-compose -f ../docker-compose-db-only.yml up -d), both builds
+# (mvn package -DskipTests && mvn -Pfaststart package -DskipTests) and curl.
+# Every run is a fresh JVM against an already migrated schema; the first request logs in
+# a benchmark user and lists its tasks. Prints each run and the median per mode, in ms.
+#
+# Usage: scripts/startup-benchmark.sh [runs]   (default 5; PORT, JAVA_OPTS are honoured)
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-8080}"
+BASE="http://localhost:$PORT"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+USER_JSON='{"username":"startupbench","email":"startupbench@example.com","password":"startupbench"}'
+LOGIN_JSON='{"username":"startupbench","password":"startupbench"}'
+
+now_ms() {
+    date +%s%3N
+}
+
+# Poll until GET /tasks answers 200 for a freshly logged-in user
+wait_for_tasks() {
+    local token=""
+    for _ in $(seq 1 6000); do
+        if [ -z "$token" ]; then
+            token=$(curl -sf -H 'Content-Type: application/json' -d "$LOGIN_JSON" "$BASE/auth/login" \
+                | sed -n 's/.*"token":"\([^"]*\)".*/\1/p') || true
+        fi
+        if [ -n "$token" ] && curl -sf -o /dev/null -H "Authorization: Bearer $token" "$BASE/tasks"; then
+            return 0
+        fi
+        sleep 0.01
+    done
+    echo "No successful /tasks response within 60s" >&2
+    return 1
+}
+
+# Launch one JVM, time it to the first /tasks response, stop it
+run_once() {
+    local started pid elapsed
+    started=$(now_ms)
+    "$@" --server.port="$PORT" > /dev/null 2>&1 &
+    pid=$!
+    wait_for_tasks
+    elapsed=$(( $(now_ms) - started ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$elapsed"
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+benchmark() {
+    local name="$1"
+    shift
+    local times=()
+    for i in $(seq 1 "$RUNS"); do
+        times+=("$(run_once "$@")")
+        echo "$name run $i: ${times[-1]} ms"
+    done
+    echo "$name median: $(printf '%s\n' "${times[@]}" | median) ms"
+}
+
+REGULAR=(java ${JAVA_OPTS:-} -jar "$ROOT/target/todo-backend.jar")
+FASTSTART=("$ROOT/scripts/run-faststart.sh")
+
+# One regular start migrates the schema and registers the benchmark user (if not already there)
+"${REGULAR[@]}" --server.port="$PORT" > /dev/null 2>&1 &
+SETUP_PID=$!
+for _ in $(seq 1 600); do
+    curl -sf -o /dev/null "$BASE/auth/health" && break
+    sleep 0.1
+done
+curl -s -o /dev/null -H 'Content-Type: application/json' -d "$USER_JSON" "$BASE/auth/register" || true
+kill "$SETUP_PID"
+wait "$SETUP_PID" 2> /dev/null || true
+
+benchmark regular "${REGULAR[@]}"
+benchmark faststart "${FASTSTART[@]}"
@@ -3,14 +3,17 @@ package com.coveragex.todobackend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot application class for the Todo Backend API.*
  * This class serves as the entry point for the Spring Boot application.
  * @EnableJpaAuditing enables automatic population of audit fields like createdAt, updatedAt
+ * @EnableScheduling runs background jobs such as the task archiver
  */
 @SpringBootApplication
 @EnableJpaAuditing
+@EnableScheduling
 public class TodoBackendApplication {
 
 	/**
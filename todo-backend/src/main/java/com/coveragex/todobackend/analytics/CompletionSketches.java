@@ -0,0 +1,234 @@
+package com.coveragex.todobackend.analytics;
+
+import com.coveragex.todobackend.cache.ExpireAfterCreate;
+import com.coveragex.todobackend.cache.UserGenerations;
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.event.AfterCommit;
+import com.coveragex.todobackend.invalidation.Invalidation;
+import com.coveragex.todobackend.repository.ArchivedTaskRepository;
+import com.coveragex.todobackend.repository.CompletionSketchRepository;
+import com.coveragex.todobackend.repository.CompletionSketchRepository.StoredSketch;
+import com.coveragex.todobackend.shard.ShardContext;
+import com.coveragex.todobackend.shard.ShardRouter;
+import com.coveragex.todobackend.store.TaskStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user time-to-complete sketches behind GET /tasks/stats/latency
+ *
+ * Recently active users' QuantileSketches are held in memory and updated by each completion
+ * once it commits, so quantiles are read without touching the tasks. Changed sketches are
+ * written behind to completion_sketches together with the newest completion time they
+ * include. Loading a sketch folds in the completions stored after that time, which also
+ * covers completions made on other nodes or lost with an evicted or expired sketch (sketches
+ * expire invalidation.max-staleness-seconds after they were loaded); without a stored
+ * sketch the whole history (tasks and archive) is folded in. A task completed, reopened and
+ * completed again counts once per completion until its sketch is rebuilt. Sketches loaded
+ * while a completion of the user committed are served once but not kept (see UserGenerations).
+ */
+@Component
+@Slf4j
+public class CompletionSketches {
+
+    // Start of history for a rebuild
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TaskStore taskStore;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final CompletionSketchRepository repository;
+    private final ShardRouter shardRouter;
+    private final Cache<Long, UserSketch> sketches;
+    private final UserGenerations generations = new UserGenerations();
+
+    public CompletionSketches(TaskStore taskStore,
+                              ArchivedTaskRepository archivedTaskRepository,
+                              CompletionSketchRepository repository,
+                              ShardRouter shardRouter,
+                              MeterRegistry meterRegistry,
+                              @Value("${analytics.completion-sketches.max-users:100000}") long maxUsers,
+                              @Value("${invalidation.max-staleness-seconds:300}") long maxStalenessSeconds) {
+        this.taskStore = taskStore;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.repository = repository;
+        this.shardRouter = shardRouter;
+        this.sketches = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfter(new ExpireAfterCreate<Long, UserSketch>(Duration.ofSeconds(maxStalenessSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sketches, "completionSketches");
+    }
+
+    /**
+     * @return the user's completion generation, to be read before the reading transaction starts
+     */
+    public long generation(String username) {
+        return generations.current(username);
+    }
+
+    /**
+     * Copy of a user's sketch of milliseconds from creation to completion
+     * Loads the sketch on a miss, so it must run on the user's shard (TaskService).
+     *
+     * @param user       the user
+     * @param generation the user's generation, read before the transaction's first query
+     */
+    public QuantileSketch sketchOf(User user, long generation) {
+        UserSketch userSketch = sketches.getIfPresent(user.getId());
+        if (userSketch == null) {
+            userSketch = loadIfAbsent(user, generation);
+        }
+        synchronized (userSketch) {
+            return userSketch.sketch.copy();
+        }
+    }
+
+    /**
+     * Count a task that was just marked completed once the current transaction commits
+     * Users whose sketch is not loaded get it when it is, from the stored completion time.
+     */
+    public void recordAfterCommit(Task task) {
+        String username = task.getUser().getUsername();
+        Long userId = task.getUser().getId();
+        TaskCompletion completion = new TaskCompletion(task.getCreatedAt(), task.getCompletedAt());
+        AfterCommit.run(() -> {
+            generations.advance(username);
+            sketches.asMap().computeIfPresent(userId, (id, userSketch) -> {
+                synchronized (userSketch) {
+                    userSketch.add(completion);
+                }
+                return userSketch;
+            });
+        });
+    }
+
+    /**
+     * Drop a user's sketch; the next read loads it again
+     */
+    public void invalidate(Long userId) {
+        sketches.invalidate(userId);
+    }
+
+    /**
+     * Tasks changed on another node
+     */
+    @EventListener
+    public void onInvalidation(Invalidation invalidation) {
+        if (invalidation.username() != null) {
+            generations.advance(invalidation.username());
+        }
+        if (invalidation.userId() != null) {
+            invalidate(invalidation.userId());
+        }
+    }
+
+    /**
+     * Periodic write-behind of the sketches changed since the last run
+     */
+    @Scheduled(initialDelayString = "${analytics.completion-sketches.flush-interval-ms:60000}",
+            fixedDelayString = "${analytics.completion-sketches.flush-interval-ms:60000}")
+    @PreDestroy
+    public void flush() {
+        int written = 0;
+        for (Map.Entry<Long, UserSketch> entry : sketches.asMap().entrySet()) {
+            UserSketch userSketch = entry.getValue();
+            byte[] bytes;
+            long count;
+            LocalDateTime through;
+            synchronized (userSketch) {
+                if (!userSketch.dirty) {
+                    continue;
+                }
+                bytes = userSketch.sketch.toBytes();
+                count = userSketch.sketch.count();
+                through = userSketch.through;
+                userSketch.dirty = false;
+            }
+            long userId = entry.getKey();
+            try {
+                ShardContext.runIn(shardRouter.shardFor(userId),
+                        () -> repository.save(userId, bytes, count, through));
+                written++;
+            } catch (RuntimeException e) {
+                log.warn("Writing the completion sketch of user {} failed, retrying next run", userId, e);
+                synchronized (userSketch) {
+                    userSketch.dirty = true;
+                }
+            }
+        }
+        if (written > 0) {
+            log.debug("Wrote {} completion sketches", written);
+        }
+    }
+
+    /**
+     * Load a user's sketch, keeping it only if no completion of the user committed meanwhile
+     * Loaded outside the cache's lock; a completion committing after the check waits for the
+     * sketch to be stored and then adds to it.
+     */
+    private UserSketch loadIfAbsent(User user, long generation) {
+        UserSketch loaded = load(user);
+        UserSketch kept = sketches.asMap().compute(user.getId(), (userId, current) -> {
+            if (current != null) {
+                return current;
+            }
+            return generations.isCurrent(user.getUsername(), generation) ? loaded : null;
+        });
+        return kept != null ? kept : loaded;
+    }
+
+    private UserSketch load(User user) {
+        UserSketch userSketch = new UserSketch();
+        StoredSketch stored = repository.findByUserId(user.getId()).orElse(null);
+        if (stored != null) {
+            try {
+                userSketch.sketch = QuantileSketch.fromBytes(stored.sketch());
+                userSketch.through = stored.completedThrough();
+            } catch (IllegalArgumentException e) {
+                log.warn("Unreadable completion sketch for user {}, rebuilding it", user.getId(), e);
+            }
+        }
+
+        LocalDateTime after = userSketch.through == null ? EPOCH : userSketch.through;
+        List<TaskCompletion> completions = new ArrayList<>(taskStore.findCompletionsSince(user, after));
+        completions.addAll(archivedTaskRepository.findCompletionsSince(user, after));
+        for (TaskCompletion completion : completions) {
+            userSketch.add(completion);
+        }
+        log.debug("Loaded completion sketch for user {} ({} completions folded in)", user.getId(), completions.size());
+        return userSketch;
+    }
+
+    /**
+     * A user's sketch and the newest completion time in it, guarded by its own monitor
+     */
+    private static final class UserSketch {
+        private QuantileSketch sketch = new QuantileSketch();
+        private LocalDateTime through;
+        private boolean dirty;
+
+        void add(TaskCompletion completion) {
+            sketch.add(completion.millisToComplete());
+            if (through == null || completion.completedAt().isAfter(through)) {
+                through = completion.completedAt();
+            }
+            dirty = true;
+        }
+    }
+}
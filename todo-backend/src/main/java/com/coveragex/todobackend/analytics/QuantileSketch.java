@@ -0,0 +1,183 @@
+package com.coveragex.todobackend.analytics;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.BufferUnderflowException;
+
+/**
+ * Mergeable streaming quantile sketch with a relative error bound (not thread-safe)
+ *
+ * A value v >= 1 is counted in bucket ceil(log_g(v)) with g = (1 + a) / (1 - a), so every
+ * quantile is returned within a relative error a (1%) of the true one, whatever the number
+ * of values. Buckets are kept as contiguous counts from the lowest one used: merging two
+ * sketches adds their counts, and a year's range of milliseconds needs ~1200 buckets.
+ * Values below 1 share a zero bucket.
+ */
+public final class QuantileSketch {
+
+    private static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    // Past this many buckets the lowest ones are merged, so only low quantiles lose accuracy
+    private static final int MAX_BUCKETS = 2048;
+    private static final byte FORMAT = 1;
+
+    private long[] counts = new long[0];
+    // Bucket index of counts[0]
+    private int minIndex;
+    private long zeroCount;
+    private long count;
+
+    public void add(double value) {
+        count++;
+        if (value < 1) {
+            zeroCount++;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+        cover(index, index);
+        counts[Math.max(index, minIndex) - minIndex]++;
+    }
+
+    /**
+     * Add another sketch's values to this one
+     */
+    public void merge(QuantileSketch other) {
+        count += other.count;
+        zeroCount += other.zeroCount;
+        if (other.counts.length == 0) {
+            return;
+        }
+        cover(other.minIndex, other.minIndex + other.counts.length - 1);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[Math.max(other.minIndex + i, minIndex) - minIndex] += other.counts[i];
+        }
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @param q quantile in [0, 1]
+     * @return the estimated nearest-rank value (the ceil(q * count)-th smallest), NaN for an empty sketch
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(0, (long) Math.ceil(Math.min(1, Math.max(0, q)) * count) - 1);
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                return valueOf(minIndex + i);
+            }
+        }
+        return valueOf(minIndex + counts.length - 1);
+    }
+
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch();
+        copy.counts = counts.clone();
+        copy.minIndex = minIndex;
+        copy.zeroCount = zeroCount;
+        copy.count = count;
+        return copy;
+    }
+
+    /**
+     * Compact form: format, zero count, lowest bucket index and the bucket counts, as varints
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + counts.length);
+        out.write(FORMAT);
+        writeVarLong(out, zeroCount);
+        writeVarLong(out, (minIndex << 1) ^ (minIndex >> 31));
+        writeVarLong(out, counts.length);
+        for (long bucketCount : counts) {
+            writeVarLong(out, bucketCount);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a sketch written by toBytes
+     */
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            if (in.get() != FORMAT) {
+                throw new IllegalArgumentException("Unknown sketch format");
+            }
+            QuantileSketch sketch = new QuantileSketch();
+            sketch.zeroCount = readVarLong(in);
+            int zigzag = (int) readVarLong(in);
+            sketch.minIndex = (zigzag >>> 1) ^ -(zigzag & 1);
+            int length = (int) readVarLong(in);
+            if (length < 0 || length > MAX_BUCKETS) {
+                throw new IllegalArgumentException("Bad sketch bucket count " + length);
+            }
+            sketch.counts = new long[length];
+            sketch.count = sketch.zeroCount;
+            for (int i = 0; i < length; i++) {
+                sketch.counts[i] = readVarLong(in);
+                sketch.count += sketch.counts[i];
+            }
+            return sketch;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated sketch", e);
+        }
+    }
+
+    /**
+     * Grow the buckets to cover [low, high], merging the lowest ones past MAX_BUCKETS
+     */
+    private void cover(int low, int high) {
+        if (counts.length == 0) {
+            minIndex = Math.max(low, high - MAX_BUCKETS + 1);
+            counts = new long[high - minIndex + 1];
+            return;
+        }
+        int maxIndex = minIndex + counts.length - 1;
+        if (low >= minIndex && high <= maxIndex) {
+            return;
+        }
+        int newMax = Math.max(maxIndex, high);
+        int newMin = Math.max(Math.min(minIndex, low), newMax - MAX_BUCKETS + 1);
+        long[] grown = new long[newMax - newMin + 1];
+        for (int i = 0; i < counts.length; i++) {
+            grown[Math.max(minIndex + i, newMin) - newMin] += counts[i];
+        }
+        counts = grown;
+        minIndex = newMin;
+    }
+
+    // Bucket i holds (g^(i-1), g^i]; this estimate is within the relative accuracy of both ends
+    private static double valueOf(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in sketch");
+    }
+}
@@ -0,0 +1,17 @@
+package com.coveragex.todobackend.analytics;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * The columns CompletionSketches reads to fold a completed task into a user's sketch
+ */
+public record TaskCompletion(LocalDateTime createdAt, LocalDateTime completedAt) {
+
+    /**
+     * @return time from creation to completion in milliseconds, 0 if the clock went backwards
+     */
+    public long millisToComplete() {
+        return Math.max(0, Duration.between(createdAt, completedAt).toMillis());
+    }
+}
@@ -0,0 +1,38 @@
+package com.coveragex.todobackend.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+
+/**
+ * Caffeine expiry counted from when an entry was stored, not extended by later updates
+ *
+ * Per-user state built from the database (cached responses, tag bitmaps, recent tasks,
+ * completion sketches) is dropped when another node reports a change over the
+ * InvalidationBus. Expiring it a fixed time after it was built bounds how long it stays stale
+ * when such a message never arrives; the in-place updates of this node's own writes do not
+ * push that back.
+ */
+public final class ExpireAfterCreate<K, V> implements Expiry<K, V> {
+
+    private final long nanos;
+
+    public ExpireAfterCreate(Duration timeToLive) {
+        this.nanos = timeToLive.toNanos();
+    }
+
+    @Override
+    public long expireAfterCreate(K key, V value, long currentTime) {
+        return nanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    @Override
+    public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
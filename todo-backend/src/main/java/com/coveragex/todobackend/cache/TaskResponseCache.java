@@ -0,0 +1,145 @@
+package com.coveragex.todobackend.cache;
+
+import com.coveragex.todobackend.event.TaskChangedEvent;
+import com.coveragex.todobackend.invalidation.Invalidation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cache of already-serialized JSON responses for the hottest read endpoints
+ * A hit is a byte array that the controller hands straight to the servlet output stream,
+ * so no entity loading, DTO mapping or Jackson work happens on the hit path.
+ *
+ * Entries are invalidated after any committed task mutation of the owning user, on this
+ * node directly and on the other nodes through the InvalidationBus, and expire
+ * invalidation.max-staleness-seconds after they were stored.
+ * UserGenerations guard against a slow reader storing a response that was computed before
+ * a concurrent mutation committed. Hit rates are published as
+ * cache.gets{cache=taskResponses}.
+ */
+@Component
+@Slf4j
+public class TaskResponseCache {
+
+    private final Cache<CacheKey, byte[]> cache;
+    private final UserGenerations generations = new UserGenerations();
+    private final ObjectMapper objectMapper;
+    private final int maxEntryBytes;
+
+    @Autowired
+    public TaskResponseCache(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${cache.task-responses.max-total-bytes:16777216}") long maxTotalBytes,
+                             @Value("${cache.task-responses.max-entry-bytes:65536}") int maxEntryBytes,
+                             @Value("${invalidation.max-staleness-seconds:300}") long maxStalenessSeconds) {
+        this(objectMapper, meterRegistry, maxTotalBytes, maxEntryBytes, Duration.ofSeconds(maxStalenessSeconds),
+                (key, value) -> value.length);
+    }
+
+    /**
+     * @param weigher entry size in bytes; tests use it to act while an entry is being stored
+     */
+    TaskResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry, long maxTotalBytes, int maxEntryBytes,
+                      Duration maxStaleness, Weigher<Object, byte[]> weigher) {
+        this.objectMapper = objectMapper;
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxTotalBytes)
+                .weigher(weigher)
+                .expireAfter(new ExpireAfterCreate<CacheKey, byte[]>(maxStaleness))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "taskResponses");
+    }
+
+    /**
+     * Return the cached response bytes for a user's view, serializing and caching
+     * the loader's result on a miss
+     * @param username the owning user
+     * @param view     which endpoint response is requested
+     * @param loader   produces the response body on a miss
+     * @return serialized JSON body
+     */
+    public byte[] getOrLoad(String username, View view, Supplier<Object> loader) {
+        CacheKey key = new CacheKey(username, view);
+        byte[] cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = generations.current(username);
+
+        byte[] body = serialize(loader.get());
+
+        // Only publish the response if no mutation for this user committed while we were loading.
+        // Checked inside the entry's compute: invalidate() bumps the generation before it removes
+        // the entry, so a check that still sees the old generation is always followed by the removal
+        if (body.length <= maxEntryBytes) {
+            cache.asMap().compute(key, (k, current) -> generations.isCurrent(username, generation) ? body : current);
+        }
+        return body;
+    }
+
+    /**
+     * Drop every cached view of a user
+     * @param username the user whose responses are stale
+     */
+    public void invalidate(String username) {
+        generations.advance(username);
+        for (View view : View.values()) {
+            cache.invalidate(new CacheKey(username, view));
+        }
+    }
+
+    /**
+     * Invalidate after the mutating transaction commits, so a concurrent reader
+     * can never re-populate the cache with pre-commit data
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        invalidate(event.getUsername());
+    }
+
+    /**
+     * Invalidation from another node
+     */
+    @EventListener
+    public void onInvalidation(Invalidation invalidation) {
+        if (invalidation.username() != null) {
+            invalidate(invalidation.username());
+        }
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cached response", e);
+        }
+    }
+
+    /**
+     * Cached endpoint responses
+     */
+    public enum View {
+        RECENT,
+        STATS
+    }
+
+    private record CacheKey(String username, View view) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.coveragex.todobackend.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user write generations for in-memory state built from a query (TagIndex, RecentTasks,
+ * CompletionSketches, TaskResponseCache)
+ *
+ * Such state is kept current by after-commit updates, which only touch state that is already
+ * held. A write that commits after a reader's snapshot started, but is applied before the
+ * reader stores what it built, finds nothing to update, and the built state misses it.
+ * Writers therefore advance the user's generation after commit, and a reader reads it before
+ * its transaction's first query and stores what it built only if it is unchanged.
+ * Counters are striped by username: users sharing a stripe cost a spurious reload, never a
+ * stale entry.
+ */
+public class UserGenerations {
+
+    private static final int STRIPES = 1024;
+
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    /**
+     * @return the user's generation, to be read before the loading transaction's first query
+     */
+    public long current(String username) {
+        return generations.get(stripe(username));
+    }
+
+    /**
+     * Record a committed change of the user's tasks
+     */
+    public void advance(String username) {
+        generations.incrementAndGet(stripe(username));
+    }
+
+    /**
+     * @return true if no change of the user's tasks was recorded since the generation was read
+     */
+    public boolean isCurrent(String username, long generation) {
+        return generations.get(stripe(username)) == generation;
+    }
+
+    private static int stripe(String username) {
+        return (username.hashCode() & 0x7fffffff) % STRIPES;
+    }
+}
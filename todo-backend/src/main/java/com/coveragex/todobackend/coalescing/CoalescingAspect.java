@@ -0,0 +1,74 @@
+package com.coveragex.todobackend.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces concurrent identical calls to @Coalesced methods (same method, equal arguments)
+ * Outermost advice, so one flight covers shard routing, the transaction and the queries.
+ * Publishes coalescing.calls{method, role=executed|joined} and coalescing.ratio{method},
+ * the share of calls that were answered by another caller's execution.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "coalescing.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CoalescingAspect {
+
+    private final SingleFlight<CallKey> singleFlight = new SingleFlight<>();
+    private final Map<Method, MethodMetrics> metrics = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public CoalescingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(com.coveragex.todobackend.coalescing.Coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        SingleFlight.Outcome outcome = singleFlight.execute(
+                new CallKey(method, Arrays.asList(joinPoint.getArgs())), joinPoint::proceed);
+
+        MethodMetrics counters = metrics.computeIfAbsent(method, MethodMetrics::new);
+        (outcome.leader() ? counters.executed : counters.joined).increment();
+        return outcome.value();
+    }
+
+    private record CallKey(Method method, List<Object> args) {
+    }
+
+    private final class MethodMetrics {
+        final Counter executed;
+        final Counter joined;
+
+        MethodMetrics(Method method) {
+            String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+            executed = Counter.builder("coalescing.calls").tag("method", name).tag("role", "executed")
+                    .register(meterRegistry);
+            joined = Counter.builder("coalescing.calls").tag("method", name).tag("role", "joined")
+                    .register(meterRegistry);
+            Gauge.builder("coalescing.ratio", this, MethodMetrics::ratio).tag("method", name)
+                    .register(meterRegistry);
+        }
+
+        double ratio() {
+            double total = executed.count() + joined.count();
+            return total == 0 ? 0 : joined.count() / total;
+        }
+    }
+}
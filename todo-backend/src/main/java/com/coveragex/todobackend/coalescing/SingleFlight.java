@@ -0,0 +1,123 @@
+package com.coveragex.todobackend.coalescing;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares one execution among concurrent calls with the same key
+ *
+ * A call only ever joins an execution that starts after the call arrived, so it never sees
+ * data older than its own arrival. Per key there is at most one running flight and one
+ * queued flight: a call arriving while nothing runs starts a flight at once; a call arriving
+ * while a flight runs joins the queued flight, which starts when the running one finishes
+ * and is executed by the caller that queued it.
+ */
+public class SingleFlight<K> {
+
+    /**
+     * Work run by the flight leader
+     */
+    @FunctionalInterface
+    public interface Call {
+        Object run() throws Throwable;
+    }
+
+    /**
+     * Result of execute(): the value, and whether this caller ran the call itself
+     */
+    public record Outcome(Object value, boolean leader) {
+    }
+
+    private final ConcurrentHashMap<K, Slot> slots = new ConcurrentHashMap<>();
+
+    public Outcome execute(K key, Call call) throws Throwable {
+        Flight flight;
+        Flight predecessor = null;
+        boolean leader;
+        Slot slot;
+
+        while (true) {
+            slot = slots.computeIfAbsent(key, k -> new Slot());
+            synchronized (slot) {
+                if (slot.retired) {
+                    continue;
+                }
+                if (slot.running == null) {
+                    flight = new Flight();
+                    slot.running = flight;
+                    leader = true;
+                } else if (slot.queued == null) {
+                    flight = new Flight();
+                    slot.queued = flight;
+                    predecessor = slot.running;
+                    leader = true;
+                } else {
+                    flight = slot.queued;
+                    leader = false;
+                }
+                break;
+            }
+        }
+
+        if (!leader) {
+            return new Outcome(flight.await(), false);
+        }
+
+        if (predecessor != null) {
+            // Its outcome is irrelevant: it started before some of our callers arrived
+            predecessor.result.handle((value, error) -> null).join();
+        }
+        try {
+            Object value = call.run();
+            finish(key, slot, flight);
+            flight.result.complete(value);
+            return new Outcome(value, true);
+        } catch (Throwable t) {
+            finish(key, slot, flight);
+            flight.result.completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    /**
+     * Number of keys with a running flight, for tests
+     */
+    int activeKeys() {
+        return slots.size();
+    }
+
+    /**
+     * Promote the queued flight (its leader is waiting for us) or retire the idle slot
+     */
+    private void finish(K key, Slot slot, Flight flight) {
+        synchronized (slot) {
+            if (slot.running == flight) {
+                slot.running = slot.queued;
+                slot.queued = null;
+            }
+            if (slot.running == null) {
+                slot.retired = true;
+                slots.remove(key, slot);
+            }
+        }
+    }
+
+    private static final class Slot {
+        Flight running;
+        Flight queued;
+        boolean retired;
+    }
+
+    private static final class Flight {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Object await() throws Throwable {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.coveragex.todobackend.concurrency;
+
+import com.coveragex.todobackend.exception.DomainException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.lang.reflect.Method;
+
+/**
+ * Runs @ConcurrencyLimited handlers under a ConcurrencyLimiter permit
+ * The permit spans the handler's TaskService/AuthService calls, and with them the
+ * coalescing, shard routing and transaction advice on those services. A 5xx result or an
+ * unexpected exception counts as a dropped call; client errors (4xx) do not.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConcurrencyLimitAspect {
+
+    private final ConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitAspect(ConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Around("@within(com.coveragex.todobackend.concurrency.ConcurrencyLimited) "
+            + "|| @annotation(com.coveragex.todobackend.concurrency.ConcurrencyLimited)")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        ConcurrencyLimiter.Partition partition = partitionOf(((MethodSignature) joinPoint.getSignature()).getMethod());
+        if (!limiter.tryAcquire(partition)) {
+            throw new ConcurrencyLimitExceededException(partition, limiter.limit(partition));
+        }
+
+        long started = System.nanoTime();
+        boolean dropped = true;
+        try {
+            Object result = joinPoint.proceed();
+            dropped = result instanceof ResponseEntity<?> response && response.getStatusCode().is5xxServerError();
+            return result;
+        } catch (DomainException e) {
+            // Answered with a 4xx: the database did its job
+            dropped = false;
+            throw e;
+        } finally {
+            limiter.release(partition, System.nanoTime() - started, dropped);
+        }
+    }
+
+    private static ConcurrencyLimiter.Partition partitionOf(Method method) {
+        return AnnotatedElementUtils.hasAnnotation(method, GetMapping.class)
+                ? ConcurrencyLimiter.Partition.READ
+                : ConcurrencyLimiter.Partition.WRITE;
+    }
+}
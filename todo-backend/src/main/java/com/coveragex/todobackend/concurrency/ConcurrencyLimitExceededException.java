@@ -0,0 +1,14 @@
+package com.coveragex.todobackend.concurrency;
+
+/**
+ * Thrown when a partition of the ConcurrencyLimiter is full
+ * Answered with 503 so clients back off instead of queueing on an overloaded database. Created
+ * without a stack trace: it is thrown most often exactly when the server is busiest.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(ConcurrencyLimiter.Partition partition, int limit) {
+        super("Concurrency limit of " + limit + " reached for " + partition.name().toLowerCase() + " requests",
+                null, false, false);
+    }
+}
@@ -0,0 +1,44 @@
+package com.coveragex.todobackend.concurrency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Adaptive concurrency limits, one partition for reads and one for writes
+ */
+@Data
+@ConfigurationProperties(prefix = "concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How much the recent latency may exceed the long-term baseline before the limit shrinks
+     */
+    private double tolerance = 1.5;
+
+    /**
+     * Share of each new estimate that is applied to the limit (0..1)
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Headroom added above the estimate, so the limit keeps probing for more throughput
+     */
+    private int queueSize = 4;
+
+    private Partition read = new Partition(20, 4, 200);
+
+    private Partition write = new Partition(10, 2, 100);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Partition {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+    }
+}
@@ -0,0 +1,18 @@
+package com.coveragex.todobackend.concurrency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks request handlers (or a whole controller) whose work is database-bound
+ * Each call runs under a permit of the adaptive ConcurrencyLimiter: GET handlers in the read
+ * partition, everything else in the write partition. Calls over the limit get a 503.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConcurrencyLimited {
+}
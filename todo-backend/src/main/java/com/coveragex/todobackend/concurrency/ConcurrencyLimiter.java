@@ -0,0 +1,85 @@
+package com.coveragex.todobackend.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limits for database-bound requests, with separate read and write partitions
+ * A burst of slow writes cannot take the permits reads need, and the other way round. Publishes
+ * concurrency_limit.limit, concurrency_limit.in_flight and concurrency_limit.rejected per partition.
+ */
+@Component
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimiter {
+
+    /**
+     * Kind of work a permit is taken for
+     */
+    public enum Partition {
+        READ,
+        WRITE
+    }
+
+    private final boolean enabled;
+    private final Map<Partition, GradientLimiter> limiters = new EnumMap<>(Partition.class);
+    private final Map<Partition, Counter> rejected = new EnumMap<>(Partition.class);
+
+    public ConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        for (Partition partition : Partition.values()) {
+            GradientLimiter limiter = new GradientLimiter(
+                    partition == Partition.READ ? properties.getRead() : properties.getWrite(),
+                    properties.getTolerance(), properties.getSmoothing(), properties.getQueueSize());
+            limiters.put(partition, limiter);
+
+            String tag = partition.name().toLowerCase();
+            Gauge.builder("concurrency_limit.limit", limiter, GradientLimiter::limit)
+                    .tag("partition", tag).register(meterRegistry);
+            Gauge.builder("concurrency_limit.in_flight", limiter, GradientLimiter::inFlight)
+                    .tag("partition", tag).register(meterRegistry);
+            rejected.put(partition, Counter.builder("concurrency_limit.rejected")
+                    .tag("partition", tag).register(meterRegistry));
+        }
+    }
+
+    /**
+     * Take a permit without waiting
+     * @param partition kind of work
+     * @return whether the call may proceed; if so, release() must follow
+     */
+    public boolean tryAcquire(Partition partition) {
+        if (!enabled) {
+            return true;
+        }
+        if (limiters.get(partition).tryAcquire()) {
+            return true;
+        }
+        rejected.get(partition).increment();
+        return false;
+    }
+
+    /**
+     * Return a permit taken with tryAcquire()
+     * @param partition kind of work
+     * @param rttNanos  how long the permit was held
+     * @param dropped   whether the call failed in a way that signals overload
+     */
+    public void release(Partition partition, long rttNanos, boolean dropped) {
+        if (enabled) {
+            limiters.get(partition).release(rttNanos, dropped);
+        }
+    }
+
+    /**
+     * @return the current limit of a partition
+     */
+    public int limit(Partition partition) {
+        return limiters.get(partition).limit();
+    }
+}
@@ -0,0 +1,113 @@
+package com.coveragex.todobackend.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows the latency gradient, in the style of TCP Vegas
+ *
+ * Two moving averages of the call latency are kept: a short one (the last few calls) and a
+ * long one (the baseline). While the short average stays within the tolerance of the
+ * baseline the limit grows by the queue size per estimate; when calls get slower the limit
+ * shrinks in proportion (by up to half per estimate), so throughput settles where the
+ * database is saturated but not queueing. Estimates are only taken while the limit is
+ * actually being used, and failed calls (timeouts, pool exhaustion) cut it by a tenth.
+ * Acquiring never waits: a call over the limit is refused.
+ */
+final class GradientLimiter {
+
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int queueSize;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Guarded by this
+    private double shortRtt;
+    private double longRtt;
+    private long samples;
+
+    GradientLimiter(ConcurrencyLimitProperties.Partition partition, double tolerance, double smoothing, int queueSize) {
+        this.minLimit = Math.max(1, partition.getMinLimit());
+        this.maxLimit = Math.max(minLimit, partition.getMaxLimit());
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.queueSize = queueSize;
+        this.limit = clamp(partition.getInitialLimit());
+    }
+
+    /**
+     * Take a permit if fewer calls than the limit are in flight
+     * @return whether the call may proceed; if so, release() must follow
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Return a permit and feed the call's outcome into the limit
+     * @param rttNanos how long the call held the permit
+     * @param dropped  whether the call failed in a way that signals overload
+     */
+    void release(long rttNanos, boolean dropped) {
+        int concurrent = inFlight.getAndDecrement();
+        update(Math.max(rttNanos, 1), concurrent, dropped);
+    }
+
+    private synchronized void update(long rtt, int concurrent, boolean dropped) {
+        if (dropped) {
+            limit = clamp(limit * DROP_BACKOFF);
+            return;
+        }
+
+        if (samples == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+        } else {
+            shortRtt += (rtt - shortRtt) * 2 / (SHORT_WINDOW + 1);
+            // Plain average until the long window has filled once
+            longRtt += (rtt - longRtt) / Math.min(samples + 1, (LONG_WINDOW + 1) / 2);
+        }
+        samples++;
+
+        // Latency fell well below the baseline (e.g. after a slow period): let the baseline follow
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+
+        // Too few calls in flight to tell whether a larger limit would help
+        if (concurrent < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double estimate = limit * gradient + queueSize;
+        limit = clamp(limit * (1 - smoothing) + estimate * smoothing);
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
@@ -0,0 +1,45 @@
+package com.coveragex.todobackend.controller;
+
+import com.coveragex.todobackend.dto.AccountDeletionResponse;
+import com.coveragex.todobackend.dto.ApiResponse;
+import com.coveragex.todobackend.service.AccountDeleter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for the authenticated user's account
+ * Deletion runs in the background (AccountDeleter); both endpoints return its progress.
+ */
+@RestController
+@RequestMapping("/account")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://frontend:3000"})
+public class AccountController {
+
+    private final AccountDeleter accountDeleter;
+
+    /**
+     * Delete the account with all its tasks
+     * DELETE /account
+     * Returns 202 with the job's progress; repeating the request returns the same job
+     */
+    @DeleteMapping
+    public ResponseEntity<ApiResponse<AccountDeletionResponse>> deleteAccount(Authentication authentication) {
+        AccountDeletionResponse deletion = AccountDeletionResponse.from(accountDeleter.request(authentication.getName()));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Account deletion started", deletion));
+    }
+
+    /**
+     * Get the progress of the account deletion
+     * GET /account/deletion
+     */
+    @GetMapping("/deletion")
+    public ResponseEntity<ApiResponse<AccountDeletionResponse>> getDeletion(Authentication authentication) {
+        AccountDeletionResponse deletion = AccountDeletionResponse.from(accountDeleter.progress(authentication.getName()));
+        return ResponseEntity.ok(ApiResponse.success("Account deletion progress retrieved successfully", deletion));
+    }
+}
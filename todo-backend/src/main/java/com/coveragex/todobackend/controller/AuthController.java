@@ -1,5 +1,6 @@
 package com.coveragex.todobackend.controller;
 
+import com.coveragex.todobackend.concurrency.ConcurrencyLimited;
 import com.coveragex.todobackend.dto.ApiResponse;
 import com.coveragex.todobackend.dto.AuthRequest;
 import com.coveragex.todobackend.dto.AuthResponse;
@@ -29,37 +30,27 @@ public class AuthController {
 
     /**
      * Register a new user
-     * POST /auth/register
+     * POST /auth/register (409 when the username or email is taken)
      */
     @PostMapping("/register")
+    @ConcurrencyLimited
     public ResponseEntity<ApiResponse<AuthResponse>> register(@Valid @RequestBody RegisterRequest registerRequest) {
-        try {
-            log.info("Registration attempt for username: {}", registerRequest.getUsername());
-            AuthResponse authResponse = authService.register(registerRequest);
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(ApiResponse.success("User registered successfully", authResponse));
-        } catch (RuntimeException e) {
-            log.error("Registration failed: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error(e.getMessage()));
-        }
+        log.info("Registration attempt for username: {}", registerRequest.getUsername());
+        AuthResponse authResponse = authService.register(registerRequest);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("User registered successfully", authResponse));
     }
 
     /**
      * Authenticate user login
-     * POST /auth/login
+     * POST /auth/login (401 for wrong credentials)
      */
     @PostMapping("/login")
+    @ConcurrencyLimited
     public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody AuthRequest authRequest) {
-        try {
-            log.info("Login attempt for username: {}", authRequest.getUsername());
-            AuthResponse authResponse = authService.login(authRequest);
-            return ResponseEntity.ok(ApiResponse.success("Login successful", authResponse));
-        } catch (RuntimeException e) {
-            log.error("Login failed: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(ApiResponse.error("Invalid username or password"));
-        }
+        log.info("Login attempt for username: {}", authRequest.getUsername());
+        AuthResponse authResponse = authService.login(authRequest);
+        return ResponseEntity.ok(ApiResponse.success("Login successful", authResponse));
     }
 
     /**
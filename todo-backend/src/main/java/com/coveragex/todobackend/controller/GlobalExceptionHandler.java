@@ -1,7 +1,17 @@
 package com.coveragex.todobackend.controller;
 
+import com.coveragex.todobackend.concurrency.ConcurrencyLimitExceededException;
+import com.coveragex.todobackend.deadline.DeadlineExceededException;
 import com.coveragex.todobackend.dto.ApiResponse;
+import com.coveragex.todobackend.exception.BadRequestException;
+import com.coveragex.todobackend.exception.ConflictException;
+import com.coveragex.todobackend.exception.DomainException;
+import com.coveragex.todobackend.exception.ForbiddenException;
+import com.coveragex.todobackend.exception.NotFoundException;
+import com.coveragex.todobackend.exception.UnauthorizedException;
+import com.coveragex.todobackend.shard.ShardMigrationInProgressException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -15,7 +25,9 @@ import java.util.Map;
 
 /**
  * Global exception handler for the application
- * Provides consistent error responses across all controllers
+ * Provides consistent error responses across all controllers. Expected failures (typed
+ * DomainExceptions, overload) are logged as one line without a stack trace;
+ * only unexpected errors get the full trace.
  */
 @RestControllerAdvice
 @Slf4j
@@ -46,7 +58,79 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<Void>> handleBadCredentials(BadCredentialsException ex) {
         log.error("Authentication error: {}", ex.getMessage());
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body(ApiResponse.error("Invalid credentials"));
+                .body(ApiResponse.error("Invalid username or password"));
+    }
+
+    /**
+     * Handle callers that could not be authenticated
+     */
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleUnauthorized(UnauthorizedException ex) {
+        return domainError(HttpStatus.UNAUTHORIZED, ex);
+    }
+
+    /**
+     * Handle missing tasks (or tasks of other users)
+     */
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<ApiResponse<Void>> handleNotFound(NotFoundException ex) {
+        return domainError(HttpStatus.NOT_FOUND, ex);
+    }
+
+    /**
+     * Handle authenticated callers that may not use the application
+     */
+    @ExceptionHandler(ForbiddenException.class)
+    public ResponseEntity<ApiResponse<Void>> handleForbidden(ForbiddenException ex) {
+        return domainError(HttpStatus.FORBIDDEN, ex);
+    }
+
+    /**
+     * Handle requests conflicting with existing data
+     */
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiResponse<Void>> handleConflict(ConflictException ex) {
+        return domainError(HttpStatus.CONFLICT, ex);
+    }
+
+    /**
+     * Handle invalid request values (tag filters, sync cursors, ...)
+     */
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiResponse<Void>> handleBadRequest(BadRequestException ex) {
+        return domainError(HttpStatus.BAD_REQUEST, ex);
+    }
+
+    /**
+     * Handle writes to a user whose tasks are being moved to another shard
+     */
+    @ExceptionHandler(ShardMigrationInProgressException.class)
+    public ResponseEntity<ApiResponse<Void>> handleShardMigration(ShardMigrationInProgressException ex) {
+        log.debug("Write rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error("Tasks are being moved, please retry shortly"));
+    }
+
+    /**
+     * Handle requests shed by the concurrency limiter
+     */
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ApiResponse<Void>> handleConcurrencyLimitExceeded(ConcurrencyLimitExceededException ex) {
+        log.debug("Request shed: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error("Server is busy, please retry shortly"));
+    }
+
+    /**
+     * Handle requests whose statements ran out of the request deadline
+     */
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ApiResponse<Void>> handleDeadlineExceeded(DeadlineExceededException ex) {
+        log.debug("Request timed out: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(ApiResponse.error("Request timed out, please retry"));
     }
 
     /**
@@ -68,4 +152,9 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("An unexpected error occurred"));
     }
-}
\ No newline at end of file
+
+    private static ResponseEntity<ApiResponse<Void>> domainError(HttpStatus status, DomainException ex) {
+        log.debug("{}: {}", status.value(), ex.getMessage());
+        return ResponseEntity.status(status).body(ApiResponse.error(ex.getMessage()));
+    }
+}
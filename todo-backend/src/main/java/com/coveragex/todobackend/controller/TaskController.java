@@ -1,14 +1,22 @@
 package com.coveragex.todobackend.controller;
 
+import com.coveragex.todobackend.cache.TaskResponseCache;
+import com.coveragex.todobackend.cache.TaskResponseCache.View;
+import com.coveragex.todobackend.concurrency.ConcurrencyLimited;
 import com.coveragex.todobackend.dto.ApiResponse;
+import com.coveragex.todobackend.dto.CompletionLatencyResponse;
+import com.coveragex.todobackend.dto.MoveTaskRequest;
+import com.coveragex.todobackend.dto.TaskChangesResponse;
+import com.coveragex.todobackend.dto.TaskPage;
 import com.coveragex.todobackend.dto.TaskRequest;
 import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.groupcommit.GroupCommitTaskWriter;
 import com.coveragex.todobackend.service.TaskService;
+import com.coveragex.todobackend.tagging.TagMatch;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -17,52 +25,61 @@ import java.util.List;
 
 /**
  * REST Controller for task operations
- * Handles CRUD operations for todo tasks
+ * Handles CRUD operations for todo tasks; failures are mapped to responses by GlobalExceptionHandler
+ * Task pages are written by TaskPageMessageConverter (envelope documented on TaskPage)
  */
 @RestController
 @RequestMapping("/tasks")
 @RequiredArgsConstructor
-@Slf4j
+@ConcurrencyLimited
 @CrossOrigin(origins = {"http://localhost:3000", "http://frontend:3000"})
 public class TaskController {
 
     private final TaskService taskService;
+    private final TaskResponseCache responseCache;
+    private final GroupCommitTaskWriter taskWriter;
 
     /**
      * Get recent tasks
      * GET /tasks/recent
+     * Served from the serialized response cache when the user's tasks have not changed
      */
     @GetMapping("/recent")
-    public ResponseEntity<ApiResponse<List<TaskResponse>>> getRecentTasks(Authentication authentication) {
-        try {
-            String username = authentication.getName();
+    public ResponseEntity<?> getRecentTasks(Authentication authentication) {
+        String username = authentication.getName();
+        byte[] body = responseCache.getOrLoad(username, View.RECENT, () -> {
             List<TaskResponse> tasks = taskService.getRecentTasks(username);
-            return ResponseEntity.ok(ApiResponse.success("Recent tasks retrieved successfully", tasks));
-        } catch (RuntimeException e) {
-            log.error("Failed to get recent tasks: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Failed to retrieve tasks"));
-        }
+            return ApiResponse.success("Recent tasks retrieved successfully", tasks);
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     /**
-     * Get all tasks with pagination
+     * Get all tasks with pagination, optionally filtered by tags and completed status
      * GET /tasks?page=0&size=10
+     * GET /tasks?sort=manual&page=0&size=10 (drag-and-drop order)
+     * GET /tasks?tags=work,urgent&mode=any|all&completed=false&page=0&size=10
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<Page<TaskResponse>>> getAllTasks(
+    public ResponseEntity<ApiResponse<TaskPage>> getAllTasks(
             Authentication authentication,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        try {
-            String username = authentication.getName();
-            Page<TaskResponse> tasks = taskService.getAllTasks(username, page, size);
-            return ResponseEntity.ok(ApiResponse.success("Tasks retrieved successfully", tasks));
-        } catch (RuntimeException e) {
-            log.error("Failed to get all tasks: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Failed to retrieve tasks"));
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(defaultValue = "any") String mode,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(defaultValue = "created") String sort) {
+        String username = authentication.getName();
+        TaskPage tasks;
+        if (tags != null || completed != null) {
+            tasks = taskService.getTasksByTags(username, tags, TagMatch.parse(mode),
+                    completed, page, size);
+        } else if ("manual".equals(sort)) {
+            tasks = taskService.getAllTasksInManualOrder(username, page, size);
+        } else {
+            tasks = taskService.getAllTasks(username, page, size);
         }
+        return ResponseEntity.ok(ApiResponse.success("Tasks retrieved successfully", tasks));
     }
 
     /**
@@ -73,35 +90,23 @@ public class TaskController {
     public ResponseEntity<ApiResponse<TaskResponse>> getTaskById(
             Authentication authentication,
             @PathVariable Long id) {
-        try {
-            String username = authentication.getName();
-            TaskResponse task = taskService.getTaskById(username, id);
-            return ResponseEntity.ok(ApiResponse.success("Task retrieved successfully", task));
-        } catch (RuntimeException e) {
-            log.error("Failed to get task {}: {}", id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.error("Task not found"));
-        }
+        String username = authentication.getName();
+        TaskResponse task = taskService.getTaskById(username, id);
+        return ResponseEntity.ok(ApiResponse.success("Task retrieved successfully", task));
     }
 
     /**
      * Create a new task
-     * POST /tasks
+     * POST /tasks (batched with concurrent creates in group-commit mode)
      */
     @PostMapping
     public ResponseEntity<ApiResponse<TaskResponse>> createTask(
             Authentication authentication,
             @Valid @RequestBody TaskRequest taskRequest) {
-        try {
-            String username = authentication.getName();
-            TaskResponse task = taskService.createTask(username, taskRequest);
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(ApiResponse.success("Task created successfully", task));
-        } catch (RuntimeException e) {
-            log.error("Failed to create task: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error("Failed to create task"));
-        }
+        String username = authentication.getName();
+        TaskResponse task = taskWriter.createTask(username, taskRequest);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Task created successfully", task));
     }
 
     /**
@@ -113,15 +118,23 @@ public class TaskController {
             Authentication authentication,
             @PathVariable Long id,
             @Valid @RequestBody TaskRequest taskRequest) {
-        try {
-            String username = authentication.getName();
-            TaskResponse task = taskService.updateTask(username, id, taskRequest);
-            return ResponseEntity.ok(ApiResponse.success("Task updated successfully", task));
-        } catch (RuntimeException e) {
-            log.error("Failed to update task {}: {}", id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.error("Task not found or update failed"));
-        }
+        String username = authentication.getName();
+        TaskResponse task = taskService.updateTask(username, id, taskRequest);
+        return ResponseEntity.ok(ApiResponse.success("Task updated successfully", task));
+    }
+
+    /**
+     * Move a task in the manual order
+     * PUT /tasks/{id}/move
+     */
+    @PutMapping("/{id}/move")
+    public ResponseEntity<ApiResponse<TaskResponse>> moveTask(
+            Authentication authentication,
+            @PathVariable Long id,
+            @RequestBody MoveTaskRequest moveRequest) {
+        String username = authentication.getName();
+        TaskResponse task = taskService.moveTask(username, id, moveRequest.getAfterId());
+        return ResponseEntity.ok(ApiResponse.success("Task moved successfully", task));
     }
 
     /**
@@ -132,15 +145,9 @@ public class TaskController {
     public ResponseEntity<ApiResponse<TaskResponse>> markTaskAsCompleted(
             Authentication authentication,
             @PathVariable Long id) {
-        try {
-            String username = authentication.getName();
-            TaskResponse task = taskService.markTaskAsCompleted(username, id);
-            return ResponseEntity.ok(ApiResponse.success("Task marked as completed", task));
-        } catch (RuntimeException e) {
-            log.error("Failed to mark task {} as completed: {}", id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.error("Task not found"));
-        }
+        String username = authentication.getName();
+        TaskResponse task = taskService.markTaskAsCompleted(username, id);
+        return ResponseEntity.ok(ApiResponse.success("Task marked as completed", task));
     }
 
     /**
@@ -151,15 +158,9 @@ public class TaskController {
     public ResponseEntity<ApiResponse<TaskResponse>> markTaskAsPending(
             Authentication authentication,
             @PathVariable Long id) {
-        try {
-            String username = authentication.getName();
-            TaskResponse task = taskService.markTaskAsPending(username, id);
-            return ResponseEntity.ok(ApiResponse.success("Task marked as pending", task));
-        } catch (RuntimeException e) {
-            log.error("Failed to mark task {} as pending: {}", id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.error("Task not found"));
-        }
+        String username = authentication.getName();
+        TaskResponse task = taskService.markTaskAsPending(username, id);
+        return ResponseEntity.ok(ApiResponse.success("Task marked as pending", task));
     }
 
     /**
@@ -170,15 +171,22 @@ public class TaskController {
     public ResponseEntity<ApiResponse<Void>> deleteTask(
             Authentication authentication,
             @PathVariable Long id) {
-        try {
-            String username = authentication.getName();
-            taskService.deleteTask(username, id);
-            return ResponseEntity.ok(ApiResponse.success("Task deleted successfully", null));
-        } catch (RuntimeException e) {
-            log.error("Failed to delete task {}: {}", id, e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.error("Task not found"));
-        }
+        String username = authentication.getName();
+        taskService.deleteTask(username, id);
+        return ResponseEntity.ok(ApiResponse.success("Task deleted successfully", null));
+    }
+
+    /**
+     * Restore a deleted task (undo, until the task is purged)
+     * PUT /tasks/{id}/restore
+     */
+    @PutMapping("/{id}/restore")
+    public ResponseEntity<ApiResponse<TaskResponse>> restoreTask(
+            Authentication authentication,
+            @PathVariable Long id) {
+        String username = authentication.getName();
+        TaskResponse task = taskService.restoreTask(username, id);
+        return ResponseEntity.ok(ApiResponse.success("Task restored successfully", task));
     }
 
     /**
@@ -186,36 +194,81 @@ public class TaskController {
      * GET /tasks/search?q=searchTerm&page=0&size=10
      */
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<Page<TaskResponse>>> searchTasks(
+    public ResponseEntity<ApiResponse<TaskPage>> searchTasks(
             Authentication authentication,
             @RequestParam("q") String searchTerm,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        try {
-            String username = authentication.getName();
-            Page<TaskResponse> tasks = taskService.searchTasks(username, searchTerm, page, size);
-            return ResponseEntity.ok(ApiResponse.success("Search completed successfully", tasks));
-        } catch (RuntimeException e) {
-            log.error("Failed to search tasks: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Search failed"));
-        }
+        String username = authentication.getName();
+        TaskPage tasks = taskService.searchTasks(username, searchTerm, page, size);
+        return ResponseEntity.ok(ApiResponse.success("Search completed successfully", tasks));
+    }
+
+    /**
+     * Get incomplete tasks due soon
+     * GET /tasks/due-soon?hours=24&limit=50
+     */
+    @GetMapping("/due-soon")
+    public ResponseEntity<ApiResponse<List<TaskResponse>>> getDueSoonTasks(
+            Authentication authentication,
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(defaultValue = "50") int limit) {
+        String username = authentication.getName();
+        List<TaskResponse> tasks = taskService.getDueSoonTasks(username, hours, limit);
+        return ResponseEntity.ok(ApiResponse.success("Tasks due soon retrieved successfully", tasks));
+    }
+
+    /**
+     * Get tasks created, updated, completed or deleted since a sync cursor
+     * GET /tasks/changes?since=<cursor>&limit=100
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<TaskChangesResponse>> getTaskChanges(
+            Authentication authentication,
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") int limit) {
+        String username = authentication.getName();
+        TaskChangesResponse changes = taskService.getChangesSince(username, since, limit);
+        return ResponseEntity.ok(ApiResponse.success("Task changes retrieved successfully", changes));
+    }
+
+    /**
+     * Get archived task history (old completed tasks moved out of the active list)
+     * GET /tasks/history?page=0&size=10
+     */
+    @GetMapping("/history")
+    public ResponseEntity<ApiResponse<TaskPage>> getTaskHistory(
+            Authentication authentication,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        String username = authentication.getName();
+        TaskPage tasks = taskService.getTaskHistory(username, page, size);
+        return ResponseEntity.ok(ApiResponse.success("Task history retrieved successfully", tasks));
     }
 
     /**
      * Get task statistics
      * GET /tasks/stats
+     * Served from the serialized response cache when the user's tasks have not changed
      */
     @GetMapping("/stats")
-    public ResponseEntity<ApiResponse<TaskService.TaskStatsResponse>> getTaskStats(Authentication authentication) {
-        try {
-            String username = authentication.getName();
+    public ResponseEntity<?> getTaskStats(Authentication authentication) {
+        String username = authentication.getName();
+        byte[] body = responseCache.getOrLoad(username, View.STATS, () -> {
             TaskService.TaskStatsResponse stats = taskService.getTaskStats(username);
-            return ResponseEntity.ok(ApiResponse.success("Statistics retrieved successfully", stats));
-        } catch (RuntimeException e) {
-            log.error("Failed to get task stats: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(ApiResponse.error("Failed to retrieve statistics"));
-        }
+            return ApiResponse.success("Statistics retrieved successfully", stats);
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Get time-to-complete quantiles (p50/p90/p99)
+     * GET /tasks/stats/latency
+     */
+    @GetMapping("/stats/latency")
+    public ResponseEntity<ApiResponse<CompletionLatencyResponse>> getCompletionLatency(Authentication authentication) {
+        String username = authentication.getName();
+        CompletionLatencyResponse latency = taskService.getCompletionLatency(username);
+        return ResponseEntity.ok(ApiResponse.success("Completion latency retrieved successfully", latency));
     }
 }
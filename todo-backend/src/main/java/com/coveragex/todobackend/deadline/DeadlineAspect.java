@@ -0,0 +1,85 @@
+package com.coveragex.todobackend.deadline;
+
+import com.coveragex.todobackend.exception.BadRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Runs each REST handler under a RequestDeadline
+ * The budget comes from the deadline header (capped at max-timeout-ms), else from the
+ * handler's entry in deadline.endpoints, else the default. Ordered just inside the
+ * concurrency limiter, so a timed-out call counts as dropped there. Statements that time out
+ * become a DeadlineExceededException (504) and are counted in
+ * request.deadline.exceeded{endpoint}.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class DeadlineAspect {
+
+    private final DeadlineProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public DeadlineAspect(DeadlineProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController) && execution(public * *(..))")
+    public Object withDeadline(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (RequestDeadline.current() != null) {
+            return joinPoint.proceed();
+        }
+        String endpoint = joinPoint.getSignature().getName();
+        RequestDeadline deadline = new RequestDeadline(endpoint, budgetMillis(endpoint));
+
+        RequestDeadline previous = RequestDeadline.bind(deadline);
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            if (!RequestDeadline.isTimeout(t)) {
+                throw t;
+            }
+            Counter.builder("request.deadline.exceeded")
+                    .description("Requests whose statements ran out of the request deadline")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry)
+                    .increment();
+            throw new DeadlineExceededException(endpoint, deadline.budgetMillis());
+        } finally {
+            RequestDeadline.restore(previous);
+        }
+    }
+
+    private long budgetMillis(String endpoint) {
+        String requested = requestedBudget();
+        if (requested != null) {
+            long budget;
+            try {
+                budget = Long.parseLong(requested.trim());
+            } catch (NumberFormatException e) {
+                budget = -1;
+            }
+            if (budget <= 0) {
+                throw new BadRequestException(properties.getHeader() + " must be a positive number of milliseconds");
+            }
+            return Math.min(budget, properties.getMaxTimeoutMs());
+        }
+        return properties.getEndpoints().getOrDefault(endpoint, properties.getDefaultTimeoutMs());
+    }
+
+    private String requestedBudget() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            return request.getHeader(properties.getHeader());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.coveragex.todobackend.deadline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Request deadline configuration
+ * With deadline.enabled the application DataSource (the shard router when sharded) is wrapped
+ * in a DeadlineDataSource, and REST handlers run under DeadlineAspect. The wrapper is applied
+ * after ordered post-processors, so it is the outermost one.
+ */
+@Configuration
+@EnableConfigurationProperties(DeadlineProperties.class)
+@ConditionalOnProperty(name = "deadline.enabled", havingValue = "true", matchIfMissing = true)
+public class DeadlineConfig {
+
+    @Bean
+    public DeadlineAspect deadlineAspect(DeadlineProperties properties, MeterRegistry meterRegistry) {
+        return new DeadlineAspect(properties, meterRegistry);
+    }
+
+    @Bean
+    static BeanPostProcessor deadlineDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof DeadlineDataSource)
+                        ? new DeadlineDataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package com.coveragex.todobackend.deadline;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+
+/**
+ * DataSource that runs every statement of a request within the request's deadline
+ *
+ * Connections taken while a RequestDeadline is bound hand out statements that, on each
+ * execute, get the remaining budget as their JDBC query timeout (whole seconds, rounded up),
+ * so the driver cancels them on the server once it is spent. A statement about to start
+ * after the deadline, or a connection asked for after it, fails with SQLTimeoutException
+ * instead. Connections taken without a deadline are returned unwrapped.
+ */
+public class DeadlineDataSource extends DelegatingDataSource {
+
+    public DeadlineDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        checkNotExpired();
+        return guard(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        checkNotExpired();
+        return guard(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection guard(Connection connection) throws SQLException {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null) {
+            return connection;
+        }
+        if (deadline.isExpired()) {
+            // Spent waiting for the pool
+            connection.close();
+            throw expired(deadline);
+        }
+        return proxy(Connection.class, new GuardedConnection(connection));
+    }
+
+    private static void checkNotExpired() throws SQLTimeoutException {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            throw expired(deadline);
+        }
+    }
+
+    private static SQLTimeoutException expired(RequestDeadline deadline) {
+        return new SQLTimeoutException("Deadline of " + deadline.budgetMillis() + " ms for "
+                + deadline.endpoint() + " exceeded");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(DeadlineDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Wraps the statements it creates and clears the query timeout again before going back to
+     * the pool (H2 keeps it per session, not per statement)
+     */
+    private static final class GuardedConnection implements InvocationHandler {
+
+        private final Connection target;
+        private boolean timeoutApplied;
+
+        GuardedConnection(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    try {
+                        clearTimeout();
+                    } finally {
+                        target.close();
+                    }
+                    return null;
+                default:
+                    break;
+            }
+            Object result = DeadlineDataSource.invoke(method, target, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return proxy(method.getReturnType(), new GuardedStatement(this, statement));
+            }
+            return result;
+        }
+
+        void applyTimeout(Statement statement) throws SQLException {
+            RequestDeadline deadline = RequestDeadline.current();
+            if (deadline == null) {
+                return;
+            }
+            long remaining = deadline.remainingMillis();
+            if (remaining <= 0) {
+                throw expired(deadline);
+            }
+            statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, (remaining + 999) / 1000));
+            timeoutApplied = true;
+        }
+
+        private void clearTimeout() throws SQLException {
+            if (timeoutApplied && !target.isClosed()) {
+                try (Statement statement = target.createStatement()) {
+                    statement.setQueryTimeout(0);
+                }
+                timeoutApplied = false;
+            }
+        }
+    }
+
+    /**
+     * Applies the remaining budget before every execute call
+     */
+    private record GuardedStatement(GuardedConnection connection, Statement target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.startsWith("execute")) {
+                connection.applyTimeout(target);
+            }
+            return DeadlineDataSource.invoke(method, target, args);
+        }
+    }
+}
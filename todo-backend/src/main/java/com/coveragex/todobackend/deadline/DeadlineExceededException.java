@@ -0,0 +1,13 @@
+package com.coveragex.todobackend.deadline;
+
+/**
+ * Thrown when a request's statements ran out of its deadline
+ * Answered with 504. Created without a stack trace, like the overload exceptions: it is
+ * thrown most often when the database is slowest.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String endpoint, long budgetMillis) {
+        super("Deadline of " + budgetMillis + " ms exceeded for " + endpoint, null, false, false);
+    }
+}
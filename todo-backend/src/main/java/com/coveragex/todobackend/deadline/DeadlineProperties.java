@@ -0,0 +1,37 @@
+package com.coveragex.todobackend.deadline;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Request deadlines: the budget a call may spend, most of it in the database
+ */
+@Data
+@ConfigurationProperties(prefix = "deadline")
+public class DeadlineProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Request header with the caller's budget in milliseconds; overrides the endpoint default
+     */
+    private String header = "X-Request-Timeout-Ms";
+
+    /**
+     * Budget of handlers without an entry in endpoints
+     */
+    private long defaultTimeoutMs = 5000;
+
+    /**
+     * Upper bound on budgets asked for in the header
+     */
+    private long maxTimeoutMs = 30000;
+
+    /**
+     * Budget per handler method name (getAllTasks, searchTasks, ...)
+     */
+    private Map<String, Long> endpoints = new HashMap<>();
+}
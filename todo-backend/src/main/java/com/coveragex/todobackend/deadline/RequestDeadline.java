@@ -0,0 +1,93 @@
+package com.coveragex.todobackend.deadline;
+
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Time budget of the request the current thread is serving
+ * Bound by DeadlineAspect around each handler and carried with the thread through
+ * TaskService into the repositories, where DeadlineDataSource turns the remaining budget
+ * into each statement's query timeout. No deadline means no limit (background jobs).
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private final long budgetMillis;
+    private final long expiresAtNanos;
+
+    RequestDeadline(String endpoint, long budgetMillis) {
+        this.endpoint = endpoint;
+        this.budgetMillis = budgetMillis;
+        this.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    /**
+     * @return the deadline bound to this thread, or null when there is none
+     */
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run work within a budget, restoring the previous binding afterwards
+     */
+    public static <T> T callWithin(String endpoint, long budgetMillis, Supplier<T> work) {
+        RequestDeadline previous = bind(new RequestDeadline(endpoint, budgetMillis));
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * @return true if the failure is a statement that timed out or was refused for lack of time
+     */
+    public static boolean isTimeout(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Handler method the budget belongs to
+     */
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public long budgetMillis() {
+        return budgetMillis;
+    }
+
+    /**
+     * @return milliseconds left, zero or negative once the budget is spent
+     */
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    static RequestDeadline bind(RequestDeadline deadline) {
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        return previous;
+    }
+
+    static void restore(RequestDeadline previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.coveragex.todobackend.dto;
+
+import com.coveragex.todobackend.repository.AccountDeletionRepository.AccountDeletion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for DELETE /account and GET /account/deletion: progress of an account deletion
+ * Rows count tasks, archived tasks, change log entries and the user; totalRows and percent
+ * are null until the job has counted them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountDeletionResponse {
+
+    private String state;
+    // Table being emptied, null before the first batch
+    private String currentTable;
+    private long deletedRows;
+    private Long totalRows;
+    private Integer percent;
+    private LocalDateTime requestedAt;
+    private LocalDateTime completedAt;
+
+    public static AccountDeletionResponse from(AccountDeletion deletion) {
+        Integer percent = null;
+        if (deletion.state() == AccountDeletion.State.COMPLETED) {
+            percent = 100;
+        } else if (deletion.totalRows() != null && deletion.totalRows() > 0) {
+            // Rows added after counting can take it past the total; 100 means done
+            percent = (int) Math.min(99, deletion.deletedRows() * 100 / deletion.totalRows());
+        }
+        return new AccountDeletionResponse(deletion.state().name(), deletion.currentTable(),
+                deletion.deletedRows(), deletion.totalRows(), percent,
+                deletion.requestedAt(), deletion.completedAt());
+    }
+}
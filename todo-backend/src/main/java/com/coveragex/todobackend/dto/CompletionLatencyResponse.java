@@ -0,0 +1,32 @@
+package com.coveragex.todobackend.dto;
+
+import com.coveragex.todobackend.analytics.QuantileSketch;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for GET /tasks/stats/latency: time from creation to completion of a user's tasks
+ * Quantiles are in milliseconds, within 1% of the exact value, and null until a task is completed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompletionLatencyResponse {
+
+    // Completions measured
+    private long completed;
+    private Long p50Ms;
+    private Long p90Ms;
+    private Long p99Ms;
+
+    public static CompletionLatencyResponse fromSketch(QuantileSketch sketch) {
+        if (sketch.count() == 0) {
+            return new CompletionLatencyResponse(0, null, null, null);
+        }
+        return new CompletionLatencyResponse(sketch.count(),
+                Math.round(sketch.quantile(0.5)),
+                Math.round(sketch.quantile(0.9)),
+                Math.round(sketch.quantile(0.99)));
+    }
+}
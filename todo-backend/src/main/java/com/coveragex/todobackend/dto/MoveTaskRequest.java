@@ -0,0 +1,17 @@
+package com.coveragex.todobackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for moving a task in the manual order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveTaskRequest {
+
+    // The task to place the moved task after, null to move it to the top
+    private Long afterId;
+}
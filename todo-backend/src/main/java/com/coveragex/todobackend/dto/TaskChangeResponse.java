@@ -0,0 +1,24 @@
+package com.coveragex.todobackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one entry of an incremental sync: the latest change to a task and its current state
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskChangeResponse {
+
+    private Long taskId;
+    private String type;
+    private LocalDateTime changedAt;
+    // Tombstone: the task was deleted or archived, the client should drop it
+    private boolean deleted;
+    // Current state of the task, null for tombstones
+    private TaskResponse task;
+}
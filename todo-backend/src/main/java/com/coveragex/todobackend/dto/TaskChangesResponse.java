@@ -0,0 +1,24 @@
+package com.coveragex.todobackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for GET /tasks/changes
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskChangesResponse {
+
+    // Pass as ?since= on the next call
+    private String cursor;
+    // The cursor could not be resumed: reload all tasks, then continue from the new cursor
+    private boolean reset;
+    // More changes are available right away
+    private boolean hasMore;
+    private List<TaskChangeResponse> changes;
+}
@@ -0,0 +1,88 @@
+package com.coveragex.todobackend.dto;
+
+import com.coveragex.todobackend.entity.ArchivedTask;
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.json.TaskPageJsonWriter;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of tasks as returned by the listing endpoints (GET /tasks, /tasks/search, /tasks/history)
+ *
+ * Holds the task rows the query returned; TaskPageJsonWriter writes them straight to the
+ * response, with this envelope:
+ * <pre>
+ * {"content": [TaskResponse...], "page": 0, "size": 10, "totalElements": 42, "totalPages": 5}
+ * </pre>
+ * page is 0-based and size is the requested page size. getContent() maps the rows to
+ * TaskResponse DTOs for callers other than the HTTP layer.
+ */
+@JsonSerialize(using = TaskPageJsonWriter.Serializer.class)
+public final class TaskPage {
+
+    // Task or ArchivedTask entities, detached
+    private final List<?> rows;
+    private final int page;
+    private final int size;
+    private final long totalElements;
+
+    private TaskPage(List<?> rows, int page, int size, long totalElements) {
+        this.rows = rows;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+    }
+
+    public static TaskPage of(Page<Task> tasks) {
+        return new TaskPage(tasks.getContent(), tasks.getNumber(), tasks.getSize(), tasks.getTotalElements());
+    }
+
+    public static TaskPage of(List<Task> tasks, Pageable pageable, long totalElements) {
+        return new TaskPage(tasks, pageable.getPageNumber(), pageable.getPageSize(), totalElements);
+    }
+
+    public static TaskPage ofArchived(Page<ArchivedTask> tasks) {
+        return new TaskPage(tasks.getContent(), tasks.getNumber(), tasks.getSize(), tasks.getTotalElements());
+    }
+
+    /**
+     * The rows of this page, Task or ArchivedTask entities
+     */
+    public List<?> rows() {
+        return rows;
+    }
+
+    public List<TaskResponse> getContent() {
+        List<TaskResponse> content = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            content.add(row instanceof ArchivedTask archived
+                    ? TaskResponse.fromArchived(archived)
+                    : TaskResponse.fromEntity((Task) row));
+        }
+        return content;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public int getTotalPages() {
+        return size == 0 ? 1 : (int) Math.ceil((double) totalElements / size);
+    }
+
+    public boolean isEmpty() {
+        return rows.isEmpty();
+    }
+}
@@ -6,6 +6,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * DTO for creating/updating tasks
  */
@@ -20,4 +23,18 @@ public class TaskRequest {
 
     @Size(max = 1000, message = "Description must be less than 1000 characters")
     private String description;
+
+    // Optional; both are cleared when omitted on update
+    private LocalDateTime dueAt;
+
+    private LocalDateTime remindAt;
+
+    // Optional labels; replaced as a whole on update
+    @Size(max = 10, message = "A task can have at most 10 tags")
+    private List<String> tags;
+
+    public TaskRequest(String title, String description) {
+        this.title = title;
+        this.description = description;
+    }
 }
\ No newline at end of file
@@ -1,11 +1,13 @@
 package com.coveragex.todobackend.dto;
 
+import com.coveragex.todobackend.entity.ArchivedTask;
 import com.coveragex.todobackend.entity.Task;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * DTO for task responses
@@ -20,8 +22,12 @@ public class TaskResponse {
     private String title;
     private String description;
     private Boolean completed;
+    private LocalDateTime dueAt;
+    private LocalDateTime remindAt;
+    private List<String> tags;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
 
     /**
      * Convert Task entity to TaskResponse DTO
@@ -33,8 +39,30 @@ public class TaskResponse {
                 task.getTitle(),
                 task.getDescription(),
                 task.getCompleted(),
+                task.getDueAt(),
+                task.getRemindAt(),
+                task.getTags(),
                 task.getCreatedAt(),
-                task.getUpdatedAt()
+                task.getUpdatedAt(),
+                task.getCompletedAt()
+        );
+    }
+
+    /**
+     * Convert an archived task to TaskResponse DTO (archived tasks are always completed)
+     */
+    public static TaskResponse fromArchived(ArchivedTask task) {
+        return new TaskResponse(
+                task.getId(),
+                task.getTitle(),
+                task.getDescription(),
+                true,
+                null,
+                null,
+                List.of(),
+                task.getCreatedAt(),
+                task.getUpdatedAt(),
+                task.getCompletedAt()
         );
     }
 }
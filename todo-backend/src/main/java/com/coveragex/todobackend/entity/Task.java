@@ -7,18 +7,26 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 /**
  * Task entity representing todo tasks in the system.
  * This follows JPA best practices with proper validation and relationships.
+ * Deleted tasks stay in the table as tombstones (deleted_at set) until TaskPurger removes them;
+ * the restriction hides them from every query and association load.
  */
 @Entity
 @Table(name = "tasks")
+@SQLDelete(sql = "UPDATE tasks SET deleted_at = CURRENT_TIMESTAMP WHERE id = ?")
+@SQLRestriction("deleted_at IS NULL")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -54,6 +62,30 @@ public class Task {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // When the task was last marked completed, null while it is pending
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "due_at")
+    private LocalDateTime dueAt;
+
+    // When ReminderScheduler should fire a reminder, null for none
+    @Column(name = "remind_at")
+    private LocalDateTime remindAt;
+
+    // Normalized labels (see Tags), filtered through TagIndex
+    @Convert(converter = TagListConverter.class)
+    @Column(name = "tags", length = 500)
+    private List<String> tags = List.of();
+
+    // Position in the user's manual order (see RankKeys)
+    @Column(name = "rank_key", length = 64)
+    private String rankKey;
+
+    // Tombstone timestamp, null for live tasks
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     // Constructor for creating new tasks
     public Task(String title, String description, User user) {
         this.title = title;
@@ -62,13 +94,18 @@ public class Task {
         this.completed = false;
     }
 
-    // Business method to mark task as completed
+    // Business method to mark task as completed (completing it again keeps the first time)
     public void markAsCompleted() {
+        if (!Boolean.TRUE.equals(this.completed)) {
+            // Millisecond precision, as stored
+            this.completedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        }
         this.completed = true;
     }
 
     // Business method to mark task as pending
     public void markAsPending() {
         this.completed = false;
+        this.completedAt = null;
     }
 }
\ No newline at end of file
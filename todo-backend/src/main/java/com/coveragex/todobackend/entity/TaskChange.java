@@ -0,0 +1,44 @@
+package com.coveragex.todobackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry in a user's append-only task change log (see TaskChangeLog).
+ * Rows are never updated; TaskChangeCompactor deletes the ones no client needs anymore.
+ */
+@Entity
+@Table(name = "task_changes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    // A TaskChangedEvent.ChangeType name
+    @Column(name = "change_type", nullable = false, length = 16)
+    private String changeType;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public TaskChange(Long userId, Long taskId, String changeType, LocalDateTime changedAt) {
+        this.userId = userId;
+        this.taskId = taskId;
+        this.changeType = changeType;
+        this.changedAt = changedAt;
+    }
+}
@@ -54,8 +54,9 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    // One-to-many relationship with tasks
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    // One-to-many relationship with tasks; deleting a user leaves them to the foreign key
+    // (ON DELETE CASCADE) rather than loading them, see AccountDeleter
+    @OneToMany(mappedBy = "user", fetch = FetchType.LAZY)
     private List<Task> tasks;
 
     // Constructor without password for security
@@ -0,0 +1,43 @@
+package com.coveragex.todobackend.event;
+
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs work once the current transaction commits, or right away outside a transaction
+ * Used to apply a write to in-memory state (tag bitmaps, recent tasks, completion sketches,
+ * the reminder wheel) and to tell other nodes about it only once it is durable; work
+ * registered by a transaction that rolls back never runs.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        run(Ordered.LOWEST_PRECEDENCE, action);
+    }
+
+    /**
+     * @param order position among the transaction's after-commit work, lowest first
+     * @param action the work
+     */
+    public static void run(int order, Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    return order;
+                }
+
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
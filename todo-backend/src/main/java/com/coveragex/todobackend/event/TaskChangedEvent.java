@@ -0,0 +1,34 @@
+package com.coveragex.todobackend.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Domain event published by TaskService after every task mutation
+ * Listeners use it to keep derived state (caches, indexes) in sync with the tasks table
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString
+public class TaskChangedEvent {
+
+    private final String username;
+    private final Long userId;
+    // Null for bulk changes that affect several tasks of the user
+    private final Long taskId;
+    private final ChangeType type;
+
+    /**
+     * Kind of mutation that produced the event
+     */
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        COMPLETED,
+        REOPENED,
+        DELETED,
+        RESTORED,
+        ARCHIVED
+    }
+}
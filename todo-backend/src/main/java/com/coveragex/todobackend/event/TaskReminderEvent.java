@@ -0,0 +1,23 @@
+package com.coveragex.todobackend.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by ReminderScheduler when a task's reminder time is reached
+ * Notification channels listen for it; the task was re-read and is still incomplete
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString
+public class TaskReminderEvent {
+
+    private final Long userId;
+    private final Long taskId;
+    private final String title;
+    private final LocalDateTime dueAt;
+    private final LocalDateTime remindAt;
+}
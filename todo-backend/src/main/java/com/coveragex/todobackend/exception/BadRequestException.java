@@ -0,0 +1,11 @@
+package com.coveragex.todobackend.exception;
+
+/**
+ * Thrown when a request carries an invalid value, e.g. a malformed tag or sync cursor (400)
+ */
+public class BadRequestException extends DomainException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
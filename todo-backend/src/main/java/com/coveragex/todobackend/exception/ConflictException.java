@@ -0,0 +1,11 @@
+package com.coveragex.todobackend.exception;
+
+/**
+ * Thrown when a request conflicts with existing data, e.g. a username that is already taken (409)
+ */
+public class ConflictException extends DomainException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.coveragex.todobackend.exception;
+
+/**
+ * Base of the expected failures of a request (missing task, taken username, ...)
+ * These are answered by GlobalExceptionHandler with a 4xx and a one-line log entry, so they
+ * are created without a stack trace: bad ids from scanners or stale clients cost no more
+ * than a successful lookup.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
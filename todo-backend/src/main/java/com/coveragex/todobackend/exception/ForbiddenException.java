@@ -0,0 +1,11 @@
+package com.coveragex.todobackend.exception;
+
+/**
+ * Thrown when an authenticated caller may not use the application, e.g. its account is gone (403)
+ */
+public class ForbiddenException extends DomainException {
+
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.coveragex.todobackend.exception;
+
+/**
+ * Thrown when the requested resource does not exist or belongs to another user (404)
+ * Both cases look the same to the client, so ids of other users' tasks cannot be probed.
+ */
+public class NotFoundException extends DomainException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+
+    public static NotFoundException task() {
+        return new NotFoundException("Task not found or access denied");
+    }
+}
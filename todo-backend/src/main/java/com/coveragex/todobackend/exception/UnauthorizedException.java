@@ -0,0 +1,11 @@
+package com.coveragex.todobackend.exception;
+
+/**
+ * Thrown when a caller could not be authenticated, e.g. its token is invalid or expired (401)
+ */
+public class UnauthorizedException extends DomainException {
+
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,239 @@
+package com.coveragex.todobackend.groupcommit;
+
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.service.TaskService;
+import com.coveragex.todobackend.service.TaskService.NewTask;
+import com.coveragex.todobackend.shard.ShardContext;
+import com.coveragex.todobackend.shard.ShardMigrationInProgressException;
+import com.coveragex.todobackend.shard.ShardRouter;
+import com.coveragex.todobackend.tagging.Tags;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write path for task creation, optionally with group commit
+ *
+ * With group-commit.enabled, creates are queued to one writer thread instead of each running
+ * its own transaction. The writer collects a micro-batch (up to max-batch-size creates, waiting
+ * at most max-delay-ms after the first) and writes each shard's part with one multi-row
+ * INSERT in one transaction, so a burst pays for one commit instead of one per task. Every
+ * caller waits for its own task. If a batch fails, its creates are retried one by one so a
+ * bad request only fails itself. Placements are checked again when the batch is written, so a
+ * user whose move began while a create was queued gets ShardMigrationInProgressException, as
+ * on the direct path. Otherwise, and whenever the queue is full or the writer is not running,
+ * a create goes straight to TaskService.
+ */
+@Component
+@Slf4j
+public class GroupCommitTaskWriter {
+
+    private final TaskService taskService;
+    private final ShardRouter shardRouter;
+
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long timeoutMillis;
+    private final BlockingQueue<PendingCreate> queue;
+    private final DistributionSummary batchSizes;
+    private final Counter directWrites;
+    private final Counter retriedBatches;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public GroupCommitTaskWriter(TaskService taskService,
+                                 ShardRouter shardRouter,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${group-commit.enabled:false}") boolean enabled,
+                                 @Value("${group-commit.max-batch-size:64}") int maxBatchSize,
+                                 @Value("${group-commit.max-delay-ms:2}") long maxDelayMillis,
+                                 @Value("${group-commit.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${group-commit.timeout-ms:30000}") long timeoutMillis) {
+        this.taskService = taskService;
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.timeoutMillis = timeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSizes = DistributionSummary.builder("group_commit.batch_size")
+                .description("Creates written per group commit")
+                .register(meterRegistry);
+        this.directWrites = Counter.builder("group_commit.direct")
+                .description("Creates written on their own because the queue was full or the writer stopped")
+                .register(meterRegistry);
+        this.retriedBatches = Counter.builder("group_commit.retried_batches").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "group-commit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(timeoutMillis);
+        }
+        // Creates that arrived after the last batch fail; their callers get a 500
+        for (PendingCreate pending = queue.poll(); pending != null; pending = queue.poll()) {
+            pending.result().completeExceptionally(new IllegalStateException("Group commit writer stopped"));
+        }
+    }
+
+    /**
+     * Create a task, through the group-commit writer when it is running
+     * @param username    the username
+     * @param taskRequest task details
+     * @return created task
+     */
+    public TaskResponse createTask(String username, TaskRequest taskRequest) {
+        if (!running) {
+            return taskService.createTask(username, taskRequest);
+        }
+        // Reject bad input here, not as a failed batch
+        Tags.normalize(taskRequest.getTags());
+
+        Long userId = shardRouter.userIdFor(username);
+        if (userId == null) {
+            // Let TaskService report the unknown user
+            return taskService.createTask(username, taskRequest);
+        }
+        ShardRouter.Placement placement = shardRouter.placement(userId);
+        if (placement.moving()) {
+            throw new ShardMigrationInProgressException(username);
+        }
+
+        PendingCreate pending = new PendingCreate(userId, new NewTask(username, taskRequest), new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            directWrites.increment();
+            return taskService.createTask(username, taskRequest);
+        }
+        return await(pending.result());
+    }
+
+    private TaskResponse await(CompletableFuture<TaskResponse> result) {
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Group commit failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Group commit did not finish within " + timeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit");
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                // stop() was called; flush what was collected
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Wait for a first create, then gather more until the batch is full or max-delay has passed
+     */
+    private void collect(List<PendingCreate> batch) throws InterruptedException {
+        PendingCreate first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingCreate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingCreate> batch) {
+        batchSizes.record(batch.size());
+        Map<Integer, List<PendingCreate>> byShard = new LinkedHashMap<>();
+        for (PendingCreate pending : batch) {
+            // The user may have started moving while the create was queued
+            ShardRouter.Placement placement = shardRouter.placement(pending.userId());
+            if (placement.moving()) {
+                pending.result().completeExceptionally(
+                        new ShardMigrationInProgressException(pending.newTask().username()));
+                continue;
+            }
+            byShard.computeIfAbsent(placement.shard(), shard -> new ArrayList<>()).add(pending);
+        }
+
+        byShard.forEach((shard, creates) -> {
+            List<NewTask> newTasks = creates.stream().map(PendingCreate::newTask).toList();
+            try {
+                List<TaskResponse> created = ShardContext.callIn(shard, () -> taskService.createTasks(newTasks));
+                for (int i = 0; i < creates.size(); i++) {
+                    creates.get(i).result().complete(created.get(i));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Group commit of {} tasks on shard {} failed, creating them one by one: {}",
+                        creates.size(), shard, e.getMessage());
+                retriedBatches.increment();
+                creates.forEach(this::createAlone);
+            }
+        });
+    }
+
+    private void createAlone(PendingCreate pending) {
+        try {
+            NewTask newTask = pending.newTask();
+            pending.result().complete(taskService.createTask(newTask.username(), newTask.request()));
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private record PendingCreate(long userId, NewTask newTask, CompletableFuture<TaskResponse> result) {
+    }
+}
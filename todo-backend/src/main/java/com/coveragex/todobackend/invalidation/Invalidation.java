@@ -0,0 +1,31 @@
+package com.coveragex.todobackend.invalidation;
+
+/**
+ * Message telling other nodes that their cached state for a user is stale
+ * Delivered on receiving nodes as an application event.
+ *
+ * @param kind     what changed
+ * @param username the user, or null when only the id is known
+ * @param userId   the user id
+ */
+public record Invalidation(Kind kind, String username, Long userId) {
+
+    public enum Kind {
+        /**
+         * The user's tasks changed (lists, stats, ...)
+         */
+        TASKS,
+        /**
+         * The user record or its shard placement changed
+         */
+        USER
+    }
+
+    public static Invalidation tasks(String username, Long userId) {
+        return new Invalidation(Kind.TASKS, username, userId);
+    }
+
+    public static Invalidation user(String username, Long userId) {
+        return new Invalidation(Kind.USER, username, userId);
+    }
+}
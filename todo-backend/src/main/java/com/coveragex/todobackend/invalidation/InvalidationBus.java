@@ -0,0 +1,26 @@
+package com.coveragex.todobackend.invalidation;
+
+import com.coveragex.todobackend.event.AfterCommit;
+
+/**
+ * Broadcasts cache invalidations to the other instances of the backend
+ * The publishing node refreshes its own caches through local events (TaskChangedEvent, ...);
+ * the bus only reaches the other nodes, which receive each message as an Invalidation
+ * application event.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Send an invalidation to every other node now
+     */
+    void publish(Invalidation invalidation);
+
+    /**
+     * Send an invalidation for the current transaction's changes, which other nodes receive
+     * only once it commits, so they never reload the pre-commit state; without a transaction
+     * it is sent now. By default it is sent after the commit.
+     */
+    default void publishAfterCommit(Invalidation invalidation) {
+        AfterCommit.run(() -> publish(invalidation));
+    }
+}
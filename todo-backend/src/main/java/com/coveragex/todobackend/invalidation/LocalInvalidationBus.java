@@ -0,0 +1,52 @@
+package com.coveragex.todobackend.invalidation;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-JVM invalidation bus
+ * Every application context in the JVM is a node; messages are handed to the others
+ * synchronously. Enough for a single instance (there are no other nodes) and for tests
+ * that run several contexts side by side.
+ */
+@Component
+@ConditionalOnProperty(name = "invalidation.bus", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class LocalInvalidationBus implements InvalidationBus {
+
+    private static final List<LocalInvalidationBus> NODES = new CopyOnWriteArrayList<>();
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public LocalInvalidationBus(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+        NODES.add(this);
+    }
+
+    /**
+     * A node failing to apply the message does not fail the sender, which may have committed already
+     */
+    @Override
+    public void publish(Invalidation invalidation) {
+        for (LocalInvalidationBus node : NODES) {
+            if (node != this) {
+                try {
+                    node.eventPublisher.publishEvent(invalidation);
+                } catch (RuntimeException e) {
+                    log.error("Failed to apply {}", invalidation, e);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void leave() {
+        NODES.remove(this);
+    }
+}
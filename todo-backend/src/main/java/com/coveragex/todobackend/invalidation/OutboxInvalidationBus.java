@@ -0,0 +1,228 @@
+package com.coveragex.todobackend.invalidation;
+
+import com.coveragex.todobackend.shard.ShardRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Invalidation bus over outbox tables in the task databases, so several instances stay
+ * coherent without an external broker
+ *
+ * Publishing inserts one row. An invalidation for a transaction's changes is inserted in that
+ * transaction, on the database it writes to (the primary or the user's shard), so it becomes
+ * visible exactly when the changes commit and is never lost to a crash after the commit;
+ * others go to the primary. Every node polls each shard's outbox for rows above that shard's
+ * watermark in id-ordered batches and delivers the ones written by other nodes.
+ * Auto-increment ids can become visible out of order (a lower id committing after a higher
+ * one was read), so rows stay in a pending window and are re-read until they have been known
+ * for invalidation.outbox.gap-grace-ms; only then does the watermark move past them. A node
+ * starts at the current end of each outbox, since its caches start empty. Old rows are
+ * deleted by age.
+ */
+@Component
+@ConditionalOnProperty(name = "invalidation.bus", havingValue = "outbox")
+@Slf4j
+public class OutboxInvalidationBus implements InvalidationBus, SmartLifecycle {
+
+    private final ShardRegistry shardRegistry;
+    // Joins the caller's transaction on whichever database it runs
+    private final JdbcTemplate transactionalJdbc;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final int batchSize;
+    private final int maxBatchesPerPoll;
+    private final long gapGraceNanos;
+    private final Duration retention;
+
+    private final Timer propagation;
+    private final Counter delivered;
+
+    private final Map<Integer, Cursor> cursors = new HashMap<>();
+    private volatile boolean running;
+
+    public OutboxInvalidationBus(ShardRegistry shardRegistry,
+                                 JdbcTemplate transactionalJdbc,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${invalidation.outbox.batch-size:500}") int batchSize,
+                                 @Value("${invalidation.outbox.max-batches-per-poll:20}") int maxBatchesPerPoll,
+                                 @Value("${invalidation.outbox.gap-grace-ms:5000}") long gapGraceMillis,
+                                 @Value("${invalidation.outbox.retention-minutes:60}") long retentionMinutes) {
+        this.shardRegistry = shardRegistry;
+        this.transactionalJdbc = transactionalJdbc;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        this.gapGraceNanos = Duration.ofMillis(gapGraceMillis).toNanos();
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.propagation = Timer.builder("invalidation.propagation")
+                .description("Time from publishing an invalidation to delivering it on another node")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.delivered = Counter.builder("invalidation.delivered").register(meterRegistry);
+    }
+
+    /**
+     * Start at the current end of each outbox, before the web server takes requests
+     * Not done in the constructor, so the context can refresh without a database
+     * (the fast-start build's class-data-sharing training run does that).
+     */
+    @Override
+    public synchronized void start() {
+        for (int shard : shardRegistry.shardIds()) {
+            Cursor cursor = new Cursor();
+            cursor.watermark = shardRegistry.jdbc(shard)
+                    .queryForObject("SELECT COALESCE(MAX(id), 0) FROM invalidation_outbox", Long.class);
+            cursors.put(shard, cursor);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Before the web server (and the schedulers) start
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        insert(shardRegistry.jdbc(ShardRegistry.PRIMARY), invalidation);
+    }
+
+    /**
+     * Insert the row in the current transaction, so it commits or rolls back with the changes
+     */
+    @Override
+    public void publishAfterCommit(Invalidation invalidation) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            insert(transactionalJdbc, invalidation);
+        } else {
+            publish(invalidation);
+        }
+    }
+
+    private void insert(JdbcTemplate jdbc, Invalidation invalidation) {
+        jdbc.update("INSERT INTO invalidation_outbox (kind, username, user_id, origin, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?)",
+                invalidation.kind().name(), invalidation.username(), invalidation.userId(), nodeId,
+                LocalDateTime.now());
+    }
+
+    /**
+     * Deliver new rows written by other nodes
+     */
+    @Scheduled(fixedDelayString = "${invalidation.outbox.poll-interval-ms:250}")
+    public synchronized void poll() {
+        if (!running) {
+            return;
+        }
+        for (Map.Entry<Integer, Cursor> entry : cursors.entrySet()) {
+            try {
+                poll(shardRegistry.jdbc(entry.getKey()), entry.getValue());
+            } catch (DataAccessException e) {
+                log.warn("Polling the invalidation outbox of shard {} failed, retrying next poll", entry.getKey(), e);
+            }
+        }
+    }
+
+    private void poll(JdbcTemplate jdbc, Cursor shardCursor) {
+        long now = System.nanoTime();
+        long cursor = shardCursor.watermark;
+        for (int batch = 0; batch < maxBatchesPerPoll; batch++) {
+            List<Map<String, Object>> rows = jdbc.queryForList(
+                    "SELECT id, kind, username, user_id, origin, created_at FROM invalidation_outbox "
+                            + "WHERE id > ? ORDER BY id LIMIT ?", cursor, batchSize);
+            for (Map<String, Object> row : rows) {
+                cursor = ((Number) row.get("id")).longValue();
+                if (shardCursor.pending.putIfAbsent(cursor, now) == null && !nodeId.equals(row.get("origin"))) {
+                    deliver(row);
+                }
+            }
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+
+        Iterator<Map.Entry<Long, Long>> settled = shardCursor.pending.entrySet().iterator();
+        while (settled.hasNext()) {
+            Map.Entry<Long, Long> entry = settled.next();
+            if (now - entry.getValue() < gapGraceNanos) {
+                break;
+            }
+            shardCursor.watermark = entry.getKey();
+            settled.remove();
+        }
+    }
+
+    /**
+     * Delete rows every node has had time to read
+     */
+    @Scheduled(fixedDelayString = "${invalidation.outbox.cleanup-interval-ms:60000}")
+    public void deleteExpired() {
+        int deleted = 0;
+        for (int shard : shardRegistry.shardIds()) {
+            deleted += shardRegistry.jdbc(shard).update("DELETE FROM invalidation_outbox WHERE created_at < ?",
+                    LocalDateTime.now().minus(retention));
+        }
+        if (deleted > 0) {
+            log.debug("Deleted {} expired invalidations", deleted);
+        }
+    }
+
+    private void deliver(Map<String, Object> row) {
+        Number userId = (Number) row.get("user_id");
+        Invalidation invalidation = new Invalidation(
+                Invalidation.Kind.valueOf((String) row.get("kind")),
+                (String) row.get("username"),
+                userId != null ? userId.longValue() : null);
+        try {
+            eventPublisher.publishEvent(invalidation);
+        } catch (RuntimeException e) {
+            log.error("Failed to apply {}", invalidation, e);
+        }
+        delivered.increment();
+        propagation.record(Duration.between(((Timestamp) row.get("created_at")).toLocalDateTime(),
+                LocalDateTime.now()));
+    }
+
+    /**
+     * Read position in one shard's outbox
+     */
+    private static final class Cursor {
+        // Delivered ids above the watermark, with the System.nanoTime() they were first read
+        private final TreeMap<Long, Long> pending = new TreeMap<>();
+        private long watermark;
+    }
+}
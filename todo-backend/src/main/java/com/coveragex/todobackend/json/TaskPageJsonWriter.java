@@ -0,0 +1,181 @@
+package com.coveragex.todobackend.json;
+
+import com.coveragex.todobackend.dto.ApiResponse;
+import com.coveragex.todobackend.dto.TaskPage;
+import com.coveragex.todobackend.entity.ArchivedTask;
+import com.coveragex.todobackend.entity.Task;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Streams a TaskPage as JSON from its task rows
+ *
+ * Each row is written field by field in TaskResponse order, with field names encoded once
+ * (SerializedString keeps their quoted UTF-8 bytes) and timestamps formatted by IsoTimestamps,
+ * so a page costs no DTOs, no reflection and no formatter strings. The output is what Jackson
+ * writes for the TaskResponse list, inside the envelope documented on TaskPage.
+ */
+public final class TaskPageJsonWriter {
+
+    private static final SerializedString SUCCESS = new SerializedString("success");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString DATA = new SerializedString("data");
+
+    private static final SerializedString CONTENT = new SerializedString("content");
+    private static final SerializedString PAGE = new SerializedString("page");
+    private static final SerializedString SIZE = new SerializedString("size");
+    private static final SerializedString TOTAL_ELEMENTS = new SerializedString("totalElements");
+    private static final SerializedString TOTAL_PAGES = new SerializedString("totalPages");
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString COMPLETED = new SerializedString("completed");
+    private static final SerializedString DUE_AT = new SerializedString("dueAt");
+    private static final SerializedString REMIND_AT = new SerializedString("remindAt");
+    private static final SerializedString TAGS = new SerializedString("tags");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializedString COMPLETED_AT = new SerializedString("completedAt");
+
+    private TaskPageJsonWriter() {
+    }
+
+    /**
+     * Write an ApiResponse around a page: {"success": ..., "message": ..., "data": {page}}
+     */
+    public static void writeResponse(JsonGenerator generator, ApiResponse<TaskPage> response) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(SUCCESS);
+        generator.writeBoolean(response.isSuccess());
+        generator.writeFieldName(MESSAGE);
+        generator.writeString(response.getMessage());
+        generator.writeFieldName(DATA);
+        if (response.getData() == null) {
+            generator.writeNull();
+        } else {
+            writePage(generator, response.getData());
+        }
+        generator.writeEndObject();
+    }
+
+    public static void writePage(JsonGenerator generator, TaskPage page) throws IOException {
+        IsoTimestamps timestamps = new IsoTimestamps();
+        generator.writeStartObject();
+        generator.writeFieldName(CONTENT);
+        generator.writeStartArray();
+        for (Object row : page.rows()) {
+            if (row instanceof Task task) {
+                writeTask(generator, task, timestamps);
+            } else {
+                writeArchivedTask(generator, (ArchivedTask) row, timestamps);
+            }
+        }
+        generator.writeEndArray();
+        generator.writeFieldName(PAGE);
+        generator.writeNumber(page.getPage());
+        generator.writeFieldName(SIZE);
+        generator.writeNumber(page.getSize());
+        generator.writeFieldName(TOTAL_ELEMENTS);
+        generator.writeNumber(page.getTotalElements());
+        generator.writeFieldName(TOTAL_PAGES);
+        generator.writeNumber(page.getTotalPages());
+        generator.writeEndObject();
+    }
+
+    private static void writeTask(JsonGenerator generator, Task task, IsoTimestamps timestamps) throws IOException {
+        generator.writeStartObject();
+        writeNumber(generator, ID, task.getId());
+        writeString(generator, TITLE, task.getTitle());
+        writeString(generator, DESCRIPTION, task.getDescription());
+        generator.writeFieldName(COMPLETED);
+        if (task.getCompleted() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(task.getCompleted());
+        }
+        writeTimestamp(generator, DUE_AT, task.getDueAt(), timestamps);
+        writeTimestamp(generator, REMIND_AT, task.getRemindAt(), timestamps);
+        writeTags(generator, task.getTags());
+        writeTimestamp(generator, CREATED_AT, task.getCreatedAt(), timestamps);
+        writeTimestamp(generator, UPDATED_AT, task.getUpdatedAt(), timestamps);
+        writeTimestamp(generator, COMPLETED_AT, task.getCompletedAt(), timestamps);
+        generator.writeEndObject();
+    }
+
+    // As TaskResponse.fromArchived: always completed, no due date, reminder or tags
+    private static void writeArchivedTask(JsonGenerator generator, ArchivedTask task,
+                                          IsoTimestamps timestamps) throws IOException {
+        generator.writeStartObject();
+        writeNumber(generator, ID, task.getId());
+        writeString(generator, TITLE, task.getTitle());
+        writeString(generator, DESCRIPTION, task.getDescription());
+        generator.writeFieldName(COMPLETED);
+        generator.writeBoolean(true);
+        writeTimestamp(generator, DUE_AT, null, timestamps);
+        writeTimestamp(generator, REMIND_AT, null, timestamps);
+        writeTags(generator, List.of());
+        writeTimestamp(generator, CREATED_AT, task.getCreatedAt(), timestamps);
+        writeTimestamp(generator, UPDATED_AT, task.getUpdatedAt(), timestamps);
+        writeTimestamp(generator, COMPLETED_AT, task.getCompletedAt(), timestamps);
+        generator.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator generator, SerializedString name, Long value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    private static void writeString(JsonGenerator generator, SerializedString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeString(value);
+    }
+
+    private static void writeTimestamp(JsonGenerator generator, SerializedString name, LocalDateTime value,
+                                       IsoTimestamps timestamps) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            timestamps.write(generator, value);
+        }
+    }
+
+    private static void writeTags(JsonGenerator generator, List<String> tags) throws IOException {
+        generator.writeFieldName(TAGS);
+        if (tags == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (String tag : tags) {
+            generator.writeString(tag);
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Jackson serializer for TaskPage, so an ObjectMapper writes the same JSON as the message converter
+     */
+    public static final class Serializer extends StdSerializer<TaskPage> {
+
+        public Serializer() {
+            super(TaskPage.class);
+        }
+
+        @Override
+        public void serialize(TaskPage page, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            writePage(generator, page);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.coveragex.todobackend.json;
+
+import com.coveragex.todobackend.dto.ApiResponse;
+import com.coveragex.todobackend.dto.TaskPage;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Writes ApiResponse&lt;TaskPage&gt; bodies with TaskPageJsonWriter, straight to the response stream
+ *
+ * Picked by the declared return type of the listing endpoints, ahead of the Jackson converter
+ * (Spring Boot puts converter beans first); every other body is left to Jackson. Write-only.
+ */
+@Component
+public class TaskPageMessageConverter extends AbstractGenericHttpMessageConverter<ApiResponse<TaskPage>> {
+
+    private final JsonFactory jsonFactory;
+
+    public TaskPageMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ApiResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        // Only with the generic type: an ApiResponse of anything else is Jackson's
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() == ApiResponse.class
+                && parameterized.getActualTypeArguments()[0] == TaskPage.class
+                && canWrite(mediaType);
+    }
+
+    @Override
+    protected void writeInternal(ApiResponse<TaskPage> response, Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(
+                StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            TaskPageJsonWriter.writeResponse(generator, response);
+        }
+    }
+
+    @Override
+    public ApiResponse<TaskPage> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Task pages are not accepted as request bodies", inputMessage);
+    }
+
+    @Override
+    protected ApiResponse<TaskPage> readInternal(Class<? extends ApiResponse<TaskPage>> clazz,
+                                                 HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Task pages are not accepted as request bodies", inputMessage);
+    }
+}
@@ -0,0 +1,182 @@
+package com.coveragex.todobackend.ranking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fractional rank keys for manual task ordering
+ *
+ * A key is an integer part followed by a fraction, both in base-36 digits (0-9, a-z). The first
+ * digit of the integer part says how many digits follow: 'i' to 'z' one to eighteen for the
+ * integers from zero up, 'h' down to '0' one to eighteen for the negative ones, so integers
+ * compare correctly as strings. The fraction may be empty and never ends in '0'.
+ *
+ * Placing a task above the first or below the last key steps the integer part, so a list that
+ * only grows at one end gets one digit longer per power of 36 tasks. Placing it between two
+ * keys with the same integer part halves the gap between their fractions, about one digit per
+ * five placements into the same gap. Keys compare lexicographically, and between any two keys
+ * (or before/after any key) there is always room for another one, so placing a task never
+ * touches its neighbours. Only lower-case digits are used, so the order is the same under
+ * case-insensitive collations.
+ */
+public final class RankKeys {
+
+    private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    // Heads below this digit start negative integers
+    private static final int ZERO_HEAD = BASE / 2;
+    private static final String ZERO = "i0";
+    private static final String SMALLEST = "0".repeat(ZERO_HEAD + 1);
+
+    private RankKeys() {
+    }
+
+    /**
+     * A key strictly between two keys
+     * @param lower lower bound, null for none
+     * @param upper upper bound, null for none
+     * @return the next integer past a bound when it fits, else the shortest key found by halving
+     * the gap between the fractions digit by digit
+     */
+    public static String between(String lower, String upper) {
+        if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            throw new IllegalArgumentException("Rank keys out of order: " + lower + " >= " + upper);
+        }
+        if (lower == null && upper == null) {
+            return ZERO;
+        }
+        if (lower == null) {
+            String integer = integerPart(upper);
+            String fraction = upper.substring(integer.length());
+            if (integer.equals(SMALLEST)) {
+                return integer + midpoint("", fraction);
+            }
+            if (!fraction.isEmpty()) {
+                // The integer alone sorts before the integer with a fraction
+                return integer;
+            }
+            String previous = decrement(integer);
+            // The smallest integer is a key only with a fraction
+            return previous.equals(SMALLEST) ? previous + midpoint("", null) : previous;
+        }
+
+        String integer = integerPart(lower);
+        String fraction = lower.substring(integer.length());
+        if (upper != null && integerPart(upper).equals(integer)) {
+            return integer + midpoint(fraction, upper.substring(integer.length()));
+        }
+        String next = increment(integer);
+        if (next != null && (upper == null || next.compareTo(upper) < 0)) {
+            return next;
+        }
+        return integer + midpoint(fraction, null);
+    }
+
+    /**
+     * Consecutive integer keys for a list of the given size, in order, as short as they can be
+     */
+    public static List<String> evenlySpaced(int count) {
+        List<String> keys = new ArrayList<>(count);
+        String key = ZERO;
+        for (int i = 0; i < count; i++) {
+            keys.add(key);
+            key = increment(key);
+        }
+        return keys;
+    }
+
+    /**
+     * The key for a key written before integer parts were introduced, when keys were bare fractions
+     */
+    public static String fromFraction(String fraction) {
+        return ZERO + fraction;
+    }
+
+    /**
+     * Halve the gap between two fractions digit by digit
+     * @param lower lower bound, "" for none
+     * @param upper upper bound, null for none
+     */
+    private static String midpoint(String lower, String upper) {
+        String a = lower;
+        String b = upper;
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; ; i++) {
+            int low = i < a.length() ? digit(a.charAt(i)) : 0;
+            int high = b != null ? digit(b.charAt(i)) : BASE;
+            if (low == high) {
+                key.append(DIGITS.charAt(low));
+                continue;
+            }
+            int mid = (low + high) / 2;
+            if (mid > low) {
+                return key.append(DIGITS.charAt(mid)).toString();
+            }
+            // Adjacent digits: keep the lower one and continue above the rest of the lower bound
+            key.append(DIGITS.charAt(low));
+            b = null;
+        }
+    }
+
+    private static String integerPart(String key) {
+        int length = 1 + digitCount(digit(key.charAt(0)));
+        if (key.length() < length || key.equals(SMALLEST)) {
+            throw new IllegalArgumentException("Not a rank key: " + key);
+        }
+        return key.substring(0, length);
+    }
+
+    /**
+     * @return the next integer, or null past the largest one
+     */
+    private static String increment(String integer) {
+        char[] digits = integer.toCharArray();
+        for (int i = digits.length - 1; i > 0; i--) {
+            int digit = digit(digits[i]);
+            if (digit < BASE - 1) {
+                digits[i] = DIGITS.charAt(digit + 1);
+                return new String(digits);
+            }
+            digits[i] = '0';
+        }
+        int head = digit(digits[0]) + 1;
+        return head < BASE ? withHead(head, '0') : null;
+    }
+
+    /**
+     * @return the previous integer, or null below the smallest one
+     */
+    private static String decrement(String integer) {
+        char[] digits = integer.toCharArray();
+        for (int i = digits.length - 1; i > 0; i--) {
+            int digit = digit(digits[i]);
+            if (digit > 0) {
+                digits[i] = DIGITS.charAt(digit - 1);
+                return new String(digits);
+            }
+            digits[i] = DIGITS.charAt(BASE - 1);
+        }
+        int head = digit(digits[0]) - 1;
+        return head >= 0 ? withHead(head, DIGITS.charAt(BASE - 1)) : null;
+    }
+
+    private static String withHead(int head, char fill) {
+        char[] digits = new char[1 + digitCount(head)];
+        Arrays.fill(digits, fill);
+        digits[0] = DIGITS.charAt(head);
+        return new String(digits);
+    }
+
+    private static int digitCount(int head) {
+        return head >= ZERO_HEAD ? head - ZERO_HEAD + 1 : ZERO_HEAD - head;
+    }
+
+    private static int digit(char c) {
+        int digit = DIGITS.indexOf(c);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Not a rank key digit: " + c);
+        }
+        return digit;
+    }
+}
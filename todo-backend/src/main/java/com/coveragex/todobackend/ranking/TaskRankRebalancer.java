@@ -0,0 +1,106 @@
+package com.coveragex.todobackend.ranking;
+
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.shard.ShardContext;
+import com.coveragex.todobackend.shard.ShardRouter;
+import com.coveragex.todobackend.store.TaskStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background job that shortens a user's rank keys once moves have made them long
+ *
+ * Repeated moves into the same gap add about one digit every five moves. When TaskService
+ * writes a key longer than ranking.max-key-length it queues the user, and this job rewrites
+ * all of the user's keys (deleted tasks included, so a restore lands in place) as short,
+ * evenly spaced keys in one transaction. The user's row is locked meanwhile, which moves and
+ * creates also take, so no key is computed from a half-rewritten list.
+ */
+@Component
+@Slf4j
+public class TaskRankRebalancer {
+
+    private final TaskStore taskStore;
+    private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxKeyLength;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public TaskRankRebalancer(TaskStore taskStore,
+                              UserRepository userRepository,
+                              ShardRouter shardRouter,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${ranking.max-key-length:32}") int maxKeyLength) {
+        this.taskStore = taskStore;
+        this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    /**
+     * Queue the user for rebalancing if the key is too long
+     * @param userId the user
+     * @param key    a key just written for one of the user's tasks
+     */
+    public void checkKey(Long userId, String key) {
+        if (key.length() > maxKeyLength) {
+            pending.add(userId);
+        }
+    }
+
+    /**
+     * Periodic run over the queued users
+     */
+    @Scheduled(initialDelayString = "${ranking.rebalance-interval-ms:60000}",
+            fixedDelayString = "${ranking.rebalance-interval-ms:60000}")
+    public void rebalancePending() {
+        for (Long userId : new ArrayList<>(pending)) {
+            pending.remove(userId);
+            try {
+                int count = ShardContext.callIn(shardRouter.shardFor(userId),
+                        () -> transactionTemplate.execute(status -> rebalance(userId).size()));
+                log.info("Rebalanced {} rank keys of user {}", count, userId);
+            } catch (RuntimeException e) {
+                log.error("Failed to rebalance rank keys of user {}", userId, e);
+            }
+        }
+    }
+
+    /**
+     * Rewrite every rank key of a user, keeping the order
+     * Must run in a transaction on the user's shard.
+     *
+     * @param userId the user
+     * @return the new key of each task
+     */
+    public Map<Long, String> rebalance(Long userId) {
+        // Frozen: the user's tasks are being moved to another shard, the target rebalances later
+        Boolean frozen = userRepository.lockById(userId);
+        if (frozen == null || frozen) {
+            return Map.of();
+        }
+        List<Long> ids = taskStore.findIdsInRankOrder(userId);
+        List<String> keys = RankKeys.evenlySpaced(ids.size());
+
+        Map<Long, String> assigned = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            assigned.put(ids.get(i), keys.get(i));
+        }
+        taskStore.updateRankKeys(ids, keys);
+        return assigned;
+    }
+}
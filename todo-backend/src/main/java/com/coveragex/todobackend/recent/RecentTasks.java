@@ -0,0 +1,183 @@
+package com.coveragex.todobackend.recent;
+
+import com.coveragex.todobackend.cache.ExpireAfterCreate;
+import com.coveragex.todobackend.cache.UserGenerations;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.event.AfterCommit;
+import com.coveragex.todobackend.invalidation.Invalidation;
+import com.coveragex.todobackend.store.TaskStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Per-user newest incomplete tasks behind GET /tasks/recent
+ *
+ * Recently active users' newest incomplete tasks are held in memory (UserRecentTasks, a few
+ * more than a page) and kept current by TaskService writes once they commit, so the recent
+ * list is read without a query. A user's tasks are loaded on the first read, and again only
+ * when completions or deletions leave fewer than a page while older incomplete tasks may
+ * exist. Changes made on other nodes drop them, and they expire invalidation.max-staleness-seconds
+ * after they were loaded. Archiving and purging only remove completed
+ * or deleted tasks, which are never held. Tasks loaded while a write of the user committed are
+ * served once but not kept (see UserGenerations).
+ */
+@Component
+@Slf4j
+public class RecentTasks {
+
+    private final TaskStore taskStore;
+    private final Cache<Long, UserRecentTasks> recent;
+    private final UserGenerations generations = new UserGenerations();
+    private final Counter refills;
+    private final int capacity;
+
+    public RecentTasks(TaskStore taskStore,
+                       MeterRegistry meterRegistry,
+                       @Value("${recent-tasks.capacity:10}") int capacity,
+                       @Value("${recent-tasks.max-users:100000}") long maxUsers,
+                       @Value("${invalidation.max-staleness-seconds:300}") long maxStalenessSeconds) {
+        this.taskStore = taskStore;
+        this.capacity = capacity;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfter(new ExpireAfterCreate<Long, UserRecentTasks>(Duration.ofSeconds(maxStalenessSeconds)))
+                .recordStats()
+                .build();
+        this.refills = Counter.builder("recent.tasks.refills")
+                .description("Recent task lists loaded again after completions or deletions left them short")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, recent, "recentTasks");
+    }
+
+    /**
+     * @return the user's write generation, to be read before the reading transaction starts
+     */
+    public long generation(String username) {
+        return generations.current(username);
+    }
+
+    /**
+     * A user's newest incomplete tasks
+     * Loads them on a miss or when short, so it must run on the user's shard (TaskService).
+     *
+     * @param user       the user
+     * @param generation the user's generation, read before the transaction's first query
+     * @param limit      how many, at most the capacity
+     * @return the tasks, newest first
+     */
+    public List<TaskResponse> newest(User user, long generation, int limit) {
+        UserRecentTasks userRecent = recent.getIfPresent(user.getId());
+        if (userRecent == null || userRecent.isShort(limit)) {
+            userRecent = loadIfAbsentOrShort(user, generation, limit, userRecent != null);
+        }
+        return userRecent.newest(limit);
+    }
+
+    /**
+     * Apply a created or modified task once the current transaction commits
+     * The response is taken after the commit, so it has the audited timestamps.
+     *
+     * @param task the task as written
+     */
+    public void taskWrittenAfterCommit(Task task) {
+        String username = task.getUser().getUsername();
+        Long userId = task.getUser().getId();
+        // Ahead of TaskResponseCache's invalidation, as in onInvalidation
+        AfterCommit.run(Ordered.HIGHEST_PRECEDENCE, () -> {
+            generations.advance(username);
+            recent.asMap().computeIfPresent(userId, (id, userRecent) -> {
+                if (Boolean.TRUE.equals(task.getCompleted())) {
+                    userRecent.remove(task.getId());
+                } else {
+                    userRecent.put(TaskResponse.fromEntity(task));
+                }
+                return userRecent;
+            });
+        });
+    }
+
+    /**
+     * Apply a deleted task once the current transaction commits
+     * @param user   the owning user
+     * @param taskId the task ID
+     */
+    public void taskDeletedAfterCommit(User user, Long taskId) {
+        String username = user.getUsername();
+        Long userId = user.getId();
+        // Ahead of TaskResponseCache's invalidation, as in onInvalidation
+        AfterCommit.run(Ordered.HIGHEST_PRECEDENCE, () -> {
+            generations.advance(username);
+            recent.asMap().computeIfPresent(userId, (id, userRecent) -> {
+                userRecent.remove(taskId);
+                return userRecent;
+            });
+        });
+    }
+
+    /**
+     * Drop a user's tasks; the next read loads them again
+     */
+    public void invalidate(Long userId) {
+        recent.invalidate(userId);
+    }
+
+    /**
+     * Tasks changed on another node
+     * Runs before TaskResponseCache drops the user's responses, so they are never rebuilt from stale tasks.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onInvalidation(Invalidation invalidation) {
+        if (invalidation.username() != null) {
+            generations.advance(invalidation.username());
+        }
+        if (invalidation.userId() != null) {
+            invalidate(invalidation.userId());
+        }
+    }
+
+    /**
+     * Load a user's tasks, keeping them only if no write of the user committed meanwhile
+     * Loaded outside the cache's lock; a write committing after the check waits for the tasks
+     * to be stored and then applies to them. Otherwise the entry held, if any, stays: writes
+     * kept it current, only short. An entry another reader filled meanwhile is kept and served.
+     */
+    private UserRecentTasks loadIfAbsentOrShort(User user, long generation, int limit, boolean refill) {
+        if (refill) {
+            refills.increment();
+        }
+        UserRecentTasks loaded = load(user);
+        UserRecentTasks kept = recent.asMap().compute(user.getId(), (userId, current) -> {
+            if (current != null && !current.isShort(limit)) {
+                return current;
+            }
+            return generations.isCurrent(user.getUsername(), generation) ? loaded : current;
+        });
+        return kept != null && !kept.isShort(limit) ? kept : loaded;
+    }
+
+    private UserRecentTasks load(User user) {
+        List<TaskResponse> tasks = taskStore.findIncompleteNewestFirst(user, PageRequest.of(0, capacity))
+                .getContent().stream()
+                .map(TaskResponse::fromEntity)
+                .sorted(UserRecentTasks.NEWEST_FIRST)
+                .toList();
+        log.debug("Loaded {} recent tasks for user {}", tasks.size(), user.getId());
+        return new UserRecentTasks(capacity, tasks, tasks.size() < capacity);
+    }
+}
@@ -0,0 +1,96 @@
+package com.coveragex.todobackend.recent;
+
+import com.coveragex.todobackend.dto.TaskResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A user's newest incomplete tasks, up to a fixed capacity, newest first (thread-safe)
+ *
+ * Held are the newest incomplete tasks; complete is true while those are all the user has.
+ * Otherwise every incomplete task not held is older than the oldest one held, so a task
+ * becoming incomplete is only taken if it is newer than that, and a held task leaving can
+ * leave fewer than a page: the structure is then short and has to be loaded again.
+ */
+final class UserRecentTasks {
+
+    // Newest first, as TaskStore.findIncompleteNewestFirst (ties by id)
+    static final Comparator<TaskResponse> NEWEST_FIRST = Comparator
+            .comparing(TaskResponse::getCreatedAt, Comparator.reverseOrder())
+            .thenComparing(TaskResponse::getId, Comparator.reverseOrder());
+
+    private final int capacity;
+    private final List<TaskResponse> tasks;
+    private boolean complete;
+
+    /**
+     * @param newestFirst the user's newest incomplete tasks, at most capacity
+     * @param complete    whether they are all of the user's incomplete tasks
+     */
+    UserRecentTasks(int capacity, List<TaskResponse> newestFirst, boolean complete) {
+        this.capacity = capacity;
+        this.tasks = new ArrayList<>(newestFirst);
+        this.complete = complete;
+    }
+
+    /**
+     * Apply an incomplete task, new or changed
+     */
+    synchronized void put(TaskResponse task) {
+        int held = indexOf(task.getId());
+        if (held >= 0) {
+            // Creation time never changes, so neither does the position
+            tasks.set(held, task);
+            return;
+        }
+        if (!complete && (tasks.isEmpty() || NEWEST_FIRST.compare(task, tasks.get(tasks.size() - 1)) > 0)) {
+            // Older than the oldest held: tasks not held may come before it
+            return;
+        }
+        int at = 0;
+        while (at < tasks.size() && NEWEST_FIRST.compare(tasks.get(at), task) < 0) {
+            at++;
+        }
+        tasks.add(at, task);
+        if (tasks.size() > capacity) {
+            tasks.remove(tasks.size() - 1);
+            complete = false;
+        }
+    }
+
+    /**
+     * Apply a task that is no longer incomplete (completed or deleted)
+     */
+    synchronized void remove(long taskId) {
+        int held = indexOf(taskId);
+        if (held >= 0) {
+            tasks.remove(held);
+        }
+    }
+
+    /**
+     * @return true if fewer than limit tasks are held while the user may have more
+     */
+    synchronized boolean isShort(int limit) {
+        return !complete && tasks.size() < Math.min(limit, capacity);
+    }
+
+    synchronized List<TaskResponse> newest(int limit) {
+        return List.copyOf(tasks.subList(0, Math.min(limit, tasks.size())));
+    }
+
+    synchronized int size() {
+        return tasks.size();
+    }
+
+    private int indexOf(long taskId) {
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getId() == taskId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
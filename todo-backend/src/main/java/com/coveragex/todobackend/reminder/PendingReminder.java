@@ -0,0 +1,9 @@
+package com.coveragex.todobackend.reminder;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reminder waiting in the ReminderScheduler wheel
+ */
+public record PendingReminder(Long taskId, Long userId, LocalDateTime remindAt) {
+}
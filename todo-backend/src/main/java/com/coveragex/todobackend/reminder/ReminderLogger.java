@@ -0,0 +1,20 @@
+package com.coveragex.todobackend.reminder;
+
+import com.coveragex.todobackend.event.TaskReminderEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Notification channel of last resort: writes every fired reminder to the application log
+ */
+@Component
+@Slf4j
+public class ReminderLogger {
+
+    @EventListener
+    public void onReminder(TaskReminderEvent event) {
+        log.info("Reminder for task {} '{}' of user {} (remind at {}, due {})", event.getTaskId(),
+                event.getTitle(), event.getUserId(), event.getRemindAt(), event.getDueAt());
+    }
+}
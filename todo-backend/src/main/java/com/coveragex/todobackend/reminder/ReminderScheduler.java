@@ -0,0 +1,277 @@
+package com.coveragex.todobackend.reminder;
+
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.event.AfterCommit;
+import com.coveragex.todobackend.event.TaskReminderEvent;
+import com.coveragex.todobackend.repository.ReminderClaimRepository;
+import com.coveragex.todobackend.shard.ShardContext;
+import com.coveragex.todobackend.shard.ShardRegistry;
+import com.coveragex.todobackend.shard.ShardRouter;
+import com.coveragex.todobackend.store.TaskStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires task reminders from an in-memory hierarchical timing wheel
+ *
+ * Only reminders due within the next window are held in memory: the window is loaded from
+ * the TaskStore (every shard) at startup and reloaded periodically as it slides forward.
+ * TaskService reschedules or cancels a task's reminder once its edit, completion, deletion
+ * or restore commits. Edits made on other instances are picked up by the next reload, and
+ * every reminder is re-read before it fires, so a stale entry never produces a reminder.
+ * Every instance holds the same reminders; each one is claimed in ReminderClaimRepository
+ * before it is published, so only the instance that claims it first fires it.
+ */
+@Component
+@Slf4j
+public class ReminderScheduler {
+
+    private final TaskStore taskStore;
+    private final ReminderClaimRepository reminderClaims;
+    private final ShardRegistry shardRegistry;
+    private final ShardRouter shardRouter;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean enabled;
+    private final long tickMillis;
+    private final Duration window;
+    private final Counter fired;
+    private final Counter stale;
+    private final Counter claimedElsewhere;
+
+    private final TimingWheel<PendingReminder> wheel;
+    // Reminders before this instant (epoch millis) are in the wheel; later ones wait for a reload
+    private long horizonMillis;
+    private volatile boolean running;
+    private ScheduledExecutorService ticker;
+
+    public ReminderScheduler(TaskStore taskStore,
+                             ReminderClaimRepository reminderClaims,
+                             ShardRegistry shardRegistry,
+                             ShardRouter shardRouter,
+                             ApplicationEventPublisher eventPublisher,
+                             MeterRegistry meterRegistry,
+                             @Value("${reminders.enabled:true}") boolean enabled,
+                             @Value("${reminders.tick-ms:1000}") long tickMillis,
+                             @Value("${reminders.window-minutes:60}") long windowMinutes) {
+        this.taskStore = taskStore;
+        this.reminderClaims = reminderClaims;
+        this.shardRegistry = shardRegistry;
+        this.shardRouter = shardRouter;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.tickMillis = tickMillis;
+        this.window = Duration.ofMinutes(windowMinutes);
+        this.wheel = new TimingWheel<>(Math.floorDiv(System.currentTimeMillis(), tickMillis));
+        this.fired = Counter.builder("reminders.fired").register(meterRegistry);
+        this.stale = Counter.builder("reminders.stale")
+                .description("Reminders dropped at fire time because the task changed on another node")
+                .register(meterRegistry);
+        this.claimedElsewhere = Counter.builder("reminders.claimed.elsewhere")
+                .description("Reminders not fired because another instance fired them")
+                .register(meterRegistry);
+        Gauge.builder("reminders.pending", this, ReminderScheduler::pendingCount).register(meterRegistry);
+    }
+
+    /**
+     * Load the first window and start the clock
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        loadWindow();
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Periodic reload of the window ahead
+     */
+    @Scheduled(initialDelayString = "${reminders.reload-interval-ms:300000}",
+            fixedDelayString = "${reminders.reload-interval-ms:300000}")
+    public void reloadWindow() {
+        if (running) {
+            loadWindow();
+        }
+    }
+
+    /**
+     * Read every reminder due from now until the end of the window into the wheel
+     */
+    void loadWindow() {
+        long now = System.currentTimeMillis();
+        long until = now + window.toMillis();
+        LocalDateTime from = toLocal(now);
+        LocalDateTime to = toLocal(until);
+
+        int loaded = 0;
+        for (int shard : shardRegistry.shardIds()) {
+            List<PendingReminder> reminders = ShardContext.callIn(shard,
+                    () -> taskStore.findRemindersBetween(from, to));
+            synchronized (wheel) {
+                for (PendingReminder reminder : reminders) {
+                    wheel.schedule(reminder.taskId(), tickOf(toMillis(reminder.remindAt())), reminder);
+                }
+                horizonMillis = Math.max(horizonMillis, until);
+            }
+            loaded += reminders.size();
+        }
+        log.debug("Loaded {} reminders due before {}", loaded, to);
+        reminderClaims.deleteBefore(toLocal(now - window.toMillis()));
+    }
+
+    /**
+     * Reschedule (or cancel) the task's reminder once the current transaction commits
+     * @param task the task as written
+     */
+    public void rescheduleAfterCommit(Task task) {
+        if (!enabled) {
+            return;
+        }
+        Long taskId = task.getId();
+        PendingReminder reminder = task.getRemindAt() == null || Boolean.TRUE.equals(task.getCompleted())
+                ? null
+                : new PendingReminder(taskId, task.getUser().getId(), task.getRemindAt());
+        AfterCommit.run(() -> {
+            if (reminder == null) {
+                cancel(taskId);
+            } else {
+                reschedule(reminder);
+            }
+        });
+    }
+
+    /**
+     * Cancel the task's reminder once the current transaction commits
+     * @param taskId the task ID
+     */
+    public void cancelAfterCommit(Long taskId) {
+        if (enabled) {
+            AfterCommit.run(() -> cancel(taskId));
+        }
+    }
+
+    /**
+     * @return whether a reminder for the task is waiting in the wheel
+     */
+    public boolean isScheduled(Long taskId) {
+        synchronized (wheel) {
+            return wheel.deadline(taskId) >= 0;
+        }
+    }
+
+    public int pendingCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    void reschedule(PendingReminder reminder) {
+        long at = toMillis(reminder.remindAt());
+        synchronized (wheel) {
+            // Past reminders are not fired retroactively; ones beyond the window wait for a reload
+            if (at < System.currentTimeMillis() || at >= horizonMillis) {
+                wheel.cancel(reminder.taskId());
+            } else {
+                wheel.schedule(reminder.taskId(), tickOf(at), reminder);
+            }
+        }
+    }
+
+    void cancel(Long taskId) {
+        synchronized (wheel) {
+            wheel.cancel(taskId);
+        }
+    }
+
+    /**
+     * Advance the wheel to the current time and fire what expired
+     */
+    void tick() {
+        List<PendingReminder> due;
+        synchronized (wheel) {
+            due = wheel.advanceTo(Math.floorDiv(System.currentTimeMillis(), tickMillis));
+        }
+        for (PendingReminder reminder : due) {
+            try {
+                fire(reminder);
+            } catch (RuntimeException e) {
+                log.error("Failed to fire reminder for task {}", reminder.taskId(), e);
+            }
+        }
+    }
+
+    private void fire(PendingReminder reminder) {
+        Optional<Task> current = ShardContext.callIn(shardRouter.shardFor(reminder.userId()),
+                () -> taskStore.findById(reminder.taskId()));
+        if (current.isEmpty() || current.get().getCompleted()
+                || !sameSecond(reminder.remindAt(), current.get().getRemindAt())) {
+            stale.increment();
+            return;
+        }
+
+        Task task = current.get();
+        if (!reminderClaims.claim(reminder.userId(), task.getId(), task.getRemindAt(), LocalDateTime.now())) {
+            claimedElsewhere.increment();
+            return;
+        }
+        log.debug("Reminder due for task {} of user {}", task.getId(), reminder.userId());
+        eventPublisher.publishEvent(new TaskReminderEvent(
+                reminder.userId(), task.getId(), task.getTitle(), task.getDueAt(), task.getRemindAt()));
+        fired.increment();
+    }
+
+    // MariaDB TIMESTAMP columns keep whole seconds only
+    private static boolean sameSecond(LocalDateTime scheduled, LocalDateTime stored) {
+        return stored != null
+                && scheduled.truncatedTo(ChronoUnit.SECONDS).equals(stored.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    // Deadlines round up and the clock rounds down, so a reminder never fires before its time
+    private long tickOf(long epochMillis) {
+        return Math.floorDiv(epochMillis + tickMillis - 1, tickMillis);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocal(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,176 @@
+package com.coveragex.todobackend.reminder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel of entries keyed by a long (the task id)
+ *
+ * Level 0 has one slot per tick and every level above has slots 64 times as wide, so the
+ * four levels cover 64^4 ticks (194 days at one-second ticks). An entry sits in the lowest
+ * level whose span reaches its deadline and moves down a level when the clock enters its
+ * slot. Schedule and cancel are a hash lookup plus a linked-list splice, a tick touches one
+ * slot per level at most, and an entry is moved at most once per level over its lifetime.
+ * Entries further out than the top level are parked in its last slot and re-placed later.
+ *
+ * Not thread-safe: ReminderScheduler serializes access.
+ */
+final class TimingWheel<T> {
+
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    static final int LEVELS = 4;
+    private static final int MASK = SLOTS - 1;
+
+    // One circular list per slot, headed by a sentinel node
+    private final Node<T>[][] slots;
+    private final Map<Long, Node<T>> nodes = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long startTick) {
+        this.currentTick = startTick;
+        this.slots = new Node[LEVELS][SLOTS];
+        for (Node<T>[] level : slots) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Node<T> sentinel = new Node<>(0);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                level[slot] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Add the entry for a key, or move it if the key is already scheduled
+     * A deadline that is not after the current tick expires on the next tick.
+     */
+    void schedule(long key, long deadlineTick, T payload) {
+        Node<T> node = nodes.get(key);
+        if (node == null) {
+            node = new Node<>(key);
+            nodes.put(key, node);
+        } else {
+            unlink(node);
+        }
+        node.deadline = Math.max(deadlineTick, currentTick + 1);
+        node.payload = payload;
+        place(node);
+    }
+
+    /**
+     * Remove the entry for a key
+     * @return whether the key was scheduled
+     */
+    boolean cancel(long key) {
+        Node<T> node = nodes.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * @return the deadline tick of the key's entry, or -1 if it is not scheduled
+     */
+    long deadline(long key) {
+        Node<T> node = nodes.get(key);
+        return node != null ? node.deadline : -1;
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Move the clock forward tick by tick up to the given tick
+     * @return payloads of the entries that expired, in deadline order
+     */
+    List<T> advanceTo(long tick) {
+        List<T> expired = new ArrayList<>();
+        while (currentTick < tick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+
+            Node<T> sentinel = slots[0][(int) (currentTick & MASK)];
+            for (Node<T> node = sentinel.next; node != sentinel; ) {
+                Node<T> next = node.next;
+                nodes.remove(node.key);
+                expired.add(node.payload);
+                node.prev = null;
+                node.next = null;
+                node = next;
+            }
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+        }
+        return expired;
+    }
+
+    /**
+     * Re-place every entry of the level's current slot; they all land on lower levels
+     */
+    private void cascade(int level) {
+        Node<T> sentinel = slots[level][(int) ((currentTick >>> (SLOT_BITS * level)) & MASK)];
+        Node<T> node = sentinel.next;
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        while (node != sentinel) {
+            Node<T> next = node.next;
+            place(node);
+            node = next;
+        }
+    }
+
+    private void place(Node<T> node) {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            if ((node.deadline >>> shift) - (currentTick >>> shift) < SLOTS) {
+                link(slots[level][(int) ((node.deadline >>> shift) & MASK)], node);
+                return;
+            }
+        }
+        // Beyond the top level: park in the slot visited last and try again from there
+        int top = SLOT_BITS * (LEVELS - 1);
+        link(slots[LEVELS - 1][(int) (((currentTick >>> top) - 1) & MASK)], node);
+    }
+
+    private static <T> void link(Node<T> sentinel, Node<T> node) {
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    private static <T> void unlink(Node<T> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+    }
+
+    private static final class Node<T> {
+        final long key;
+        long deadline;
+        T payload;
+        Node<T> prev;
+        Node<T> next;
+
+        Node(long key) {
+            this.key = key;
+        }
+    }
+}
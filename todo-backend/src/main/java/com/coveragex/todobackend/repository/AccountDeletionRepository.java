@@ -0,0 +1,111 @@
+package com.coveragex.todobackend.repository;
+
+import com.coveragex.todobackend.shard.ShardRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Account deletion jobs (AccountDeleter), always on the primary database
+ */
+@Repository
+public class AccountDeletionRepository {
+
+    private static final RowMapper<AccountDeletion> ROW = (rs, row) -> new AccountDeletion(
+            rs.getLong("user_id"),
+            rs.getString("username"),
+            rs.getInt("shard"),
+            AccountDeletion.State.valueOf(rs.getString("state")),
+            rs.getString("current_table"),
+            rs.getLong("cursor_id"),
+            rs.getLong("deleted_rows"),
+            rs.getObject("total_rows", Long.class),
+            toLocalDateTime(rs.getTimestamp("requested_at")),
+            toLocalDateTime(rs.getTimestamp("completed_at")));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountDeletionRepository(ShardRegistry shardRegistry) {
+        this.jdbcTemplate = shardRegistry.jdbc(ShardRegistry.PRIMARY);
+    }
+
+    public Optional<AccountDeletion> findByUserId(long userId) {
+        return jdbcTemplate.query("SELECT * FROM account_deletions WHERE user_id = ?", ROW, userId)
+                .stream().findFirst();
+    }
+
+    /**
+     * Record a new deletion job
+     * @throws org.springframework.dao.DuplicateKeyException if the user already has one
+     */
+    public void create(long userId, String username, int shard, LocalDateTime now) {
+        jdbcTemplate.update("INSERT INTO account_deletions (user_id, username, shard, state, requested_at) "
+                + "VALUES (?, ?, ?, ?, ?)", userId, username, shard, AccountDeletion.State.IN_PROGRESS.name(),
+                Timestamp.valueOf(now));
+    }
+
+    /**
+     * @return users with an unfinished job that nobody has worked on since staleBefore
+     */
+    public List<Long> findResumable(LocalDateTime staleBefore) {
+        return jdbcTemplate.queryForList("SELECT user_id FROM account_deletions WHERE state = ? "
+                        + "AND (heartbeat_at IS NULL OR heartbeat_at < ?)", Long.class,
+                AccountDeletion.State.IN_PROGRESS.name(), Timestamp.valueOf(staleBefore));
+    }
+
+    /**
+     * Take over an unfinished job nobody has worked on since staleBefore
+     * @return true if this caller now owns the job
+     */
+    public boolean claim(long userId, LocalDateTime now, LocalDateTime staleBefore) {
+        return jdbcTemplate.update("UPDATE account_deletions SET heartbeat_at = ? WHERE user_id = ? AND state = ? "
+                        + "AND (heartbeat_at IS NULL OR heartbeat_at < ?)", Timestamp.valueOf(now), userId,
+                AccountDeletion.State.IN_PROGRESS.name(), Timestamp.valueOf(staleBefore)) > 0;
+    }
+
+    public void setTotalRows(long userId, long totalRows) {
+        jdbcTemplate.update("UPDATE account_deletions SET total_rows = ? WHERE user_id = ?", totalRows, userId);
+    }
+
+    /**
+     * Record a deleted batch: the table, the last id deleted and the row count, and refresh the heartbeat
+     */
+    public void recordBatch(long userId, String table, long cursorId, int deleted, LocalDateTime now) {
+        jdbcTemplate.update("UPDATE account_deletions SET current_table = ?, cursor_id = ?, "
+                        + "deleted_rows = deleted_rows + ?, heartbeat_at = ? WHERE user_id = ?",
+                table, cursorId, deleted, Timestamp.valueOf(now), userId);
+    }
+
+    public void complete(long userId, int deleted, LocalDateTime now) {
+        jdbcTemplate.update("UPDATE account_deletions SET state = ?, current_table = NULL, cursor_id = 0, "
+                        + "deleted_rows = deleted_rows + ?, heartbeat_at = ?, completed_at = ? WHERE user_id = ?",
+                AccountDeletion.State.COMPLETED.name(), deleted, Timestamp.valueOf(now), Timestamp.valueOf(now),
+                userId);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    /**
+     * A deletion job and its progress
+     *
+     * @param currentTable table being deleted from, null before the first batch and once completed
+     * @param cursorId     last id deleted from currentTable
+     * @param totalRows    rows to delete, counted when the job starts
+     */
+    public record AccountDeletion(long userId, String username, int shard, State state, String currentTable,
+                                  long cursorId, long deletedRows, Long totalRows,
+                                  LocalDateTime requestedAt, LocalDateTime completedAt) {
+
+        public enum State {
+            IN_PROGRESS,
+            COMPLETED
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.coveragex.todobackend.repository;
+
+import com.coveragex.todobackend.analytics.TaskCompletion;
+import com.coveragex.todobackend.entity.ArchivedTask;
+import com.coveragex.todobackend.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for ArchivedTask entity.
+ * The archive is only read when a user explicitly asks for task history.
+ */
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+
+    /**
+     * Find archived tasks for a user, ordered by creation date (newest first)
+     * @param user     the user whose history to find
+     * @param pageable pagination parameters
+     * @return Page of archived tasks
+     */
+    Page<ArchivedTask> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
+
+    /**
+     * Count archived tasks for a user
+     * @param user the user
+     * @return number of archived tasks
+     */
+    long countByUser(User user);
+
+    /**
+     * Copy a batch of tasks into the archive in a single INSERT ... SELECT
+     * @param ids        ids of the tasks to copy
+     * @param archivedAt archive timestamp stored on every copied row
+     * @return number of rows inserted
+     */
+    @Modifying
+    @Query("INSERT INTO ArchivedTask (id, title, description, user, createdAt, updatedAt, completedAt, archivedAt) " +
+            "SELECT t.id, t.title, t.description, t.user, t.createdAt, t.updatedAt, t.completedAt, :archivedAt " +
+            "FROM Task t WHERE t.id IN :ids")
+    int copyFromTasks(@Param("ids") List<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * Read when and how fast a user's archived tasks were completed (CompletionSketches)
+     * @param user  the user
+     * @param after only completions after this time
+     * @return creation and completion time of each task, in no particular order
+     */
+    @Query("SELECT new com.coveragex.todobackend.analytics.TaskCompletion(t.createdAt, t.completedAt) " +
+            "FROM ArchivedTask t WHERE t.user = :user AND t.completedAt > :after")
+    List<TaskCompletion> findCompletionsSince(@Param("user") User user, @Param("after") LocalDateTime after);
+}
@@ -0,0 +1,60 @@
+package com.coveragex.todobackend.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Stored completion-time sketches, one row per user (CompletionSketches)
+ * Runs on the shard bound in ShardContext, like the user's tasks.
+ */
+@Repository
+public class CompletionSketchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CompletionSketchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the user's sketch bytes and the newest completion time they include
+     */
+    public Optional<StoredSketch> findByUserId(long userId) {
+        return jdbcTemplate.query(
+                "SELECT sketch, completed_through FROM completion_sketches WHERE user_id = ?",
+                (rs, row) -> {
+                    Timestamp through = rs.getTimestamp(2);
+                    return new StoredSketch(rs.getBytes(1), through == null ? null : through.toLocalDateTime());
+                },
+                userId).stream().findFirst();
+    }
+
+    /**
+     * Insert or replace a user's sketch
+     */
+    public void save(long userId, byte[] sketch, long completedCount, LocalDateTime completedThrough) {
+        Timestamp through = completedThrough == null ? null : Timestamp.valueOf(completedThrough);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String update = "UPDATE completion_sketches SET sketch = ?, completed_count = ?, completed_through = ?, "
+                + "updated_at = ? WHERE user_id = ?";
+        if (jdbcTemplate.update(update, sketch, completedCount, through, now, userId) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO completion_sketches "
+                            + "(user_id, sketch, completed_count, completed_through, updated_at) VALUES (?, ?, ?, ?, ?)",
+                    userId, sketch, completedCount, through, now);
+        } catch (DuplicateKeyException e) {
+            // Inserted by another node in between
+            jdbcTemplate.update(update, sketch, completedCount, through, now, userId);
+        }
+    }
+
+    public record StoredSketch(byte[] sketch, LocalDateTime completedThrough) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.coveragex.todobackend.repository;
+
+import com.coveragex.todobackend.shard.ShardRegistry;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Reminder firing claims (ReminderScheduler), always on the primary database
+ */
+@Repository
+public class ReminderClaimRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReminderClaimRepository(ShardRegistry shardRegistry) {
+        this.jdbcTemplate = shardRegistry.jdbc(ShardRegistry.PRIMARY);
+    }
+
+    /**
+     * Claim the firing of a task's reminder at the given time (whole seconds)
+     * @return true if this caller fires it, false if another instance already claimed it
+     */
+    public boolean claim(long userId, long taskId, LocalDateTime remindAt, LocalDateTime now) {
+        try {
+            return jdbcTemplate.update("INSERT INTO reminder_claims (task_id, user_id, remind_at, claimed_at) "
+                            + "VALUES (?, ?, ?, ?)", taskId, userId,
+                    Timestamp.valueOf(remindAt.truncatedTo(ChronoUnit.SECONDS)), Timestamp.valueOf(now)) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return the number of claims deleted for reminders before the cutoff
+     */
+    public int deleteBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM reminder_claims WHERE remind_at < ?", Timestamp.valueOf(cutoff));
+    }
+}
@@ -0,0 +1,89 @@
+package com.coveragex.todobackend.repository;
+
+import com.coveragex.todobackend.entity.TagListConverter;
+import com.coveragex.todobackend.entity.Task;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inserts many new tasks with one multi-row INSERT
+ * Hibernate writes IDENTITY entities one statement at a time; group commit (TaskService.createTasks)
+ * goes through here instead. Runs in the caller's transaction, on the shard bound in ShardContext.
+ * The ids are read back as rows of the statement (RETURNING, FINAL TABLE on H2): MariaDB's
+ * driver reports a single generated key for a multi-row INSERT.
+ */
+@Repository
+public class TaskBulkInserter {
+
+    private static final String INSERT = "INSERT INTO tasks "
+            + "(title, description, completed, user_id, created_at, updated_at, due_at, remind_at, tags, rank_key) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TagListConverter tagListConverter = new TagListConverter();
+
+    public TaskBulkInserter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert the tasks and set their generated ids and timestamps
+     * @param tasks new tasks with user and rank key set
+     */
+    public void insertAll(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String sql = INSERT + String.join(", ", Collections.nCopies(tasks.size(), ROW));
+
+        List<Long> ids = new ArrayList<>(jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(returningIds(connection, sql));
+            int index = 1;
+            for (Task task : tasks) {
+                statement.setString(index++, task.getTitle());
+                statement.setString(index++, task.getDescription());
+                statement.setBoolean(index++, Boolean.TRUE.equals(task.getCompleted()));
+                statement.setLong(index++, task.getUser().getId());
+                statement.setTimestamp(index++, Timestamp.valueOf(now));
+                statement.setTimestamp(index++, Timestamp.valueOf(now));
+                statement.setTimestamp(index++, timestamp(task.getDueAt()));
+                statement.setTimestamp(index++, timestamp(task.getRemindAt()));
+                statement.setString(index++, tagListConverter.convertToDatabaseColumn(task.getTags()));
+                statement.setString(index++, task.getRankKey());
+            }
+            return statement;
+        }, (rs, row) -> rs.getLong(1)));
+
+        if (ids.size() != tasks.size()) {
+            throw new IllegalStateException("Inserted " + tasks.size() + " tasks but got " + ids.size() + " ids");
+        }
+        // One statement takes ascending ids in row order; the returned rows need not be in that order
+        Collections.sort(ids);
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            task.setId(ids.get(i));
+            task.setCreatedAt(now);
+            task.setUpdatedAt(now);
+        }
+    }
+
+    private static String returningIds(Connection connection, String insert) throws SQLException {
+        return "H2".equals(connection.getMetaData().getDatabaseProductName())
+                ? "SELECT id FROM FINAL TABLE (" + insert + ")"
+                : insert + " RETURNING id";
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return time == null ? null : Timestamp.valueOf(time);
+    }
+}
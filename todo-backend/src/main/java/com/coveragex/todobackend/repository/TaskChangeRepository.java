@@ -0,0 +1,110 @@
+package com.coveragex.todobackend.repository;
+
+import com.coveragex.todobackend.entity.TaskChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for the task change log.
+ * Rows are only appended and read in id order; TaskChangeCompactor deletes old ones.
+ */
+@Repository
+public interface TaskChangeRepository extends JpaRepository<TaskChange, Long> {
+
+    /**
+     * Log a change of one task, stamped with the database's clock
+     * @param userId     the task's owner
+     * @param taskId     the task ID
+     * @param changeType a TaskChangedEvent.ChangeType name
+     * @return number of rows inserted
+     */
+    @Modifying
+    @Query(value = "INSERT INTO task_changes (user_id, task_id, change_type, changed_at) " +
+            "VALUES (:userId, :taskId, :changeType, LOCALTIMESTAMP(3))", nativeQuery = true)
+    int append(@Param("userId") Long userId, @Param("taskId") Long taskId, @Param("changeType") String changeType);
+
+    /**
+     * @return the database's clock, in the precision of changed_at
+     */
+    @Query(value = "SELECT LOCALTIMESTAMP(3)", nativeQuery = true)
+    LocalDateTime currentTime();
+
+    /**
+     * Find a user's change log entries after a cursor, oldest first
+     * @param userId   the user ID
+     * @param afterId  only entries with a larger id
+     * @param pageable pagination parameters (only the page size is used)
+     * @return list of entries
+     */
+    List<TaskChange> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Pageable pageable);
+
+    /**
+     * Find the ids of a user's latest entries written before a time, newest first
+     * @param userId   the user ID
+     * @param before   only entries written before this time
+     * @param pageable pagination parameters (only the page size is used)
+     * @return list of entry ids
+     */
+    @Query("SELECT c.id FROM TaskChange c WHERE c.userId = :userId AND c.changedAt < :before ORDER BY c.id DESC")
+    List<Long> findHeadIds(@Param("userId") Long userId,
+                           @Param("before") LocalDateTime before,
+                           Pageable pageable);
+
+    /**
+     * Log an ARCHIVED entry for each of a batch of tasks in a single INSERT ... SELECT,
+     * stamped with the database's clock
+     * @param ids ids of the tasks being archived
+     * @return number of rows inserted
+     */
+    @Modifying
+    @Query(value = "INSERT INTO task_changes (user_id, task_id, change_type, changed_at) " +
+            "SELECT user_id, id, 'ARCHIVED', LOCALTIMESTAMP(3) FROM tasks WHERE id IN (:ids)", nativeQuery = true)
+    int appendArchived(@Param("ids") List<Long> ids);
+
+    /**
+     * Find a batch of entries written before a cutoff, oldest first
+     * @param cutoff only entries written before this time
+     * @param limit  batch size
+     * @return list of entry ids
+     */
+    @Query(value = "SELECT id FROM task_changes WHERE changed_at < :cutoff ORDER BY changed_at LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findExpiredIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    /**
+     * Find a batch of entries after a cursor, walking the whole log by id
+     * @param afterId only entries with a larger id
+     * @param limit   batch size
+     * @return list of entry ids in ascending order
+     */
+    @Query(value = "SELECT id FROM task_changes WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * Delete entries by id
+     * @param ids entry ids
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query(value = "DELETE FROM task_changes WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * Delete those of the given entries, written before a cutoff, that a newer entry for the same task supersedes
+     * @param ids    entry ids
+     * @param cutoff only entries written before this time
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query(value = "DELETE FROM task_changes WHERE id IN (:ids) AND changed_at < :cutoff AND EXISTS (" +
+            "SELECT 1 FROM task_changes newer WHERE newer.task_id = task_changes.task_id AND newer.id > task_changes.id)",
+            nativeQuery = true)
+    int deleteSupersededByIdIn(@Param("ids") List<Long> ids, @Param("cutoff") LocalDateTime cutoff);
+}
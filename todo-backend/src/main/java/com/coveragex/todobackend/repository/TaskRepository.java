@@ -1,14 +1,20 @@
 package com.coveragex.todobackend.repository;
 
+import com.coveragex.todobackend.analytics.TaskCompletion;
 import com.coveragex.todobackend.entity.Task;
 import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.reminder.PendingReminder;
+import com.coveragex.todobackend.service.ArchivableTask;
+import com.coveragex.todobackend.tagging.TaggedTask;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -86,4 +92,175 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
      * @return total number of tasks
      */
     long countByUser(User user);
-}
\ No newline at end of file
+
+    /**
+     * Find the completed tasks last modified longest before the cutoff (for archiving)
+     * Read in idx_tasks_completed_updated order, so every batch is a short range scan; only
+     * the id and owner are read, the archive copy is made in SQL
+     *
+     * @param cutoff   only consider tasks last modified before this time
+     * @param pageable batch size
+     * @return archivable tasks, least recently modified first
+     */
+    @Query("SELECT new com.coveragex.todobackend.service.ArchivableTask(t.id, t.user.id) " +
+            "FROM Task t WHERE t.completed = true AND t.updatedAt < :cutoff ORDER BY t.updatedAt, t.id")
+    List<ArchivableTask> findArchivableTasks(@Param("cutoff") LocalDateTime cutoff,
+                                             Pageable pageable);
+
+    /**
+     * Delete a batch of tasks in one statement (after they were copied to the archive)
+     *
+     * @param ids task IDs
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * Soft delete a task owned by the user in a single UPDATE (no entity load)
+     *
+     * @param id   task ID
+     * @param user the user who owns the task
+     * @param now  tombstone timestamp
+     * @return 1 if the task was deleted, 0 if it does not exist or is not owned by the user
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.deletedAt = :now, t.updatedAt = :now " +
+            "WHERE t.id = :id AND t.user = :user AND t.deletedAt IS NULL")
+    int softDeleteByIdAndUser(@Param("id") Long id, @Param("user") User user, @Param("now") LocalDateTime now);
+
+    /**
+     * Clear the tombstone of a deleted task that has not been purged yet (undo)
+     * Native because the entity restriction hides tombstoned rows from JPQL
+     *
+     * @param id     task ID
+     * @param userId ID of the user who owns the task
+     * @param now    new last-modified timestamp
+     * @return 1 if the task was restored, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "UPDATE tasks SET deleted_at = NULL, updated_at = :now " +
+            "WHERE id = :id AND user_id = :userId AND deleted_at IS NOT NULL", nativeQuery = true)
+    int restoreByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    /**
+     * Find the oldest tombstones deleted before the cutoff (for purging), read from idx_tasks_deleted
+     *
+     * @param cutoff only consider tasks deleted before this time
+     * @param limit  batch size
+     * @return ids of purgeable tasks, oldest tombstone first
+     */
+    @Query(value = "SELECT id FROM tasks WHERE deleted_at < :cutoff ORDER BY deleted_at, id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findPurgeableTaskIds(@Param("cutoff") LocalDateTime cutoff,
+                                    @Param("limit") int limit);
+
+    /**
+     * Hard delete a batch of tombstoned tasks
+     *
+     * @param ids task IDs
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query(value = "DELETE FROM tasks WHERE id IN (:ids) AND deleted_at IS NOT NULL", nativeQuery = true)
+    int purgeByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * Find a user's incomplete tasks due in a time range, soonest first
+     *
+     * @param user     the user
+     * @param from     earliest due time (inclusive)
+     * @param to       latest due time (exclusive)
+     * @param pageable result limit
+     * @return List of tasks ordered by due time
+     */
+    @Query("SELECT t FROM Task t WHERE t.user = :user AND t.completed = false " +
+            "AND t.dueAt >= :from AND t.dueAt < :to ORDER BY t.dueAt, t.id")
+    List<Task> findDueSoon(@Param("user") User user,
+                           @Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to,
+                           Pageable pageable);
+
+    /**
+     * Find the reminders of incomplete tasks (all users) that fall in a time range
+     * Only the three columns the reminder scheduler keeps in memory are read
+     *
+     * @param from earliest reminder time (inclusive)
+     * @param to   latest reminder time (exclusive)
+     * @return pending reminders ordered by reminder time
+     */
+    @Query("SELECT new com.coveragex.todobackend.reminder.PendingReminder(t.id, t.user.id, t.remindAt) " +
+            "FROM Task t WHERE t.remindAt >= :from AND t.remindAt < :to AND t.completed = false " +
+            "ORDER BY t.remindAt, t.id")
+    List<PendingReminder> findRemindersBetween(@Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+
+    /**
+     * Read the tags and status of every task of a user in creation order (TagIndex rebuild)
+     *
+     * @param user the user
+     * @return the user's tasks, oldest first
+     */
+    @Query("SELECT new com.coveragex.todobackend.tagging.TaggedTask(t.id, t.completed, t.tags) " +
+            "FROM Task t WHERE t.user = :user ORDER BY t.createdAt, t.id")
+    List<TaggedTask> findTaggedTasksByUser(@Param("user") User user);
+
+    /**
+     * Read when and how fast a user's tasks were completed (CompletionSketches)
+     *
+     * @param user  the user
+     * @param after only completions after this time
+     * @return creation and completion time of each completed task, in no particular order
+     */
+    @Query("SELECT new com.coveragex.todobackend.analytics.TaskCompletion(t.createdAt, t.completedAt) " +
+            "FROM Task t WHERE t.user = :user AND t.completedAt > :after")
+    List<TaskCompletion> findCompletionsSince(@Param("user") User user, @Param("after") LocalDateTime after);
+
+    /**
+     * Find all tasks for a user in manual order
+     *
+     * @param user     the user whose tasks to find
+     * @param pageable pagination parameters
+     * @return Page of tasks ordered by rank key
+     */
+    Page<Task> findByUserOrderByRankKeyAscIdAsc(User user, Pageable pageable);
+
+    /**
+     * Find the rank keys that follow a key in a user's manual order
+     *
+     * @param user      the user
+     * @param after     only keys greater than this one ("" for the first keys)
+     * @param excludeId task to skip (the one being moved)
+     * @param pageable  number of keys
+     * @return rank keys in ascending order
+     */
+    @Query("SELECT t.rankKey FROM Task t WHERE t.user = :user AND t.rankKey > :after AND t.id <> :excludeId " +
+            "ORDER BY t.rankKey, t.id")
+    List<String> findRankKeysAfter(@Param("user") User user,
+                                   @Param("after") String after,
+                                   @Param("excludeId") Long excludeId,
+                                   Pageable pageable);
+
+    /**
+     * Move a task in its user's manual order, writing nothing but the key
+     *
+     * @param id      task ID
+     * @param user    the user who owns the task
+     * @param rankKey new rank key
+     * @return 1 if the task was moved, 0 otherwise
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Task t SET t.rankKey = :rankKey WHERE t.id = :id AND t.user = :user")
+    int updateRankKey(@Param("id") Long id, @Param("user") User user, @Param("rankKey") String rankKey);
+
+    /**
+     * Ids of all of a user's tasks in manual order, deleted ones included (for rebalancing)
+     * Native because the entity restriction hides tombstoned rows from JPQL
+     *
+     * @param userId ID of the user
+     * @return task ids ordered by rank key
+     */
+    @Query(value = "SELECT id FROM tasks WHERE user_id = :userId ORDER BY rank_key, id", nativeQuery = true)
+    List<Long> findIdsInRankOrder(@Param("userId") Long userId);
+}
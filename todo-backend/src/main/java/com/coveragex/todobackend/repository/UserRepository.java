@@ -51,4 +51,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.tasks WHERE u.username = :username")
     Optional<User> findByUsernameWithTasks(@Param("username") String username);
-}
\ No newline at end of file
+
+    /**
+     * Lock the user's row until the transaction ends
+     * Serializes the user's task writes with each other, with TaskRankRebalancer and with
+     * ShardRebalancer freezing the user's tasks before a move
+     * @param id the user ID
+     * @return whether the user's tasks are frozen on this database, or null if the user does not exist
+     */
+    @Query(value = "SELECT tasks_frozen FROM users WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Boolean lockById(@Param("id") Long id);
+}
@@ -0,0 +1,35 @@
+package com.coveragex.todobackend.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Request classes that get separate rate limits
+ */
+public enum EndpointClass {
+    READ,
+    WRITE,
+    SEARCH,
+    AUTH;
+
+    /**
+     * Classify a request, or return null for requests that are never limited
+     * (CORS preflight, health checks)
+     */
+    static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+        if ("OPTIONS".equals(method) || path.startsWith("/actuator/") || path.equals("/health")) {
+            return null;
+        }
+        if (path.startsWith("/auth/")) {
+            return AUTH;
+        }
+        if (path.startsWith("/tasks/search")) {
+            return SEARCH;
+        }
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return READ;
+        }
+        return WRITE;
+    }
+}
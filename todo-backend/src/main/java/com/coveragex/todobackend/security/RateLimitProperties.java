@@ -0,0 +1,39 @@
+package com.coveragex.todobackend.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Token-bucket limits per endpoint class, for authenticated users and for client IPs
+ * A class without an entry (or with a non-positive rate) is not limited in that dimension.
+ */
+@Data
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Buckets untouched for this long are full again and get dropped
+     */
+    private long idleEvictionMs = 60000;
+
+    private Map<EndpointClass, Limit> user = new EnumMap<>(EndpointClass.class);
+
+    private Map<EndpointClass, Limit> ip = new EnumMap<>(EndpointClass.class);
+
+    @Data
+    public static class Limit {
+        /**
+         * Sustained requests per second
+         */
+        private double ratePerSecond;
+        /**
+         * Requests allowed back to back after an idle period
+         */
+        private int burst = 1;
+    }
+}
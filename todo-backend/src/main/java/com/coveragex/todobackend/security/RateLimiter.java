@@ -0,0 +1,133 @@
+package com.coveragex.todobackend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user and per-IP token-bucket rate limits, one bucket per key and endpoint class
+ * Checked by JwtAuthenticationFilter before the user is loaded, so a client over its
+ * limit never reaches the database. Once a key's bucket exists a check is a map lookup
+ * plus one compare-and-set, without locks or allocation. Idle buckets are full again,
+ * so evicting them loses nothing.
+ */
+@Component
+public class RateLimiter {
+
+    private final boolean enabled;
+    private final long idleNanos;
+    private final Dimension users;
+    private final Dimension ips;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.idleNanos = Duration.ofMillis(properties.getIdleEvictionMs()).toNanos();
+        this.users = new Dimension("user", properties.getUser(), meterRegistry);
+        this.ips = new Dimension("ip", properties.getIp(), meterRegistry);
+    }
+
+    /**
+     * Take a token from the client IP's bucket and, for authenticated requests, the user's
+     * @param endpoint endpoint class of the request
+     * @param username user from the token, or null for anonymous requests
+     * @param ip       client address
+     * @return 0 if the request may proceed, otherwise nanoseconds until it could be retried
+     */
+    public long tryAcquire(EndpointClass endpoint, String username, String ip) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        long wait = ips.tryAcquire(endpoint, ip, now);
+        if (wait == 0) {
+            wait = users.tryAcquire(endpoint, username, now);
+        }
+        return wait;
+    }
+
+    /**
+     * Drop buckets that have refilled completely
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.idle-eviction-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        users.evictIdle(now, idleNanos);
+        ips.evictIdle(now, idleNanos);
+    }
+
+    /**
+     * Number of live buckets, for tests and diagnostics
+     */
+    int bucketCount() {
+        return users.size() + ips.size();
+    }
+
+    /**
+     * Buckets and limits of one key type (users or IPs), indexed by endpoint class ordinal
+     */
+    private static final class Dimension {
+
+        private final ConcurrentHashMap<String, TokenBucket>[] buckets;
+        private final long[] intervalNanos;
+        private final long[] burstToleranceNanos;
+        private final Counter[] rejected;
+
+        @SuppressWarnings("unchecked")
+        Dimension(String name, Map<EndpointClass, RateLimitProperties.Limit> limits, MeterRegistry meterRegistry) {
+            int classes = EndpointClass.values().length;
+            buckets = new ConcurrentHashMap[classes];
+            intervalNanos = new long[classes];
+            burstToleranceNanos = new long[classes];
+            rejected = new Counter[classes];
+
+            for (EndpointClass endpoint : EndpointClass.values()) {
+                int i = endpoint.ordinal();
+                buckets[i] = new ConcurrentHashMap<>();
+                RateLimitProperties.Limit limit = limits.get(endpoint);
+                if (limit != null && limit.getRatePerSecond() > 0) {
+                    intervalNanos[i] = (long) (1_000_000_000L / limit.getRatePerSecond());
+                    burstToleranceNanos[i] = intervalNanos[i] * (Math.max(limit.getBurst(), 1) - 1);
+                }
+                rejected[i] = Counter.builder("rate_limit.rejected")
+                        .tag("key", name)
+                        .tag("endpoint", endpoint.name().toLowerCase())
+                        .register(meterRegistry);
+            }
+        }
+
+        long tryAcquire(EndpointClass endpoint, String key, long now) {
+            int i = endpoint.ordinal();
+            if (key == null || intervalNanos[i] == 0) {
+                return 0;
+            }
+            TokenBucket bucket = buckets[i].get(key);
+            if (bucket == null) {
+                bucket = buckets[i].computeIfAbsent(key, k -> new TokenBucket(now));
+            }
+            long wait = bucket.tryAcquire(now, intervalNanos[i], burstToleranceNanos[i]);
+            if (wait > 0) {
+                rejected[i].increment();
+            }
+            return wait;
+        }
+
+        void evictIdle(long now, long idleNanos) {
+            for (ConcurrentHashMap<String, TokenBucket> byKey : buckets) {
+                byKey.entrySet().removeIf(entry -> entry.getValue().idleSince(now, idleNanos));
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (ConcurrentHashMap<String, TokenBucket> byKey : buckets) {
+                size += byKey.size();
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.coveragex.todobackend.security;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Lock-free token bucket, kept as a single long (GCRA form)
+ * Instead of a token count the bucket stores the theoretical arrival time (TAT): the instant
+ * at which it would be full again. A request is allowed while TAT lies less than the burst
+ * capacity in the future, and pushes TAT forward by one emission interval. Updates are a
+ * compare-and-set on one primitive field, so the fast path neither locks nor allocates.
+ */
+final class TokenBucket {
+
+    private static final AtomicLongFieldUpdater<TokenBucket> TAT =
+            AtomicLongFieldUpdater.newUpdater(TokenBucket.class, "theoreticalArrival");
+
+    private volatile long theoreticalArrival;
+
+    TokenBucket(long nowNanos) {
+        this.theoreticalArrival = nowNanos;
+    }
+
+    /**
+     * Take one token
+     * @param nowNanos          current System.nanoTime()
+     * @param intervalNanos     time to refill one token
+     * @param burstToleranceNanos how far TAT may run ahead of now: (burst - 1) * interval
+     * @return 0 if allowed, otherwise the nanoseconds until a token is available
+     */
+    long tryAcquire(long nowNanos, long intervalNanos, long burstToleranceNanos) {
+        while (true) {
+            long tat = theoreticalArrival;
+            long start = tat - nowNanos > 0 ? tat : nowNanos;
+            long wait = start - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (TAT.compareAndSet(this, tat, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * A bucket whose TAT is in the past is full again, i.e. indistinguishable from a new one
+     */
+    boolean idleSince(long nowNanos, long idleNanos) {
+        return nowNanos - theoreticalArrival > idleNanos;
+    }
+}
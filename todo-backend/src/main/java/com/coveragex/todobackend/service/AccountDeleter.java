@@ -0,0 +1,235 @@
+package com.coveragex.todobackend.service;
+
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.exception.ForbiddenException;
+import com.coveragex.todobackend.exception.NotFoundException;
+import com.coveragex.todobackend.invalidation.Invalidation;
+import com.coveragex.todobackend.invalidation.InvalidationBus;
+import com.coveragex.todobackend.repository.AccountDeletionRepository;
+import com.coveragex.todobackend.repository.AccountDeletionRepository.AccountDeletion;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.shard.ShardMigrationInProgressException;
+import com.coveragex.todobackend.shard.ShardRegistry;
+import com.coveragex.todobackend.shard.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Background job that deletes a user account with everything in it
+ *
+ * Deleting a user through JPA would load every task and delete them row by row in one
+ * transaction. Instead a request records a job (account_deletions) and returns; the job
+ * deletes the user's tasks, archived tasks and change log in id-ordered batches, one short
+ * transaction each, paced like the archiver, then deletes the user row (the foreign keys
+ * take what is left: tasks created meanwhile, the sketch, the shard directory entry). After
+ * every batch the job records its table, last id and row count, which is both its progress
+ * and where a job cut short by a crash resumes; unfinished jobs are picked up periodically.
+ */
+@Component
+@Slf4j
+public class AccountDeleter {
+
+    // Tables holding a user's rows by id on their shard, emptied in this order
+    static final List<String> TABLES = List.of("tasks", "tasks_archive", "task_changes");
+
+    private final AccountDeletionRepository deletions;
+    private final UserRepository userRepository;
+    private final ShardRegistry shardRegistry;
+    private final ShardRouter shardRouter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InvalidationBus invalidationBus;
+    private final Map<Integer, BatchThrottle> throttles;
+    private final ExecutorService executor;
+    // Jobs running or queued on this node
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    private final int batchSize;
+    private final Duration lease;
+
+    public AccountDeleter(AccountDeletionRepository deletions,
+                          UserRepository userRepository,
+                          ShardRegistry shardRegistry,
+                          ShardRouter shardRouter,
+                          ApplicationEventPublisher eventPublisher,
+                          InvalidationBus invalidationBus,
+                          @Value("${account-deletion.batch-size:1000}") int batchSize,
+                          @Value("${account-deletion.lease-ms:300000}") long leaseMillis,
+                          @Value("${account-deletion.throttle-ratio:1.0}") double throttleRatio,
+                          @Value("${account-deletion.pause-ms:1000}") long pauseMillis) {
+        this.deletions = deletions;
+        this.userRepository = userRepository;
+        this.shardRegistry = shardRegistry;
+        this.shardRouter = shardRouter;
+        this.eventPublisher = eventPublisher;
+        this.invalidationBus = invalidationBus;
+        this.throttles = BatchThrottle.perShard(shardRegistry, throttleRatio, pauseMillis);
+        this.batchSize = batchSize;
+        this.lease = Duration.ofMillis(leaseMillis);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "account-deleter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start deleting a user's account, or return the job already started
+     *
+     * @param username the username
+     * @return the job, as recorded
+     */
+    public AccountDeletion request(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ForbiddenException("User not found: " + username));
+        ShardRouter.Placement placement = shardRouter.placement(user.getId());
+        if (placement.moving()) {
+            throw new ShardMigrationInProgressException(username);
+        }
+
+        AccountDeletion deletion = deletions.findByUserId(user.getId()).orElse(null);
+        if (deletion == null) {
+            try {
+                deletions.create(user.getId(), username, placement.shard(), LocalDateTime.now());
+                log.info("Account deletion requested for user {} ({})", username, user.getId());
+            } catch (DuplicateKeyException e) {
+                // Requested twice at once
+            }
+            deletion = deletions.findByUserId(user.getId()).orElseThrow();
+        }
+        submit(user.getId());
+        return deletion;
+    }
+
+    /**
+     * Progress of a user's account deletion
+     *
+     * @param username the username
+     * @return the job
+     * @throws NotFoundException if no deletion was requested
+     */
+    public AccountDeletion progress(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ForbiddenException("User not found: " + username));
+        return deletions.findByUserId(user.getId())
+                .orElseThrow(() -> new NotFoundException("No account deletion requested"));
+    }
+
+    /**
+     * Pick up jobs left unfinished by a crash or restart (on any node)
+     */
+    @Scheduled(initialDelayString = "${account-deletion.resume-initial-delay-ms:30000}",
+            fixedDelayString = "${account-deletion.resume-interval-ms:60000}")
+    public void resumeUnfinished() {
+        for (Long userId : deletions.findResumable(LocalDateTime.now().minus(lease))) {
+            submit(userId);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Interrupts a running job between batches; it resumes after the next start
+        executor.shutdownNow();
+    }
+
+    private void submit(long userId) {
+        if (running.add(userId)) {
+            executor.execute(() -> {
+                try {
+                    run(userId);
+                } catch (RuntimeException e) {
+                    log.error("Deleting the account of user {} failed, it resumes after the lease", userId, e);
+                } finally {
+                    running.remove(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Run a job from where it stopped, unless another node is working on it
+     */
+    void run(long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!deletions.claim(userId, now, now.minus(lease))) {
+            return;
+        }
+        AccountDeletion deletion = deletions.findByUserId(userId).orElseThrow();
+        JdbcTemplate jdbc = shardRegistry.jdbc(deletion.shard());
+        if (deletion.totalRows() == null) {
+            long total = 1;
+            for (String table : TABLES) {
+                total += jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE user_id = ?", Long.class, userId);
+            }
+            deletions.setTotalRows(userId, total);
+        }
+
+        int first = deletion.currentTable() == null ? 0 : Math.max(0, TABLES.indexOf(deletion.currentTable()));
+        try {
+            for (int i = first; i < TABLES.size(); i++) {
+                String table = TABLES.get(i);
+                long cursor = table.equals(deletion.currentTable()) ? deletion.cursorId() : 0;
+                deleteRows(userId, deletion.shard(), table, cursor);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Account deletion of user {} interrupted, it resumes after the lease", userId);
+            return;
+        }
+
+        int deleted = shardRegistry.transactionTemplate(ShardRegistry.PRIMARY).execute(status -> {
+            int rows = deletion.shard() == ShardRegistry.PRIMARY
+                    ? 0 : jdbc.update("DELETE FROM users WHERE id = ?", userId);
+            return rows + shardRegistry.jdbc(ShardRegistry.PRIMARY).update("DELETE FROM users WHERE id = ?", userId);
+        });
+        deletions.complete(userId, Math.min(deleted, 1), LocalDateTime.now());
+
+        // Drop what this node and the others still hold for the user
+        Invalidation invalidation = Invalidation.user(deletion.username(), userId);
+        eventPublisher.publishEvent(invalidation);
+        invalidationBus.publish(invalidation);
+        AccountDeletion completed = deletions.findByUserId(userId).orElseThrow();
+        log.info("Deleted the account of user {} ({}): {} rows", deletion.username(), userId, completed.deletedRows());
+    }
+
+    /**
+     * Delete a user's rows from one table in batches of ids after the cursor, in id order
+     */
+    private void deleteRows(long userId, int shard, String table, long cursor) throws InterruptedException {
+        JdbcTemplate jdbc = shardRegistry.jdbc(shard);
+        BatchThrottle throttle = throttles.get(shard);
+        while (true) {
+            throttle.awaitIdlePool();
+
+            long started = System.nanoTime();
+            List<Long> ids = jdbc.queryForList("SELECT id FROM " + table + " WHERE user_id = ? AND id > ? "
+                    + "ORDER BY id LIMIT ?", Long.class, userId, cursor, batchSize);
+            if (ids.isEmpty()) {
+                return;
+            }
+            String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            int deleted = shardRegistry.transactionTemplate(shard).execute(status ->
+                    jdbc.update("DELETE FROM " + table + " WHERE id IN (" + placeholders + ")", ids.toArray()));
+            cursor = ids.get(ids.size() - 1);
+            deletions.recordBatch(userId, table, cursor, deleted, LocalDateTime.now());
+            log.debug("Account deletion of user {}: {} rows from {} up to id {}", userId, deleted, table, cursor);
+
+            throttle.pauseAfterBatch(started);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.coveragex.todobackend.service;
+
+/**
+ * A completed task due for the archive, with just what TaskArchiver needs to move it
+ */
+public record ArchivableTask(Long id, Long userId) {
+}
@@ -4,8 +4,14 @@ import com.coveragex.todobackend.dto.AuthRequest;
 import com.coveragex.todobackend.dto.AuthResponse;
 import com.coveragex.todobackend.dto.RegisterRequest;
 import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.exception.ConflictException;
+import com.coveragex.todobackend.exception.ForbiddenException;
+import com.coveragex.todobackend.exception.UnauthorizedException;
+import com.coveragex.todobackend.invalidation.Invalidation;
+import com.coveragex.todobackend.invalidation.InvalidationBus;
 import com.coveragex.todobackend.repository.UserRepository;
 import com.coveragex.todobackend.security.JwtUtil;
+import com.coveragex.todobackend.shard.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,24 +39,26 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final ShardRouter shardRouter;
+    private final InvalidationBus invalidationBus;
 
     /**
      * Register a new user
      * @param registerRequest registration details
      * @return authentication response with JWT token
-     * @throws RuntimeException if username or email already exists
+     * @throws ConflictException if username or email already exists
      */
     public AuthResponse register(RegisterRequest registerRequest) {
         log.info("Attempting to register user: {}", registerRequest.getUsername());
 
         // Check if username already exists
         if (userRepository.existsByUsername(registerRequest.getUsername())) {
-            throw new RuntimeException("Username is already taken!");
+            throw new ConflictException("Username is already taken!");
         }
 
         // Check if email already exists
         if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            throw new RuntimeException("Email is already in use!");
+            throw new ConflictException("Email is already in use!");
         }
 
         // Create new user
@@ -63,6 +71,10 @@ public class AuthService {
         User savedUser = userRepository.save(user);
         log.info("User registered successfully: {}", savedUser.getUsername());
 
+        // Pick the task shard once the user row has committed
+        shardRouter.assignNewUser(savedUser.getId());
+        invalidationBus.publishAfterCommit(Invalidation.user(savedUser.getUsername(), savedUser.getId()));
+
         // Generate JWT token
         String token = jwtUtil.generateToken(savedUser.getUsername());
 
@@ -90,7 +102,7 @@ public class AuthService {
             // Get user details
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
             User user = userRepository.findByUsername(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+                    .orElseThrow(() -> new ForbiddenException("User not found: " + userDetails.getUsername()));
 
             // Generate JWT token
             String token = jwtUtil.generateToken(user.getUsername());
@@ -113,8 +125,8 @@ public class AuthService {
         String username = jwtUtil.extractUsername(token);
         if (username != null && jwtUtil.validateToken(token, username)) {
             return userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+                    .orElseThrow(() -> new ForbiddenException("User not found: " + username));
         }
-        throw new RuntimeException("Invalid token");
+        throw new UnauthorizedException("Invalid token");
     }
 }
\ No newline at end of file
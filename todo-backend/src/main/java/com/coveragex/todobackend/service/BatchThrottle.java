@@ -0,0 +1,73 @@
+package com.coveragex.todobackend.service;
+
+import com.coveragex.todobackend.shard.ShardRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load-based pacing shared by the background batch jobs (archiver, purger)
+ * A job sleeps in proportion to how long its last batch took, and backs off entirely
+ * while request threads are waiting for a pooled connection.
+ */
+@Slf4j
+class BatchThrottle {
+
+    private final HikariDataSource hikariDataSource;
+    private final double throttleRatio;
+    private final long pauseMillis;
+
+    BatchThrottle(DataSource dataSource, double throttleRatio, long pauseMillis) {
+        this.hikariDataSource = hikariDataSource(dataSource);
+        this.throttleRatio = throttleRatio;
+        this.pauseMillis = pauseMillis;
+    }
+
+    /**
+     * One throttle per shard, each watching that shard's connection pool
+     */
+    static Map<Integer, BatchThrottle> perShard(ShardRegistry shardRegistry, double throttleRatio, long pauseMillis) {
+        Map<Integer, BatchThrottle> throttles = new HashMap<>();
+        for (int shard : shardRegistry.shardIds()) {
+            throttles.put(shard, new BatchThrottle(shardRegistry.dataSource(shard), throttleRatio, pauseMillis));
+        }
+        return throttles;
+    }
+
+    /**
+     * Block while the connection pool has waiting request threads
+     */
+    void awaitIdlePool() throws InterruptedException {
+        HikariPoolMXBean pool = hikariDataSource != null ? hikariDataSource.getHikariPoolMXBean() : null;
+        while (pool != null && pool.getThreadsAwaitingConnection() > 0) {
+            log.debug("Background job pausing: {} threads waiting for a connection",
+                    pool.getThreadsAwaitingConnection());
+            Thread.sleep(pauseMillis);
+        }
+    }
+
+    /**
+     * Sleep after a batch that started at the given System.nanoTime()
+     */
+    void pauseAfterBatch(long startedNanos) throws InterruptedException {
+        long tookMillis = (System.nanoTime() - startedNanos) / 1_000_000;
+        Thread.sleep((long) (tookMillis * throttleRatio));
+    }
+
+    private static HikariDataSource hikariDataSource(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            log.warn("Cannot inspect connection pool, background jobs run without load throttling: {}",
+                    e.getMessage());
+        }
+        return null;
+    }
+}
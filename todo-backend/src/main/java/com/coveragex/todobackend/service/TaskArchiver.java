@@ -0,0 +1,159 @@
+package com.coveragex.todobackend.service;
+
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.event.TaskChangedEvent;
+import com.coveragex.todobackend.event.TaskChangedEvent.ChangeType;
+import com.coveragex.todobackend.invalidation.Invalidation;
+import com.coveragex.todobackend.invalidation.InvalidationBus;
+import com.coveragex.todobackend.repository.ArchivedTaskRepository;
+import com.coveragex.todobackend.repository.TaskChangeRepository;
+import com.coveragex.todobackend.repository.TaskRepository;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.shard.ShardContext;
+import com.coveragex.todobackend.shard.ShardRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Background job that moves old completed tasks from the hot tasks table into tasks_archive
+ * Keeps the tasks table (and the indexes serving the dashboard queries) proportional to active work.
+ *
+ * Each batch is copied and deleted in its own short transaction. Between batches the job
+ * sleeps in proportion to how long the batch took, and backs off entirely while request
+ * threads are waiting for a pooled connection. With sharding each shard is archived in turn,
+ * paced by its own pool. Each batch takes the least recently modified archivable tasks left,
+ * so no cursor is needed: archived tasks leave the table.
+ */
+@Component
+@ConditionalOnProperty(name = "archive.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class TaskArchiver {
+
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final TaskChangeRepository taskChangeRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InvalidationBus invalidationBus;
+    private final ShardRegistry shardRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Integer, BatchThrottle> throttles;
+
+    private final Duration completedAge;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public TaskArchiver(TaskRepository taskRepository,
+                        ArchivedTaskRepository archivedTaskRepository,
+                        TaskChangeRepository taskChangeRepository,
+                        UserRepository userRepository,
+                        ApplicationEventPublisher eventPublisher,
+                        InvalidationBus invalidationBus,
+                        PlatformTransactionManager transactionManager,
+                        ShardRegistry shardRegistry,
+                        @Value("${archive.completed-age-days:30}") long completedAgeDays,
+                        @Value("${archive.batch-size:200}") int batchSize,
+                        @Value("${archive.max-batches-per-run:500}") int maxBatchesPerRun,
+                        @Value("${archive.throttle-ratio:1.0}") double throttleRatio,
+                        @Value("${archive.pause-ms:1000}") long pauseMillis) {
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.taskChangeRepository = taskChangeRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.invalidationBus = invalidationBus;
+        this.shardRegistry = shardRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.throttles = BatchThrottle.perShard(shardRegistry, throttleRatio, pauseMillis);
+        this.completedAge = Duration.ofDays(completedAgeDays);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    /**
+     * Periodic archiving run
+     */
+    @Scheduled(initialDelayString = "${archive.initial-delay-ms:60000}", fixedDelayString = "${archive.interval-ms:300000}")
+    public void archiveCompletedTasks() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(completedAge);
+        for (int shard : shardRegistry.shardIds()) {
+            ShardContext.runIn(shard, () -> archiveShard(cutoff, throttles.get(shard)));
+        }
+    }
+
+    /**
+     * Archive the shard bound in ShardContext
+     */
+    private void archiveShard(LocalDateTime cutoff, BatchThrottle throttle) {
+        int archived = 0;
+
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                throttle.awaitIdlePool();
+
+                long started = System.nanoTime();
+                Integer moved = archiveBatch(cutoff);
+                if (moved == null) {
+                    break;
+                }
+                archived += moved;
+
+                throttle.pauseAfterBatch(started);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} completed tasks older than {} on shard {}", archived, cutoff, ShardContext.current());
+        }
+    }
+
+    /**
+     * Move one batch of archivable tasks
+     * @param cutoff last-modified cutoff
+     * @return moved count, or null when nothing is left
+     */
+    Integer archiveBatch(LocalDateTime cutoff) {
+        return transactionTemplate.execute(status -> {
+            List<ArchivableTask> tasks = taskRepository.findArchivableTasks(cutoff, PageRequest.of(0, batchSize));
+            if (tasks.isEmpty()) {
+                return null;
+            }
+
+            List<Long> ids = tasks.stream().map(ArchivableTask::id).collect(Collectors.toList());
+            LocalDateTime now = LocalDateTime.now();
+            int copied = archivedTaskRepository.copyFromTasks(ids, now);
+            // Archived tasks leave the active list, so syncing clients get a tombstone for each
+            taskChangeRepository.appendArchived(ids);
+            int deleted = taskRepository.deleteByIdIn(ids);
+            if (copied != deleted) {
+                throw new IllegalStateException("Archive copied " + copied + " tasks but deleted " + deleted);
+            }
+
+            // Derived per-user state (stats cache, ...) is refreshed once the batch commits
+            Set<Long> userIds = tasks.stream().map(ArchivableTask::userId).collect(Collectors.toSet());
+            for (User user : userRepository.findAllById(userIds)) {
+                eventPublisher.publishEvent(
+                        new TaskChangedEvent(user.getUsername(), user.getId(), null, ChangeType.ARCHIVED));
+                invalidationBus.publishAfterCommit(Invalidation.tasks(user.getUsername(), user.getId()));
+            }
+
+            return deleted;
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package com.coveragex.todobackend.service;
+
+import com.coveragex.todobackend.repository.TaskRepository;
+import com.coveragex.todobackend.shard.ShardContext;
+import com.coveragex.todobackend.shard.ShardRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Background job that hard-deletes tombstoned tasks once their undo window has passed
+ * Runs in large batches with one short transaction each, paced by the same load signals as
+ * the archiver. Shards are purged one after another. Each batch takes the oldest tombstones
+ * left, so no cursor is needed: purged and restored tasks leave the range.
+ */
+@Component
+@ConditionalOnProperty(name = "purge.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class TaskPurger {
+
+    private final TaskRepository taskRepository;
+    private final ShardRegistry shardRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Integer, BatchThrottle> throttles;
+
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public TaskPurger(TaskRepository taskRepository,
+                      PlatformTransactionManager transactionManager,
+                      ShardRegistry shardRegistry,
+                      @Value("${purge.retention-minutes:1440}") long retentionMinutes,
+                      @Value("${purge.batch-size:1000}") int batchSize,
+                      @Value("${purge.max-batches-per-run:1000}") int maxBatchesPerRun,
+                      @Value("${purge.throttle-ratio:1.0}") double throttleRatio,
+                      @Value("${purge.pause-ms:1000}") long pauseMillis) {
+        this.taskRepository = taskRepository;
+        this.shardRegistry = shardRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.throttles = BatchThrottle.perShard(shardRegistry, throttleRatio, pauseMillis);
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    /**
+     * Periodic purge run
+     */
+    @Scheduled(initialDelayString = "${purge.initial-delay-ms:90000}", fixedDelayString = "${purge.interval-ms:600000}")
+    public void purgeDeletedTasks() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        for (int shard : shardRegistry.shardIds()) {
+            ShardContext.runIn(shard, () -> purgeShard(cutoff, throttles.get(shard)));
+        }
+    }
+
+    /**
+     * Purge the shard bound in ShardContext
+     */
+    private void purgeShard(LocalDateTime cutoff, BatchThrottle throttle) {
+        int purged = 0;
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                throttle.awaitIdlePool();
+
+                long started = System.nanoTime();
+                List<Long> ids = taskRepository.findPurgeableTaskIds(cutoff, batchSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                purged += transactionTemplate.execute(status -> taskRepository.purgeByIdIn(ids));
+
+                throttle.pauseAfterBatch(started);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (purged > 0) {
+            log.info("Purged {} tasks deleted before {} on shard {}", purged, cutoff, ShardContext.current());
+        }
+    }
+}
@@ -1,34 +1,88 @@
 package com.coveragex.todobackend.service;
 
+import com.coveragex.todobackend.analytics.CompletionSketches;
+import com.coveragex.todobackend.coalescing.Coalesced;
+import com.coveragex.todobackend.dto.CompletionLatencyResponse;
+import com.coveragex.todobackend.dto.TaskChangeResponse;
+import com.coveragex.todobackend.dto.TaskChangesResponse;
+import com.coveragex.todobackend.dto.TaskPage;
 import com.coveragex.todobackend.dto.TaskRequest;
 import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.ArchivedTask;
 import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.TaskChange;
 import com.coveragex.todobackend.entity.User;
-import com.coveragex.todobackend.repository.TaskRepository;
+import com.coveragex.todobackend.event.TaskChangedEvent;
+import com.coveragex.todobackend.event.TaskChangedEvent.ChangeType;
+import com.coveragex.todobackend.exception.BadRequestException;
+import com.coveragex.todobackend.exception.ForbiddenException;
+import com.coveragex.todobackend.exception.NotFoundException;
+import com.coveragex.todobackend.invalidation.Invalidation;
+import com.coveragex.todobackend.invalidation.InvalidationBus;
+import com.coveragex.todobackend.ranking.RankKeys;
+import com.coveragex.todobackend.ranking.TaskRankRebalancer;
+import com.coveragex.todobackend.recent.RecentTasks;
+import com.coveragex.todobackend.reminder.ReminderScheduler;
+import com.coveragex.todobackend.repository.ArchivedTaskRepository;
 import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.shard.ShardMigrationInProgressException;
+import com.coveragex.todobackend.shard.ShardedByUser;
+import com.coveragex.todobackend.store.TaskStore;
+import com.coveragex.todobackend.sync.TaskChangeLog;
+import com.coveragex.todobackend.tagging.TagIndex;
+import com.coveragex.todobackend.tagging.TagMatch;
+import com.coveragex.todobackend.tagging.Tags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Service class for handling task operations
  * Implements business logic for CRUD operations on tasks
+ * With sharding enabled every call runs on the shard holding the user's tasks
+ * Concurrent identical dashboard reads (@Coalesced) share one execution
+ * Tasks are read and written through the TaskStore (the tasks table unless profile "in-memory")
  */
 @Service
+@ShardedByUser
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
 public class TaskService {
 
-    private final TaskRepository taskRepository;
+    // Length of the rank_key column
+    private static final int MAX_RANK_KEY_LENGTH = 64;
+    private static final int MAX_CHANGES_PER_SYNC = 1000;
+    // Size of the GET /tasks/recent list
+    private static final int RECENT_TASKS = 5;
+
+    private final TaskStore taskStore;
     private final UserRepository userRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InvalidationBus invalidationBus;
+    private final ReminderScheduler reminderScheduler;
+    private final TagIndex tagIndex;
+    private final TaskRankRebalancer rankRebalancer;
+    private final TaskChangeLog taskChangeLog;
+    private final CompletionSketches completionSketches;
+    private final RecentTasks recentTasks;
 
     /**
      * Get recent incomplete tasks for a user
@@ -36,18 +90,18 @@ public class TaskService {
      * @return list of recent incomplete tasks
      */
     @Transactional(readOnly = true)
+    @Coalesced
     public List<TaskResponse> getRecentTasks(String username) {
+        // Read before the first query, so a load can tell it missed a concurrent write
+        long generation = recentTasks.generation(username);
         User user = getUserByUsername(username);
 
-        // Get only the 5 most recent incomplete tasks
-        Pageable pageable = PageRequest.of(0, 5);
-        Page<Task> tasks = taskRepository.findByUserAndCompletedFalseOrderByCreatedAtDesc(user, pageable);
+        // Only the 5 most recent incomplete tasks, held in memory by RecentTasks
+        List<TaskResponse> tasks = recentTasks.newest(user, generation, RECENT_TASKS);
 
-        log.info("Retrieved {} recent tasks for user: {}", tasks.getNumberOfElements(), username);
+        log.info("Retrieved {} recent tasks for user: {}", tasks.size(), username);
 
-        return tasks.getContent().stream()
-                .map(TaskResponse::fromEntity)
-                .collect(Collectors.toList());
+        return tasks;
     }
 
     /**
@@ -59,16 +113,72 @@ public class TaskService {
      * @return paginated list of tasks
      */
     @Transactional(readOnly = true)
-    public Page<TaskResponse> getAllTasks(String username, int page, int size) {
+    public TaskPage getAllTasks(String username, int page, int size) {
         User user = getUserByUsername(username);
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<Task> tasks = taskRepository.findByUserOrderByCreatedAtDesc(user, pageable);
+        Page<Task> tasks = taskStore.findNewestFirst(user, pageable);
 
         log.info("Retrieved {} tasks for user: {} (page {}, size {})",
                 tasks.getNumberOfElements(), username, page, size);
 
-        return tasks.map(TaskResponse::fromEntity);
+        return TaskPage.of(tasks);
+    }
+
+    /**
+     * Get all tasks for a user in manual (drag-and-drop) order
+     *
+     * @param username the username
+     * @param page     page number (0-based)
+     * @param size     page size
+     * @return paginated list of tasks
+     */
+    @Transactional(readOnly = true)
+    public TaskPage getAllTasksInManualOrder(String username, int page, int size) {
+        User user = getUserByUsername(username);
+
+        Pageable pageable = PageRequest.of(page, size);
+        Page<Task> tasks = taskStore.findInManualOrder(user, pageable);
+
+        log.info("Retrieved {} tasks in manual order for user: {} (page {}, size {})",
+                tasks.getNumberOfElements(), username, page, size);
+
+        return TaskPage.of(tasks);
+    }
+
+    /**
+     * Get tasks filtered by tags and/or completed status, newest first
+     * The filter is answered by the in-memory TagIndex; only the page itself is loaded
+     *
+     * @param username  the username
+     * @param tags      tags to match, null or empty for none
+     * @param match     whether a task needs any or all of the tags
+     * @param completed completed status to require, null for both
+     * @param page      page number (0-based)
+     * @param size      page size
+     * @return paginated list of matching tasks
+     */
+    @Transactional(readOnly = true)
+    public TaskPage getTasksByTags(String username, List<String> tags, TagMatch match,
+                                   Boolean completed, int page, int size) {
+        // Read before the first query, so a cold index build can tell it missed a concurrent write
+        long generation = tagIndex.generation(username);
+        User user = getUserByUsername(username);
+
+        Pageable pageable = PageRequest.of(page, size);
+        Page<Long> ids = tagIndex.query(user, generation, Tags.normalize(tags), match, completed, pageable);
+        Map<Long, Task> tasks = taskStore.findAllById(ids.getContent()).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        log.info("Retrieved {} of {} tasks tagged {} ({}) for user: {}",
+                tasks.size(), ids.getTotalElements(), tags, match, username);
+
+        // Keep the index order; a task deleted since the lookup is simply left out
+        List<Task> content = ids.getContent().stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return TaskPage.of(content, pageable, ids.getTotalElements());
     }
 
     /**
@@ -82,13 +192,86 @@ public class TaskService {
         User user = getUserByUsername(username);
 
         Task task = new Task(taskRequest.getTitle(), taskRequest.getDescription(), user);
-        Task savedTask = taskRepository.save(task);
+        task.setDueAt(taskRequest.getDueAt());
+        task.setRemindAt(taskRequest.getRemindAt());
+        task.setTags(Tags.normalize(taskRequest.getTags()));
+        // New tasks go to the top of the manual order. Two creates reading the same top key
+        // would write the same key, leaving no room to move a task between them, so the user's
+        // creates take turns from here to commit; other users' creates do not wait.
+        lockForWrite(user);
+        String key = rankAfter(user, null, -1L);
+        if (key.length() > MAX_RANK_KEY_LENGTH) {
+            // A burst of creates outran the background rebalance: rebalance now
+            rankRebalancer.rebalance(user.getId());
+            key = rankAfter(user, null, -1L);
+        }
+        task.setRankKey(key);
+        Task savedTask = taskStore.save(task);
 
         log.info("Created new task with ID: {} for user: {}", savedTask.getId(), username);
+        rankRebalancer.checkKey(user.getId(), savedTask.getRankKey());
+        publishChange(user, savedTask.getId(), ChangeType.CREATED);
+        reminderScheduler.rescheduleAfterCommit(savedTask);
+        tagIndex.taskWrittenAfterCommit(savedTask);
+        recentTasks.taskWrittenAfterCommit(savedTask);
 
         return TaskResponse.fromEntity(savedTask);
     }
 
+    /**
+     * Create tasks of any number of users in the current transaction (group commit)
+     * Not routed by ShardRoutingAspect: the caller binds the shard all the users live on.
+     * Each user's row is locked once and its new tasks are stacked on top of its manual
+     * order in list order; all tasks are written with one TaskStore.insertAll.
+     *
+     * @param newTasks owner and details of each task
+     * @return the created tasks, in the order given
+     */
+    public List<TaskResponse> createTasks(List<NewTask> newTasks) {
+        Map<String, User> users = new HashMap<>();
+        Map<Long, List<Task>> tasksByUser = new HashMap<>();
+        List<Task> tasks = new ArrayList<>(newTasks.size());
+        for (NewTask newTask : newTasks) {
+            User user = users.computeIfAbsent(newTask.username(), this::getUserByUsername);
+            TaskRequest request = newTask.request();
+            Task task = new Task(request.getTitle(), request.getDescription(), user);
+            task.setDueAt(request.getDueAt());
+            task.setRemindAt(request.getRemindAt());
+            task.setTags(Tags.normalize(request.getTags()));
+            tasksByUser.computeIfAbsent(user.getId(), id -> new ArrayList<>()).add(task);
+            tasks.add(task);
+        }
+
+        // Lock in id order, so two batches sharing users cannot deadlock
+        users.values().stream()
+                .sorted(Comparator.comparing(User::getId))
+                .forEach(user -> {
+                    lockForWrite(user);
+                    List<Task> own = tasksByUser.get(user.getId());
+                    List<String> keys = stackedOnTop(user, own.size());
+                    if (keys.get(keys.size() - 1).length() > MAX_RANK_KEY_LENGTH) {
+                        rankRebalancer.rebalance(user.getId());
+                        keys = stackedOnTop(user, own.size());
+                    }
+                    for (int i = 0; i < own.size(); i++) {
+                        own.get(i).setRankKey(keys.get(i));
+                    }
+                });
+        taskStore.insertAll(tasks);
+
+        log.info("Created {} tasks for {} users in one batch", tasks.size(), users.size());
+        List<TaskResponse> created = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            rankRebalancer.checkKey(task.getUser().getId(), task.getRankKey());
+            publishChange(task.getUser(), task.getId(), ChangeType.CREATED);
+            reminderScheduler.rescheduleAfterCommit(task);
+            tagIndex.taskWrittenAfterCommit(task);
+            recentTasks.taskWrittenAfterCommit(task);
+            created.add(TaskResponse.fromEntity(task));
+        }
+        return created;
+    }
+
     /**
      * Update an existing task
      *
@@ -99,20 +282,66 @@ public class TaskService {
      */
     public TaskResponse updateTask(String username, Long taskId, TaskRequest taskRequest) {
         User user = getUserByUsername(username);
+        lockForWrite(user);
 
-        Task task = taskRepository.findByIdAndUser(taskId, user)
-                .orElseThrow(() -> new RuntimeException("Task not found or access denied"));
+        Task task = taskStore.findByIdAndUser(taskId, user)
+                .orElseThrow(NotFoundException::task);
 
         task.setTitle(taskRequest.getTitle());
         task.setDescription(taskRequest.getDescription());
+        task.setDueAt(taskRequest.getDueAt());
+        task.setRemindAt(taskRequest.getRemindAt());
+        task.setTags(Tags.normalize(taskRequest.getTags()));
 
-        Task savedTask = taskRepository.save(task);
+        Task savedTask = taskStore.save(task);
 
         log.info("Updated task with ID: {} for user: {}", taskId, username);
+        publishChange(user, taskId, ChangeType.UPDATED);
+        reminderScheduler.rescheduleAfterCommit(savedTask);
+        tagIndex.taskWrittenAfterCommit(savedTask);
+        recentTasks.taskWrittenAfterCommit(savedTask);
 
         return TaskResponse.fromEntity(savedTask);
     }
 
+    /**
+     * Move a task in the manual order
+     * Only the moved task's rank key is written; its neighbours keep theirs
+     *
+     * @param username    the username
+     * @param taskId      task ID
+     * @param afterTaskId task to place it after, null to move it to the top
+     * @return moved task
+     */
+    public TaskResponse moveTask(String username, Long taskId, Long afterTaskId) {
+        User user = getUserByUsername(username);
+        lockForWrite(user);
+
+        Task task = taskStore.findByIdAndUser(taskId, user)
+                .orElseThrow(NotFoundException::task);
+        String lower = null;
+        if (afterTaskId != null) {
+            lower = taskStore.findByIdAndUser(afterTaskId, user)
+                    .orElseThrow(NotFoundException::task)
+                    .getRankKey();
+        }
+
+        String key = rankAfter(user, lower, taskId);
+        if (key.length() > MAX_RANK_KEY_LENGTH) {
+            // Too many moves into one gap since the last rebalance: rebalance now and place again
+            Map<Long, String> rebalanced = rankRebalancer.rebalance(user.getId());
+            key = rankAfter(user, afterTaskId == null ? null : rebalanced.get(afterTaskId), taskId);
+        }
+        taskStore.updateRankKey(taskId, user, key);
+        task.setRankKey(key);
+
+        log.info("Moved task {} after {} for user: {}", taskId, afterTaskId, username);
+        rankRebalancer.checkKey(user.getId(), key);
+        publishChange(user, taskId, ChangeType.UPDATED);
+
+        return TaskResponse.fromEntity(task);
+    }
+
     /**
      * Mark a task as completed
      *
@@ -122,14 +351,23 @@ public class TaskService {
      */
     public TaskResponse markTaskAsCompleted(String username, Long taskId) {
         User user = getUserByUsername(username);
+        lockForWrite(user);
 
-        Task task = taskRepository.findByIdAndUser(taskId, user)
-                .orElseThrow(() -> new RuntimeException("Task not found or access denied"));
+        Task task = taskStore.findByIdAndUser(taskId, user)
+                .orElseThrow(NotFoundException::task);
 
+        boolean wasCompleted = Boolean.TRUE.equals(task.getCompleted());
         task.markAsCompleted();
-        Task savedTask = taskRepository.save(task);
+        Task savedTask = taskStore.save(task);
 
         log.info("Marked task {} as completed for user: {}", taskId, username);
+        publishChange(user, taskId, ChangeType.COMPLETED);
+        reminderScheduler.rescheduleAfterCommit(savedTask);
+        tagIndex.taskWrittenAfterCommit(savedTask);
+        recentTasks.taskWrittenAfterCommit(savedTask);
+        if (!wasCompleted) {
+            completionSketches.recordAfterCommit(savedTask);
+        }
 
         return TaskResponse.fromEntity(savedTask);
     }
@@ -143,33 +381,70 @@ public class TaskService {
      */
     public TaskResponse markTaskAsPending(String username, Long taskId) {
         User user = getUserByUsername(username);
+        lockForWrite(user);
 
-        Task task = taskRepository.findByIdAndUser(taskId, user)
-                .orElseThrow(() -> new RuntimeException("Task not found or access denied"));
+        Task task = taskStore.findByIdAndUser(taskId, user)
+                .orElseThrow(NotFoundException::task);
 
         task.markAsPending();
-        Task savedTask = taskRepository.save(task);
+        Task savedTask = taskStore.save(task);
 
         log.info("Marked task {} as pending for user: {}", taskId, username);
+        publishChange(user, taskId, ChangeType.REOPENED);
+        reminderScheduler.rescheduleAfterCommit(savedTask);
+        tagIndex.taskWrittenAfterCommit(savedTask);
+        recentTasks.taskWrittenAfterCommit(savedTask);
 
         return TaskResponse.fromEntity(savedTask);
     }
 
     /**
      * Delete a task
+     * Only tombstones the row; TaskPurger removes it after the undo window
      *
      * @param username the username
      * @param taskId   task ID
      */
     public void deleteTask(String username, Long taskId) {
         User user = getUserByUsername(username);
+        lockForWrite(user);
 
-        Task task = taskRepository.findByIdAndUser(taskId, user)
-                .orElseThrow(() -> new RuntimeException("Task not found or access denied"));
-
-        taskRepository.delete(task);
+        if (taskStore.softDelete(taskId, user, LocalDateTime.now()) == 0) {
+            throw NotFoundException.task();
+        }
 
         log.info("Deleted task {} for user: {}", taskId, username);
+        publishChange(user, taskId, ChangeType.DELETED);
+        reminderScheduler.cancelAfterCommit(taskId);
+        tagIndex.taskDeletedAfterCommit(user, taskId);
+        recentTasks.taskDeletedAfterCommit(user, taskId);
+    }
+
+    /**
+     * Restore a deleted task that has not been purged yet
+     *
+     * @param username the username
+     * @param taskId   task ID
+     * @return restored task
+     */
+    public TaskResponse restoreTask(String username, Long taskId) {
+        User user = getUserByUsername(username);
+        lockForWrite(user);
+
+        if (taskStore.restore(taskId, user.getId(), LocalDateTime.now()) == 0) {
+            throw NotFoundException.task();
+        }
+
+        Task task = taskStore.findByIdAndUser(taskId, user)
+                .orElseThrow(NotFoundException::task);
+
+        log.info("Restored task {} for user: {}", taskId, username);
+        publishChange(user, taskId, ChangeType.RESTORED);
+        reminderScheduler.rescheduleAfterCommit(task);
+        tagIndex.taskWrittenAfterCommit(task);
+        recentTasks.taskWrittenAfterCommit(task);
+
+        return TaskResponse.fromEntity(task);
     }
 
     /**
@@ -183,12 +458,34 @@ public class TaskService {
     public TaskResponse getTaskById(String username, Long taskId) {
         User user = getUserByUsername(username);
 
-        Task task = taskRepository.findByIdAndUser(taskId, user)
-                .orElseThrow(() -> new RuntimeException("Task not found or access denied"));
+        Task task = taskStore.findByIdAndUser(taskId, user)
+                .orElseThrow(NotFoundException::task);
 
         return TaskResponse.fromEntity(task);
     }
 
+    /**
+     * Get incomplete tasks due within the next hours, soonest first
+     *
+     * @param username the username
+     * @param hours    how far ahead to look
+     * @param limit    maximum number of tasks
+     * @return tasks due soon
+     */
+    @Transactional(readOnly = true)
+    public List<TaskResponse> getDueSoonTasks(String username, int hours, int limit) {
+        User user = getUserByUsername(username);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Task> tasks = taskStore.findDueSoon(user, now, now.plusHours(hours), PageRequest.of(0, limit));
+
+        log.info("Found {} tasks due within {} hours for user: {}", tasks.size(), hours, username);
+
+        return tasks.stream()
+                .map(TaskResponse::fromEntity)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Search tasks by title/description
      *
@@ -199,17 +496,79 @@ public class TaskService {
      * @return matching tasks
      */
     @Transactional(readOnly = true)
-    public Page<TaskResponse> searchTasks(String username, String searchTerm, int page, int size) {
+    @Coalesced
+    public TaskPage searchTasks(String username, String searchTerm, int page, int size) {
         User user = getUserByUsername(username);
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<Task> tasks = taskRepository.findByUserAndTitleOrDescriptionContainingIgnoreCase(
-                user, searchTerm, pageable);
+        Page<Task> tasks = taskStore.search(user, searchTerm, pageable);
 
         log.info("Found {} tasks matching '{}' for user: {}",
                 tasks.getNumberOfElements(), searchTerm, username);
 
-        return tasks.map(TaskResponse::fromEntity);
+        return TaskPage.of(tasks);
+    }
+
+    /**
+     * Get the tasks changed since a sync cursor, with tombstones for deleted and archived tasks
+     * Each changed task appears once, with its latest change and current state.
+     *
+     * @param username the username
+     * @param since    cursor from the previous call, null for a first sync
+     * @param limit    maximum number of change log entries to read
+     * @return the changes and the cursor to continue from
+     * @throws BadRequestException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public TaskChangesResponse getChangesSince(String username, String since, int limit) {
+        User user = getUserByUsername(username);
+
+        int entries = Math.max(1, Math.min(limit, MAX_CHANGES_PER_SYNC));
+        TaskChangeLog.Batch batch = taskChangeLog.read(user.getId(), since, entries);
+
+        // Latest entry per task, in log order
+        Map<Long, TaskChange> latest = new LinkedHashMap<>();
+        for (TaskChange change : batch.changes()) {
+            latest.remove(change.getTaskId());
+            latest.put(change.getTaskId(), change);
+        }
+        Map<Long, Task> current = taskStore.findAllById(latest.keySet()).stream()
+                .filter(task -> task.getUser().getId().equals(user.getId()))
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        List<TaskChangeResponse> changes = latest.values().stream()
+                .map(change -> {
+                    Task task = current.get(change.getTaskId());
+                    return new TaskChangeResponse(change.getTaskId(), change.getChangeType(), change.getChangedAt(),
+                            task == null, task == null ? null : TaskResponse.fromEntity(task));
+                })
+                .collect(Collectors.toList());
+
+        log.info("Retrieved {} task changes for user: {} (reset: {})", changes.size(), username, batch.reset());
+
+        return new TaskChangesResponse(batch.cursor().toString(), batch.reset(), batch.hasMore(), changes);
+    }
+
+    /**
+     * Get archived (old completed) tasks for a user
+     * This is the only read path that touches the archive table
+     *
+     * @param username the username
+     * @param page     page number (0-based)
+     * @param size     page size
+     * @return paginated list of archived tasks
+     */
+    @Transactional(readOnly = true)
+    public TaskPage getTaskHistory(String username, int page, int size) {
+        User user = getUserByUsername(username);
+
+        Pageable pageable = PageRequest.of(page, size);
+        Page<ArchivedTask> tasks = archivedTaskRepository.findByUserOrderByCreatedAtDesc(user, pageable);
+
+        log.info("Retrieved {} archived tasks for user: {} (page {}, size {})",
+                tasks.getNumberOfElements(), username, page, size);
+
+        return TaskPage.ofArchived(tasks);
     }
 
     /**
@@ -219,16 +578,33 @@ public class TaskService {
      * @return task statistics
      */
     @Transactional(readOnly = true)
+    @Coalesced
     public TaskStatsResponse getTaskStats(String username) {
         User user = getUserByUsername(username);
 
-        long totalTasks = taskRepository.countByUser(user);
-        long incompleteTasks = taskRepository.countByUserAndCompletedFalse(user);
+        long totalTasks = taskStore.countByUser(user);
+        long incompleteTasks = taskStore.countIncomplete(user);
         long completedTasks = totalTasks - incompleteTasks;
 
         return new TaskStatsResponse(totalTasks, completedTasks, incompleteTasks);
     }
 
+    /**
+     * Get time-to-complete quantiles for a user
+     * Read from the user's completion sketch, without scanning tasks
+     *
+     * @param username the username
+     * @return completion count and p50/p90/p99 time to complete
+     */
+    @Transactional(readOnly = true)
+    public CompletionLatencyResponse getCompletionLatency(String username) {
+        // Read before the first query, so a sketch load can tell it missed a concurrent completion
+        long generation = completionSketches.generation(username);
+        User user = getUserByUsername(username);
+
+        return CompletionLatencyResponse.fromSketch(completionSketches.sketchOf(user, generation));
+    }
+
     /**
      * Helper method to get user by username
      *
@@ -237,7 +613,60 @@ public class TaskService {
      */
     private User getUserByUsername(String username) {
         return userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+                .orElseThrow(() -> new ForbiddenException("User not found: " + username));
+    }
+
+    /**
+     * Lock the user's row until the transaction ends, before the write reads any task
+     * Refuses the write if the user's tasks are frozen on this shard: ShardRebalancer is moving
+     * them, or has moved them, and this write was routed by a stale directory entry.
+     *
+     * @param user the user whose tasks are written
+     */
+    private void lockForWrite(User user) {
+        if (Boolean.TRUE.equals(userRepository.lockById(user.getId()))) {
+            throw new ShardMigrationInProgressException(user.getUsername());
+        }
+    }
+
+    /**
+     * Rank key placing a task right after the given key (null for the top) in the user's manual order
+     */
+    private String rankAfter(User user, String lower, Long movedTaskId) {
+        List<String> next = taskStore.findRankKeysAfter(
+                user, lower == null ? "" : lower, movedTaskId, PageRequest.of(0, 1));
+        return RankKeys.between(lower, next.isEmpty() ? null : next.get(0));
+    }
+
+    /**
+     * Rank keys for count new tasks placed on top of the user's manual order, each above the one before
+     */
+    private List<String> stackedOnTop(User user, int count) {
+        List<String> keys = new ArrayList<>(count);
+        String key = rankAfter(user, null, -1L);
+        for (int i = 0; i < count; i++) {
+            keys.add(key);
+            key = RankKeys.between(null, key);
+        }
+        return keys;
+    }
+
+    /**
+     * Notify listeners (response cache, etc.) that a user's tasks changed.
+     * Transactional listeners receive the event only once the mutation commits;
+     * other nodes are told through the invalidation bus after the commit as well.
+     * The change is logged for incremental sync in the mutation's own transaction.
+     */
+    private void publishChange(User user, Long taskId, ChangeType type) {
+        taskChangeLog.append(user.getId(), taskId, type);
+        eventPublisher.publishEvent(new TaskChangedEvent(user.getUsername(), user.getId(), taskId, type));
+        invalidationBus.publishAfterCommit(Invalidation.tasks(user.getUsername(), user.getId()));
+    }
+
+    /**
+     * A task to create for a user (see createTasks)
+     */
+    public record NewTask(String username, TaskRequest request) {
     }
 
     /**
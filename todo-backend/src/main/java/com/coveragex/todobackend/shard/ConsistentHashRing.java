@@ -0,0 +1,39 @@
+package com.coveragex.todobackend.shard;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring that places new users on shards
+ * Each shard owns a number of virtual points so load stays even, and adding a shard only
+ * takes over the arcs next to its own points. Existing users are pinned by the user_shards
+ * directory, so the ring only decides where a user starts out.
+ */
+class ConsistentHashRing {
+
+    private final TreeMap<Long, Integer> points = new TreeMap<>();
+
+    ConsistentHashRing(Collection<Integer> shards, int virtualNodes) {
+        for (int shard : shards) {
+            for (int node = 0; node < virtualNodes; node++) {
+                points.put(mix(mix(shard) + node), shard);
+            }
+        }
+    }
+
+    int shardFor(long userId) {
+        Map.Entry<Long, Integer> point = points.ceilingEntry(mix(userId));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads sequential ids evenly around the ring
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
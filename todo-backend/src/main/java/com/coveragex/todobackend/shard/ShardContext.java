@@ -0,0 +1,59 @@
+package com.coveragex.todobackend.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard the current thread's database work is routed to
+ * Read by ShardRoutingDataSource when a transaction obtains its connection, so it must be
+ * set before the transaction starts. No shard means the primary database.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return the shard bound to this thread, or null for the primary database
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run work against one shard, restoring the previous binding afterwards
+     */
+    public static <T> T callIn(int shard, Supplier<T> work) {
+        Integer previous = bind(shard);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Run work against one shard, restoring the previous binding afterwards
+     */
+    public static void runIn(int shard, Runnable work) {
+        callIn(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    static Integer bind(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.coveragex.todobackend.shard;
+
+/**
+ * Thrown for writes to a user whose tasks are being moved to another shard
+ * The move is short-lived; clients should retry. Created without a stack trace, like DomainException.
+ */
+public class ShardMigrationInProgressException extends RuntimeException {
+
+    public ShardMigrationInProgressException(String username) {
+        super("Tasks of user " + username + " are being moved, retry shortly", null, false, false);
+    }
+}
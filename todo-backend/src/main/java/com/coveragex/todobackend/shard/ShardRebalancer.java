@@ -0,0 +1,143 @@
+package com.coveragex.todobackend.shard;
+
+import com.coveragex.todobackend.invalidation.Invalidation;
+import com.coveragex.todobackend.invalidation.InvalidationBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves a user's tasks from one shard to another while the application keeps serving them
+ *
+ * 1. The directory entry is set to MOVING, so nodes refuse writes for the user once their
+ *    cached copy expires; reads stay on the source.
+ * 2. The user's tasks are frozen on the source: setting users.tasks_frozen waits for the
+ *    row lock every TaskService write holds until it commits, so writes in flight finish
+ *    first, and any write reaching the source later (through a node's stale directory entry)
+ *    sees the flag and is refused.
+ * 3. The user row, tasks (including tombstones) and archived tasks are copied to the target
+ *    in id batches with their ids unchanged, each batch in its own short transaction.
+ * 4. The directory is switched to the target, and after a wait for every node's cached copy
+ *    to expire and in-flight reads to finish, the source copies are deleted in batches.
+ *
+ * A failure before the switch deletes the partial copy, unfreezes the source and leaves the
+ * user there.
+ * The task change log is not copied: sync cursors name their shard, so the user's clients
+ * do one full reload after the move.
+ * Directory changes are also broadcast on the InvalidationBus so other nodes usually pick
+ * them up before their cache entry expires; the freeze is what guarantees no write is lost.
+ */
+@Component
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+@Slf4j
+public class ShardRebalancer {
+
+    private static final List<String> TASK_TABLES = List.of("tasks", "tasks_archive", "task_changes");
+
+    private final ShardRegistry registry;
+    private final ShardRouter router;
+    private final InvalidationBus invalidationBus;
+    private final long drainMillis;
+    private final int batchSize;
+
+    public ShardRebalancer(ShardRegistry registry, ShardRouter router, InvalidationBus invalidationBus,
+                           ShardingProperties properties) {
+        this.registry = registry;
+        this.router = router;
+        this.invalidationBus = invalidationBus;
+        this.drainMillis = properties.getDrainMs();
+        this.batchSize = properties.getRebalanceBatchSize();
+    }
+
+    /**
+     * Move one user to another shard
+     * @param userId      the user
+     * @param targetShard destination shard
+     * @return where the user was moved from and how many rows were copied
+     */
+    public MoveResult moveUser(long userId, int targetShard) throws InterruptedException {
+        if (!registry.contains(targetShard)) {
+            throw new IllegalArgumentException("Unknown shard: " + targetShard);
+        }
+        ShardRouter.Placement placement = router.loadPlacement(userId);
+        if (placement.moving()) {
+            throw new IllegalStateException("User " + userId + " is already being moved");
+        }
+        int source = placement.shard();
+        if (source == targetShard) {
+            return new MoveResult(source, targetShard, 0, 0);
+        }
+
+        log.info("Moving user {} from shard {} to shard {}", userId, source, targetShard);
+        router.beginMove(userId, source);
+        invalidationBus.publish(Invalidation.user(null, userId));
+        int tasks;
+        int archived;
+        try {
+            setFrozen(userId, source, true);
+            router.copyUserRow(userId, targetShard);
+            // The copy of the user row is frozen if the primary's was
+            setFrozen(userId, targetShard, false);
+            tasks = copyTable("tasks", userId, source, targetShard);
+            archived = copyTable("tasks_archive", userId, source, targetShard);
+            registry.alignTaskIds(targetShard);
+        } catch (RuntimeException e) {
+            log.error("Moving user {} to shard {} failed, staying on shard {}", userId, targetShard, source, e);
+            deleteUserRows(userId, targetShard);
+            setFrozen(userId, source, false);
+            router.abortMove(userId, source);
+            invalidationBus.publish(Invalidation.user(null, userId));
+            throw e;
+        }
+        router.completeMove(userId, targetShard);
+        invalidationBus.publish(Invalidation.user(null, userId));
+
+        Thread.sleep(drainMillis);
+        deleteUserRows(userId, source);
+        log.info("Moved user {} to shard {}: {} tasks, {} archived tasks", userId, targetShard, tasks, archived);
+        return new MoveResult(source, targetShard, tasks, archived);
+    }
+
+    /**
+     * Freeze or unfreeze a user's tasks on a shard
+     * Freezing waits for the writes holding the user's row lock there to commit.
+     */
+    private void setFrozen(long userId, int shard, boolean frozen) {
+        registry.transactionTemplate(shard).executeWithoutResult(status -> registry.jdbc(shard)
+                .update("UPDATE users SET tasks_frozen = ? WHERE id = ?", frozen, userId));
+    }
+
+    private int copyTable(String table, long userId, int source, int target) {
+        JdbcTemplate from = registry.jdbc(source);
+        List<Long> ids = ShardRows.idsOf(from, table, userId);
+        int copied = 0;
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            copied += ShardRows.copy(from, registry.jdbc(target), registry.transactionTemplate(target),
+                    table, ids.subList(i, Math.min(i + batchSize, ids.size())));
+        }
+        return copied;
+    }
+
+    /**
+     * Remove a user's task rows from a shard, and the user row too unless it is the primary
+     */
+    private void deleteUserRows(long userId, int shard) {
+        JdbcTemplate jdbc = registry.jdbc(shard);
+        for (String table : TASK_TABLES) {
+            List<Long> ids = ShardRows.idsOf(jdbc, table, userId);
+            for (int i = 0; i < ids.size(); i += batchSize) {
+                ShardRows.delete(jdbc, registry.transactionTemplate(shard), table,
+                        ids.subList(i, Math.min(i + batchSize, ids.size())));
+            }
+        }
+        if (shard != ShardRegistry.PRIMARY) {
+            jdbc.update("DELETE FROM users WHERE id = ?", userId);
+        }
+    }
+
+    public record MoveResult(int fromShard, int toShard, int tasks, int archivedTasks) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.coveragex.todobackend.shard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The physical task databases, keyed by shard number
+ * Without sharding there is a single shard 0 backed by the application DataSource.
+ * Each shard has its own JDBC transaction manager for work that addresses a shard directly
+ * (rebalancing, directory updates); JPA work is routed through ShardContext instead.
+ */
+@Component
+public class ShardRegistry {
+
+    public static final int PRIMARY = 0;
+
+    private final ShardingProperties properties;
+    private final SortedMap<Integer, DataSource> dataSources = new TreeMap<>();
+    private final Map<Integer, JdbcTemplate> jdbcTemplates = new HashMap<>();
+    private final Map<Integer, TransactionTemplate> transactionTemplates = new HashMap<>();
+
+    public ShardRegistry(DataSource dataSource, ShardingProperties properties) {
+        this.properties = properties;
+        ShardRoutingDataSource routing = routingDataSource(dataSource);
+        if (routing != null) {
+            routing.getResolvedDataSources().forEach((shard, target) -> dataSources.put((Integer) shard, target));
+        } else {
+            dataSources.put(PRIMARY, dataSource);
+        }
+        dataSources.forEach((shard, target) -> {
+            jdbcTemplates.put(shard, new JdbcTemplate(target));
+            transactionTemplates.put(shard, new TransactionTemplate(new DataSourceTransactionManager(target)));
+        });
+    }
+
+    public Set<Integer> shardIds() {
+        return Collections.unmodifiableSet(dataSources.keySet());
+    }
+
+    public boolean isSharded() {
+        return dataSources.size() > 1;
+    }
+
+    public boolean contains(int shard) {
+        return dataSources.containsKey(shard);
+    }
+
+    public DataSource dataSource(int shard) {
+        return shard(dataSources, shard);
+    }
+
+    public JdbcTemplate jdbc(int shard) {
+        return shard(jdbcTemplates, shard);
+    }
+
+    public TransactionTemplate transactionTemplate(int shard) {
+        return shard(transactionTemplates, shard);
+    }
+
+    /**
+     * Move a shard's task id generator to the next free id in its residue class
+     * Needed after rows issued by another shard were copied in.
+     */
+    public void alignTaskIds(int shard) {
+        alignTaskIds(dataSource(shard), shard, properties);
+    }
+
+    static void alignTaskIds(DataSource dataSource, int shard, ShardingProperties properties) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        long stride = properties.getIdStride();
+        long maxId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM tasks", Long.class);
+        long floor = shard == PRIMARY ? maxId + 1 : Math.max(maxId + 1, properties.getIdBase());
+        long residue = (shard + 1) % stride;
+        long next = floor + Math.floorMod(residue - floor, stride);
+
+        if (isH2(dataSource)) {
+            jdbc.execute("ALTER TABLE tasks ALTER COLUMN id RESTART WITH " + next);
+            jdbc.execute("ALTER TABLE tasks ALTER COLUMN id SET INCREMENT BY " + stride);
+        } else {
+            jdbc.execute("ALTER TABLE tasks AUTO_INCREMENT = " + next);
+        }
+    }
+
+    /**
+     * The shard router, also behind a wrapping DataSource (DeadlineDataSource)
+     */
+    private static ShardRoutingDataSource routingDataSource(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ShardRoutingDataSource.class)
+                    ? dataSource.unwrap(ShardRoutingDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot inspect the application DataSource", e);
+        }
+    }
+
+    private static boolean isH2(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "H2".equals(product);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Cannot determine database type of shard", e);
+        }
+    }
+
+    private static <T> T shard(Map<Integer, T> byShard, int shard) {
+        T value = byShard.get(shard);
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        return value;
+    }
+}
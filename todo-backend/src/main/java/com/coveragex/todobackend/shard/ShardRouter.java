@@ -0,0 +1,180 @@
+package com.coveragex.todobackend.shard;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.coveragex.todobackend.event.AfterCommit;
+import com.coveragex.todobackend.invalidation.Invalidation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Maps users to task shards
+ * The user_shards directory on the primary database is the source of truth; new users are
+ * placed by a consistent-hash ring and pinned there, and users without an entry stay on the
+ * primary. Directory entries are cached for sharding.directory-cache-ttl-ms.
+ */
+@Component
+@Slf4j
+public class ShardRouter {
+
+    public enum State { ACTIVE, MOVING }
+
+    public record Placement(int shard, State state) {
+        public boolean moving() {
+            return state == State.MOVING;
+        }
+    }
+
+    private static final Placement ON_PRIMARY = new Placement(ShardRegistry.PRIMARY, State.ACTIVE);
+
+    private final ShardRegistry registry;
+    private final ConsistentHashRing ring;
+    private final Cache<Long, Placement> placements;
+    private final Cache<String, Long> userIds;
+
+    public ShardRouter(ShardRegistry registry, ShardingProperties properties) {
+        this.registry = registry;
+        this.ring = new ConsistentHashRing(registry.shardIds(), properties.getVirtualNodes());
+        this.placements = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofMillis(properties.getDirectoryCacheTtlMs()))
+                .build();
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofHours(1))
+                .build();
+    }
+
+    /**
+     * Current placement of a user's tasks
+     */
+    public Placement placement(long userId) {
+        if (!registry.isSharded()) {
+            return ON_PRIMARY;
+        }
+        return placements.get(userId, this::loadPlacement);
+    }
+
+    public int shardFor(long userId) {
+        return placement(userId).shard();
+    }
+
+    /**
+     * Resolve a username to its user id from the primary database
+     * @return the id, or null if there is no such user
+     */
+    public Long userIdFor(String username) {
+        Long cached = userIds.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+        List<Long> ids = registry.jdbc(ShardRegistry.PRIMARY)
+                .queryForList("SELECT id FROM users WHERE username = ?", Long.class, username);
+        if (ids.isEmpty()) {
+            return null;
+        }
+        userIds.put(username, ids.get(0));
+        return ids.get(0);
+    }
+
+    /**
+     * Place a newly registered user on a shard
+     * Runs after the registering transaction commits so the user row is visible. If placement
+     * fails the user simply stays on the primary.
+     */
+    public void assignNewUser(long userId) {
+        if (!registry.isSharded()) {
+            return;
+        }
+        AfterCommit.run(() -> assign(userId));
+    }
+
+    private void assign(long userId) {
+        int shard = ring.shardFor(userId);
+        try {
+            copyUserRow(userId, shard);
+            writeDirectory(userId, shard, State.ACTIVE);
+            placements.put(userId, new Placement(shard, State.ACTIVE));
+            log.info("Placed user {} on shard {}", userId, shard);
+        } catch (DataAccessException e) {
+            log.warn("Could not place user {} on shard {}, keeping it on the primary: {}",
+                    userId, shard, e.getMessage());
+        }
+    }
+
+    /**
+     * Drop cached lookups for a user changed on another node
+     */
+    @EventListener
+    public void onInvalidation(Invalidation invalidation) {
+        if (invalidation.kind() != Invalidation.Kind.USER) {
+            return;
+        }
+        if (invalidation.userId() != null) {
+            placements.invalidate(invalidation.userId());
+        }
+        if (invalidation.username() != null) {
+            userIds.invalidate(invalidation.username());
+        }
+    }
+
+    /**
+     * Mark a user as moving; writes are refused until completeMove or abortMove
+     */
+    void beginMove(long userId, int source) {
+        writeDirectory(userId, source, State.MOVING);
+    }
+
+    void completeMove(long userId, int target) {
+        writeDirectory(userId, target, State.ACTIVE);
+    }
+
+    void abortMove(long userId, int source) {
+        writeDirectory(userId, source, State.ACTIVE);
+    }
+
+    /**
+     * Read a user's placement from the directory, bypassing the cache
+     */
+    Placement loadPlacement(long userId) {
+        List<Placement> rows = registry.jdbc(ShardRegistry.PRIMARY).query(
+                "SELECT shard, state FROM user_shards WHERE user_id = ?",
+                (rs, rowNum) -> new Placement(rs.getInt(1), State.valueOf(rs.getString(2))),
+                userId);
+        return rows.isEmpty() ? ON_PRIMARY : rows.get(0);
+    }
+
+    /**
+     * Give a shard its copy of the user row, which its tasks reference
+     * The primary always holds the original.
+     */
+    void copyUserRow(long userId, int shard) {
+        if (shard == ShardRegistry.PRIMARY || registry.jdbc(shard).queryForObject(
+                "SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, userId) > 0) {
+            return;
+        }
+        ShardRows.copy(registry.jdbc(ShardRegistry.PRIMARY), registry.jdbc(shard),
+                registry.transactionTemplate(shard), "users", List.of(userId));
+    }
+
+    private void writeDirectory(long userId, int shard, State state) {
+        registry.transactionTemplate(ShardRegistry.PRIMARY).executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            int updated = registry.jdbc(ShardRegistry.PRIMARY).update(
+                    "UPDATE user_shards SET shard = ?, state = ?, updated_at = ? WHERE user_id = ?",
+                    shard, state.name(), now, userId);
+            if (updated == 0) {
+                registry.jdbc(ShardRegistry.PRIMARY).update(
+                        "INSERT INTO user_shards (user_id, shard, state, updated_at) VALUES (?, ?, ?, ?)",
+                        userId, shard, state.name(), now);
+            }
+        });
+        placements.invalidate(userId);
+    }
+}
@@ -0,0 +1,61 @@
+package com.coveragex.todobackend.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Binds calls on @ShardedByUser services to the caller's shard
+ * Ordered ahead of the transaction interceptor (and just inside request coalescing), so the transaction (and its connection)
+ * is opened on the right database. Read-only calls are still served from the old shard
+ * while a user is being moved; writes are refused until the move finishes.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+
+    private final ShardRouter router;
+
+    @Around("@within(com.coveragex.todobackend.shard.ShardedByUser) "
+            + "&& execution(public * *(String, ..))")
+    public Object routeToUserShard(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ShardContext.current() != null) {
+            return joinPoint.proceed();
+        }
+        String username = (String) joinPoint.getArgs()[0];
+        Long userId = router.userIdFor(username);
+        if (userId == null) {
+            // Unknown user: let the service report it from the primary
+            return joinPoint.proceed();
+        }
+
+        ShardRouter.Placement placement = router.placement(userId);
+        if (placement.moving() && !isReadOnly(joinPoint)) {
+            throw new ShardMigrationInProgressException(username);
+        }
+
+        Integer previous = ShardContext.bind(placement.shard());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    private static boolean isReadOnly(ProceedingJoinPoint joinPoint) {
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), Transactional.class);
+        return transactional != null && transactional.readOnly();
+    }
+}
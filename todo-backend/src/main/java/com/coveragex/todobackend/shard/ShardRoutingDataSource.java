@@ -0,0 +1,15 @@
+package com.coveragex.todobackend.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * DataSource that hands out connections from the shard bound in ShardContext
+ * Falls back to the primary database (shard 0) when no shard is bound.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
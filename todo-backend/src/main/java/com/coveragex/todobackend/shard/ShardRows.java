@@ -0,0 +1,70 @@
+package com.coveragex.todobackend.shard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Row copying between shards, column-agnostic so it keeps working as the tables grow
+ */
+final class ShardRows {
+
+    private ShardRows() {
+    }
+
+    /**
+     * Ids of a user's rows in a table, ascending (read through the user_id index)
+     */
+    static List<Long> idsOf(JdbcTemplate jdbc, String table, long userId) {
+        List<Long> ids = new ArrayList<>(
+                jdbc.queryForList("SELECT id FROM " + table + " WHERE user_id = ?", Long.class, userId));
+        Collections.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Copy rows by id, keeping every column value including the id
+     * @return number of rows inserted
+     */
+    static int copy(JdbcTemplate source, JdbcTemplate target, TransactionTemplate targetTransaction,
+                    String table, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Map<String, Object>> rows = source.queryForList(
+                "SELECT * FROM " + table + " WHERE id IN (" + placeholders(ids.size()) + ")", ids.toArray());
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        String insert = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + placeholders(columns.size()) + ")";
+        List<Object[]> values = rows.stream()
+                .map(row -> columns.stream().map(row::get).toArray())
+                .collect(Collectors.toList());
+
+        targetTransaction.executeWithoutResult(status -> target.batchUpdate(insert, values));
+        return values.size();
+    }
+
+    /**
+     * Delete rows by id in one short transaction
+     */
+    static int delete(JdbcTemplate jdbc, TransactionTemplate transaction, String table, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return transaction.execute(status -> jdbc.update(
+                "DELETE FROM " + table + " WHERE id IN (" + placeholders(ids.size()) + ")", ids.toArray()));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,17 @@
+package com.coveragex.todobackend.shard;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service whose public methods take the username as their first parameter and
+ * touch only that user's tasks; ShardRoutingAspect runs each call on the user's shard
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ShardedByUser {
+}
@@ -0,0 +1,92 @@
+package com.coveragex.todobackend.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sharding configuration
+ * With sharding.enabled the application DataSource becomes a ShardRoutingDataSource over the
+ * primary database (shard 0) and every configured shard. Additional shards are migrated here,
+ * before JPA starts; the primary is migrated by the regular Flyway auto-configuration.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@Slf4j
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+    public DataSource dataSource(DataSourceProperties primaryProperties, ShardingProperties sharding,
+                                 @Value("${spring.flyway.enabled:true}") boolean migrate) {
+        if (sharding.getShards().size() + 1 > sharding.getIdStride()) {
+            throw new IllegalStateException("sharding.id-stride (" + sharding.getIdStride()
+                    + ") must be at least the number of shards including the primary");
+        }
+
+        Map<Object, Object> shards = new LinkedHashMap<>();
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("shard-0");
+        configureIdInterleaving(primary, ShardRegistry.PRIMARY, sharding);
+        shards.put(ShardRegistry.PRIMARY, primary);
+
+        for (int i = 0; i < sharding.getShards().size(); i++) {
+            int shard = i + 1;
+            ShardingProperties.Shard properties = sharding.getShards().get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(properties.getUrl());
+            dataSource.setUsername(properties.getUsername());
+            dataSource.setPassword(properties.getPassword());
+            dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+            dataSource.setPoolName("shard-" + shard);
+            configureIdInterleaving(dataSource, shard, sharding);
+
+            // Shards follow the primary: no migration (or schema check) when Flyway is off
+            if (migrate) {
+                Flyway.configure()
+                        .dataSource(dataSource)
+                        .locations(sharding.getMigrationLocations().toArray(String[]::new))
+                        .baselineOnMigrate(true)
+                        .baselineVersion("1")
+                        .load()
+                        .migrate();
+            }
+            ShardRegistry.alignTaskIds(dataSource, shard, sharding);
+            shards.put(shard, dataSource);
+        }
+        log.info("Routing task storage across {} shards", shards.size());
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(shards);
+        routing.setDefaultTargetDataSource(primary);
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    /**
+     * MariaDB keeps auto-increment values in a shard's residue class per session, even after
+     * rows with ids from another shard are copied in; H2 is realigned by ShardRegistry instead
+     */
+    private static void configureIdInterleaving(HikariDataSource dataSource, int shard, ShardingProperties sharding) {
+        String url = dataSource.getJdbcUrl();
+        if (url.startsWith("jdbc:mariadb:") || url.startsWith("jdbc:mysql:")) {
+            dataSource.setConnectionInitSql("SET SESSION auto_increment_increment = " + sharding.getIdStride()
+                    + ", auto_increment_offset = " + (shard + 1));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.coveragex.todobackend.shard;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration for sharding tasks by user id
+ * The primary datasource (spring.datasource) is always shard 0 and also holds the users
+ * table and the user_shards directory; the entries under sharding.shards become shards 1..N.
+ */
+@Data
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Additional task databases, numbered from 1
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Migrations applied to the additional shards (no sample data)
+     */
+    private List<String> migrationLocations = List.of("classpath:db/migration");
+
+    /**
+     * Task ids are interleaved across shards (id % stride identifies the shard that issued it),
+     * so a user's tasks keep their ids when moved; this is also the maximum number of shards
+     */
+    private int idStride = 16;
+
+    /**
+     * Additional shards issue ids from here up, above anything the primary issued before sharding
+     */
+    private long idBase = 1L << 40;
+
+    /**
+     * Points per shard on the consistent-hash ring used to place new users
+     */
+    private int virtualNodes = 64;
+
+    /**
+     * How long a node trusts its cached copy of a user's directory entry
+     */
+    private long directoryCacheTtlMs = 5000;
+
+    /**
+     * Pause between switching a moved user's directory entry and deleting the source rows;
+     * must exceed directoryCacheTtlMs so every node reads from the target by then
+     */
+    private long drainMs = 10000;
+
+    private int rebalanceBatchSize = 500;
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,45 @@
+package com.coveragex.todobackend.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Operator endpoint for the shard layout: GET /actuator/shards lists users and tasks per
+ * shard, POST /actuator/shards {"userId": .., "targetShard": ..} moves a user online.
+ * Not exposed over HTTP by default; add "shards" to management.endpoints.web.exposure.include
+ * only on a management port that is not publicly reachable.
+ */
+@Component
+@Endpoint(id = "shards")
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardsEndpoint {
+
+    private final ShardRegistry registry;
+    private final ShardRebalancer rebalancer;
+
+    @ReadOperation
+    public Map<Integer, Map<String, Long>> shards() {
+        Map<Integer, Map<String, Long>> layout = new LinkedHashMap<>();
+        for (int shard : registry.shardIds()) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            counts.put("directoryUsers", registry.jdbc(ShardRegistry.PRIMARY).queryForObject(
+                    "SELECT COUNT(*) FROM user_shards WHERE shard = ?", Long.class, shard));
+            counts.put("tasks", registry.jdbc(shard).queryForObject("SELECT COUNT(*) FROM tasks", Long.class));
+            layout.put(shard, counts);
+        }
+        return layout;
+    }
+
+    @WriteOperation
+    public ShardRebalancer.MoveResult move(long userId, int targetShard) throws InterruptedException {
+        return rebalancer.moveUser(userId, targetShard);
+    }
+}
@@ -0,0 +1,24 @@
+package com.coveragex.todobackend.startup;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Fast-start mode (profile "faststart"): everything is initialized lazily except what every
+ * first request needs anyway, so that cost stays in startup rather than in the first response.
+ * Scheduled jobs and event listeners are not affected: Spring Boot keeps @Scheduled beans
+ * eager, and listener beans are created when their first event is published.
+ */
+@Configuration
+@Profile("faststart")
+public class FastStartConfig {
+
+    // The persistence unit (and with it the connection pool) is the bulk of the startup work
+    @Bean
+    static LazyInitializationExcludeFilter eagerRequestPathBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(EntityManagerFactory.class);
+    }
+}
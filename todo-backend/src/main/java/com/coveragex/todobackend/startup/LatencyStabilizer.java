@@ -0,0 +1,61 @@
+package com.coveragex.todobackend.startup;
+
+import java.util.Arrays;
+
+/**
+ * Decides when warm-up latency has stopped improving
+ * Round latencies are grouped into fixed-size windows; latency is stable once the median of
+ * a window is within the tolerance of the previous window's median.
+ */
+final class LatencyStabilizer {
+
+    private final long[] window;
+    private final double tolerance;
+    private int filled;
+    private long previousMedian = -1;
+    private long lastMedian = -1;
+
+    /**
+     * @param windowSize rounds per window
+     * @param tolerance  allowed relative change between consecutive window medians
+     */
+    LatencyStabilizer(int windowSize, double tolerance) {
+        this.window = new long[windowSize];
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Record one round
+     * @param nanos duration of the round
+     * @return whether latency is stable as of this round
+     */
+    boolean record(long nanos) {
+        window[filled++] = nanos;
+        if (filled < window.length) {
+            return false;
+        }
+        filled = 0;
+        previousMedian = lastMedian;
+        lastMedian = median(window, window.length);
+        return previousMedian > 0 && Math.abs(lastMedian - previousMedian) <= tolerance * previousMedian;
+    }
+
+    /**
+     * @return median round latency of the last complete window, or -1 before the first one
+     */
+    long lastMedianNanos() {
+        return lastMedian;
+    }
+
+    /**
+     * @return median of the first count values, 0 when count is 0
+     */
+    static long median(long[] values, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        return sorted[count / 2];
+    }
+}
@@ -0,0 +1,268 @@
+package com.coveragex.todobackend.startup;
+
+import com.coveragex.todobackend.controller.TaskController;
+import com.coveragex.todobackend.dto.RegisterRequest;
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.exception.ConflictException;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.security.JwtUtil;
+import com.coveragex.todobackend.service.AuthService;
+import com.coveragex.todobackend.service.TaskService;
+import com.coveragex.todobackend.shard.ShardRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Warms a fresh instance up before it reports ready
+ *
+ * Spring Boot only moves readiness to ACCEPTING_TRAFFIC once every ApplicationRunner has
+ * returned, so /actuator/health/readiness stays OUT_OF_SERVICE while this runs. It fills the
+ * connection pool of every shard, then repeats the hot request paths in-process (JWT parse,
+ * user lookup, task list, recent tasks, search and stats, each with its JSON serialization)
+ * for a synthetic user until the round latency stops improving or the time budget runs out.
+ * Duration and the per-operation latency after warm-up are logged and exported as gauges.
+ * A failing warm-up is logged and does not keep the instance from becoming ready.
+ */
+@Component
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final List<String> OPERATIONS = List.of("jwt", "user", "list", "recent", "search", "stats");
+
+    private final JwtUtil jwtUtil;
+    private final UserDetailsService userDetailsService;
+    private final UserRepository userRepository;
+    private final AuthService authService;
+    private final TaskService taskService;
+    private final TaskController taskController;
+    private final ObjectMapper objectMapper;
+    private final ShardRegistry shardRegistry;
+    private final MeterRegistry meterRegistry;
+
+    private final String username;
+    private final int seedTasks;
+    private final Duration budget;
+    private final int windowSize;
+    private final double tolerance;
+
+    public WarmUpRunner(JwtUtil jwtUtil,
+                        UserDetailsService userDetailsService,
+                        UserRepository userRepository,
+                        AuthService authService,
+                        TaskService taskService,
+                        TaskController taskController,
+                        ObjectMapper objectMapper,
+                        ShardRegistry shardRegistry,
+                        MeterRegistry meterRegistry,
+                        @Value("${warmup.username:__warmup}") String username,
+                        @Value("${warmup.seed-tasks:50}") int seedTasks,
+                        @Value("${warmup.max-duration-ms:30000}") long maxDurationMillis,
+                        @Value("${warmup.window-rounds:20}") int windowSize,
+                        @Value("${warmup.tolerance:0.1}") double tolerance) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.userRepository = userRepository;
+        this.authService = authService;
+        this.taskService = taskService;
+        this.taskController = taskController;
+        this.objectMapper = objectMapper;
+        this.shardRegistry = shardRegistry;
+        this.meterRegistry = meterRegistry;
+        this.username = username;
+        this.seedTasks = seedTasks;
+        this.budget = Duration.ofMillis(maxDurationMillis);
+        this.windowSize = windowSize;
+        this.tolerance = tolerance;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        try {
+            fillConnectionPools();
+            ensureSyntheticUser();
+            warmUp(started);
+        } catch (RuntimeException e) {
+            log.warn("Warm-up failed after {} ms, continuing cold", elapsedMillis(started), e);
+        }
+    }
+
+    /**
+     * Open every pooled connection once, so no request pays for connection setup
+     */
+    private void fillConnectionPools() {
+        for (int shard : shardRegistry.shardIds()) {
+            DataSource dataSource = shardRegistry.dataSource(shard);
+            int size = poolSize(dataSource);
+            List<Connection> connections = new ArrayList<>(size);
+            try {
+                for (int i = 0; i < size; i++) {
+                    connections.add(dataSource.getConnection());
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Cannot open connections on shard " + shard, e);
+            } finally {
+                for (Connection connection : connections) {
+                    try {
+                        connection.close();
+                    } catch (SQLException e) {
+                        log.debug("Failed to return a warm-up connection", e);
+                    }
+                }
+            }
+            log.debug("Opened {} pooled connections on shard {}", connections.size(), shard);
+        }
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+                return Math.max(hikari.getMinimumIdle(), 1);
+            }
+        } catch (SQLException e) {
+            log.debug("Cannot inspect data source", e);
+        }
+        return 1;
+    }
+
+    /**
+     * Register the synthetic user (with a password nobody knows) and give it tasks to read
+     * Instances starting together race to register it; only the one that does seeds its tasks,
+     * the others warm up on the user it created.
+     */
+    void ensureSyntheticUser() {
+        if (userRepository.existsByUsername(username)) {
+            return;
+        }
+        try {
+            authService.register(new RegisterRequest(username, username + "@warmup.invalid", UUID.randomUUID().toString()));
+        } catch (ConflictException | DataIntegrityViolationException e) {
+            log.debug("Warm-up user {} was registered by another instance", username);
+            return;
+        }
+        for (int i = 0; i < seedTasks; i++) {
+            taskService.createTask(username, new TaskRequest("Warm-up task " + i, "Synthetic task used to warm up new instances"));
+        }
+        log.info("Created warm-up user {} with {} tasks", username, seedTasks);
+    }
+
+    private void warmUp(long started) {
+        long deadline = started + budget.toNanos();
+        String token = jwtUtil.generateToken(username);
+        LatencyStabilizer stabilizer = new LatencyStabilizer(windowSize, tolerance);
+        Map<String, long[]> latencies = new LinkedHashMap<>();
+        for (String operation : OPERATIONS) {
+            latencies.put(operation, new long[windowSize]);
+        }
+
+        int rounds = 0;
+        boolean stable = false;
+        while (!stable && System.nanoTime() < deadline) {
+            long roundStarted = System.nanoTime();
+            int slot = rounds % windowSize;
+
+            // What JwtAuthenticationFilter does for every request
+            String subject = time(latencies, "jwt", slot, () -> {
+                String name = jwtUtil.extractUsername(token);
+                if (!jwtUtil.validateToken(token, name)) {
+                    throw new IllegalStateException("Warm-up token rejected");
+                }
+                return name;
+            });
+            Authentication authentication = time(latencies, "user", slot, () -> {
+                UserDetails user = userDetailsService.loadUserByUsername(subject);
+                return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+            });
+            time(latencies, "list", slot, () -> serialize(
+                    taskController.getAllTasks(authentication, 0, 10, null, "any", null, "created")));
+            time(latencies, "recent", slot, () -> serialize(taskController.getRecentTasks(authentication)));
+            time(latencies, "search", slot, () -> serialize(taskController.searchTasks(authentication, "task", 0, 10)));
+            time(latencies, "stats", slot, () -> serialize(taskController.getTaskStats(authentication)));
+
+            rounds++;
+            stable = stabilizer.record(System.nanoTime() - roundStarted);
+        }
+
+        long duration = elapsedMillis(started);
+        report(duration, rounds, stable, stabilizer, latencies, Math.min(rounds, windowSize));
+    }
+
+    private void report(long duration, int rounds, boolean stable, LatencyStabilizer stabilizer,
+                        Map<String, long[]> latencies, int samples) {
+        TimeGauge.builder("warmup.duration", () -> duration, TimeUnit.MILLISECONDS)
+                .description("Time from the start of warm-up until the instance reported ready")
+                .register(meterRegistry);
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, long[]> entry : latencies.entrySet()) {
+            long median = LatencyStabilizer.median(entry.getValue(), samples);
+            TimeGauge.builder("warmup.latency", () -> median, TimeUnit.NANOSECONDS)
+                    .description("Median latency of a hot path over the last warm-up rounds")
+                    .tag("operation", entry.getKey())
+                    .register(meterRegistry);
+            summary.append(' ').append(entry.getKey()).append('=')
+                    .append(String.format("%.2f", median / 1_000_000.0)).append("ms");
+        }
+        log.info("Warm-up finished in {} ms after {} rounds ({}), round median {} ms, operation medians:{}",
+                duration, rounds, stable ? "latency stable" : "time budget reached",
+                String.format("%.2f", stabilizer.lastMedianNanos() / 1_000_000.0), summary);
+    }
+
+    private static <T> T time(Map<String, long[]> latencies, String operation, int slot, Supplier<T> call) {
+        long started = System.nanoTime();
+        T result = call.get();
+        latencies.get(operation)[slot] = System.nanoTime() - started;
+        return result;
+    }
+
+    /**
+     * Serialize a response body the way the message converters would
+     */
+    private Object serialize(ResponseEntity<?> response) {
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new IllegalStateException("Warm-up request failed with " + response.getStatusCode());
+        }
+        Object body = response.getBody();
+        if (body instanceof byte[]) {
+            // Already serialized by the response cache
+            return body;
+        }
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize warm-up response", e);
+        }
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+}
@@ -0,0 +1,597 @@
+package com.coveragex.todobackend.store;
+
+import com.coveragex.todobackend.analytics.TaskCompletion;
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.reminder.PendingReminder;
+import com.coveragex.todobackend.tagging.TaggedTask;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Task storage in the JVM (profile "in-memory"), for ephemeral edge deployments and for
+ * benchmarking the service layer without a database
+ *
+ * Each user has concurrent skip lists of their live tasks ordered by (createdAt, id) and by
+ * (rankKey, id), an incomplete-only view of the first, a map of their tombstones and running
+ * counts, so every dashboard read is a walk from the head of one list. All tasks, tombstones
+ * included, are also indexed by id in a primitive-keyed map.
+ *
+ * Stored tasks are never modified: a write replaces the task in every index under the owner's
+ * lock, and reads copy what they return. Writes take effect at once, for other readers too, and
+ * are undone if the surrounding transaction rolls back: the versions they replaced are put back,
+ * unless a later write has replaced the task again. Users, the change log and the outbox stay in
+ * the database; tasks live as long as the process, so archiving and purging do not apply.
+ */
+@Component
+@Profile("in-memory")
+public class InMemoryTaskStore implements TaskStore {
+
+    private static final Comparator<Created> NEWEST_FIRST =
+            Comparator.comparing(Created::createdAt).thenComparingLong(Created::id).reversed();
+    private static final Comparator<Ranked> MANUAL_ORDER =
+            Comparator.comparing(Ranked::rankKey, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                    .thenComparingLong(Ranked::id);
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, UserTasks> users = new ConcurrentHashMap<>();
+    // Every task by id, tombstones included
+    private final LongMap<Task> byId = new LongMap<>(1024);
+    private final ReadWriteLock byIdLock = new ReentrantReadWriteLock();
+    private final WriteListener listener;
+
+    @Autowired
+    public InMemoryTaskStore(MeterRegistry meterRegistry) {
+        this(meterRegistry, (previous, next) -> {
+        });
+    }
+
+    /**
+     * @param listener told about every write before it is applied, under the owner's lock (JournalTaskStore)
+     */
+    InMemoryTaskStore(MeterRegistry meterRegistry, WriteListener listener) {
+        this.listener = listener;
+        Gauge.builder("task_store.tasks", this, InMemoryTaskStore::size)
+                .description("Tasks held by the in-memory store, tombstones included")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Page<Task> findIncompleteNewestFirst(User user, Pageable pageable) {
+        UserTasks tasks = users.get(user.getId());
+        return tasks == null ? Page.empty(pageable) : page(tasks.incomplete.values(), pageable, tasks.incompleteCount);
+    }
+
+    @Override
+    public Page<Task> findNewestFirst(User user, Pageable pageable) {
+        UserTasks tasks = users.get(user.getId());
+        return tasks == null ? Page.empty(pageable) : page(tasks.newest.values(), pageable, tasks.liveCount);
+    }
+
+    @Override
+    public Page<Task> findInManualOrder(User user, Pageable pageable) {
+        UserTasks tasks = users.get(user.getId());
+        return tasks == null ? Page.empty(pageable) : page(tasks.manual.values(), pageable, tasks.liveCount);
+    }
+
+    @Override
+    public Optional<Task> findByIdAndUser(Long id, User user) {
+        Task task = live(id);
+        return task != null && task.getUser().getId().equals(user.getId())
+                ? Optional.of(copy(task))
+                : Optional.empty();
+    }
+
+    @Override
+    public Optional<Task> findById(Long id) {
+        return Optional.ofNullable(live(id)).map(InMemoryTaskStore::copy);
+    }
+
+    @Override
+    public List<Task> findAllById(Collection<Long> ids) {
+        List<Task> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Task task = live(id);
+            if (task != null) {
+                found.add(copy(task));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Page<Task> search(User user, String searchTerm, Pageable pageable) {
+        UserTasks tasks = users.get(user.getId());
+        if (tasks == null) {
+            return Page.empty(pageable);
+        }
+        String term = searchTerm.toLowerCase(Locale.ROOT);
+        List<Task> matches = tasks.newest.values().stream()
+                .filter(task -> contains(task.getTitle(), term) || contains(task.getDescription(), term))
+                .collect(Collectors.toList());
+        return page(matches, pageable, matches.size());
+    }
+
+    @Override
+    public List<Task> findDueSoon(User user, LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        UserTasks tasks = users.get(user.getId());
+        if (tasks == null) {
+            return List.of();
+        }
+        return tasks.incomplete.values().stream()
+                .filter(task -> task.getDueAt() != null
+                        && !task.getDueAt().isBefore(from) && task.getDueAt().isBefore(to))
+                .sorted(Comparator.comparing(Task::getDueAt).thenComparing(Task::getId))
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(InMemoryTaskStore::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long countByUser(User user) {
+        UserTasks tasks = users.get(user.getId());
+        return tasks == null ? 0 : tasks.liveCount;
+    }
+
+    @Override
+    public long countIncomplete(User user) {
+        UserTasks tasks = users.get(user.getId());
+        return tasks == null ? 0 : tasks.incompleteCount;
+    }
+
+    @Override
+    public List<TaggedTask> findTaggedTasks(User user) {
+        UserTasks tasks = users.get(user.getId());
+        if (tasks == null) {
+            return List.of();
+        }
+        return tasks.newest.descendingMap().values().stream()
+                .map(task -> new TaggedTask(task.getId(), task.getCompleted(), task.getTags()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TaskCompletion> findCompletionsSince(User user, LocalDateTime after) {
+        UserTasks tasks = users.get(user.getId());
+        if (tasks == null) {
+            return List.of();
+        }
+        return tasks.newest.values().stream()
+                .filter(task -> task.getCompletedAt() != null && task.getCompletedAt().isAfter(after))
+                .map(task -> new TaskCompletion(task.getCreatedAt(), task.getCompletedAt()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<PendingReminder> findRemindersBetween(LocalDateTime from, LocalDateTime to) {
+        return users.values().stream()
+                .flatMap(tasks -> tasks.incomplete.values().stream())
+                .filter(task -> task.getRemindAt() != null
+                        && !task.getRemindAt().isBefore(from) && task.getRemindAt().isBefore(to))
+                .map(task -> new PendingReminder(task.getId(), task.getUser().getId(), task.getRemindAt()))
+                .sorted(Comparator.comparing(PendingReminder::remindAt).thenComparing(PendingReminder::taskId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Task save(Task task) {
+        UserTasks tasks = userTasks(task.getUser().getId());
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (tasks) {
+            Task current = task.getId() == null ? null : get(task.getId());
+            Task stored = copy(task);
+            if (current == null) {
+                stored.setId(sequence.incrementAndGet());
+                stored.setCreatedAt(now);
+            } else {
+                stored.setCreatedAt(current.getCreatedAt());
+            }
+            stored.setUpdatedAt(now);
+            replace(tasks, current, stored);
+
+            task.setId(stored.getId());
+            task.setCreatedAt(stored.getCreatedAt());
+            task.setUpdatedAt(stored.getUpdatedAt());
+            return copy(stored);
+        }
+    }
+
+    @Override
+    public void insertAll(List<Task> tasks) {
+        tasks.forEach(this::save);
+    }
+
+    @Override
+    public int softDelete(Long id, User user, LocalDateTime now) {
+        UserTasks tasks = userTasks(user.getId());
+        synchronized (tasks) {
+            Task current = get(id);
+            if (current == null || !current.getUser().getId().equals(user.getId()) || current.getDeletedAt() != null) {
+                return 0;
+            }
+            Task deleted = copy(current);
+            deleted.setDeletedAt(now);
+            deleted.setUpdatedAt(now);
+            replace(tasks, current, deleted);
+            return 1;
+        }
+    }
+
+    @Override
+    public int restore(Long id, Long userId, LocalDateTime now) {
+        UserTasks tasks = userTasks(userId);
+        synchronized (tasks) {
+            Task current = get(id);
+            if (current == null || !current.getUser().getId().equals(userId) || current.getDeletedAt() == null) {
+                return 0;
+            }
+            Task restored = copy(current);
+            restored.setDeletedAt(null);
+            restored.setUpdatedAt(now);
+            replace(tasks, current, restored);
+            return 1;
+        }
+    }
+
+    @Override
+    public List<String> findRankKeysAfter(User user, String after, Long excludeId, Pageable pageable) {
+        UserTasks tasks = users.get(user.getId());
+        if (tasks == null) {
+            return List.of();
+        }
+        // (after, MAX_VALUE) sorts after every key equal to after and before every greater one
+        return tasks.manual.tailMap(new Ranked(after, Long.MAX_VALUE), false).values().stream()
+                .filter(task -> !task.getId().equals(excludeId))
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(Task::getRankKey)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int updateRankKey(Long id, User user, String rankKey) {
+        UserTasks tasks = userTasks(user.getId());
+        synchronized (tasks) {
+            Task current = get(id);
+            if (current == null || !current.getUser().getId().equals(user.getId()) || current.getDeletedAt() != null) {
+                return 0;
+            }
+            Task moved = copy(current);
+            moved.setRankKey(rankKey);
+            replace(tasks, current, moved);
+            return 1;
+        }
+    }
+
+    @Override
+    public List<Long> findIdsInRankOrder(Long userId) {
+        UserTasks tasks = users.get(userId);
+        if (tasks == null) {
+            return List.of();
+        }
+        List<Task> all;
+        synchronized (tasks) {
+            all = new ArrayList<>(tasks.manual.values());
+            tasks.deleted.forEachValue(all::add);
+        }
+        return all.stream()
+                .sorted(Comparator.comparing((Task task) -> new Ranked(task.getRankKey(), task.getId()), MANUAL_ORDER))
+                .map(Task::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void updateRankKeys(List<Long> ids, List<String> keys) {
+        for (int i = 0; i < ids.size(); i++) {
+            Task task = get(ids.get(i));
+            if (task == null) {
+                continue;
+            }
+            UserTasks tasks = userTasks(task.getUser().getId());
+            synchronized (tasks) {
+                Task current = get(ids.get(i));
+                Task rekeyed = copy(current);
+                rekeyed.setRankKey(keys.get(i));
+                replace(tasks, current, rekeyed);
+            }
+        }
+    }
+
+    /**
+     * @return number of tasks held, tombstones included
+     */
+    public int size() {
+        byIdLock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            byIdLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Put a task as it was stored before (recovery), without telling the listener
+     * @param task the task with id and timestamps set
+     */
+    void load(Task task) {
+        UserTasks tasks = userTasks(task.getUser().getId());
+        synchronized (tasks) {
+            Task current = get(task.getId());
+            if (current != null) {
+                tasks.remove(current);
+            }
+            tasks.add(task);
+            byIdLock.writeLock().lock();
+            try {
+                byId.put(task.getId(), task);
+            } finally {
+                byIdLock.writeLock().unlock();
+            }
+            sequence.accumulateAndGet(task.getId(), Math::max);
+        }
+    }
+
+    /**
+     * Drop a task removed by a rollback (recovery), without telling the listener
+     * @param task the task as it was stored
+     */
+    void unload(Task task) {
+        UserTasks tasks = userTasks(task.getUser().getId());
+        synchronized (tasks) {
+            Task current = get(task.getId());
+            if (current != null) {
+                apply(tasks, current, null, false);
+            }
+            sequence.accumulateAndGet(task.getId(), Math::max);
+        }
+    }
+
+    /**
+     * @return every stored task, tombstones included; the tasks must not be modified
+     */
+    List<Task> allTasks() {
+        byIdLock.readLock().lock();
+        try {
+            List<Task> all = new ArrayList<>(byId.size());
+            byId.forEachValue(all::add);
+            return all;
+        } finally {
+            byIdLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the last id handed out
+     */
+    long lastId() {
+        return sequence.get();
+    }
+
+    private UserTasks userTasks(Long userId) {
+        return users.computeIfAbsent(userId, id -> new UserTasks());
+    }
+
+    private Task get(long id) {
+        byIdLock.readLock().lock();
+        try {
+            return byId.get(id);
+        } finally {
+            byIdLock.readLock().unlock();
+        }
+    }
+
+    private Task live(Long id) {
+        Task task = id == null ? null : get(id);
+        return task == null || task.getDeletedAt() != null ? null : task;
+    }
+
+    /**
+     * Swap a task in every index, to be undone if the transaction rolls back; the caller holds the owner's lock
+     */
+    private void replace(UserTasks tasks, Task current, Task next) {
+        apply(tasks, current, next, true);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            undoLog().add(current, next);
+        }
+    }
+
+    /**
+     * Swap a task in every index, or remove it when next is null; the caller holds the owner's lock
+     */
+    private void apply(UserTasks tasks, Task current, Task next, boolean notify) {
+        if (notify) {
+            // First, so a listener that fails leaves the store unchanged
+            listener.written(current, next);
+        }
+        if (current != null) {
+            tasks.remove(current);
+        }
+        if (next != null) {
+            tasks.add(next);
+        }
+        byIdLock.writeLock().lock();
+        try {
+            if (next != null) {
+                byId.put(next.getId(), next);
+            } else {
+                byId.remove(current.getId());
+            }
+        } finally {
+            byIdLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return this store's undo log in the current transaction, registered on first use
+     */
+    private UndoLog undoLog() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof UndoLog undoLog && undoLog.store() == this) {
+                return undoLog;
+            }
+        }
+        UndoLog undoLog = new UndoLog();
+        TransactionSynchronizationManager.registerSynchronization(undoLog);
+        return undoLog;
+    }
+
+    /**
+     * Put back the versions a rolled-back transaction replaced, newest write first
+     */
+    private void undo(List<Write> writes) {
+        for (int i = writes.size() - 1; i >= 0; i--) {
+            Write write = writes.get(i);
+            UserTasks tasks = userTasks(write.next().getUser().getId());
+            synchronized (tasks) {
+                // Stored versions are never modified, so identity tells whether a later write replaced it
+                if (get(write.next().getId()) == write.next()) {
+                    apply(tasks, write.next(), write.previous(), true);
+                }
+            }
+        }
+    }
+
+    private static Page<Task> page(Collection<Task> ordered, Pageable pageable, long total) {
+        List<Task> content = ordered.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(InMemoryTaskStore::copy)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private static boolean contains(String text, String lowerCaseTerm) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(lowerCaseTerm);
+    }
+
+    private static Task copy(Task task) {
+        return new Task(task.getId(), task.getTitle(), task.getDescription(), task.getCompleted(), task.getUser(),
+                task.getCreatedAt(), task.getUpdatedAt(), task.getCompletedAt(), task.getDueAt(), task.getRemindAt(),
+                task.getTags() == null ? List.of() : List.copyOf(task.getTags()), task.getRankKey(),
+                task.getDeletedAt());
+    }
+
+    /**
+     * Observer of every stored task version
+     */
+    interface WriteListener {
+
+        /**
+         * @param previous the version replaced, null for a new task
+         * @param next     the version now stored, null for a new task removed by a rollback; must not be modified
+         */
+        void written(Task previous, Task next);
+
+        /**
+         * Run the undo of a rolled-back transaction's writes, which reports each version put back to written
+         */
+        default void undoing(Runnable undo) {
+            undo.run();
+        }
+    }
+
+    private record Write(Task previous, Task next) {
+    }
+
+    /**
+     * Writes made by one transaction, undone if it rolls back
+     */
+    private final class UndoLog implements TransactionSynchronization {
+
+        private final List<Write> writes = new ArrayList<>();
+
+        InMemoryTaskStore store() {
+            return InMemoryTaskStore.this;
+        }
+
+        void add(Task previous, Task next) {
+            writes.add(new Write(previous, next));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_ROLLED_BACK) {
+                listener.undoing(() -> undo(writes));
+            }
+        }
+    }
+
+    private record Created(LocalDateTime createdAt, long id) {
+    }
+
+    private record Ranked(String rankKey, long id) {
+    }
+
+    /**
+     * One user's indexes; written under the instance's lock, read without it
+     */
+    private static final class UserTasks {
+
+        final ConcurrentSkipListMap<Created, Task> newest = new ConcurrentSkipListMap<>(NEWEST_FIRST);
+        final ConcurrentSkipListMap<Created, Task> incomplete = new ConcurrentSkipListMap<>(NEWEST_FIRST);
+        final ConcurrentSkipListMap<Ranked, Task> manual = new ConcurrentSkipListMap<>(MANUAL_ORDER);
+        final LongMap<Task> deleted = new LongMap<>();
+        volatile int liveCount;
+        volatile int incompleteCount;
+
+        void add(Task task) {
+            if (task.getDeletedAt() != null) {
+                deleted.put(task.getId(), task);
+                return;
+            }
+            newest.put(created(task), task);
+            manual.put(ranked(task), task);
+            liveCount = liveCount + 1;
+            if (!Boolean.TRUE.equals(task.getCompleted())) {
+                incomplete.put(created(task), task);
+                incompleteCount = incompleteCount + 1;
+            }
+        }
+
+        void remove(Task task) {
+            if (task.getDeletedAt() != null) {
+                deleted.remove(task.getId());
+                return;
+            }
+            newest.remove(created(task));
+            manual.remove(ranked(task));
+            liveCount = liveCount - 1;
+            if (!Boolean.TRUE.equals(task.getCompleted())) {
+                incomplete.remove(created(task));
+                incompleteCount = incompleteCount - 1;
+            }
+        }
+
+        private static Created created(Task task) {
+            return new Created(task.getCreatedAt(), task.getId());
+        }
+
+        private static Ranked ranked(Task task) {
+            return new Ranked(task.getRankKey(), task.getId());
+        }
+    }
+}
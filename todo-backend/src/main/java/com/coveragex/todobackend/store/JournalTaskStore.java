@@ -0,0 +1,289 @@
+package com.coveragex.todobackend.store;
+
+import com.coveragex.todobackend.analytics.TaskCompletion;
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.reminder.PendingReminder;
+import com.coveragex.todobackend.tagging.TaggedTask;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Durable task storage without a tasks table (profile "journal"), for single-node deployments
+ *
+ * Reads are served by an InMemoryTaskStore. Every write is appended to a TaskJournal as
+ * the task's new version, before it is applied in memory and under the same owner lock, and
+ * returns once the journal is fsynced (shared by concurrent writers). Versions put back by
+ * a rollback are journaled the same way, with a created task removed again as REMOVED.
+ * A periodic snapshot rotates the journal and writes every task to a snapshot file; on
+ * startup the newest snapshot is loaded and the journal segments after it are replayed.
+ */
+@Component
+@Profile("journal")
+@Slf4j
+public class JournalTaskStore implements TaskStore {
+
+    private final Path dir;
+    private final long snapshotMinBytes;
+    private final InMemoryTaskStore memory;
+    private final TaskJournal journal;
+
+    // Writers share it; a snapshot takes it exclusively to rotate and copy a consistent state
+    private final ReadWriteLock rotation = new ReentrantReadWriteLock();
+    private final AtomicLong snapshotPosition = new AtomicLong();
+
+    public JournalTaskStore(MeterRegistry meterRegistry,
+                            @Value("${journal.dir:data/journal}") String dir,
+                            @Value("${journal.fsync:true}") boolean fsync,
+                            @Value("${journal.snapshot-min-bytes:1048576}") long snapshotMinBytes) throws IOException {
+        this.dir = Path.of(dir);
+        this.snapshotMinBytes = snapshotMinBytes;
+        this.memory = new InMemoryTaskStore(meterRegistry, new InMemoryTaskStore.WriteListener() {
+            @Override
+            public void written(Task previous, Task next) {
+                append(previous, next);
+            }
+
+            @Override
+            public void undoing(Runnable undo) {
+                durably(() -> {
+                    undo.run();
+                    return null;
+                });
+            }
+        });
+        this.journal = new TaskJournal(this.dir, recover(), fsync, meterRegistry);
+    }
+
+    /**
+     * Load the newest snapshot and replay the journal after it
+     * @return the journal generation to append to
+     */
+    private long recover() throws IOException {
+        long started = System.nanoTime();
+        Map<Long, User> users = new HashMap<>();
+        long[] counts = new long[2];
+        long generation = TaskSnapshots.loadLatest(dir, payload -> {
+            memory.load(TaskRecords.decode(payload, users).task());
+            counts[0]++;
+        }).orElse(0L);
+        long last = TaskJournal.replay(dir, generation, payload -> {
+            TaskRecords.Decoded record = TaskRecords.decode(payload, users);
+            if (record.type() == TaskRecords.Type.REMOVED) {
+                memory.unload(record.task());
+            } else {
+                memory.load(record.task());
+            }
+            counts[1]++;
+        });
+        log.info("Recovered {} tasks from snapshot {} and {} journal records in {} ms",
+                counts[0], generation, counts[1], (System.nanoTime() - started) / 1_000_000);
+        return last;
+    }
+
+    /**
+     * Periodic snapshot, skipped while the journal has not grown much since the last one
+     */
+    @Scheduled(initialDelayString = "${journal.snapshot-interval-ms:300000}",
+            fixedDelayString = "${journal.snapshot-interval-ms:300000}")
+    public void snapshotIfDue() {
+        if (journal.position() - snapshotPosition.get() >= snapshotMinBytes) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Write a snapshot of every task and drop the journal segments it covers
+     */
+    public void snapshot() {
+        long started = System.nanoTime();
+        long generation;
+        List<Task> tasks;
+        rotation.writeLock().lock();
+        try {
+            generation = journal.rotate();
+            tasks = memory.allTasks();
+            snapshotPosition.set(journal.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            rotation.writeLock().unlock();
+        }
+
+        try {
+            TaskSnapshots.write(dir, generation, tasks);
+            TaskJournal.deleteBefore(dir, generation);
+            TaskSnapshots.deleteBefore(dir, generation);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Wrote task snapshot {} with {} tasks in {} ms",
+                generation, tasks.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Snapshot on shutdown, so the next start has no journal to replay
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        try {
+            snapshot();
+        } finally {
+            journal.close();
+        }
+    }
+
+    @Override
+    public Page<Task> findIncompleteNewestFirst(User user, Pageable pageable) {
+        return memory.findIncompleteNewestFirst(user, pageable);
+    }
+
+    @Override
+    public Page<Task> findNewestFirst(User user, Pageable pageable) {
+        return memory.findNewestFirst(user, pageable);
+    }
+
+    @Override
+    public Page<Task> findInManualOrder(User user, Pageable pageable) {
+        return memory.findInManualOrder(user, pageable);
+    }
+
+    @Override
+    public Optional<Task> findByIdAndUser(Long id, User user) {
+        return memory.findByIdAndUser(id, user);
+    }
+
+    @Override
+    public Optional<Task> findById(Long id) {
+        return memory.findById(id);
+    }
+
+    @Override
+    public List<Task> findAllById(Collection<Long> ids) {
+        return memory.findAllById(ids);
+    }
+
+    @Override
+    public Page<Task> search(User user, String searchTerm, Pageable pageable) {
+        return memory.search(user, searchTerm, pageable);
+    }
+
+    @Override
+    public List<Task> findDueSoon(User user, LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        return memory.findDueSoon(user, from, to, pageable);
+    }
+
+    @Override
+    public long countByUser(User user) {
+        return memory.countByUser(user);
+    }
+
+    @Override
+    public long countIncomplete(User user) {
+        return memory.countIncomplete(user);
+    }
+
+    @Override
+    public List<TaggedTask> findTaggedTasks(User user) {
+        return memory.findTaggedTasks(user);
+    }
+
+    @Override
+    public List<TaskCompletion> findCompletionsSince(User user, LocalDateTime after) {
+        return memory.findCompletionsSince(user, after);
+    }
+
+    @Override
+    public List<PendingReminder> findRemindersBetween(LocalDateTime from, LocalDateTime to) {
+        return memory.findRemindersBetween(from, to);
+    }
+
+    @Override
+    public Task save(Task task) {
+        return durably(() -> memory.save(task));
+    }
+
+    @Override
+    public void insertAll(List<Task> tasks) {
+        durably(() -> {
+            memory.insertAll(tasks);
+            return null;
+        });
+    }
+
+    @Override
+    public int softDelete(Long id, User user, LocalDateTime now) {
+        return durably(() -> memory.softDelete(id, user, now));
+    }
+
+    @Override
+    public int restore(Long id, Long userId, LocalDateTime now) {
+        return durably(() -> memory.restore(id, userId, now));
+    }
+
+    @Override
+    public List<String> findRankKeysAfter(User user, String after, Long excludeId, Pageable pageable) {
+        return memory.findRankKeysAfter(user, after, excludeId, pageable);
+    }
+
+    @Override
+    public int updateRankKey(Long id, User user, String rankKey) {
+        return durably(() -> memory.updateRankKey(id, user, rankKey));
+    }
+
+    @Override
+    public List<Long> findIdsInRankOrder(Long userId) {
+        return memory.findIdsInRankOrder(userId);
+    }
+
+    @Override
+    public void updateRankKeys(List<Long> ids, List<String> keys) {
+        durably(() -> {
+            memory.updateRankKeys(ids, keys);
+            return null;
+        });
+    }
+
+    /**
+     * Run a write and wait until the records it appended are on disk
+     */
+    private <T> T durably(Supplier<T> write) {
+        T result;
+        long position;
+        rotation.readLock().lock();
+        try {
+            result = write.get();
+            position = journal.position();
+        } finally {
+            rotation.readLock().unlock();
+        }
+        journal.awaitDurable(position);
+        return result;
+    }
+
+    // InMemoryTaskStore listener: runs before the write is applied, under the owner's lock
+    private void append(Task previous, Task next) {
+        journal.append(TaskRecords.encode(TaskRecords.typeOf(previous, next), next != null ? next : previous));
+    }
+}
@@ -0,0 +1,149 @@
+package com.coveragex.todobackend.store;
+
+import com.coveragex.todobackend.analytics.TaskCompletion;
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.reminder.PendingReminder;
+import com.coveragex.todobackend.repository.TaskBulkInserter;
+import com.coveragex.todobackend.repository.TaskRepository;
+import com.coveragex.todobackend.tagging.TaggedTask;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Task storage in the tasks table (the default)
+ * Runs in the caller's transaction, on the shard bound in ShardContext.
+ */
+@Component
+@Profile("!in-memory & !journal")
+public class JpaTaskStore implements TaskStore {
+
+    private final TaskRepository taskRepository;
+    private final TaskBulkInserter taskBulkInserter;
+    private final JdbcTemplate jdbcTemplate;
+
+    public JpaTaskStore(TaskRepository taskRepository, TaskBulkInserter taskBulkInserter, JdbcTemplate jdbcTemplate) {
+        this.taskRepository = taskRepository;
+        this.taskBulkInserter = taskBulkInserter;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Page<Task> findIncompleteNewestFirst(User user, Pageable pageable) {
+        return taskRepository.findByUserAndCompletedFalseOrderByCreatedAtDesc(user, pageable);
+    }
+
+    @Override
+    public Page<Task> findNewestFirst(User user, Pageable pageable) {
+        return taskRepository.findByUserOrderByCreatedAtDesc(user, pageable);
+    }
+
+    @Override
+    public Page<Task> findInManualOrder(User user, Pageable pageable) {
+        return taskRepository.findByUserOrderByRankKeyAscIdAsc(user, pageable);
+    }
+
+    @Override
+    public Optional<Task> findByIdAndUser(Long id, User user) {
+        return taskRepository.findByIdAndUser(id, user);
+    }
+
+    @Override
+    public Optional<Task> findById(Long id) {
+        return taskRepository.findById(id);
+    }
+
+    @Override
+    public List<Task> findAllById(Collection<Long> ids) {
+        return taskRepository.findAllById(ids);
+    }
+
+    @Override
+    public Page<Task> search(User user, String searchTerm, Pageable pageable) {
+        return taskRepository.findByUserAndTitleOrDescriptionContainingIgnoreCase(user, searchTerm, pageable);
+    }
+
+    @Override
+    public List<Task> findDueSoon(User user, LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        return taskRepository.findDueSoon(user, from, to, pageable);
+    }
+
+    @Override
+    public long countByUser(User user) {
+        return taskRepository.countByUser(user);
+    }
+
+    @Override
+    public long countIncomplete(User user) {
+        return taskRepository.countByUserAndCompletedFalse(user);
+    }
+
+    @Override
+    public List<TaggedTask> findTaggedTasks(User user) {
+        return taskRepository.findTaggedTasksByUser(user);
+    }
+
+    @Override
+    public List<TaskCompletion> findCompletionsSince(User user, LocalDateTime after) {
+        return taskRepository.findCompletionsSince(user, after);
+    }
+
+    @Override
+    public List<PendingReminder> findRemindersBetween(LocalDateTime from, LocalDateTime to) {
+        return taskRepository.findRemindersBetween(from, to);
+    }
+
+    @Override
+    public Task save(Task task) {
+        return taskRepository.save(task);
+    }
+
+    @Override
+    public void insertAll(List<Task> tasks) {
+        taskBulkInserter.insertAll(tasks);
+    }
+
+    @Override
+    public int softDelete(Long id, User user, LocalDateTime now) {
+        return taskRepository.softDeleteByIdAndUser(id, user, now);
+    }
+
+    @Override
+    public int restore(Long id, Long userId, LocalDateTime now) {
+        return taskRepository.restoreByIdAndUserId(id, userId, now);
+    }
+
+    @Override
+    public List<String> findRankKeysAfter(User user, String after, Long excludeId, Pageable pageable) {
+        return taskRepository.findRankKeysAfter(user, after, excludeId, pageable);
+    }
+
+    @Override
+    public int updateRankKey(Long id, User user, String rankKey) {
+        return taskRepository.updateRankKey(id, user, rankKey);
+    }
+
+    @Override
+    public List<Long> findIdsInRankOrder(Long userId) {
+        return taskRepository.findIdsInRankOrder(userId);
+    }
+
+    // JDBC batch: the entity restriction would skip deleted tasks
+    @Override
+    public void updateRankKeys(List<Long> ids, List<String> keys) {
+        List<Object[]> updates = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            updates.add(new Object[]{keys.get(i), ids.get(i)});
+        }
+        jdbcTemplate.batchUpdate("UPDATE tasks SET rank_key = ? WHERE id = ?", updates);
+    }
+}
@@ -0,0 +1,318 @@
+package com.coveragex.todobackend.store;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of task records, in numbered segment files (journal-N.log)
+ *
+ * Appends go to the OS page cache under the journal's lock; a single sync thread fsyncs
+ * whatever has been appended, so concurrent writers that wait for durability share one
+ * fsync (group commit). A snapshot rotates to a new segment; snapshot-N holds everything
+ * before journal-N. Replay stops at a torn or corrupt record at the end of the last segment
+ * (a write cut short by a crash, never acknowledged) and truncates it.
+ */
+@Slf4j
+final class TaskJournal implements Closeable {
+
+    private static final Pattern SEGMENT = Pattern.compile("journal-(\\d+)\\.log");
+
+    private final Path dir;
+    private final boolean fsync;
+    private final DistributionSummary syncBatch;
+    private final Timer syncTime;
+
+    // Guarded by this; positions count bytes over all segments since open
+    private FileChannel channel;
+    private long generation;
+    private long appended;
+    private long appendedRecords;
+    private long synced;
+    private long syncedRecords;
+    private IOException failure;
+    private boolean closed;
+
+    private final Thread syncer;
+
+    /**
+     * Open segment generation for appending, creating it if needed
+     */
+    TaskJournal(Path dir, long generation, boolean fsync, MeterRegistry meterRegistry) throws IOException {
+        this.dir = dir;
+        this.fsync = fsync;
+        this.syncBatch = DistributionSummary.builder("journal.sync_batch")
+                .description("Journal records made durable by one fsync")
+                .register(meterRegistry);
+        this.syncTime = Timer.builder("journal.fsync").register(meterRegistry);
+        Files.createDirectories(dir);
+        open(generation);
+        if (fsync) {
+            syncer = new Thread(this::syncLoop, "journal-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        } else {
+            syncer = null;
+        }
+    }
+
+    /**
+     * Append one record; it is durable once awaitDurable(returned position) returns
+     * @return journal position after the record
+     */
+    synchronized long append(byte[] payload) {
+        if (closed || failure != null) {
+            throw new IllegalStateException("Journal is not writable", failure);
+        }
+        ByteBuffer frame = ByteBuffer.allocate(TaskRecords.FRAME_HEADER + payload.length);
+        frame.putInt(payload.length).putInt(TaskRecords.checksum(payload)).put(payload).flip();
+        try {
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+        } catch (IOException e) {
+            failure = e;
+            notifyAll();
+            throw new UncheckedIOException(e);
+        }
+        appended += frame.limit();
+        appendedRecords++;
+        notifyAll();
+        return appended;
+    }
+
+    /**
+     * @return journal position after the last record appended
+     */
+    synchronized long position() {
+        return appended;
+    }
+
+    /**
+     * Wait until everything up to the position is on disk (no-op without fsync)
+     */
+    void awaitDurable(long position) {
+        if (!fsync) {
+            return;
+        }
+        synchronized (this) {
+            boolean interrupted = false;
+            while (synced < position && failure == null && !closed) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (synced < position) {
+                throw new UncheckedIOException(failure != null ? failure : new IOException("Journal closed"));
+            }
+        }
+    }
+
+    /**
+     * Make the current segment durable and start the next one
+     * @return the new segment's generation
+     */
+    synchronized long rotate() throws IOException {
+        channel.force(false);
+        markSynced();
+        channel.close();
+        open(generation + 1);
+        return generation;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            channel.force(false);
+            markSynced();
+            closed = true;
+            channel.close();
+            notifyAll();
+        }
+        if (syncer != null) {
+            syncer.interrupt();
+        }
+    }
+
+    /**
+     * Read the records of every segment from generation on, in order
+     * @return the last generation found (generation itself if there is none)
+     */
+    static long replay(Path dir, long generation, Consumer<byte[]> apply) throws IOException {
+        List<Long> generations = generations(dir).stream().filter(g -> g >= generation).toList();
+        for (int i = 0; i < generations.size(); i++) {
+            boolean last = i == generations.size() - 1;
+            replaySegment(segment(dir, generations.get(i)), last, apply);
+        }
+        return generations.isEmpty() ? generation : generations.get(generations.size() - 1);
+    }
+
+    /**
+     * Delete the segments before the generation (covered by a snapshot)
+     */
+    static void deleteBefore(Path dir, long generation) throws IOException {
+        for (long older : generations(dir)) {
+            if (older < generation) {
+                Files.deleteIfExists(segment(dir, older));
+            }
+        }
+    }
+
+    private static void replaySegment(Path file, boolean last, Consumer<byte[]> apply) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            int records = 0;
+            ByteBuffer header = ByteBuffer.allocate(TaskRecords.FRAME_HEADER);
+            while (position < size) {
+                byte[] payload = readRecord(in, position, size, header);
+                if (payload == null) {
+                    if (!last) {
+                        throw new IllegalStateException("Corrupt record in " + file + " at " + position);
+                    }
+                    log.warn("Truncating torn journal tail of {} at {} ({} bytes)", file, position, size - position);
+                    in.truncate(position);
+                    in.force(true);
+                    break;
+                }
+                apply.accept(payload);
+                position += TaskRecords.FRAME_HEADER + payload.length;
+                records++;
+            }
+            log.debug("Replayed {} records from {}", records, file);
+        }
+    }
+
+    private static byte[] readRecord(FileChannel in, long position, long size, ByteBuffer header) throws IOException {
+        if (size - position < TaskRecords.FRAME_HEADER) {
+            return null;
+        }
+        header.clear();
+        readFully(in, header, position);
+        header.flip();
+        int length = header.getInt();
+        int checksum = header.getInt();
+        if (length < 0 || length > size - position - TaskRecords.FRAME_HEADER) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(in, payload, position + TaskRecords.FRAME_HEADER);
+        return TaskRecords.checksum(payload.array()) == checksum ? payload.array() : null;
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of journal");
+            }
+        }
+    }
+
+    private static List<Long> generations(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> SEGMENT.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Path segment(Path dir, long generation) {
+        return dir.resolve("journal-" + generation + ".log");
+    }
+
+    private void open(long generation) throws IOException {
+        this.generation = generation;
+        this.channel = FileChannel.open(segment(dir, generation),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void markSynced() {
+        if (appendedRecords > syncedRecords) {
+            syncBatch.record(appendedRecords - syncedRecords);
+        }
+        synced = appended;
+        syncedRecords = appendedRecords;
+        notifyAll();
+    }
+
+    private void syncLoop() {
+        while (true) {
+            FileChannel target;
+            long position;
+            long records;
+            synchronized (this) {
+                while (!closed && failure == null && synced == appended) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        if (closed) {
+                            return;
+                        }
+                    }
+                }
+                if (closed || failure != null) {
+                    return;
+                }
+                target = channel;
+                position = appended;
+                records = appendedRecords;
+            }
+
+            // Appends continue meanwhile and make up the next group
+            long started = System.nanoTime();
+            try {
+                target.force(false);
+            } catch (ClosedChannelException e) {
+                // Rotated or closed meanwhile, which synced everything itself
+                continue;
+            } catch (IOException e) {
+                synchronized (this) {
+                    log.error("Journal fsync failed; task writes are refused from now on", e);
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+            syncTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+            synchronized (this) {
+                if (position > synced) {
+                    syncBatch.record(records - syncedRecords);
+                    synced = position;
+                    syncedRecords = records;
+                    notifyAll();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.coveragex.todobackend.store;
+
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.ranking.RankKeys;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Binary form of a task version, shared by the journal and the snapshots
+ *
+ * Every journal event carries the whole task as written, so replay only has to put it back;
+ * the event type says what changed. A framed record is [length][CRC32][payload]. Fields added
+ * later go at the end of the payload and are read only when present, so older journals and
+ * snapshots still load.
+ */
+final class TaskRecords {
+
+    static final int FRAME_HEADER = 8;
+
+    enum Type {
+        CREATED, UPDATED, COMPLETED, REOPENED, DELETED, RESTORED, MOVED,
+        // A created task removed again by a rollback; carries the task as created
+        REMOVED
+    }
+
+    record Decoded(Type type, Task task) {
+    }
+
+    private TaskRecords() {
+    }
+
+    /**
+     * What a write did, from the versions before and after it
+     */
+    static Type typeOf(Task previous, Task next) {
+        if (next == null) {
+            return Type.REMOVED;
+        }
+        if (previous == null) {
+            return Type.CREATED;
+        }
+        if (previous.getDeletedAt() == null && next.getDeletedAt() != null) {
+            return Type.DELETED;
+        }
+        if (previous.getDeletedAt() != null && next.getDeletedAt() == null) {
+            return Type.RESTORED;
+        }
+        if (!Objects.equals(previous.getCompleted(), next.getCompleted())) {
+            return Boolean.TRUE.equals(next.getCompleted()) ? Type.COMPLETED : Type.REOPENED;
+        }
+        if (!Objects.equals(previous.getRankKey(), next.getRankKey())
+                && Objects.equals(previous.getUpdatedAt(), next.getUpdatedAt())) {
+            return Type.MOVED;
+        }
+        return Type.UPDATED;
+    }
+
+    static byte[] encode(Type type, Task task) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type.ordinal());
+            out.writeLong(task.getId());
+            out.writeLong(task.getUser().getId());
+            out.writeBoolean(Boolean.TRUE.equals(task.getCompleted()));
+            out.writeUTF(task.getTitle());
+            writeString(out, task.getDescription());
+            writeTime(out, task.getCreatedAt());
+            writeTime(out, task.getUpdatedAt());
+            writeTime(out, task.getDueAt());
+            writeTime(out, task.getRemindAt());
+            List<String> tags = task.getTags() == null ? List.of() : task.getTags();
+            out.writeShort(tags.size());
+            for (String tag : tags) {
+                out.writeUTF(tag);
+            }
+            writeString(out, task.getRankKey());
+            writeTime(out, task.getDeletedAt());
+            writeTime(out, task.getCompletedAt());
+            // Rank keys with an integer part; older records hold bare fractions
+            out.writeBoolean(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param users owners decoded so far, so records of one user share a User
+     */
+    static Decoded decode(byte[] payload, Map<Long, User> users) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            Type type = Type.values()[in.readUnsignedByte()];
+            Task task = new Task();
+            task.setId(in.readLong());
+            task.setUser(users.computeIfAbsent(in.readLong(), TaskRecords::userStub));
+            task.setCompleted(in.readBoolean());
+            task.setTitle(in.readUTF());
+            task.setDescription(readString(in));
+            task.setCreatedAt(readTime(in));
+            task.setUpdatedAt(readTime(in));
+            task.setDueAt(readTime(in));
+            task.setRemindAt(readTime(in));
+            int tagCount = in.readUnsignedShort();
+            List<String> tags = new ArrayList<>(tagCount);
+            for (int i = 0; i < tagCount; i++) {
+                tags.add(in.readUTF());
+            }
+            task.setTags(List.copyOf(tags));
+            task.setRankKey(readString(in));
+            task.setDeletedAt(readTime(in));
+            if (in.available() > 0) {
+                task.setCompletedAt(readTime(in));
+            }
+            boolean integerRankKey = in.available() > 0 && in.readBoolean();
+            if (!integerRankKey && task.getRankKey() != null) {
+                task.setRankKey(RankKeys.fromFraction(task.getRankKey()));
+            }
+            return new Decoded(type, task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static User userStub(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeBoolean(time != null);
+        if (time != null) {
+            out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(time.getNano());
+        }
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+}
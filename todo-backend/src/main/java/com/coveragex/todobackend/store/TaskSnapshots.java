@@ -0,0 +1,176 @@
+package com.coveragex.todobackend.store;
+
+import com.coveragex.todobackend.entity.Task;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Point-in-time copies of every task (snapshot-N.bin, covering everything before journal-N)
+ *
+ * A snapshot is written to a temporary file, fsynced and renamed into place, so a crash
+ * mid-write leaves the previous snapshot and its journal segments untouched. It is read
+ * through a sliding memory-mapped window: recovery touches each page once, with no copy
+ * through a read buffer.
+ */
+@Slf4j
+final class TaskSnapshots {
+
+    private static final int MAGIC = 0x54534E50;
+    private static final int VERSION = 1;
+    private static final int HEADER = 4 + 4 + 8 + 8;
+    private static final long WINDOW = 64L * 1024 * 1024;
+    private static final Pattern SNAPSHOT = Pattern.compile("snapshot-(\\d+)\\.bin");
+
+    private TaskSnapshots() {
+    }
+
+    /**
+     * Write the snapshot that precedes journal segment generation
+     */
+    static void write(Path dir, long generation, List<Task> tasks) throws IOException {
+        Path temporary = dir.resolve("snapshot-" + generation + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING),
+                1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeLong(tasks.size());
+            for (Task task : tasks) {
+                byte[] payload = TaskRecords.encode(TaskRecords.Type.CREATED, task);
+                out.writeInt(payload.length);
+                out.writeInt(TaskRecords.checksum(payload));
+                out.write(payload);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, snapshot(dir, generation), StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(dir);
+    }
+
+    /**
+     * Read the newest snapshot
+     * @return its generation (journal segment to replay from), empty if there is none
+     */
+    static Optional<Long> loadLatest(Path dir, Consumer<byte[]> apply) throws IOException {
+        List<Long> generations = generations(dir);
+        if (generations.isEmpty()) {
+            return Optional.empty();
+        }
+        long generation = generations.get(generations.size() - 1);
+        Path file = snapshot(dir, generation);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Window window = new Window(channel);
+            window.ensure(HEADER);
+            if (window.buffer.getInt() != MAGIC || window.buffer.getInt() != VERSION
+                    || window.buffer.getLong() != generation) {
+                throw new IllegalStateException("Not a task snapshot: " + file);
+            }
+            long count = window.buffer.getLong();
+            for (long i = 0; i < count; i++) {
+                window.ensure(TaskRecords.FRAME_HEADER);
+                int length = window.buffer.getInt();
+                int checksum = window.buffer.getInt();
+                window.ensure(length);
+                byte[] payload = new byte[length];
+                window.buffer.get(payload);
+                if (TaskRecords.checksum(payload) != checksum) {
+                    throw new IllegalStateException("Corrupt record " + i + " in " + file);
+                }
+                apply.accept(payload);
+            }
+            log.debug("Loaded {} tasks from {}", count, file);
+        }
+        return Optional.of(generation);
+    }
+
+    /**
+     * Delete snapshots older than the generation, and leftovers of interrupted writes
+     */
+    static void deleteBefore(Path dir, long generation) throws IOException {
+        for (long older : generations(dir)) {
+            if (older < generation) {
+                Files.deleteIfExists(snapshot(dir, older));
+            }
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(".tmp")).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static List<Long> generations(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> SNAPSHOT.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static Path snapshot(Path dir, long generation) {
+        return dir.resolve("snapshot-" + generation + ".bin");
+    }
+
+    // Makes the rename durable; not every platform can open a directory
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Could not fsync {}", dir, e);
+        }
+    }
+
+    /**
+     * Read-only mapping of part of the file, moved forward whenever the next read does not fit
+     */
+    private static final class Window {
+
+        private final FileChannel channel;
+        private final long size;
+        private long base;
+        private MappedByteBuffer buffer;
+
+        Window(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                map(base + buffer.position());
+                if (buffer.remaining() < bytes) {
+                    throw new IllegalStateException("Truncated task snapshot");
+                }
+            }
+        }
+
+        private void map(long position) throws IOException {
+            base = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+        }
+    }
+}
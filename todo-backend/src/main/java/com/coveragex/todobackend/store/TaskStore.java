@@ -0,0 +1,133 @@
+package com.coveragex.todobackend.store;
+
+import com.coveragex.todobackend.analytics.TaskCompletion;
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.reminder.PendingReminder;
+import com.coveragex.todobackend.tagging.TaggedTask;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage of the live tasks behind TaskService, TagIndex, TaskRankRebalancer and ReminderScheduler
+ *
+ * JpaTaskStore (the default) keeps them in the tasks table; InMemoryTaskStore (profile
+ * "in-memory") keeps them in the JVM and JournalTaskStore (profile "journal") adds an
+ * append-only journal to that. All follow the same rules: deleted tasks are
+ * tombstones hidden from every read except restore and the rank order, and the tasks
+ * returned are the caller's to modify, with nothing written until save.
+ */
+public interface TaskStore {
+
+    /**
+     * @return page of the user's incomplete tasks, newest first
+     */
+    Page<Task> findIncompleteNewestFirst(User user, Pageable pageable);
+
+    /**
+     * @return page of all the user's tasks, newest first
+     */
+    Page<Task> findNewestFirst(User user, Pageable pageable);
+
+    /**
+     * @return page of all the user's tasks in manual order (rank key, then id)
+     */
+    Page<Task> findInManualOrder(User user, Pageable pageable);
+
+    /**
+     * @return the task if it exists and is owned by the user
+     */
+    Optional<Task> findByIdAndUser(Long id, User user);
+
+    /**
+     * @return the task, whoever owns it
+     */
+    Optional<Task> findById(Long id);
+
+    /**
+     * @return the tasks among the ids that exist, in no particular order
+     */
+    List<Task> findAllById(Collection<Long> ids);
+
+    /**
+     * @return page of the user's tasks whose title or description contains the term, ignoring case
+     */
+    Page<Task> search(User user, String searchTerm, Pageable pageable);
+
+    /**
+     * @return the user's incomplete tasks due in [from, to), soonest first
+     */
+    List<Task> findDueSoon(User user, LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    long countByUser(User user);
+
+    long countIncomplete(User user);
+
+    /**
+     * @return id, status and tags of every task of the user, oldest first (TagIndex rebuild)
+     */
+    List<TaggedTask> findTaggedTasks(User user);
+
+    /**
+     * @return creation and completion time of the user's tasks completed after the given time
+     */
+    List<TaskCompletion> findCompletionsSince(User user, LocalDateTime after);
+
+    /**
+     * @return reminders of incomplete tasks (all users) in [from, to), soonest first
+     */
+    List<PendingReminder> findRemindersBetween(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Insert a new task or write back a modified one
+     * @param task the task, with id, createdAt and updatedAt set on return
+     * @return the task as stored
+     */
+    Task save(Task task);
+
+    /**
+     * Insert new tasks (group commit) and set their ids and timestamps
+     * @param tasks new tasks with user and rank key set
+     */
+    void insertAll(List<Task> tasks);
+
+    /**
+     * Tombstone a task owned by the user
+     * @return 1 if the task was deleted, 0 if it does not exist, is not owned by the user or is deleted
+     */
+    int softDelete(Long id, User user, LocalDateTime now);
+
+    /**
+     * Clear the tombstone of a task owned by the user
+     * @return 1 if the task was restored, 0 otherwise
+     */
+    int restore(Long id, Long userId, LocalDateTime now);
+
+    /**
+     * @return the rank keys greater than after in the user's manual order, skipping excludeId
+     */
+    List<String> findRankKeysAfter(User user, String after, Long excludeId, Pageable pageable);
+
+    /**
+     * Write a task's rank key and nothing else
+     * @return 1 if the task was moved, 0 otherwise
+     */
+    int updateRankKey(Long id, User user, String rankKey);
+
+    /**
+     * @return ids of all the user's tasks in manual order, deleted ones included (rebalancing)
+     */
+    List<Long> findIdsInRankOrder(Long userId);
+
+    /**
+     * Rewrite the rank keys of tasks, deleted ones included
+     * @param ids  task ids
+     * @param keys new key of each task
+     */
+    void updateRankKeys(List<Long> ids, List<String> keys);
+}
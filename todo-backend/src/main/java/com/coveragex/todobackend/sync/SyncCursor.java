@@ -0,0 +1,41 @@
+package com.coveragex.todobackend.sync;
+
+import com.coveragex.todobackend.exception.BadRequestException;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Position in a user's change log, handed to clients as an opaque string
+ *
+ * @param shard     shard whose log the id refers to
+ * @param changeId  id of the last entry the client has seen (0 for none)
+ * @param validFrom every change since this time is after the cursor; once compaction has
+ *                  deleted entries from that period the cursor can no longer be resumed
+ */
+public record SyncCursor(int shard, long changeId, LocalDateTime validFrom) {
+
+    /**
+     * @param value a cursor produced by toString()
+     * @return the cursor
+     * @throws BadRequestException if the value is not a cursor
+     */
+    public static SyncCursor parse(String value) {
+        String[] parts = value.split("\\.");
+        if (parts.length != 3) {
+            throw new BadRequestException("Invalid sync cursor: " + value);
+        }
+        try {
+            return new SyncCursor(Integer.parseInt(parts[0]), Long.parseLong(parts[1]),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(parts[2])), ZoneId.systemDefault()));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid sync cursor: " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return shard + "." + changeId + "." + validFrom.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
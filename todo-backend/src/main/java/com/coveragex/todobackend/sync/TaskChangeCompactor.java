@@ -0,0 +1,96 @@
+package com.coveragex.todobackend.sync;
+
+import com.coveragex.todobackend.repository.TaskChangeRepository;
+import com.coveragex.todobackend.shard.ShardContext;
+import com.coveragex.todobackend.shard.ShardRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Background job that keeps the task change log small
+ * Entries past retention are deleted (cursors that old get a reset), and entries older than
+ * the compaction age are deleted once a newer entry for the same task exists: a client
+ * behind both only needs the newer one, since it reads the task's current state anyway.
+ * Shards are compacted one after another, one short transaction per batch.
+ */
+@Component
+@ConditionalOnProperty(name = "sync.compaction.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class TaskChangeCompactor {
+
+    private final TaskChangeRepository repository;
+    private final ShardRegistry shardRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration retention;
+    private final Duration compactAge;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public TaskChangeCompactor(TaskChangeRepository repository,
+                               PlatformTransactionManager transactionManager,
+                               ShardRegistry shardRegistry,
+                               @Value("${sync.retention-days:30}") long retentionDays,
+                               @Value("${sync.compaction.compact-after-minutes:60}") long compactAfterMinutes,
+                               @Value("${sync.compaction.batch-size:1000}") int batchSize,
+                               @Value("${sync.compaction.max-batches-per-run:1000}") int maxBatchesPerRun) {
+        this.repository = repository;
+        this.shardRegistry = shardRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = Duration.ofDays(retentionDays);
+        this.compactAge = Duration.ofMinutes(compactAfterMinutes);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    /**
+     * Periodic compaction run
+     */
+    @Scheduled(initialDelayString = "${sync.compaction.initial-delay-ms:120000}",
+            fixedDelayString = "${sync.compaction.interval-ms:600000}")
+    public void compact() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int shard : shardRegistry.shardIds()) {
+            ShardContext.runIn(shard, () -> compactShard(now.minus(retention), now.minus(compactAge)));
+        }
+    }
+
+    /**
+     * Compact the shard bound in ShardContext
+     */
+    private void compactShard(LocalDateTime expiredBefore, LocalDateTime compactBefore) {
+        int expired = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ids = repository.findExpiredIds(expiredBefore, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            expired += transactionTemplate.execute(status -> repository.deleteByIdIn(ids));
+        }
+
+        long cursor = 0;
+        int superseded = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ids = repository.findIdsAfter(cursor, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            superseded += transactionTemplate.execute(status -> repository.deleteSupersededByIdIn(ids, compactBefore));
+            cursor = ids.get(ids.size() - 1);
+        }
+
+        if (expired + superseded > 0) {
+            log.info("Compacted task change log on shard {}: {} expired, {} superseded entries deleted",
+                    ShardContext.current(), expired, superseded);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.coveragex.todobackend.sync;
+
+import com.coveragex.todobackend.entity.TaskChange;
+import com.coveragex.todobackend.exception.BadRequestException;
+import com.coveragex.todobackend.event.TaskChangedEvent.ChangeType;
+import com.coveragex.todobackend.repository.TaskChangeRepository;
+import com.coveragex.todobackend.shard.ShardContext;
+import com.coveragex.todobackend.shard.ShardRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only per-user log of task changes, read by clients syncing incrementally
+ *
+ * Entries are appended in the transaction of the mutation they describe, so ids are assigned
+ * before commit and a transaction can commit after one with a larger id. Readers therefore
+ * only return entries older than the settle delay and stop at the first younger one; a
+ * cursor never moves past an id whose transaction may still be in flight. Entries are stamped
+ * and settled by the database's clock, so the delay does not depend on the app nodes' clocks
+ * agreeing. Ids are shared by all users, so a gap in one user's ids says nothing about
+ * transactions in flight.
+ */
+@Component
+public class TaskChangeLog {
+
+    private final TaskChangeRepository repository;
+    private final Duration settleDelay;
+    private final Duration retention;
+
+    public TaskChangeLog(TaskChangeRepository repository,
+                         @Value("${sync.settle-delay-ms:2000}") long settleDelayMillis,
+                         @Value("${sync.retention-days:30}") long retentionDays) {
+        this.repository = repository;
+        this.settleDelay = Duration.ofMillis(settleDelayMillis);
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    /**
+     * Log a change of one task in the current transaction
+     * @param userId the task's owner
+     * @param taskId the task ID
+     * @param type   kind of change
+     */
+    public void append(Long userId, Long taskId, ChangeType type) {
+        repository.append(userId, taskId, type.name());
+    }
+
+    /**
+     * Read a user's log after a cursor, from the shard bound in ShardContext
+     * @param userId the user ID
+     * @param since  cursor from a previous read, or null to start over
+     * @param limit  maximum number of entries
+     * @return the entries, or a reset when the client must reload everything
+     * @throws BadRequestException if the cursor is malformed
+     */
+    public Batch read(Long userId, String since, int limit) {
+        int shard = ShardContext.current() == null ? ShardRegistry.PRIMARY : ShardContext.current();
+        LocalDateTime now = repository.currentTime();
+        LocalDateTime settledBefore = now.minus(settleDelay);
+
+        SyncCursor cursor = since == null ? null : SyncCursor.parse(since);
+        if (cursor == null || cursor.shard() != shard || cursor.validFrom().isBefore(now.minus(retention))) {
+            // Everything up to the head is covered by the reload the client does
+            List<Long> head = repository.findHeadIds(userId, settledBefore, PageRequest.of(0, 1));
+            long headId = head.isEmpty() ? 0 : head.get(0);
+            return new Batch(new SyncCursor(shard, headId, settledBefore), true, false, List.of());
+        }
+
+        List<TaskChange> rows = repository.findByUserIdAndIdGreaterThanOrderByIdAsc(
+                userId, cursor.changeId(), PageRequest.of(0, limit + 1));
+        List<TaskChange> changes = new ArrayList<>();
+        boolean hasMore = false;
+        for (TaskChange row : rows) {
+            if (!row.getChangedAt().isBefore(settledBefore)) {
+                break;
+            }
+            if (changes.size() == limit) {
+                hasMore = true;
+                break;
+            }
+            changes.add(row);
+        }
+
+        if (changes.isEmpty()) {
+            return new Batch(new SyncCursor(shard, cursor.changeId(), settledBefore), false, false, changes);
+        }
+        TaskChange last = changes.get(changes.size() - 1);
+        LocalDateTime validFrom = hasMore ? last.getChangedAt() : settledBefore;
+        return new Batch(new SyncCursor(shard, last.getId(), validFrom), false, hasMore, changes);
+    }
+
+    /**
+     * One read of the log
+     * @param cursor  where the next read continues
+     * @param reset   whether the client must discard its copy and reload every task
+     * @param hasMore whether more settled entries follow right away
+     * @param changes entries in log order
+     */
+    public record Batch(SyncCursor cursor, boolean reset, boolean hasMore, List<TaskChange> changes) {
+    }
+}
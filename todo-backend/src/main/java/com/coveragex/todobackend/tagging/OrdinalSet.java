@@ -0,0 +1,107 @@
+package com.coveragex.todobackend.tagging;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Compressed set of task ordinals
+ *
+ * A sparse set is a sorted int array (4 bytes per member); once that would take more space
+ * than a bitmap over the user's ordinals it switches to a BitSet (1 bit per ordinal).
+ * Most tags are rare, so most sets stay small arrays even for very large accounts.
+ *
+ * Not thread-safe: UserTagBitmaps guards every access.
+ */
+final class OrdinalSet {
+
+    private int[] members = new int[4];
+    private int size;
+    private BitSet bits;
+
+    void add(int ordinal, int ordinalCount) {
+        if (bits != null) {
+            bits.set(ordinal);
+            return;
+        }
+        int at = insertionPoint(ordinal);
+        if (at < size && members[at] == ordinal) {
+            return;
+        }
+        if ((long) (size + 1) * Integer.SIZE > ordinalCount) {
+            toBitmap();
+            bits.set(ordinal);
+            return;
+        }
+        if (size == members.length) {
+            members = Arrays.copyOf(members, size * 2);
+        }
+        System.arraycopy(members, at, members, at + 1, size - at);
+        members[at] = ordinal;
+        size++;
+    }
+
+    void remove(int ordinal) {
+        if (bits != null) {
+            bits.clear(ordinal);
+            return;
+        }
+        int at = insertionPoint(ordinal);
+        if (at < size && members[at] == ordinal) {
+            System.arraycopy(members, at + 1, members, at, size - at - 1);
+            size--;
+        }
+    }
+
+    boolean isEmpty() {
+        return bits != null ? bits.isEmpty() : size == 0;
+    }
+
+    /**
+     * Union this set into the target
+     */
+    void orInto(BitSet target) {
+        if (bits != null) {
+            target.or(bits);
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            target.set(members[i]);
+        }
+    }
+
+    /**
+     * Intersect the target with this set
+     */
+    void andInto(BitSet target) {
+        if (bits != null) {
+            target.and(bits);
+            return;
+        }
+        BitSet kept = new BitSet();
+        for (int i = 0; i < size; i++) {
+            if (target.get(members[i])) {
+                kept.set(members[i]);
+            }
+        }
+        target.clear();
+        target.or(kept);
+    }
+
+    private void toBitmap() {
+        bits = new BitSet();
+        for (int i = 0; i < size; i++) {
+            bits.set(members[i]);
+        }
+        members = null;
+        size = 0;
+    }
+
+    private int insertionPoint(int ordinal) {
+        // Ordinals of new tasks are the largest, so appends skip the search
+        if (size == 0 || members[size - 1] < ordinal) {
+            return size;
+        }
+        int at = Arrays.binarySearch(members, 0, size, ordinal);
+        return at >= 0 ? at : -at - 1;
+    }
+}
@@ -0,0 +1,188 @@
+package com.coveragex.todobackend.tagging;
+
+import com.coveragex.todobackend.cache.ExpireAfterCreate;
+import com.coveragex.todobackend.cache.UserGenerations;
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.event.AfterCommit;
+import com.coveragex.todobackend.event.TaskChangedEvent;
+import com.coveragex.todobackend.event.TaskChangedEvent.ChangeType;
+import com.coveragex.todobackend.invalidation.Invalidation;
+import com.coveragex.todobackend.store.TaskStore;
+import com.coveragex.todobackend.tagging.UserTagBitmaps.Matches;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-memory tag index answering GET /tasks?tags=... without joins
+ *
+ * Holds per-user tag bitmaps (see UserTagBitmaps) for recently active users, bounded by
+ * their total number of tasks. A user's bitmaps are built from the TaskStore on the first
+ * tag query, then kept current by TaskService writes once they commit. Bulk changes
+ * (archiving) and changes made on other nodes drop them, and the next query rebuilds them;
+ * they also expire invalidation.max-staleness-seconds after they were built.
+ * Bitmaps built while a write of the user committed are served once but not kept
+ * (see UserGenerations).
+ */
+@Component
+@Slf4j
+public class TagIndex {
+
+    private final TaskStore taskStore;
+    private final Cache<Long, UserTagBitmaps> bitmaps;
+    private final UserGenerations generations = new UserGenerations();
+
+    public TagIndex(TaskStore taskStore,
+                    MeterRegistry meterRegistry,
+                    @Value("${tags.index.max-total-tasks:5000000}") long maxTotalTasks,
+                    @Value("${invalidation.max-staleness-seconds:300}") long maxStalenessSeconds) {
+        this.taskStore = taskStore;
+        this.bitmaps = Caffeine.newBuilder()
+                .maximumWeight(maxTotalTasks)
+                .weigher((Long userId, UserTagBitmaps userBitmaps) -> Math.max(1, userBitmaps.size()))
+                .expireAfter(new ExpireAfterCreate<Long, UserTagBitmaps>(Duration.ofSeconds(maxStalenessSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, bitmaps, "tagBitmaps");
+    }
+
+    /**
+     * @return the user's write generation, to be read before the querying transaction starts
+     */
+    public long generation(String username) {
+        return generations.current(username);
+    }
+
+    /**
+     * Find the ids of a user's tasks matching a tag filter, newest first
+     * Builds the user's bitmaps on a miss, so it must run on the user's shard (TaskService).
+     *
+     * @param user       the user
+     * @param generation the user's generation, read before the transaction's first query
+     * @param tags      normalized tags, empty to filter by completed status only
+     * @param match      union or intersection of the tags
+     * @param completed  completed status to require, null for both
+     * @param pageable   page of matches to return
+     * @return page of task ids
+     */
+    public Page<Long> query(User user, long generation, List<String> tags, TagMatch match, Boolean completed,
+                            Pageable pageable) {
+        UserTagBitmaps userBitmaps = bitmaps.getIfPresent(user.getId());
+        if (userBitmaps == null) {
+            userBitmaps = loadIfAbsent(user, generation);
+        }
+        Matches matches = userBitmaps.query(tags, match, completed, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(matches.taskIds(), pageable, matches.total());
+    }
+
+    /**
+     * Apply a created or modified task once the current transaction commits
+     * @param task the task as written
+     */
+    public void taskWrittenAfterCommit(Task task) {
+        String username = task.getUser().getUsername();
+        Long userId = task.getUser().getId();
+        long taskId = task.getId();
+        boolean completed = Boolean.TRUE.equals(task.getCompleted());
+        List<String> tags = List.copyOf(task.getTags());
+        AfterCommit.run(() -> {
+            generations.advance(username);
+            bitmaps.asMap().computeIfPresent(userId, (id, userBitmaps) -> {
+                userBitmaps.put(taskId, completed, tags);
+                return userBitmaps;
+            });
+        });
+    }
+
+    /**
+     * Apply a deleted task once the current transaction commits
+     * @param user   the owning user
+     * @param taskId the task ID
+     */
+    public void taskDeletedAfterCommit(User user, Long taskId) {
+        String username = user.getUsername();
+        Long userId = user.getId();
+        AfterCommit.run(() -> {
+            generations.advance(username);
+            bitmaps.asMap().computeIfPresent(userId, (id, userBitmaps) -> {
+                userBitmaps.remove(taskId);
+                return userBitmaps;
+            });
+        });
+    }
+
+    /**
+     * Drop a user's bitmaps; the next tag query rebuilds them
+     */
+    public void invalidate(Long userId) {
+        bitmaps.invalidate(userId);
+    }
+
+    /**
+     * Drop a user's bitmaps, and any being built, after a change of the user's tasks
+     */
+    private void invalidate(String username, Long userId) {
+        if (username != null) {
+            generations.advance(username);
+        }
+        invalidate(userId);
+    }
+
+    /**
+     * Archiving removes tasks in bulk
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.getType() == ChangeType.ARCHIVED) {
+            invalidate(event.getUsername(), event.getUserId());
+        }
+    }
+
+    /**
+     * Tasks changed on another node
+     */
+    @EventListener
+    public void onInvalidation(Invalidation invalidation) {
+        if (invalidation.userId() != null) {
+            invalidate(invalidation.username(), invalidation.userId());
+        }
+    }
+
+    /**
+     * Build a user's bitmaps, keeping them only if no write of the user committed meanwhile
+     * Built outside the cache's lock; a write committing after the check waits for the bitmaps
+     * to be stored and then applies to them.
+     */
+    private UserTagBitmaps loadIfAbsent(User user, long generation) {
+        UserTagBitmaps loaded = load(user);
+        UserTagBitmaps kept = bitmaps.asMap().compute(user.getId(), (userId, current) -> {
+            if (current != null) {
+                return current;
+            }
+            return generations.isCurrent(user.getUsername(), generation) ? loaded : null;
+        });
+        return kept != null ? kept : loaded;
+    }
+
+    private UserTagBitmaps load(User user) {
+        UserTagBitmaps userBitmaps = new UserTagBitmaps();
+        for (TaggedTask task : taskStore.findTaggedTasks(user)) {
+            userBitmaps.put(task.id(), Boolean.TRUE.equals(task.completed()), task.tags());
+        }
+        log.debug("Built tag bitmaps over {} tasks for user {}", userBitmaps.size(), user.getId());
+        return userBitmaps;
+    }
+}
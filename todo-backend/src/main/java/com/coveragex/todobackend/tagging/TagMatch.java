@@ -0,0 +1,31 @@
+package com.coveragex.todobackend.tagging;
+
+import com.coveragex.todobackend.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * How the tags of a filter combine
+ */
+public enum TagMatch {
+    /**
+     * Tasks carrying at least one of the tags (union)
+     */
+    ANY,
+    /**
+     * Tasks carrying every tag (intersection)
+     */
+    ALL;
+
+    /**
+     * @param mode "any" or "all", in any case
+     * @throws BadRequestException for any other value
+     */
+    public static TagMatch parse(String mode) {
+        try {
+            return valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid tag match mode: '" + mode + "'");
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.coveragex.todobackend.tagging;
+
+import java.util.List;
+
+/**
+ * The columns TagIndex reads to rebuild a user's bitmaps
+ */
+public record TaggedTask(Long id, Boolean completed, List<String> tags) {
+}
@@ -0,0 +1,48 @@
+package com.coveragex.todobackend.tagging;
+
+import com.coveragex.todobackend.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalization of user-supplied tags
+ * Tags are case-insensitive, so they are stored and indexed in lower case.
+ */
+public final class Tags {
+
+    public static final int MAX_TAGS = 10;
+
+    private static final Pattern VALID = Pattern.compile("[a-z0-9][a-z0-9_-]{0,29}");
+
+    private Tags() {
+    }
+
+    /**
+     * Trim, lower-case and de-duplicate tags, keeping their order
+     * @param tags raw tags, may be null
+     * @return normalized tags
+     * @throws BadRequestException for malformed tags or too many of them
+     */
+    public static List<String> normalize(List<String> tags) {
+        if (tags == null) {
+            return List.of();
+        }
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String tag : tags) {
+            String value = tag == null ? "" : tag.trim().toLowerCase(Locale.ROOT);
+            if (!VALID.matcher(value).matches()) {
+                throw new BadRequestException("Invalid tag: '" + tag + "'");
+            }
+            normalized.add(value);
+        }
+        if (normalized.size() > MAX_TAGS) {
+            throw new BadRequestException("A task can have at most " + MAX_TAGS + " tags");
+        }
+        return List.copyOf(new ArrayList<>(normalized));
+    }
+}
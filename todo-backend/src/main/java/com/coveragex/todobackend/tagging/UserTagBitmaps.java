@@ -0,0 +1,128 @@
+package com.coveragex.todobackend.tagging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One user's tag bitmaps
+ *
+ * Every task of the user gets a dense ordinal in creation order, so ordinals grow with
+ * created_at and walking a bitmap from the top yields the newest tasks first, the order of
+ * GET /tasks. Each tag maps to the set of ordinals carrying it; two more sets track which
+ * ordinals are live (not deleted) and completed.
+ */
+final class UserTagBitmaps {
+
+    private long[] taskIds = new long[16];
+    private int ordinalCount;
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Map<String, OrdinalSet> tags = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet completed = new BitSet();
+
+    /**
+     * Add a task (as the newest one) or replace the state of a known task
+     */
+    synchronized void put(long taskId, boolean isCompleted, Collection<String> taskTags) {
+        Integer known = ordinals.get(taskId);
+        int ordinal;
+        if (known != null) {
+            ordinal = known;
+            for (OrdinalSet set : tags.values()) {
+                set.remove(ordinal);
+            }
+        } else {
+            ordinal = ordinalCount++;
+            if (ordinal == taskIds.length) {
+                taskIds = Arrays.copyOf(taskIds, ordinal * 2);
+            }
+            taskIds[ordinal] = taskId;
+            ordinals.put(taskId, ordinal);
+        }
+
+        live.set(ordinal);
+        completed.set(ordinal, isCompleted);
+        for (String tag : taskTags) {
+            tags.computeIfAbsent(tag, t -> new OrdinalSet()).add(ordinal, ordinalCount);
+        }
+        if (known != null) {
+            tags.values().removeIf(OrdinalSet::isEmpty);
+        }
+    }
+
+    /**
+     * Hide a deleted task (its ordinal comes back with put() on restore)
+     */
+    synchronized void remove(long taskId) {
+        Integer ordinal = ordinals.get(taskId);
+        if (ordinal != null) {
+            live.clear(ordinal);
+        }
+    }
+
+    /**
+     * Filter the user's live tasks
+     * @param filterTags tags to match, empty to match every task
+     * @param match      union or intersection of the tags
+     * @param isCompleted completed status to require, null for both
+     * @param offset     matches to skip, newest first
+     * @param limit      maximum number of ids to return
+     * @return a page of matching task ids (newest first) and the total number of matches
+     */
+    synchronized Matches query(List<String> filterTags, TagMatch match, Boolean isCompleted, long offset, int limit) {
+        BitSet result = (BitSet) live.clone();
+        if (!filterTags.isEmpty()) {
+            if (match == TagMatch.ANY) {
+                BitSet union = new BitSet();
+                for (String tag : filterTags) {
+                    OrdinalSet set = tags.get(tag);
+                    if (set != null) {
+                        set.orInto(union);
+                    }
+                }
+                result.and(union);
+            } else {
+                for (String tag : filterTags) {
+                    OrdinalSet set = tags.get(tag);
+                    if (set == null) {
+                        return new Matches(List.of(), 0);
+                    }
+                    set.andInto(result);
+                }
+            }
+        }
+        if (isCompleted != null) {
+            if (isCompleted) {
+                result.and(completed);
+            } else {
+                result.andNot(completed);
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(Math.min(limit, 64));
+        long skipped = 0;
+        for (int ordinal = result.previousSetBit(ordinalCount - 1);
+             ordinal >= 0 && ids.size() < limit;
+             ordinal = result.previousSetBit(ordinal - 1)) {
+            if (skipped++ >= offset) {
+                ids.add(taskIds[ordinal]);
+            }
+        }
+        return new Matches(ids, result.cardinality());
+    }
+
+    synchronized int size() {
+        return ordinalCount;
+    }
+
+    /**
+     * Page of matching task ids and the total number of matches
+     */
+    record Matches(List<Long> taskIds, long total) {
+    }
+}
@@ -0,0 +1,27 @@
+-- Append-only per-user change log behind GET /tasks/changes (incremental sync)
+-- TaskService appends a row in the same transaction as every task mutation; clients keep
+-- the id of the last row they saw as their cursor. Rows are not copied when a user moves
+-- to another shard; cursors name their shard, so clients of a moved user reload once.
+--
+-- idx_task_changes_user_id
+--   findByUserIdAndIdGreaterThanOrderByIdAsc: reading a user's log after a cursor
+--   findHeadIds: the cursor handed out with a full reload
+-- idx_task_changes_task_id
+--   deleteSupersededByIdIn: TaskChangeCompactor dropping entries a newer one replaces
+-- idx_task_changes_changed
+--   findExpiredIds: TaskChangeCompactor dropping entries past retention
+
+CREATE TABLE IF NOT EXISTS task_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    task_id BIGINT NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    changed_at TIMESTAMP(3) NOT NULL
+);
+
+CREATE INDEX idx_task_changes_user_id ON task_changes (user_id, id);
+CREATE INDEX idx_task_changes_task_id ON task_changes (task_id, id);
+CREATE INDEX idx_task_changes_changed ON task_changes (changed_at);
+
+ALTER TABLE task_changes
+    ADD CONSTRAINT fk_task_changes_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
@@ -0,0 +1,36 @@
+-- Completion times of tasks and per-user completion-time sketches (GET /tasks/stats/latency)
+-- completed_at is set when a task is marked completed and cleared when it is reopened. Tasks
+-- completed before this migration get their last update time, the closest record there is.
+--
+-- idx_tasks_user_completed_at / idx_tasks_archive_user_completed_at
+--   findCompletionsSince: folding completions newer than a stored sketch into it, or
+--   rebuilding a lost sketch from the whole history
+--
+-- completion_sketches holds one serialized QuantileSketch per user, written behind by
+-- CompletionSketches; completed_through is the newest completion time it includes. Rows are
+-- not copied when a user moves to another shard: the sketch is rebuilt there from history.
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS completed_at TIMESTAMP(3) NULL;
+
+ALTER TABLE tasks_archive ADD COLUMN IF NOT EXISTS completed_at TIMESTAMP(3) NULL;
+
+UPDATE tasks SET completed_at = COALESCE(updated_at, created_at)
+WHERE completed = TRUE AND completed_at IS NULL;
+
+UPDATE tasks_archive SET completed_at = COALESCE(updated_at, created_at)
+WHERE completed_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_user_completed_at ON tasks (user_id, completed_at);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_archive_user_completed_at ON tasks_archive (user_id, completed_at);
+
+CREATE TABLE IF NOT EXISTS completion_sketches (
+    user_id BIGINT PRIMARY KEY,
+    sketch BLOB NOT NULL,
+    completed_count BIGINT NOT NULL,
+    completed_through TIMESTAMP(3) NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+ALTER TABLE completion_sketches
+    ADD CONSTRAINT fk_completion_sketches_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
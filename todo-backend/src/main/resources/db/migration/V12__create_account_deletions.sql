@@ -0,0 +1,32 @@
+-- Background account deletion (AccountDeleter)
+-- One row per requested deletion, on the primary database. The job deletes the user's rows
+-- table by table in id-ordered batches on the user's shard, recording the table and the last
+-- id deleted after each batch, so a job cut short by a crash or restart resumes where it
+-- stopped. heartbeat_at is refreshed after every batch; another node takes over a job whose
+-- heartbeat is older than the lease. Rows stay after completion as the record of the deletion.
+--
+-- idx_tasks_user_id / idx_tasks_archive_user_id
+--   AccountDeleter: the next batch of a user's ids after the cursor, in id order
+--   (task_changes is served by idx_task_changes_user_id)
+-- idx_account_deletions_state
+--   resuming unfinished jobs
+
+CREATE TABLE IF NOT EXISTS account_deletions (
+    user_id BIGINT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL,
+    shard INT NOT NULL,
+    state VARCHAR(16) NOT NULL,
+    current_table VARCHAR(32) NULL,
+    cursor_id BIGINT NOT NULL DEFAULT 0,
+    deleted_rows BIGINT NOT NULL DEFAULT 0,
+    total_rows BIGINT NULL,
+    requested_at TIMESTAMP(3) NOT NULL,
+    heartbeat_at TIMESTAMP(3) NULL,
+    completed_at TIMESTAMP(3) NULL
+);
+
+CREATE INDEX idx_account_deletions_state ON account_deletions (state, heartbeat_at);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_user_id ON tasks (user_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_archive_user_id ON tasks_archive (user_id, id);
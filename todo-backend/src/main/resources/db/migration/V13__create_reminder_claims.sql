@@ -0,0 +1,19 @@
+-- Reminder firing claims (ReminderScheduler)
+-- Every instance holds the reminders due in its window, so several of them reach the same
+-- reminder. Before firing one, an instance inserts its row on the primary database; only the
+-- instance whose insert succeeds publishes the reminder, the others find the key taken.
+-- remind_at is the reminder time in whole seconds, so a task whose reminder is moved can fire
+-- again at the new time. Rows are deleted once their reminder is older than the window.
+--
+-- idx_reminder_claims_remind_at
+--   deleting claims older than the window
+
+CREATE TABLE IF NOT EXISTS reminder_claims (
+    task_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    remind_at TIMESTAMP NOT NULL,
+    claimed_at TIMESTAMP(3) NOT NULL,
+    PRIMARY KEY (user_id, task_id, remind_at)
+);
+
+CREATE INDEX idx_reminder_claims_remind_at ON reminder_claims (remind_at);
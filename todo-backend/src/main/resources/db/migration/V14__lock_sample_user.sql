@@ -0,0 +1,9 @@
+-- The sample user (db/sample) used to be seeded by the default migration locations, so
+-- databases migrated before the dev profile existed hold 'testuser' with the published
+-- password 'password123'. Its password is cleared where it still has that hash; no password
+-- matches '!', so the account can no longer sign in. The dev profile's sample data sets the
+-- password again.
+
+UPDATE users SET password_hash = '!'
+WHERE username = 'testuser'
+  AND password_hash = '$2a$10$e0MYzXyjpJS7Pd0RVvHwHeFGKFtFDHuEbv8t3nBjjrWGHJPFKv7x6';
@@ -0,0 +1,6 @@
+-- Rank keys gain a variable-length integer part (see RankKeys), so adding tasks at either end
+-- of the manual order steps an integer instead of halving a fraction, and keys grow by one
+-- digit per power of 36 tasks rather than one digit per five creates.
+-- Existing keys are fractions; 'i0' (integer zero) in front keeps their order.
+
+UPDATE tasks SET rank_key = CONCAT('i0', rank_key) WHERE rank_key IS NOT NULL;
@@ -0,0 +1,21 @@
+-- Indexes for tombstoned tasks (deleted_at, see V4)
+--
+-- idx_tasks_deleted
+--   TaskPurger: the oldest tombstones before the cutoff, read in index order, instead of a
+--   primary key walk over every task
+-- idx_tasks_user_completed_created / idx_tasks_user_created gain deleted_at as their last column
+--   countByUserAndCompletedFalse / countByUser and the page count queries filter out tombstones
+--   (deleted_at IS NULL); with the column in the index they are answered from it alone
+--   instead of reading every row of the user. Appended last, so the ORDER BY still follows
+--   the index.
+--
+-- A soft delete now rewrites these index entries as well as the row; the counts run on every
+-- list page, deletes are rare.
+
+CREATE INDEX idx_tasks_deleted ON tasks (deleted_at, id);
+
+DROP INDEX idx_tasks_user_completed_created ON tasks;
+CREATE INDEX idx_tasks_user_completed_created ON tasks (user_id, completed, created_at DESC, id DESC, deleted_at);
+
+DROP INDEX idx_tasks_user_created ON tasks;
+CREATE INDEX idx_tasks_user_created ON tasks (user_id, created_at DESC, id DESC, deleted_at);
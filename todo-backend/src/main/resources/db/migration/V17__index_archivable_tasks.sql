@@ -0,0 +1,8 @@
+-- Index for TaskArchiver
+--
+-- idx_tasks_completed_updated
+--   findArchivableTasks: completed tasks last modified before the cutoff, least recently
+--   modified first, instead of a primary key walk over every task
+--   (completed = true bound, range on updated_at, rows in (updated_at, id) order)
+
+CREATE INDEX idx_tasks_completed_updated ON tasks (completed, updated_at, id);
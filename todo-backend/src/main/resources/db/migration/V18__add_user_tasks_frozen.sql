@@ -0,0 +1,9 @@
+-- Write fence for moving a user's tasks to another shard (ShardRebalancer)
+-- Every TaskService write locks the user's row on the shard it writes to and is refused when
+-- tasks_frozen is set there. The rebalancer sets it on the source shard before copying,
+-- which waits for the writes in flight to commit; writes that reach the source afterwards
+-- (routed by a stale directory entry) see it and fail instead of being lost with the source
+-- rows. It stays set on the primary's user row after a move off the primary, and is cleared
+-- on the target when the user's row is copied there.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS tasks_frozen BOOLEAN NOT NULL DEFAULT FALSE;
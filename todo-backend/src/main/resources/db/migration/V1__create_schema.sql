@@ -0,0 +1,43 @@
+-- Schema for fresh databases
+-- Databases bootstrapped by the old database/init.sql or ddl-auto are adopted at
+-- baseline version 1 and brought up to date by V2 instead.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    password_hash VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NULL
+);
+
+CREATE TABLE IF NOT EXISTS tasks (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NULL
+);
+
+-- Composite indexes matching the TaskRepository queries
+--
+-- idx_tasks_user_completed_created
+--   findByUserAndCompletedFalseOrderByCreatedAtDesc (+ its count query)
+--   countByUserAndCompletedFalse
+-- idx_tasks_user_created
+--   findByUserOrderByCreatedAtDesc (+ its count query)
+--   findRecentTasksByUser
+--   countByUser
+--   findByUserAndTitleOrDescriptionContainingIgnoreCase (user range, LIKE filtered per row)
+--
+-- They are created before the foreign key so it is backed by them rather than by
+-- an extra single-column index on user_id.
+
+CREATE INDEX idx_tasks_user_completed_created ON tasks (user_id, completed, created_at DESC, id DESC);
+
+CREATE INDEX idx_tasks_user_created ON tasks (user_id, created_at DESC, id DESC);
+
+ALTER TABLE tasks
+    ADD CONSTRAINT fk_tasks_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
@@ -0,0 +1,13 @@
+-- Upgrade path for databases adopted at the baseline (created by database/init.sql)
+-- Adds the composite indexes from V1 and drops the single-column ones they supersede.
+-- Every statement is a no-op on databases created by V1.
+
+CREATE INDEX IF NOT EXISTS idx_tasks_user_completed_created ON tasks (user_id, completed, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_user_created ON tasks (user_id, created_at DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_user_id ON tasks;
+
+DROP INDEX IF EXISTS idx_created_at ON tasks;
+
+DROP INDEX IF EXISTS idx_completed ON tasks;
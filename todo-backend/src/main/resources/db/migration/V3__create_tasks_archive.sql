@@ -0,0 +1,18 @@
+-- Cold storage for completed tasks moved out of the hot tasks table by TaskArchiver
+-- Rows keep their original task id, so an archived task can be traced back
+
+CREATE TABLE IF NOT EXISTS tasks_archive (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    user_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NULL,
+    archived_at TIMESTAMP NOT NULL
+);
+
+-- Serves ArchivedTaskRepository.findByUserOrderByCreatedAtDesc and countByUser
+CREATE INDEX idx_tasks_archive_user_created ON tasks_archive (user_id, created_at DESC, id DESC);
+
+ALTER TABLE tasks_archive
+    ADD CONSTRAINT fk_tasks_archive_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
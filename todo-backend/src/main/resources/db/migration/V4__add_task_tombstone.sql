@@ -0,0 +1,4 @@
+-- Soft delete: DELETE /tasks/{id} only stamps deleted_at, TaskPurger removes the rows later
+-- The column is deliberately left out of every index, so a delete rewrites the row only
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP NULL;
@@ -0,0 +1,12 @@
+-- Shard directory: which task shard holds each user's tasks
+-- Lives on the primary database. Users without a row are on the primary (shard 0), which
+-- covers every account created before sharding was enabled. state is MOVING while
+-- ShardRebalancer copies the user to another shard; writes are refused until it is ACTIVE.
+
+CREATE TABLE IF NOT EXISTS user_shards (
+    user_id BIGINT PRIMARY KEY,
+    shard INT NOT NULL,
+    state VARCHAR(16) NOT NULL DEFAULT 'ACTIVE',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_user_shards_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
@@ -0,0 +1,13 @@
+-- Outbox for OutboxInvalidationBus: each row tells the other backend instances that
+-- cached state for a user is stale. Nodes read it by id; rows are deleted by age.
+
+CREATE TABLE IF NOT EXISTS invalidation_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    kind VARCHAR(16) NOT NULL,
+    username VARCHAR(50) NULL,
+    user_id BIGINT NULL,
+    origin VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL
+);
+
+CREATE INDEX idx_invalidation_outbox_created ON invalidation_outbox (created_at);
@@ -0,0 +1,14 @@
+-- Due dates and reminder times for tasks
+--
+-- idx_tasks_user_completed_due
+--   findDueSoon: one user's incomplete tasks due in a time range, soonest first
+-- idx_tasks_remind
+--   findRemindersBetween: ReminderScheduler loading the next window of reminders (all users)
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS due_at TIMESTAMP NULL;
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS remind_at TIMESTAMP NULL;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_user_completed_due ON tasks (user_id, completed, due_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_remind ON tasks (remind_at, id);
@@ -0,0 +1,5 @@
+-- Task labels, stored on the task row as a comma-separated list of normalized tags
+-- Tag filtering is answered by TagIndex from per-user bitmaps, which are rebuilt from
+-- this column through idx_tasks_user_created, so it needs no index or join table.
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS tags VARCHAR(500) NULL;
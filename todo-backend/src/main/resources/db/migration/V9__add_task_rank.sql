@@ -0,0 +1,17 @@
+-- Manual (drag-and-drop) ordering: tasks sort by rank_key, a base-36 fractional key
+-- Moving a task writes a new key between its neighbours' keys, so only its own row changes.
+--
+-- Existing tasks get fixed-width keys in their current order (newest first); the trailing
+-- 'i' keeps every key from ending in '0', which RankKeys requires.
+--
+-- idx_tasks_user_rank
+--   findByUserOrderByRankKeyAscIdAsc (+ its count query): paging in manual order
+--   findRankKeysAfter: the neighbour key when placing a task
+--   findIdsInRankOrder: TaskRankRebalancer
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS rank_key VARCHAR(64) NULL;
+
+UPDATE tasks SET rank_key = CONCAT(LPAD(CONCAT('', 9223372036854775807 - id), 19, '0'), 'i')
+WHERE rank_key IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_user_rank ON tasks (user_id, rank_key, id);
@@ -0,0 +1,22 @@
+-- Sample user and tasks for local development, applied by the dev profile only
+-- Password is 'password123' (BCrypt hashed)
+
+INSERT INTO users (username, email, password_hash)
+SELECT 'testuser', 'test@example.com', '$2a$10$e0MYzXyjpJS7Pd0RVvHwHeFGKFtFDHuEbv8t3nBjjrWGHJPFKv7x6'
+WHERE NOT EXISTS (SELECT 1 FROM users WHERE username = 'testuser');
+
+-- V14 locks the sample user of databases seeded before the dev profile existed
+UPDATE users SET password_hash = '$2a$10$e0MYzXyjpJS7Pd0RVvHwHeFGKFtFDHuEbv8t3nBjjrWGHJPFKv7x6'
+WHERE username = 'testuser' AND password_hash = '!';
+
+INSERT INTO tasks (title, description, user_id, completed)
+SELECT s.title, s.description, u.id, FALSE
+FROM (
+    SELECT 'Buy books' AS title, 'Buy books for the next school year' AS description
+    UNION ALL SELECT 'Clean home', 'Need to clean the bed room'
+    UNION ALL SELECT 'Takehome assignment', 'Finish the real-time assignment'
+    UNION ALL SELECT 'Play Cricket', 'Plan the soft ball cricket match on next Sunday'
+    UNION ALL SELECT 'Help Saman', 'Saman need help with his software project'
+) s
+JOIN users u ON u.username = 'testuser'
+WHERE NOT EXISTS (SELECT 1 FROM tasks t WHERE t.user_id = u.id);
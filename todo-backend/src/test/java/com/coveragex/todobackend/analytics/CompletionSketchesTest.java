@@ -0,0 +1,150 @@
+package com.coveragex.todobackend.analytics;
+
+import com.coveragex.todobackend.dto.CompletionLatencyResponse;
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.service.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for completion times and the per-user completion sketches
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CompletionSketchesTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CompletionSketches completionSketches;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("latencyuser", "latency@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+        userRepository.deleteById(user.getId());
+        completionSketches.invalidate(user.getId());
+    }
+
+    @Test
+    void completingSetsAndReopeningClearsTheCompletionTime() {
+        TaskResponse task = createdHoursAgo(1);
+
+        TaskResponse completed = taskService.markTaskAsCompleted("latencyuser", task.getId());
+        TaskResponse again = taskService.markTaskAsCompleted("latencyuser", task.getId());
+        TaskResponse reopened = taskService.markTaskAsPending("latencyuser", task.getId());
+
+        assertNotNull(completed.getCompletedAt());
+        assertEquals(completed.getCompletedAt(), again.getCompletedAt());
+        assertNull(reopened.getCompletedAt());
+    }
+
+    @Test
+    void quantilesComeFromHistoryAndThenFromEachCompletion() {
+        for (int hours = 1; hours <= 3; hours++) {
+            taskService.markTaskAsCompleted("latencyuser", createdHoursAgo(hours).getId());
+        }
+
+        CompletionLatencyResponse rebuilt = taskService.getCompletionLatency("latencyuser");
+        assertEquals(3, rebuilt.getCompleted());
+        assertEquals(2 * HOUR, rebuilt.getP50Ms(), 2 * HOUR * 0.01);
+
+        taskService.markTaskAsCompleted("latencyuser", createdHoursAgo(10).getId());
+        CompletionLatencyResponse updated = taskService.getCompletionLatency("latencyuser");
+        assertEquals(4, updated.getCompleted());
+        assertEquals(10 * HOUR, updated.getP99Ms(), 10 * HOUR * 0.01);
+    }
+
+    @Test
+    void aStoredSketchIsCaughtUpWithLaterCompletions() {
+        taskService.markTaskAsCompleted("latencyuser", createdHoursAgo(1).getId());
+        taskService.getCompletionLatency("latencyuser");
+        completionSketches.flush();
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT completed_count FROM completion_sketches WHERE user_id = ?", Long.class, user.getId()));
+
+        // A completion the in-memory sketch loses (evicted, or made on another node)
+        completionSketches.invalidate(user.getId());
+        taskService.markTaskAsCompleted("latencyuser", createdHoursAgo(5).getId());
+        completionSketches.invalidate(user.getId());
+
+        CompletionLatencyResponse latency = taskService.getCompletionLatency("latencyuser");
+        assertEquals(2, latency.getCompleted());
+        assertEquals(5 * HOUR, latency.getP99Ms(), 5 * HOUR * 0.01);
+    }
+
+    @Test
+    void aLostSketchIsRebuiltFromHistory() {
+        taskService.markTaskAsCompleted("latencyuser", createdHoursAgo(2).getId());
+        CompletionLatencyResponse before = taskService.getCompletionLatency("latencyuser");
+        completionSketches.flush();
+
+        jdbcTemplate.update("DELETE FROM completion_sketches WHERE user_id = ?", user.getId());
+        completionSketches.invalidate(user.getId());
+
+        CompletionLatencyResponse after = taskService.getCompletionLatency("latencyuser");
+        assertEquals(before, after);
+    }
+
+    @Test
+    void aSketchLoadedWhileACompletionCommittedIsNotKept() {
+        long generation = completionSketches.generation("latencyuser");
+        // Commits while no sketch is held, so there is nothing to add it to
+        taskService.markTaskAsCompleted("latencyuser", createdHoursAgo(1).getId());
+
+        assertEquals(1, completionSketches.sketchOf(user, generation).count());
+
+        // A completion only a new load sees
+        jdbcTemplate.update("UPDATE tasks SET completed = TRUE, completed_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now()), createdHoursAgo(2).getId());
+        assertEquals(2, taskService.getCompletionLatency("latencyuser").getCompleted());
+    }
+
+    @Test
+    void noCompletionsHaveNoQuantiles() {
+        createdHoursAgo(1);
+
+        CompletionLatencyResponse latency = taskService.getCompletionLatency("latencyuser");
+
+        assertEquals(0, latency.getCompleted());
+        assertNull(latency.getP50Ms());
+    }
+
+    private TaskResponse createdHoursAgo(int hours) {
+        TaskResponse task = taskService.createTask("latencyuser", new TaskRequest("Task " + hours + "h", null));
+        jdbcTemplate.update("UPDATE tasks SET created_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(hours)), task.getId());
+        return task;
+    }
+}
@@ -0,0 +1,76 @@
+package com.coveragex.todobackend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for QuantileSketch
+ */
+class QuantileSketchTest {
+
+    @Test
+    void quantilesAreWithinOnePercentOfTheExactOnes() {
+        Random random = new Random(42);
+        double[] values = new double[100_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal, from seconds to weeks
+            values[i] = Math.exp(12 + 2 * random.nextGaussian());
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0, 0.5, 0.9, 0.99, 1}) {
+            double exact = values[Math.max(0, (int) Math.ceil(q * values.length) - 1)];
+            assertEquals(exact, sketch.quantile(q), exact * 0.01, "quantile " + q);
+        }
+        assertEquals(values.length, sketch.count());
+    }
+
+    @Test
+    void mergingEqualsAddingEverythingToOneSketch() {
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch low = new QuantileSketch();
+        QuantileSketch high = new QuantileSketch();
+        for (int i = 0; i < 1000; i++) {
+            all.add(i);
+            all.add(1_000_000 + i * 1000);
+            low.add(i);
+            high.add(1_000_000 + i * 1000);
+        }
+        low.merge(high);
+
+        assertArrayEquals(all.toBytes(), low.toBytes());
+        assertEquals(all.quantile(0.9), low.quantile(0.9));
+    }
+
+    @Test
+    void roundTripsThroughItsCompactForm() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(0.2);
+        for (int i = 1; i <= 10_000; i++) {
+            sketch.add(i * 60_000.0);
+        }
+
+        byte[] bytes = sketch.toBytes();
+        QuantileSketch read = QuantileSketch.fromBytes(bytes);
+
+        assertTrue(bytes.length < 1000, "sketch of 10001 values takes " + bytes.length + " bytes");
+        assertEquals(sketch.count(), read.count());
+        assertEquals(0, read.quantile(0));
+        assertEquals(sketch.quantile(0.5), read.quantile(0.5));
+        assertThrows(IllegalArgumentException.class, () -> QuantileSketch.fromBytes(Arrays.copyOf(bytes, 10)));
+    }
+
+    @Test
+    void anEmptySketchHasNoQuantiles() {
+        QuantileSketch sketch = QuantileSketch.fromBytes(new QuantileSketch().toBytes());
+
+        assertEquals(0, sketch.count());
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+    }
+}
@@ -0,0 +1,87 @@
+package com.coveragex.todobackend.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.coveragex.todobackend.controller.GlobalExceptionHandler;
+import com.coveragex.todobackend.exception.NotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of answering a request for a missing task, from the throw to the error response
+ *
+ * legacy: a plain RuntimeException (with stack trace) handled by the catch-all handler, which
+ * logs the trace at ERROR. typed: a NotFoundException handled by the 404 handler. The throw
+ * happens below callDepth frames, roughly what a servlet request with security filters and
+ * service proxies has on the stack. Log output goes to a discarding appender with the default
+ * pattern, so formatting is measured but not console I/O.
+ *
+ * mvn -Pbenchmark test -DskipTests -Dbenchmark=ErrorPath
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class ErrorPathBenchmark {
+
+    @Param({"20", "120"})
+    private int callDepth;
+
+    private GlobalExceptionHandler handler;
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%t] %-40.40logger{39} : %m%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> discard = new OutputStreamAppender<>();
+        discard.setContext(context);
+        discard.setEncoder(encoder);
+        discard.setOutputStream(OutputStream.nullOutputStream());
+        discard.start();
+
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.addAppender(discard);
+        root.setLevel(Level.INFO);
+
+        handler = new GlobalExceptionHandler();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> legacy() {
+        try {
+            return lookUp(callDepth, false);
+        } catch (RuntimeException e) {
+            return handler.handleRuntimeException(e);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> typed() {
+        try {
+            return lookUp(callDepth, true);
+        } catch (NotFoundException e) {
+            return handler.handleNotFound(e);
+        }
+    }
+
+    // Recurse to the given depth, then miss the task the way TaskService did before and does now
+    private static ResponseEntity<?> lookUp(int depth, boolean typed) {
+        if (depth > 0) {
+            return lookUp(depth - 1, typed);
+        }
+        throw typed ? NotFoundException.task() : new RuntimeException("Task not found or access denied");
+    }
+}
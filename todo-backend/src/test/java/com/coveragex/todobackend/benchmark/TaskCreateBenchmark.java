@@ -0,0 +1,145 @@
+package com.coveragex.todobackend.benchmark;
+
+import com.coveragex.todobackend.TodoBackendApplication;
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.groupcommit.GroupCommitTaskWriter;
+import com.coveragex.todobackend.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Task creation throughput with and without group commit, from 8 concurrent callers
+ *
+ * Boots the application (test profile, in-memory H2 in its own mode) and creates tasks through the same
+ * GroupCommitTaskWriter.createTask call POST /tasks makes, each caller for its own user.
+ * In-memory H2 has no commit fsync, so commitLatencyMs adds a fixed delay to every commit,
+ * like the log flush of a durable database (InnoDB flushes its redo log on every commit by
+ * default; 1-2 ms is typical for SSDs); 0 shows only the saved per-transaction work. To
+ * measure against MariaDB itself pass its datasource to the forked JVM, e.g.
+ * -Djmh.args="-f 1 -jvmArgsAppend -Dspring.datasource.url=jdbc:mariadb://localhost:3306/todoapp"
+ * (plus driver-class-name, username and password).
+ *
+ * mvn -Pbenchmark test -DskipTests -Dbenchmark=TaskCreate
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@State(Scope.Benchmark)
+public class TaskCreateBenchmark {
+
+    private static final int USERS = 8;
+
+    @Param({"false", "true"})
+    private boolean groupCommit;
+
+    @Param({"0", "2"})
+    private long commitLatencyMs;
+
+    private ConfigurableApplicationContext context;
+    private GroupCommitTaskWriter taskWriter;
+    private final List<String> usernames = new ArrayList<>();
+    private final AtomicInteger nextUser = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoBackendApplication.class)
+                .profiles("test")
+                .initializers(applicationContext -> applicationContext.getBeanFactory()
+                        .addBeanPostProcessor(new SlowCommits(commitLatencyMs)))
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + datasourceUrl(),
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.coveragex.todobackend=WARN",
+                        "--logging.level.org.springframework.security=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--concurrency-limit.enabled=false",
+                        "--group-commit.enabled=" + groupCommit);
+        taskWriter = context.getBean(GroupCommitTaskWriter.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        String prefix = "bench" + System.currentTimeMillis() % 100_000 + "_";
+        for (int i = 0; i < USERS; i++) {
+            User user = new User(prefix + i, prefix + i + "@example.com");
+            user.setPasswordHash("hash");
+            usernames.add(userRepository.save(user).getUsername());
+        }
+    }
+
+    /**
+     * H2's MariaDB mode hands out duplicate AUTO_INCREMENT ids under concurrent inserts, failing
+     * whole iterations, so the benchmark runs H2 in its own mode unless given a datasource
+     */
+    private static String datasourceUrl() {
+        return System.getProperty("spring.datasource.url", "jdbc:h2:mem:benchmark;DATABASE_TO_LOWER=TRUE");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        private String username;
+
+        @Setup
+        public void pickUser(TaskCreateBenchmark benchmark) {
+            username = benchmark.usernames.get(benchmark.nextUser.getAndIncrement() % USERS);
+        }
+    }
+
+    @Benchmark
+    public TaskResponse createTask(Caller caller) {
+        return taskWriter.createTask(caller.username, new TaskRequest("Benchmark task", "Created by TaskCreateBenchmark"));
+    }
+
+    /**
+     * Wraps the DataSource, before any other post-processor, so every commit takes the latency
+     */
+    private record SlowCommits(long latencyMillis) implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (latencyMillis == 0 || !(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return slowCommits(obtainTargetDataSource().getConnection());
+                }
+            };
+        }
+
+        private Connection slowCommits(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("commit")) {
+                            Thread.sleep(latencyMillis);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.coveragex.todobackend.benchmark;
+
+import com.coveragex.todobackend.TodoBackendApplication;
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.service.TaskService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Task write throughput of the JPA store against the journal store, from 8 concurrent callers
+ *
+ * Boots the application (test profile, in-memory H2, plus the journal profile for "journal"
+ * with fsync on, in a temporary directory) and creates and completes tasks through TaskService,
+ * each caller for its own user. The change log stays in H2 for both, so the difference is
+ * the tasks table write against a journal append; H2 in memory never fsyncs, so against
+ * MariaDB (see TaskCreateBenchmark) the JPA numbers are lower still.
+ *
+ * mvn -Pbenchmark test -DskipTests -Dbenchmark=TaskStoreWrite
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@State(Scope.Benchmark)
+public class TaskStoreWriteBenchmark {
+
+    private static final int USERS = 8;
+
+    @Param({"jpa", "journal"})
+    private String store;
+
+    private Path journalDir;
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private final List<String> usernames = new ArrayList<>();
+    private final AtomicInteger nextUser = new AtomicInteger();
+
+    @Setup
+    public void setUp() throws IOException {
+        journalDir = Files.createTempDirectory("journal-bench");
+        context = new SpringApplicationBuilder(TodoBackendApplication.class)
+                .profiles(store.equals("journal") ? new String[]{"test", "journal"} : new String[]{"test"})
+                .run("--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.coveragex.todobackend=WARN",
+                        "--logging.level.org.springframework.security=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--concurrency-limit.enabled=false",
+                        "--journal.dir=" + journalDir);
+        taskService = context.getBean(TaskService.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        String prefix = "bench" + System.currentTimeMillis() % 100_000 + "_";
+        for (int i = 0; i < USERS; i++) {
+            User user = new User(prefix + i, prefix + i + "@example.com");
+            user.setPasswordHash("hash");
+            usernames.add(userRepository.save(user).getUsername());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(journalDir);
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        private String username;
+
+        @Setup
+        public void pickUser(TaskStoreWriteBenchmark benchmark) {
+            username = benchmark.usernames.get(benchmark.nextUser.getAndIncrement() % USERS);
+        }
+    }
+
+    /**
+     * One create and one update, each a separate durable write
+     */
+    @Benchmark
+    public TaskResponse createAndComplete(Caller caller) {
+        TaskResponse task = taskService.createTask(caller.username,
+                new TaskRequest("Benchmark task", "Created by TaskStoreWriteBenchmark"));
+        return taskService.markTaskAsCompleted(caller.username, task.getId());
+    }
+}
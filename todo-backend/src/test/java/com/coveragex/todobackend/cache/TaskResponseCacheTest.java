@@ -0,0 +1,114 @@
+package com.coveragex.todobackend.cache;
+
+import com.coveragex.todobackend.cache.TaskResponseCache.View;
+import com.coveragex.todobackend.event.TaskChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TaskResponseCache
+ * Verifies hit/miss behaviour, invalidation and the size limits
+ */
+class TaskResponseCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TaskResponseCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TaskResponseCache(new ObjectMapper(), meterRegistry, 1024 * 1024, 1024, 300);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getOrLoad_SecondCallIsServedFromCache() {
+        byte[] first = cache.getOrLoad("testuser", View.RECENT, this::load);
+        byte[] second = cache.getOrLoad("testuser", View.RECENT, this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "taskResponses").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals("{\"n\":1}", new String(second, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void onTaskChanged_InvalidatesEveryViewOfThatUserOnly() {
+        cache.getOrLoad("testuser", View.RECENT, this::load);
+        cache.getOrLoad("testuser", View.STATS, this::load);
+        cache.getOrLoad("otheruser", View.RECENT, this::load);
+
+        cache.onTaskChanged(new TaskChangedEvent("testuser", 1L, 1L, TaskChangedEvent.ChangeType.CREATED));
+
+        cache.getOrLoad("testuser", View.RECENT, this::load);
+        cache.getOrLoad("testuser", View.STATS, this::load);
+        cache.getOrLoad("otheruser", View.RECENT, this::load);
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void getOrLoad_MutationDuringLoad_ResultIsNotCached() {
+        cache.getOrLoad("testuser", View.RECENT, () -> {
+            cache.invalidate("testuser");
+            return load();
+        });
+        cache.getOrLoad("testuser", View.RECENT, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getOrLoad_InvalidationWhileTheResponseIsPut_IsNotLost() throws Exception {
+        // The weigher runs while the loaded response is being put: invalidate from another thread there
+        AtomicReference<CompletableFuture<Void>> invalidation = new AtomicReference<>();
+        cache = new TaskResponseCache(new ObjectMapper(), meterRegistry, 1024 * 1024, 1024, Duration.ofMinutes(5), (key, body) -> {
+            if (invalidation.get() == null) {
+                invalidation.set(CompletableFuture.runAsync(() -> cache.invalidate("testuser")));
+                try {
+                    // Blocked by the entry while it is being computed; it removes the entry afterwards
+                    invalidation.get().get(200, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // expected
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return body.length;
+        });
+
+        cache.getOrLoad("testuser", View.RECENT, this::load);
+        invalidation.get().get(5, TimeUnit.SECONDS);
+        byte[] body = cache.getOrLoad("testuser", View.RECENT, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals("{\"n\":2}", new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void getOrLoad_OversizedResponse_IsNotCached() {
+        String large = "x".repeat(2048);
+        cache.getOrLoad("testuser", View.RECENT, () -> Map.of("n", large));
+        byte[] body = cache.getOrLoad("testuser", View.RECENT, this::load);
+
+        assertEquals("{\"n\":1}", new String(body, StandardCharsets.UTF_8));
+    }
+
+    private Object load() {
+        return Map.of("n", loads.incrementAndGet());
+    }
+}
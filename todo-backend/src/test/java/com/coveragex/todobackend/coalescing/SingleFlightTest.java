@@ -0,0 +1,127 @@
+package com.coveragex.todobackend.coalescing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SingleFlight
+ */
+class SingleFlightTest {
+
+    private final SingleFlight<String> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private Future<SingleFlight.Outcome> submit(String key, SingleFlight.Call call) {
+        return executor.submit(() -> {
+            try {
+                return singleFlight.execute(key, call);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        });
+    }
+
+    @Test
+    void callsArrivingDuringAFlightShareTheNextFlightAndSeeLaterWrites() throws Exception {
+        AtomicInteger version = new AtomicInteger();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        Future<SingleFlight.Outcome> first = submit("recent:alice", () -> {
+            int seen = version.get();
+            executions.incrementAndGet();
+            firstStarted.countDown();
+            releaseFirst.await();
+            return seen;
+        });
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+
+        // A write commits while the first read is in flight; later arrivals must see it
+        version.incrementAndGet();
+
+        List<Future<SingleFlight.Outcome>> followers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            followers.add(submit("recent:alice", () -> {
+                executions.incrementAndGet();
+                return version.get();
+            }));
+        }
+        Thread.sleep(100);
+        releaseFirst.countDown();
+
+        assertEquals(0, first.get(5, TimeUnit.SECONDS).value());
+        int leaders = 0;
+        for (Future<SingleFlight.Outcome> follower : followers) {
+            SingleFlight.Outcome outcome = follower.get(5, TimeUnit.SECONDS);
+            assertEquals(1, outcome.value());
+            leaders += outcome.leader() ? 1 : 0;
+        }
+        assertEquals(1, leaders);
+        assertEquals(2, executions.get());
+        assertEquals(0, singleFlight.activeKeys());
+    }
+
+    @Test
+    void differentKeysDoNotShareAFlight() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        Future<SingleFlight.Outcome> alice = submit("stats:alice", () -> {
+            bothStarted.countDown();
+            bothStarted.await();
+            return "alice";
+        });
+        Future<SingleFlight.Outcome> bob = submit("stats:bob", () -> {
+            bothStarted.countDown();
+            bothStarted.await();
+            return "bob";
+        });
+
+        assertEquals("alice", alice.get(5, TimeUnit.SECONDS).value());
+        assertEquals("bob", bob.get(5, TimeUnit.SECONDS).value());
+    }
+
+    @Test
+    void failuresReachEveryCallerOfTheFlight() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch releaseSecond = new CountDownLatch(1);
+
+        Future<SingleFlight.Outcome> first = submit("search:alice", () -> {
+            firstStarted.countDown();
+            releaseFirst.await();
+            return "ok";
+        });
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+
+        List<Future<SingleFlight.Outcome>> queued = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            queued.add(submit("search:alice", () -> {
+                releaseSecond.await();
+                throw new IllegalStateException("User not found");
+            }));
+        }
+        Thread.sleep(100);
+        releaseFirst.countDown();
+        releaseSecond.countDown();
+
+        assertEquals("ok", first.get(5, TimeUnit.SECONDS).value());
+        for (Future<SingleFlight.Outcome> call : queued) {
+            Exception e = assertThrows(Exception.class, () -> call.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        assertEquals(0, singleFlight.activeKeys());
+    }
+}
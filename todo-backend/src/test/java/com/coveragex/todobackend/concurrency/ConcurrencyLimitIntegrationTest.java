@@ -0,0 +1,89 @@
+package com.coveragex.todobackend.concurrency;
+
+import com.coveragex.todobackend.concurrency.ConcurrencyLimiter.Partition;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.security.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration test for shedding requests over the concurrency limit
+ */
+@SpringBootTest(properties = {
+        "concurrency-limit.read.initial-limit=2",
+        "concurrency-limit.read.min-limit=2",
+        "concurrency-limit.read.max-limit=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConcurrencyLimitIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("busyuser", "busy@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void readsOverTheLimitGet503WhileWritesProceed() throws Exception {
+        String authorization = "Bearer " + jwtUtil.generateToken("busyuser");
+        assertTrue(concurrencyLimiter.tryAcquire(Partition.READ));
+        assertTrue(concurrencyLimiter.tryAcquire(Partition.READ));
+
+        try {
+            mockMvc.perform(get("/tasks/recent").header("Authorization", authorization))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.success").value(false));
+
+            mockMvc.perform(post("/tasks").header("Authorization", authorization)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\":\"Still accepted\"}"))
+                    .andExpect(status().isCreated());
+        } finally {
+            concurrencyLimiter.release(Partition.READ, 1_000_000, false);
+            concurrencyLimiter.release(Partition.READ, 1_000_000, false);
+        }
+
+        mockMvc.perform(get("/tasks/recent").header("Authorization", authorization))
+                .andExpect(status().isOk());
+    }
+}
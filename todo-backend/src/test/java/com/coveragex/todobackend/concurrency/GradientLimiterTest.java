@@ -0,0 +1,98 @@
+package com.coveragex.todobackend.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GradientLimiter
+ */
+class GradientLimiterTest {
+
+    private static final long FAST = 1_000_000;
+
+    @Test
+    void tryAcquire_RefusesOnceTheLimitIsInFlight() {
+        GradientLimiter limiter = limiter(2, 1, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(FAST, false);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void limit_GrowsWhileLatencyHoldsUnderLoad() {
+        GradientLimiter limiter = limiter(4, 1, 50);
+
+        for (int i = 0; i < 100; i++) {
+            saturate(limiter, FAST);
+        }
+
+        assertEquals(50, limiter.limit());
+    }
+
+    @Test
+    void limit_ShrinksWhenLatencyRisesAndRecoversAfterwards() {
+        GradientLimiter limiter = limiter(40, 2, 40);
+        for (int i = 0; i < 20; i++) {
+            saturate(limiter, FAST);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            saturate(limiter, 20 * FAST);
+        }
+        int shrunk = limiter.limit();
+        assertTrue(shrunk < 20, "limit was " + shrunk);
+
+        for (int i = 0; i < 200; i++) {
+            saturate(limiter, FAST);
+        }
+        assertTrue(limiter.limit() > shrunk);
+    }
+
+    @Test
+    void limit_IsNotRaisedWithoutLoad() {
+        GradientLimiter limiter = limiter(10, 1, 100);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST, false);
+        }
+
+        assertEquals(10, limiter.limit());
+    }
+
+    @Test
+    void release_BacksOffOnDroppedCallsDownToTheMinimum() {
+        GradientLimiter limiter = limiter(10, 3, 100);
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(FAST, true);
+        assertEquals(9, limiter.limit());
+
+        for (int i = 0; i < 30; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST, true);
+        }
+        assertEquals(3, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    // Fill the limit, then complete every call with the given latency
+    private static void saturate(GradientLimiter limiter, long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos, false);
+        }
+    }
+
+    private static GradientLimiter limiter(int initial, int min, int max) {
+        return new GradientLimiter(new ConcurrencyLimitProperties.Partition(initial, min, max), 1.5, 0.2, 4);
+    }
+}
@@ -0,0 +1,106 @@
+package com.coveragex.todobackend.controller;
+
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.exception.NotFoundException;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.security.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the mapping of typed exceptions to error responses
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ErrorResponseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("erroruser", "error@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void missingTaskIs404() throws Exception {
+        String authorization = "Bearer " + jwtUtil.generateToken("erroruser");
+
+        mockMvc.perform(get("/tasks/999999").header("Authorization", authorization))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.success").value(false));
+        mockMvc.perform(put("/tasks/999999/complete").header("Authorization", authorization))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/tasks/999999").header("Authorization", authorization))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void takenUsernameIs409() throws Exception {
+        mockMvc.perform(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"erroruser\",\"email\":\"other@example.com\",\"password\":\"password123\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Username is already taken!"));
+    }
+
+    @Test
+    void wrongPasswordIs401() throws Exception {
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"erroruser\",\"password\":\"wrong-password\"}"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Invalid username or password"));
+    }
+
+    @Test
+    void invalidTagFilterIs400() throws Exception {
+        String authorization = "Bearer " + jwtUtil.generateToken("erroruser");
+
+        mockMvc.perform(get("/tasks").param("tags", "no spaces").header("Authorization", authorization))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void invalidTagMatchModeIs400() throws Exception {
+        String authorization = "Bearer " + jwtUtil.generateToken("erroruser");
+
+        mockMvc.perform(get("/tasks").param("tags", "work").param("mode", "some")
+                        .header("Authorization", authorization))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid tag match mode: 'some'"));
+    }
+
+    @Test
+    void domainExceptionsCarryNoStackTrace() {
+        assertEquals(0, NotFoundException.task().getStackTrace().length);
+    }
+}
@@ -0,0 +1,347 @@
+package com.coveragex.todobackend.controller;
+
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.repository.AccountDeletionRepository;
+import com.coveragex.todobackend.repository.AccountDeletionRepository.AccountDeletion;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.security.JwtUtil;
+import com.coveragex.todobackend.service.TaskService;
+import com.coveragex.todobackend.shard.ShardRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exact SQL statement budget of every TaskController, AccountController and AuthController endpoint
+ *
+ * Every statement the request thread executes is counted through a wrapping DataSource
+ * (Hibernate and JdbcTemplate alike, authentication included). Each test starts with a new
+ * user, so no cache is warm. Authenticated requests start with two user lookups (the JWT
+ * filter and the service), writes then lock the user's row and end with the task_changes append. A budget that no longer matches fails with the executed SQL:
+ * raise it only when the extra statement is intended, never for an N+1.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatementBudgetTest {
+
+    private static final AtomicLong USERS = new AtomicLong();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private AccountDeletionRepository accountDeletions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private String authorization;
+    private final List<Long> taskIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        String username = "budgetuser" + USERS.incrementAndGet();
+        user = new User(username, username + "@example.com");
+        user.setPasswordHash(passwordEncoder.encode("password123"));
+        user = userRepository.save(user);
+        authorization = "Bearer " + jwtUtil.generateToken(username);
+
+        for (int i = 0; i < 3; i++) {
+            TaskRequest request = new TaskRequest("Budget task " + i, "Description " + i);
+            request.setTags(List.of("work"));
+            TaskResponse task = taskService.createTask(username, request);
+            taskIds.add(task.getId());
+        }
+        taskService.markTaskAsCompleted(username, taskIds.get(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM account_deletions WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM task_changes WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void getRecentTasks() throws Exception {
+        assertStatements(3, get("/tasks/recent"));
+    }
+
+    @Test
+    void getRecentTasksAfterAWrite() throws Exception {
+        assertStatements(3, get("/tasks/recent"));
+        taskService.createTask(user.getUsername(), new TaskRequest("Newest", "Kept current in memory"));
+        // Only the user lookups: the recent tasks are not loaded again
+        assertStatements(2, get("/tasks/recent"));
+    }
+
+    @Test
+    void getAllTasks() throws Exception {
+        assertStatements(3, get("/tasks"));
+    }
+
+    @Test
+    void getAllTasksInManualOrder() throws Exception {
+        assertStatements(3, get("/tasks").param("sort", "manual"));
+    }
+
+    @Test
+    void getTasksByTags() throws Exception {
+        assertStatements(4, get("/tasks").param("tags", "work").param("completed", "false"));
+    }
+
+    @Test
+    void getTaskById() throws Exception {
+        assertStatements(3, get("/tasks/" + taskIds.get(1)));
+    }
+
+    @Test
+    void createTask() throws Exception {
+        assertStatements(6, post("/tasks").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"New task\",\"tags\":[\"home\"]}"));
+    }
+
+    @Test
+    void updateTask() throws Exception {
+        assertStatements(6, put("/tasks/" + taskIds.get(1)).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Renamed task\"}"));
+    }
+
+    @Test
+    void moveTask() throws Exception {
+        assertStatements(8, put("/tasks/" + taskIds.get(2) + "/move").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"afterId\":" + taskIds.get(1) + "}"));
+    }
+
+    @Test
+    void markTaskAsCompleted() throws Exception {
+        assertStatements(6, put("/tasks/" + taskIds.get(1) + "/complete"));
+    }
+
+    @Test
+    void markTaskAsPending() throws Exception {
+        assertStatements(6, put("/tasks/" + taskIds.get(0) + "/pending"));
+    }
+
+    @Test
+    void deleteTask() throws Exception {
+        assertStatements(5, delete("/tasks/" + taskIds.get(1)));
+    }
+
+    @Test
+    void restoreTask() throws Exception {
+        taskService.deleteTask(user.getUsername(), taskIds.get(1));
+        assertStatements(6, put("/tasks/" + taskIds.get(1) + "/restore"));
+    }
+
+    @Test
+    void searchTasks() throws Exception {
+        assertStatements(3, get("/tasks/search").param("q", "Budget"));
+    }
+
+    @Test
+    void getDueSoonTasks() throws Exception {
+        assertStatements(3, get("/tasks/due-soon"));
+    }
+
+    @Test
+    void getTaskChanges() throws Exception {
+        // The log is settled by the database's clock
+        assertStatements(4, get("/tasks/changes"));
+    }
+
+    @Test
+    void getTaskHistory() throws Exception {
+        assertStatements(3, get("/tasks/history"));
+    }
+
+    @Test
+    void getTaskStats() throws Exception {
+        assertStatements(4, get("/tasks/stats"));
+    }
+
+    @Test
+    void getCompletionLatency() throws Exception {
+        // First read loads the sketch: stored row, then completions in tasks and archive
+        assertStatements(5, get("/tasks/stats/latency"));
+        assertStatements(2, get("/tasks/stats/latency"));
+    }
+
+    @Test
+    void deleteAccount() throws Exception {
+        assertStatements(5, delete("/account"));
+        // The job runs in the background; let it finish before tearing down
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (accountDeletions.findByUserId(user.getId()).orElseThrow().state() != AccountDeletion.State.COMPLETED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void getAccountDeletion() throws Exception {
+        // A job another node is working on, so it stays in progress
+        accountDeletions.create(user.getId(), user.getUsername(), ShardRegistry.PRIMARY, LocalDateTime.now());
+        accountDeletions.recordBatch(user.getId(), "tasks", 0, 0, LocalDateTime.now());
+        assertStatements(3, get("/account/deletion"));
+    }
+
+    @Test
+    void register() throws Exception {
+        String username = "budgetnew" + USERS.incrementAndGet();
+        try {
+            assertUnauthenticatedStatements(3, post("/auth/register").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"username\":\"" + username + "\",\"email\":\"" + username
+                            + "@example.com\",\"password\":\"password123\"}"));
+        } finally {
+            userRepository.findByUsername(username).ifPresent(userRepository::delete);
+        }
+    }
+
+    @Test
+    void login() throws Exception {
+        assertUnauthenticatedStatements(2, post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + user.getUsername() + "\",\"password\":\"password123\"}"));
+    }
+
+    private void assertStatements(int budget, MockHttpServletRequestBuilder request) throws Exception {
+        assertUnauthenticatedStatements(budget, request.header("Authorization", authorization));
+    }
+
+    private void assertUnauthenticatedStatements(int budget, MockHttpServletRequestBuilder request) throws Exception {
+        List<String> executed = StatementCounter.record(() ->
+                mockMvc.perform(request).andExpect(status().is2xxSuccessful()));
+        assertEquals(budget, executed.size(), "Statements executed:\n" + String.join("\n", executed));
+    }
+
+    /**
+     * Records the SQL executed on the current thread while an action runs
+     */
+    static final class StatementCounter {
+
+        private static final ThreadLocal<List<String>> RECORDING = new ThreadLocal<>();
+
+        interface Action {
+            void run() throws Exception;
+        }
+
+        static List<String> record(Action action) throws Exception {
+            List<String> executed = new ArrayList<>();
+            RECORDING.set(executed);
+            try {
+                action.run();
+            } finally {
+                RECORDING.remove();
+            }
+            return Collections.unmodifiableList(executed);
+        }
+
+        static void executed(String sql) {
+            List<String> executed = RECORDING.get();
+            if (executed != null) {
+                executed.add(sql);
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource
+                            ? wrap(DataSource.class, dataSource, null)
+                            : bean;
+                }
+            };
+        }
+
+        /**
+         * Proxy that wraps connections and statements and reports every execute call
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> T wrap(Class<T> type, T target, String sql) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                Object result = invoke(method, target, args);
+                String name = method.getName();
+                if (result instanceof Connection connection) {
+                    return wrap(Connection.class, connection, null);
+                }
+                if (result instanceof Statement statement && name.startsWith("prepare")) {
+                    return wrap(interfaceOf(statement), statement, (String) args[0]);
+                }
+                if (result instanceof Statement statement && name.equals("createStatement")) {
+                    return wrap(Statement.class, statement, null);
+                }
+                if (target instanceof Statement && name.startsWith("execute")) {
+                    StatementCounter.executed(sql != null ? sql : args != null && args.length > 0 ? (String) args[0] : name);
+                }
+                return result;
+            };
+            return (T) Proxy.newProxyInstance(StatementBudgetTest.class.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T extends Statement> Class<T> interfaceOf(Statement statement) {
+            return (Class<T>) (statement instanceof java.sql.CallableStatement ? java.sql.CallableStatement.class
+                    : java.sql.PreparedStatement.class);
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
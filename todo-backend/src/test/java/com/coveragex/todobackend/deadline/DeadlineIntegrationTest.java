@@ -0,0 +1,181 @@
+package com.coveragex.todobackend.deadline;
+
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.security.JwtUtil;
+import com.coveragex.todobackend.service.TaskService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration test for request deadlines on a database made slow by LatencyInjectingDataSource
+ */
+@SpringBootTest(properties = "deadline.endpoints.getTaskById=1000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DeadlineIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LatencyInjectingDataSource database;
+    private User user;
+    private String authorization;
+    private Long taskId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = dataSource.unwrap(LatencyInjectingDataSource.class);
+        user = new User("slowuser", "slow@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+        authorization = "Bearer " + jwtUtil.generateToken("slowuser");
+        taskId = taskService.createTask("slowuser", new TaskRequest("Slow task", null)).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.reset();
+        jdbcTemplate.update("DELETE FROM task_changes WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void slowQueryIsCancelledWhenTheHeaderBudgetRunsOut() throws Exception {
+        double timeoutsBefore = timeouts("getAllTasks");
+        database.slowDown("from tasks", 10_000);
+
+        long started = System.nanoTime();
+        mockMvc.perform(authorized(get("/tasks")).header("X-Request-Timeout-Ms", "1000"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.success").value(false));
+
+        assertTrue(System.nanoTime() - started < 5_000_000_000L, "The query ran past its deadline");
+        assertEquals(timeoutsBefore + 1, timeouts("getAllTasks"));
+    }
+
+    @Test
+    void endpointDefaultAppliesWithoutAHeader() throws Exception {
+        double timeoutsBefore = timeouts("getTaskById");
+        database.slowDown("from tasks", 10_000);
+
+        long started = System.nanoTime();
+        mockMvc.perform(authorized(get("/tasks/" + taskId)))
+                .andExpect(status().isGatewayTimeout());
+
+        assertTrue(System.nanoTime() - started < 5_000_000_000L, "The query ran past its deadline");
+        assertEquals(timeoutsBefore + 1, timeouts("getTaskById"));
+    }
+
+    @Test
+    void noStatementStartsOnceTheBudgetIsSpent() throws Exception {
+        // The lookup finishes within its query timeout (whole seconds) but uses up the budget
+        database.slowDown("from tasks", 1500);
+
+        mockMvc.perform(authorized(put("/tasks/" + taskId + "/complete")).header("X-Request-Timeout-Ms", "1200"))
+                .andExpect(status().isGatewayTimeout());
+
+        database.reset();
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+                "SELECT completed FROM tasks WHERE id = ?", Boolean.class, taskId));
+    }
+
+    @Test
+    void fastRequestsSucceedAndLeaveNoTimeoutOnPooledConnections() throws Exception {
+        mockMvc.perform(authorized(get("/tasks")).header("X-Request-Timeout-Ms", "2000"))
+                .andExpect(status().isOk());
+
+        // Same thread, so the pool hands back the connection the request used
+        Integer timeout = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                return statement.getQueryTimeout();
+            }
+        });
+        assertEquals(0, timeout);
+    }
+
+    @Test
+    void invalidHeaderIsRejected() throws Exception {
+        mockMvc.perform(authorized(get("/tasks")).header("X-Request-Timeout-Ms", "soon"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", authorization);
+    }
+
+    private double timeouts(String endpoint) {
+        Counter counter = meterRegistry.find("request.deadline.exceeded").tag("endpoint", endpoint).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    @TestConfiguration
+    static class SlowDatabaseConfig {
+
+        /**
+         * Wraps the DataSource before DeadlineDataSource does, so deadlines reach the slow statements
+         * (declared as PriorityOrdered: the bean type decides the post-processor order)
+         */
+        @Bean
+        static SlowDatabase latencyInjectingDataSource() {
+            return new SlowDatabase();
+        }
+    }
+
+    private static final class SlowDatabase implements BeanPostProcessor, PriorityOrdered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof DataSource dataSource ? new LatencyInjectingDataSource(dataSource) : bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
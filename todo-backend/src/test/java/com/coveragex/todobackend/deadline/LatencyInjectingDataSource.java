@@ -0,0 +1,91 @@
+package com.coveragex.todobackend.deadline;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test DataSource that makes selected statements slow, like a loaded database server
+ *
+ * Statements whose SQL contains the configured fragment take the configured latency before
+ * they run. A query timeout set on the statement is honoured as a server would: a statement
+ * slower than its timeout is given up after the timeout with SQLTimeoutException.
+ */
+public class LatencyInjectingDataSource extends DelegatingDataSource {
+
+    private volatile String sqlFragment;
+    private volatile long latencyMillis;
+
+    public LatencyInjectingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    /**
+     * Delay statements containing the fragment (case-insensitive) from now on
+     */
+    public void slowDown(String sqlFragment, long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        this.sqlFragment = sqlFragment.toLowerCase(Locale.ROOT);
+    }
+
+    public void reset() {
+        sqlFragment = null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, obtainTargetDataSource().getConnection(), null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, obtainTargetDataSource().getConnection(username, password), null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T wrap(Class<T> type, T target, String sql) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (target instanceof Statement statement && method.getName().startsWith("execute")) {
+                delay(statement, sql != null ? sql : args != null && args.length > 0 ? (String) args[0] : "");
+            }
+            Object result = invoke(method, target, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                String prepared = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return wrap((Class<Statement>) method.getReturnType(), statement, prepared);
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private void delay(Statement statement, String sql) throws SQLException, InterruptedException {
+        String fragment = sqlFragment;
+        if (fragment == null || !sql.toLowerCase(Locale.ROOT).contains(fragment)) {
+            return;
+        }
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(statement.getQueryTimeout());
+        if (timeoutMillis > 0 && timeoutMillis < latencyMillis) {
+            Thread.sleep(timeoutMillis);
+            throw new SQLTimeoutException("Query timed out after " + timeoutMillis + " ms");
+        }
+        Thread.sleep(latencyMillis);
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.coveragex.todobackend.groupcommit;
+
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.service.TaskService;
+import com.coveragex.todobackend.shard.ShardMigrationInProgressException;
+import com.coveragex.todobackend.shard.ShardRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Integration tests for group-commit task creation
+ */
+@SpringBootTest(properties = {
+        "group-commit.enabled=true",
+        "group-commit.max-batch-size=16",
+        "group-commit.max-delay-ms=200"
+})
+@ActiveProfiles("test")
+class GroupCommitTaskWriterTest {
+
+    @Autowired
+    private GroupCommitTaskWriter taskWriter;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private ShardRouter shardRouter;
+
+    private final List<User> users = new ArrayList<>();
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        for (String name : List.of("batchuser1", "batchuser2")) {
+            User user = new User(name, name + "@example.com");
+            user.setPasswordHash("hash");
+            users.add(userRepository.save(user));
+        }
+        callers = Executors.newFixedThreadPool(12);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        for (User user : users) {
+            jdbcTemplate.update("DELETE FROM task_changes WHERE user_id = ?", user.getId());
+            jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+            userRepository.deleteById(user.getId());
+        }
+    }
+
+    @Test
+    void concurrentCreatesAreWrittenTogether() throws Exception {
+        double retriedBefore = meterRegistry.get("group_commit.retried_batches").counter().count();
+        List<Future<TaskResponse>> results = submitTogether(12, i -> new TaskRequest("Task " + i, null));
+
+        HashSet<Long> ids = new HashSet<>();
+        for (Future<TaskResponse> result : results) {
+            TaskResponse task = result.get(10, TimeUnit.SECONDS);
+            assertNotNull(task.getId());
+            assertNotNull(task.getCreatedAt());
+            ids.add(task.getId());
+        }
+        assertEquals(12, ids.size());
+        assertTrue(meterRegistry.get("group_commit.batch_size").summary().max() > 1);
+        // No batch fell back to one create at a time
+        assertEquals(retriedBefore, meterRegistry.get("group_commit.retried_batches").counter().count());
+
+        for (User user : users) {
+            assertEquals(6, taskService.getAllTasksInManualOrder(user.getUsername(), 0, 20).getTotalElements());
+            assertEquals(6, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM task_changes WHERE user_id = ? AND change_type = 'CREATED'",
+                    Integer.class, user.getId()));
+        }
+    }
+
+    @Test
+    void laterCreatesGoOnTopOfTheManualOrder() {
+        taskWriter.createTask("batchuser1", new TaskRequest("First", null));
+        taskWriter.createTask("batchuser1", new TaskRequest("Second", null));
+
+        List<String> titles = taskService.getAllTasksInManualOrder("batchuser1", 0, 10).getContent().stream()
+                .map(TaskResponse::getTitle)
+                .toList();
+        assertEquals(List.of("Second", "First"), titles);
+    }
+
+    @Test
+    void aFailingCreateDoesNotFailTheRestOfItsBatch() throws Exception {
+        List<Future<TaskResponse>> results = submitTogether(6,
+                i -> new TaskRequest(i == 3 ? "x".repeat(300) : "Task " + i, null));
+
+        for (int i = 0; i < results.size(); i++) {
+            Future<TaskResponse> result = results.get(i);
+            if (i == 3) {
+                assertThrows(Exception.class, () -> result.get(10, TimeUnit.SECONDS));
+            } else {
+                assertNotNull(result.get(10, TimeUnit.SECONDS).getId());
+            }
+        }
+    }
+
+    @Test
+    void aCreateQueuedWhenItsUserStartsMovingIsRefused() {
+        long userId = users.get(0).getId();
+        ShardRouter.Placement active = shardRouter.placement(userId);
+        // Active when the create is queued, moving by the time its batch is written (any id: the
+        // username lookup is cached across the users these tests recreate)
+        doReturn(active)
+                .doReturn(new ShardRouter.Placement(active.shard(), ShardRouter.State.MOVING))
+                .when(shardRouter).placement(anyLong());
+
+        assertThrows(ShardMigrationInProgressException.class,
+                () -> taskWriter.createTask("batchuser1", new TaskRequest("Moving", null)));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tasks WHERE user_id = ?", Integer.class, userId));
+    }
+
+    // Create tasks from concurrent callers, alternating between the two users
+    private List<Future<TaskResponse>> submitTogether(int count, IntFunction<TaskRequest> request) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<TaskResponse>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String username = users.get(i % 2).getUsername();
+            TaskRequest taskRequest = request.apply(i);
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return taskWriter.createTask(username, taskRequest);
+            }, callers));
+        }
+        start.countDown();
+        return results;
+    }
+}
@@ -0,0 +1,97 @@
+package com.coveragex.todobackend.invalidation;
+
+import com.coveragex.todobackend.TodoBackendApplication;
+import com.coveragex.todobackend.cache.TaskResponseCache;
+import com.coveragex.todobackend.cache.TaskResponseCache.View;
+import com.coveragex.todobackend.dto.RegisterRequest;
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.service.AuthService;
+import com.coveragex.todobackend.service.TaskService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-instance test for the invalidation buses
+ * Starts two application contexts on one shared database, keeps a cached response warm on
+ * node B, mutates tasks on node A and measures how long B keeps serving the stale response.
+ */
+@Slf4j
+class InvalidationPropagationTest {
+
+    private static final int ROUNDS = 20;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"local", "outbox"})
+    void mutationsOnOneNodeInvalidateTheOtherNodesCache(String bus) {
+        try (ConfigurableApplicationContext nodeA = startNode(bus);
+             ConfigurableApplicationContext nodeB = startNode(bus)) {
+            String username = "propagation_" + bus;
+            nodeA.getBean(AuthService.class).register(
+                    new RegisterRequest(username, username + "@example.com", "password123"));
+
+            TaskService tasksOnA = nodeA.getBean(TaskService.class);
+            TaskService tasksOnB = nodeB.getBean(TaskService.class);
+            TaskResponseCache cacheOnB = nodeB.getBean(TaskResponseCache.class);
+
+            List<Long> lagsMicros = new ArrayList<>();
+            for (int round = 0; round < ROUNDS; round++) {
+                cacheOnB.getOrLoad(username, View.RECENT, () -> tasksOnB.getRecentTasks(username));
+
+                String title = "Round " + round;
+                tasksOnA.createTask(username, new TaskRequest(title, null));
+                long committed = System.nanoTime();
+
+                // Lag = time until node B first reloads the response with the new task
+                AtomicLong missed = new AtomicLong();
+                while (missed.get() == 0) {
+                    byte[] body = cacheOnB.getOrLoad(username, View.RECENT, () -> {
+                        missed.set(System.nanoTime());
+                        return tasksOnB.getRecentTasks(username);
+                    });
+                    if (missed.get() != 0 && !new String(body, StandardCharsets.UTF_8).contains(title)) {
+                        // An earlier invalidation (the registration's) dropped the response before this one arrived
+                        missed.set(0);
+                    }
+                    assertTrue(System.nanoTime() - committed < TimeUnit.SECONDS.toNanos(10),
+                            "Invalidation did not reach node B within 10s");
+                    Thread.onSpinWait();
+                }
+                lagsMicros.add(TimeUnit.NANOSECONDS.toMicros(Math.max(0, missed.get() - committed)));
+            }
+
+            Collections.sort(lagsMicros);
+            long p50 = lagsMicros.get(ROUNDS / 2);
+            long max = lagsMicros.get(ROUNDS - 1);
+            log.info("Invalidation propagation ({} bus): p50 {} us, max {} us over {} rounds", bus, p50, max, ROUNDS);
+
+            // The local bus delivers before the mutating call returns, the outbox within a few polls
+            // (the first rounds also pay for class loading and JIT on the polling thread)
+            long p50Bound = bus.equals("local") ? 10_000 : 500_000;
+            assertTrue(p50 < p50Bound, "Propagation too slow: p50 " + p50 + " us");
+            assertTrue(max < 5_000_000, "Propagation too slow: max " + max + " us");
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode(String bus) {
+        return new SpringApplicationBuilder(TodoBackendApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:invalidation_" + bus
+                                + ";MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--invalidation.bus=" + bus,
+                        "--invalidation.outbox.poll-interval-ms=50");
+    }
+}
@@ -0,0 +1,125 @@
+package com.coveragex.todobackend.json;
+
+import com.coveragex.todobackend.dto.ApiResponse;
+import com.coveragex.todobackend.dto.TaskPage;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.ArchivedTask;
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TaskPageJsonWriter and TaskPageMessageConverter
+ * Rows must come out exactly as Jackson writes the TaskResponse DTOs
+ */
+class TaskPageJsonWriterTest {
+
+    // Configured like Spring Boot's (ISO timestamps)
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final TaskPageMessageConverter converter = new TaskPageMessageConverter(objectMapper);
+    private final Type pageResponseType = new ParameterizedTypeReference<ApiResponse<TaskPage>>() { }.getType();
+
+    @Test
+    void write_RowsMatchJacksonTaskResponses() throws Exception {
+        User user = new User("jsonuser", "json@example.com");
+        Task plain = task(1L, "Plain", null, LocalDateTime.of(2024, 5, 1, 9, 30, 0));
+        Task detailed = task(2L, "Quote \" and é", "Line\nbreak", LocalDateTime.of(2024, 5, 1, 23, 59, 59, 123_000_000));
+        detailed.setTags(List.of("work", "urgent"));
+        detailed.setDueAt(LocalDateTime.of(2024, 12, 31, 0, 0, 0, 100_000_000));
+        detailed.setRemindAt(LocalDateTime.of(2024, 12, 30, 18, 5, 7, 1_000));
+        detailed.setUser(user);
+        detailed.markAsCompleted();
+        Task otherDay = task(3L, "Other day", "", LocalDateTime.of(1999, 1, 2, 3, 4, 5, 999_999_999));
+        otherDay.setTags(List.of());
+        TaskPage page = TaskPage.of(new PageImpl<>(List.of(plain, detailed, otherDay), PageRequest.of(1, 3), 7));
+
+        JsonNode written = objectMapper.readTree(write(page));
+
+        JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsBytes(page.getContent()));
+        assertEquals(expected, written.get("data").get("content"));
+        assertEquals(3, written.get("data").get("content").size());
+    }
+
+    @Test
+    void write_ArchivedRowsMatchJacksonTaskResponses() throws Exception {
+        ArchivedTask archived = new ArchivedTask();
+        archived.setId(9L);
+        archived.setTitle("Archived");
+        archived.setCreatedAt(LocalDateTime.of(2023, 3, 4, 5, 6, 7));
+        archived.setCompletedAt(LocalDateTime.of(2023, 3, 5, 5, 6, 7, 500_000_000));
+        TaskPage page = TaskPage.ofArchived(new PageImpl<>(List.of(archived), PageRequest.of(0, 10), 1));
+
+        JsonNode written = objectMapper.readTree(write(page));
+
+        JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsBytes(
+                List.of(TaskResponse.fromArchived(archived))));
+        assertEquals(expected, written.get("data").get("content"));
+    }
+
+    @Test
+    void write_Envelope() throws Exception {
+        TaskPage page = TaskPage.of(new PageImpl<>(List.of(task(1L, "Only", null, LocalDateTime.now())),
+                PageRequest.of(2, 5), 11));
+
+        JsonNode written = objectMapper.readTree(write(page));
+
+        assertTrue(written.get("success").asBoolean());
+        assertEquals("Tasks retrieved", written.get("message").asText());
+        JsonNode data = written.get("data");
+        assertEquals(List.of("content", "page", "size", "totalElements", "totalPages"),
+                objectMapper.convertValue(data, new TypeReference<Map<String, Object>>() { })
+                        .keySet().stream().toList());
+        assertEquals(2, data.get("page").asInt());
+        assertEquals(5, data.get("size").asInt());
+        assertEquals(11, data.get("totalElements").asLong());
+        assertEquals(3, data.get("totalPages").asInt());
+        // An ObjectMapper writes the same page, e.g. for the warm-up
+        assertEquals(data, objectMapper.readTree(objectMapper.writeValueAsBytes(page)));
+    }
+
+    @Test
+    void canWrite_OnlyApiResponsesOfTaskPages() {
+        Type taskResponseType = new ParameterizedTypeReference<ApiResponse<TaskResponse>>() { }.getType();
+
+        assertTrue(converter.canWrite(pageResponseType, ApiResponse.class, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canWrite(pageResponseType, ApiResponse.class, null));
+        assertFalse(converter.canWrite(pageResponseType, ApiResponse.class, MediaType.TEXT_PLAIN));
+        assertFalse(converter.canWrite(taskResponseType, ApiResponse.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(ApiResponse.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(pageResponseType, null, MediaType.APPLICATION_JSON));
+    }
+
+    private String write(TaskPage page) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(ApiResponse.success("Tasks retrieved", page), pageResponseType, MediaType.APPLICATION_JSON, output);
+        assertEquals(MediaType.APPLICATION_JSON, output.getHeaders().getContentType());
+        return output.getBodyAsString();
+    }
+
+    private static Task task(Long id, String title, String description, LocalDateTime createdAt) {
+        Task task = new Task(title, description, null);
+        task.setId(id);
+        task.setCreatedAt(createdAt);
+        task.setUpdatedAt(createdAt.plusSeconds(90));
+        return task;
+    }
+}
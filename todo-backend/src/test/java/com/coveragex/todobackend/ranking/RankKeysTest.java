@@ -0,0 +1,99 @@
+package com.coveragex.todobackend.ranking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RankKeys
+ */
+class RankKeysTest {
+
+    @Test
+    void between_AlwaysFindsAKeyStrictlyInsideTheGap() {
+        Random random = new Random(3);
+        List<String> keys = new ArrayList<>(List.of(RankKeys.between(null, null)));
+        for (int i = 0; i < 5000; i++) {
+            int at = random.nextInt(keys.size() + 1);
+            String lower = at == 0 ? null : keys.get(at - 1);
+            String upper = at == keys.size() ? null : keys.get(at);
+
+            String key = RankKeys.between(lower, upper);
+
+            assertTrue(lower == null || lower.compareTo(key) < 0, lower + " < " + key);
+            assertTrue(upper == null || key.compareTo(upper) < 0, key + " < " + upper);
+            keys.add(at, key);
+        }
+    }
+
+    @Test
+    void between_GrowsLogarithmicallyWhenAddingAtEitherEnd() {
+        String top = RankKeys.between(null, null);
+        String bottom = top;
+        for (int i = 0; i < 50_000; i++) {
+            String above = RankKeys.between(null, top);
+            assertTrue(above.compareTo(top) < 0, above + " < " + top);
+            top = above;
+            String below = RankKeys.between(bottom, null);
+            assertTrue(bottom.compareTo(below) < 0, bottom + " < " + below);
+            bottom = below;
+        }
+        assertTrue(top.length() <= 5, top);
+        assertTrue(bottom.length() <= 5, bottom);
+    }
+
+    @Test
+    void between_GrowsSlowlyWhenAlwaysInsertingIntoTheSameGap() {
+        String lower = "i0";
+        String upper = "i1";
+        for (int i = 0; i < 50; i++) {
+            upper = RankKeys.between(lower, upper);
+        }
+        assertTrue(upper.length() <= 12, upper);
+    }
+
+    @Test
+    void between_FindsRoomBelowTheSmallestInteger() {
+        String smallest = "0".repeat(19);
+        String key = RankKeys.between(null, smallest + "1");
+        assertTrue(key.compareTo(smallest + "1") < 0, key);
+        assertTrue(RankKeys.between(null, key).compareTo(key) < 0);
+        assertTrue(RankKeys.between(null, "0" + "0".repeat(17) + "1").compareTo(smallest) > 0);
+    }
+
+    @Test
+    void between_RejectsKeysOutOfOrder() {
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("i1", "i0"));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("i0", "i0"));
+    }
+
+    @Test
+    void evenlySpaced_ReturnsShortOrderedKeys() {
+        for (int count : new int[]{0, 1, 35, 36, 1000, 50_000}) {
+            List<String> keys = RankKeys.evenlySpaced(count);
+            assertEquals(count, keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                assertTrue(keys.get(i).length() <= 5, keys.get(i));
+                if (i > 0) {
+                    assertTrue(keys.get(i - 1).compareTo(keys.get(i)) < 0, keys.get(i - 1) + " < " + keys.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void fromFraction_KeepsTheOrderOfFractionKeys() {
+        List<String> fractions = List.of("0000000000000000001i", "09", "9", "i", "iz", "z");
+        for (int i = 1; i < fractions.size(); i++) {
+            String lower = RankKeys.fromFraction(fractions.get(i - 1));
+            String upper = RankKeys.fromFraction(fractions.get(i));
+            assertTrue(lower.compareTo(upper) < 0, lower + " < " + upper);
+            String key = RankKeys.between(lower, upper);
+            assertTrue(lower.compareTo(key) < 0 && key.compareTo(upper) < 0, key);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.coveragex.todobackend.ranking;
+
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.service.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for manual task ordering and rank key rebalancing
+ */
+@SpringBootTest(properties = {
+        "ranking.max-key-length=4",
+        "ranking.rebalance-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class TaskOrderingTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRankRebalancer rankRebalancer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = new User("orderuser", "order@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+        // Created A..E, so the manual order starts newest first: E D C B A
+        for (String title : List.of("A", "B", "C", "D", "E")) {
+            ids.add(taskService.createTask("orderuser", new TaskRequest(title, null)).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void moveRewritesOnlyTheMovedTask() {
+        assertEquals(List.of("E", "D", "C", "B", "A"), manualOrder());
+        Map<Long, String> before = keys();
+
+        taskService.moveTask("orderuser", ids.get(0), ids.get(3));
+        assertEquals(List.of("E", "D", "A", "C", "B"), manualOrder());
+        taskService.moveTask("orderuser", ids.get(1), null);
+        assertEquals(List.of("B", "E", "D", "A", "C"), manualOrder());
+        taskService.moveTask("orderuser", ids.get(4), ids.get(2));
+        assertEquals(List.of("B", "D", "A", "C", "E"), manualOrder());
+
+        Map<Long, String> after = keys();
+        for (int i : new int[]{2, 3}) {
+            assertEquals(before.get(ids.get(i)), after.get(ids.get(i)), "Unmoved task was rewritten");
+        }
+        // The default order is untouched
+        assertEquals(List.of("E", "D", "C", "B", "A"), taskService.getAllTasks("orderuser", 0, 10).getContent()
+                .stream().map(TaskResponse::getTitle).toList());
+    }
+
+    @Test
+    void rebalanceShortensKeysAndKeepsTheOrder() {
+        // Keep moving into the same gap until keys pass the limit
+        for (int i = 0; i < 30; i++) {
+            taskService.moveTask("orderuser", ids.get(i % 2 == 0 ? 0 : 1), ids.get(4));
+        }
+        List<String> order = manualOrder();
+        assertTrue(keys().values().stream().anyMatch(key -> key.length() > 4));
+
+        taskService.deleteTask("orderuser", ids.get(2));
+        rankRebalancer.rebalancePending();
+
+        assertTrue(keys().values().stream().allMatch(key -> key.length() <= 2), keys().toString());
+        taskService.restoreTask("orderuser", ids.get(2));
+        assertEquals(order, manualOrder());
+    }
+
+    private List<String> manualOrder() {
+        return taskService.getAllTasksInManualOrder("orderuser", 0, 10).getContent().stream()
+                .map(TaskResponse::getTitle)
+                .toList();
+    }
+
+    private Map<Long, String> keys() {
+        Map<Long, String> keys = new HashMap<>();
+        jdbcTemplate.query("SELECT id, rank_key FROM tasks WHERE user_id = ?",
+                rs -> {
+                    keys.put(rs.getLong(1), rs.getString(2));
+                },
+                user.getId());
+        return keys;
+    }
+}
@@ -0,0 +1,130 @@
+package com.coveragex.todobackend.recent;
+
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.store.TaskStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RecentTasks loads racing with committed writes
+ * The store is a list of committed tasks; a reader loads from the snapshot it took when its
+ * transaction started, as under REPEATABLE READ.
+ */
+class RecentTasksTest {
+
+    private static final int LIMIT = 5;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final List<Task> committed = new ArrayList<>();
+    private volatile List<Task> snapshot = List.of();
+    private RecentTasks recentTasks;
+    private User user;
+    private ExecutorService writer;
+
+    @BeforeEach
+    void setUp() {
+        TaskStore taskStore = mock(TaskStore.class);
+        recentTasks = new RecentTasks(taskStore, new SimpleMeterRegistry(), 10, 100, 300);
+        user = new User("recentuser", "recent@example.com");
+        user.setId(1L);
+        when(taskStore.findIncompleteNewestFirst(eq(user), any())).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(1);
+            return new PageImpl<>(snapshot.stream()
+                    .sorted(Comparator.comparing(Task::getId).reversed())
+                    .limit(pageable.getPageSize())
+                    .toList());
+        });
+        writer = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdownNow();
+    }
+
+    @Test
+    void writeCommittedDuringAColdLoadIsNotLost() {
+        commit(1L);
+        long generation = recentTasks.generation("recentuser");
+        takeSnapshot();
+
+        // The create commits after the snapshot, while nothing is held yet
+        commit(2L);
+
+        assertEquals(List.of(1L), ids(recentTasks.newest(user, generation, LIMIT)));
+        assertEquals(List.of(2L, 1L), newest());
+    }
+
+    @Test
+    void concurrentCreatesAreNeverLostByColdLoads() throws Exception {
+        for (long id = 1; id <= 200; id++) {
+            recentTasks.invalidate(user.getId());
+            long taskId = id;
+            CompletableFuture<Void> create = CompletableFuture.runAsync(() -> {
+                pause();
+                commit(taskId);
+            }, writer);
+
+            long generation = recentTasks.generation("recentuser");
+            takeSnapshot();
+            // The user lookup and whatever else runs before the load
+            pause();
+            recentTasks.newest(user, generation, LIMIT);
+            create.get(5, TimeUnit.SECONDS);
+
+            assertTrue(newest().contains(taskId), "Task created in round " + taskId + " was lost");
+        }
+    }
+
+    private List<Long> newest() {
+        long generation = recentTasks.generation("recentuser");
+        takeSnapshot();
+        return ids(recentTasks.newest(user, generation, LIMIT));
+    }
+
+    private void commit(long id) {
+        Task task = new Task("Task " + id, null, user);
+        task.setId(id);
+        task.setCreatedAt(START.plusSeconds(id));
+        synchronized (committed) {
+            committed.add(task);
+        }
+        recentTasks.taskWrittenAfterCommit(task);
+    }
+
+    private void takeSnapshot() {
+        synchronized (committed) {
+            snapshot = List.copyOf(committed);
+        }
+    }
+
+    private static void pause() {
+        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(200_000));
+    }
+
+    private static List<Long> ids(List<TaskResponse> tasks) {
+        return tasks.stream().map(TaskResponse::getId).toList();
+    }
+}
@@ -0,0 +1,141 @@
+package com.coveragex.todobackend.recent;
+
+import com.coveragex.todobackend.dto.TaskResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UserRecentTasks
+ */
+class UserRecentTasksTest {
+
+    private static final int CAPACITY = 8;
+    private static final int LIMIT = 5;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void newest_MatchesTheStoreThroughRandomWrites() {
+        Random random = new Random(11);
+        // The store: every task, and whether it is incomplete
+        Map<Long, TaskResponse> tasks = new HashMap<>();
+        Map<Long, Boolean> incomplete = new HashMap<>();
+        UserRecentTasks recent = load(tasks, incomplete);
+        long nextId = 1;
+        int loads = 0;
+
+        for (int step = 0; step < 20_000; step++) {
+            int action = random.nextInt(10);
+            if (action < 3 || tasks.isEmpty()) {
+                // Create; now and then with a creation time in the past, as created by a batch
+                long id = nextId++;
+                TaskResponse task = task(id, random.nextInt(5) == 0 ? random.nextInt((int) id) : id, "v0");
+                tasks.put(id, task);
+                incomplete.put(id, true);
+                recent.put(task);
+            } else {
+                long id = 1 + random.nextInt((int) nextId - 1);
+                TaskResponse task = tasks.get(id);
+                if (task == null) {
+                    continue;
+                }
+                switch (action) {
+                    case 3, 4 -> {
+                        // Complete
+                        incomplete.put(id, false);
+                        recent.remove(id);
+                    }
+                    case 5, 6 -> {
+                        // Reopen
+                        incomplete.put(id, true);
+                        recent.put(task);
+                    }
+                    case 7, 8 -> {
+                        // Edit
+                        TaskResponse edited = task(id, task, "v" + step);
+                        tasks.put(id, edited);
+                        if (incomplete.get(id)) {
+                            recent.put(edited);
+                        }
+                    }
+                    default -> {
+                        // Delete
+                        tasks.remove(id);
+                        incomplete.remove(id);
+                        recent.remove(id);
+                    }
+                }
+            }
+
+            if (recent.isShort(LIMIT)) {
+                recent = load(tasks, incomplete);
+                loads++;
+            }
+            assertEquals(newest(tasks, incomplete, LIMIT), recent.newest(LIMIT), "step " + step);
+            assertTrue(recent.size() <= CAPACITY);
+        }
+        // Loads only follow completions and deletions that leave it short
+        assertTrue(loads < 2_000, "loads: " + loads);
+    }
+
+    @Test
+    void put_OlderThanEverythingHeldWhileIncomplete_IsNotTaken() {
+        List<TaskResponse> held = new ArrayList<>();
+        for (long id = 20; id > 20 - CAPACITY; id--) {
+            held.add(task(id, id, "v0"));
+        }
+        UserRecentTasks recent = new UserRecentTasks(CAPACITY, held, false);
+
+        recent.put(task(3L, 3, "reopened"));
+
+        assertEquals(CAPACITY, recent.size());
+        assertTrue(recent.newest(CAPACITY).stream().noneMatch(task -> task.getId() == 3L));
+    }
+
+    @Test
+    void remove_LeavingFewerThanALimit_IsShortOnlyWhileIncomplete() {
+        UserRecentTasks partial = new UserRecentTasks(CAPACITY, List.of(task(2L, 2, "v0"), task(1L, 1, "v0")), false);
+        UserRecentTasks all = new UserRecentTasks(CAPACITY, List.of(task(2L, 2, "v0"), task(1L, 1, "v0")), true);
+
+        assertTrue(partial.isShort(LIMIT));
+        assertFalse(all.isShort(LIMIT));
+        all.remove(2L);
+        assertFalse(all.isShort(LIMIT));
+        assertEquals(List.of(1L), all.newest(LIMIT).stream().map(TaskResponse::getId).toList());
+    }
+
+    private static UserRecentTasks load(Map<Long, TaskResponse> tasks, Map<Long, Boolean> incomplete) {
+        List<TaskResponse> newest = newest(tasks, incomplete, CAPACITY);
+        return new UserRecentTasks(CAPACITY, newest, newest.size() < CAPACITY);
+    }
+
+    private static List<TaskResponse> newest(Map<Long, TaskResponse> tasks, Map<Long, Boolean> incomplete, int limit) {
+        return tasks.values().stream()
+                .filter(task -> incomplete.get(task.getId()))
+                .sorted(UserRecentTasks.NEWEST_FIRST)
+                .limit(limit)
+                .toList();
+    }
+
+    private static TaskResponse task(long id, long minute, String title) {
+        TaskResponse task = new TaskResponse();
+        task.setId(id);
+        task.setTitle(title);
+        task.setCompleted(false);
+        task.setCreatedAt(START.plusMinutes(minute));
+        return task;
+    }
+
+    private static TaskResponse task(long id, TaskResponse previous, String title) {
+        TaskResponse task = task(id, 0, title);
+        task.setCreatedAt(previous.getCreatedAt());
+        return task;
+    }
+}
@@ -0,0 +1,192 @@
+package com.coveragex.todobackend.reminder;
+
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.event.TaskReminderEvent;
+import com.coveragex.todobackend.repository.ReminderClaimRepository;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.service.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for ReminderScheduler
+ * Runs the wheel with a short tick against the test database
+ */
+@SpringBootTest(properties = {
+        "reminders.enabled=true",
+        "reminders.tick-ms=50",
+        "reminders.window-minutes=60",
+        "reminders.reload-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class ReminderSchedulerTest {
+
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReminderClaimRepository reminderClaims;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BlockingQueue<TaskReminderEvent> reminders;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("reminduser", "remind@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+        reminders.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM reminder_claims WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void reminderFiresOnlyForTasksStillPendingAtTheirTime() throws InterruptedException {
+        // Far enough ahead that the completion and deletion below commit first
+        LocalDateTime soon = LocalDateTime.now().plusSeconds(2);
+        TaskResponse fires = create("Fires", soon);
+        TaskResponse completed = create("Completed first", soon);
+        TaskResponse deleted = create("Deleted first", soon);
+        TaskResponse later = create("Far ahead", LocalDateTime.now().plusMinutes(30));
+        TaskResponse outside = create("Outside the window", LocalDateTime.now().plusHours(3));
+
+        taskService.markTaskAsCompleted("reminduser", completed.getId());
+        taskService.deleteTask("reminduser", deleted.getId());
+
+        assertFalse(reminderScheduler.isScheduled(completed.getId()));
+        assertFalse(reminderScheduler.isScheduled(deleted.getId()));
+        assertTrue(reminderScheduler.isScheduled(later.getId()));
+        assertFalse(reminderScheduler.isScheduled(outside.getId()));
+
+        TaskReminderEvent event = reminders.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(fires.getId(), event.getTaskId());
+        assertEquals(user.getId(), event.getUserId());
+        assertFalse(event.getRemindAt().isAfter(LocalDateTime.now()));
+        assertNull(reminders.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void editingTheReminderTimeMovesIt() throws InterruptedException {
+        TaskResponse task = create("Moved", LocalDateTime.now().plusMinutes(30));
+
+        TaskRequest edit = new TaskRequest("Moved", null);
+        edit.setRemindAt(LocalDateTime.now().plusSeconds(1));
+        taskService.updateTask("reminduser", task.getId(), edit);
+
+        TaskReminderEvent event = reminders.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(task.getId(), event.getTaskId());
+        assertFalse(reminderScheduler.isScheduled(task.getId()));
+    }
+
+    @Test
+    void reminderClaimedByAnotherInstanceIsNotFiredAgain() throws InterruptedException {
+        TaskResponse task = create("Claimed elsewhere", LocalDateTime.now().plusSeconds(1));
+        assertTrue(reminderScheduler.isScheduled(task.getId()));
+
+        // Another instance holding the same reminder fires it first
+        assertTrue(reminderClaims.claim(user.getId(), task.getId(), task.getRemindAt(), LocalDateTime.now()));
+
+        assertNull(reminders.poll(2500, TimeUnit.MILLISECONDS));
+        assertFalse(reminderScheduler.isScheduled(task.getId()));
+    }
+
+    @Test
+    void loadWindow_ReadsOnlyTheNextWindowFromTheDatabase() {
+        Long inWindow = insertTask("In window", LocalDateTime.now().plusMinutes(10), false);
+        Long beyond = insertTask("Beyond window", LocalDateTime.now().plusHours(2), false);
+        Long done = insertTask("Already done", LocalDateTime.now().plusMinutes(10), true);
+        Long past = insertTask("Past", LocalDateTime.now().minusMinutes(10), false);
+
+        reminderScheduler.loadWindow();
+
+        assertTrue(reminderScheduler.isScheduled(inWindow));
+        assertFalse(reminderScheduler.isScheduled(beyond));
+        assertFalse(reminderScheduler.isScheduled(done));
+        assertFalse(reminderScheduler.isScheduled(past));
+        reminderScheduler.cancel(inWindow);
+    }
+
+    @Test
+    void getDueSoonTasks_ReturnsIncompleteTasksDueInRangeSoonestFirst() {
+        TaskResponse second = createDue("Second", LocalDateTime.now().plusHours(5));
+        TaskResponse first = createDue("First", LocalDateTime.now().plusHours(1));
+        createDue("Next week", LocalDateTime.now().plusDays(7));
+        TaskResponse done = createDue("Done", LocalDateTime.now().plusHours(2));
+        taskService.markTaskAsCompleted("reminduser", done.getId());
+
+        List<TaskResponse> dueSoon = taskService.getDueSoonTasks("reminduser", 24, 10);
+
+        assertEquals(List.of(first.getId(), second.getId()), dueSoon.stream().map(TaskResponse::getId).toList());
+    }
+
+    private TaskResponse create(String title, LocalDateTime remindAt) {
+        TaskRequest request = new TaskRequest(title, null);
+        request.setRemindAt(remindAt);
+        return taskService.createTask("reminduser", request);
+    }
+
+    private TaskResponse createDue(String title, LocalDateTime dueAt) {
+        TaskRequest request = new TaskRequest(title, null);
+        request.setDueAt(dueAt);
+        return taskService.createTask("reminduser", request);
+    }
+
+    private Long insertTask(String title, LocalDateTime remindAt, boolean completed) {
+        jdbcTemplate.update("INSERT INTO tasks (title, completed, user_id, created_at, remind_at) VALUES (?, ?, ?, ?, ?)",
+                title, completed, user.getId(), LocalDateTime.now(), remindAt);
+        return jdbcTemplate.queryForObject("SELECT id FROM tasks WHERE title = ? AND user_id = ?",
+                Long.class, title, user.getId());
+    }
+
+    @TestConfiguration
+    static class ReminderCollector {
+
+        private final BlockingQueue<TaskReminderEvent> received = new LinkedBlockingQueue<>();
+
+        @Bean
+        BlockingQueue<TaskReminderEvent> reminders() {
+            return received;
+        }
+
+        @EventListener
+        public void onReminder(TaskReminderEvent event) {
+            received.add(event);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.coveragex.todobackend.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TimingWheel
+ */
+class TimingWheelTest {
+
+    @Test
+    void advanceTo_ExpiresEveryEntryExactlyAtItsDeadlineOnEveryLevel() {
+        long start = 1_000_003;
+        TimingWheel<Long> wheel = new TimingWheel<>(start);
+        Random random = new Random(42);
+        Map<Long, Long> deadlines = new HashMap<>();
+        // Spread over all four levels and past the top one
+        long[] spans = {TimingWheel.SLOTS, 1L << 12, 1L << 18, 1L << 24, 1L << 26};
+        for (long key = 0; key < 5000; key++) {
+            long deadline = start + 1 + (long) (random.nextDouble() * spans[(int) (key % spans.length)]);
+            wheel.schedule(key, deadline, key);
+            deadlines.put(key, deadline);
+        }
+
+        long tick = start;
+        List<Long> expired = new ArrayList<>();
+        while (wheel.size() > 0) {
+            tick += 1 + random.nextInt(5000);
+            long now = tick;
+            for (Long key : wheel.advanceTo(now)) {
+                long deadline = deadlines.get(key);
+                assertTrue(deadline <= now && deadline > now - 5001, "Key " + key + " expired late");
+                expired.add(key);
+            }
+        }
+        assertEquals(5000, expired.size());
+    }
+
+    @Test
+    void advanceTo_FiresAtTheExactTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        wheel.schedule(1, 100, "a");
+        wheel.schedule(2, 5000, "b");
+
+        assertEquals(List.of(), wheel.advanceTo(99));
+        assertEquals(List.of("a"), wheel.advanceTo(100));
+        assertEquals(List.of(), wheel.advanceTo(4999));
+        assertEquals(List.of("b"), wheel.advanceTo(5000));
+    }
+
+    @Test
+    void cancelAndReschedule_ReplaceTheEntry() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        wheel.schedule(1, 10, "first");
+        wheel.schedule(2, 20, "cancelled");
+        wheel.schedule(1, 300, "moved");
+
+        assertTrue(wheel.cancel(2));
+        assertFalse(wheel.cancel(2));
+        assertEquals(1, wheel.size());
+        assertEquals(300, wheel.deadline(1));
+        assertEquals(List.of(), wheel.advanceTo(299));
+        assertEquals(List.of("moved"), wheel.advanceTo(300));
+        assertEquals(-1, wheel.deadline(1));
+    }
+
+    @Test
+    void schedule_PastDeadlineExpiresOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(500);
+        wheel.schedule(1, 10, "overdue");
+
+        assertEquals(List.of("overdue"), wheel.advanceTo(501));
+    }
+}
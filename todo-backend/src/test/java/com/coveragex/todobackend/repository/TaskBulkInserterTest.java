@@ -0,0 +1,128 @@
+package com.coveragex.todobackend.repository;
+
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for TaskBulkInserter on a driver that reports one generated key per statement
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskBulkInserterTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("bulkuser", "bulk@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void everyInsertedTaskGetsItsOwnId() {
+        TaskBulkInserter inserter = new TaskBulkInserter(new JdbcTemplate(new SingleGeneratedKeyDataSource(dataSource)));
+        List<Task> tasks = List.of(task("First", "c"), task("Second", "b"), task("Third", "a"));
+
+        inserter.insertAll(tasks);
+
+        for (Task task : tasks) {
+            assertNotNull(task.getId());
+            assertEquals(task.getTitle(), jdbcTemplate.queryForObject(
+                    "SELECT title FROM tasks WHERE id = ?", String.class, task.getId()));
+        }
+    }
+
+    private Task task(String title, String rankKey) {
+        Task task = new Task(title, null, user);
+        task.setRankKey(rankKey);
+        return task;
+    }
+
+    /**
+     * Reports only the first generated key of a statement, as MariaDB Connector/J does for a multi-row INSERT
+     */
+    private static final class SingleGeneratedKeyDataSource extends DelegatingDataSource {
+
+        SingleGeneratedKeyDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(Connection.class, obtainTargetDataSource().getConnection());
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T wrap(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(SingleGeneratedKeyDataSource.class.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        Object result = invoke(method, target, args);
+                        if (method.getName().equals("getGeneratedKeys")) {
+                            return firstRowOnly((ResultSet) result);
+                        }
+                        if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                            return wrap((Class<Statement>) method.getReturnType(), statement);
+                        }
+                        return result;
+                    });
+        }
+
+        private static ResultSet firstRowOnly(ResultSet keys) {
+            boolean[] read = new boolean[1];
+            return (ResultSet) Proxy.newProxyInstance(SingleGeneratedKeyDataSource.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("next")) {
+                            if (read[0]) {
+                                return false;
+                            }
+                            read[0] = true;
+                        }
+                        return invoke(method, keys, args);
+                    });
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
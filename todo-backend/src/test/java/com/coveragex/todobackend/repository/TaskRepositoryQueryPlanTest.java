@@ -0,0 +1,318 @@
+package com.coveragex.todobackend.repository;
+
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query plan tests for TaskRepository, ArchivedTaskRepository and TaskChangeRepository
+ * Runs EXPLAIN on the SQL Hibernate generates for every repository query against the
+ * migrated test schema and fails if a query scans the whole table or if no index returns
+ * its rows in ORDER BY order (which would mean a filesort on MariaDB).
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.coveragex.todobackend.repository.TaskRepositoryQueryPlanTest$CapturingInspector")
+@ActiveProfiles("test")
+@Transactional
+class TaskRepositoryQueryPlanTest {
+
+    // A single-row INSERT ... VALUES or a SELECT of an expression, reading no table
+    private static final Pattern NO_TABLE_READ = Pattern.compile("(?:INSERT INTO .*\\n)?(?:VALUES .*|SELECT\\n.*)");
+    private static final Pattern INDEX_COMMENT = Pattern.compile("/\\* (\\w+)\\.(\\w+)(?::(.*?))? \\*/", Pattern.DOTALL);
+    private static final Pattern EQUALITY = Pattern.compile("\"(\\w+)\" (?:= |IS NULL)");
+    private static final Pattern RANGE = Pattern.compile("\"(\\w+)\" [<>]=? ");
+    private static final Pattern SELECT_LIST = Pattern.compile("^SELECT\\n(.*?)\\nFROM ", Pattern.DOTALL);
+    private static final Pattern FROM_TABLE = Pattern.compile("^FROM \"(\\w+)\"\\.\"(\\w+)\"", Pattern.MULTILINE);
+    private static final Pattern WHERE = Pattern.compile("^WHERE (.*?)(?=^ORDER BY|^OFFSET|^FETCH|\\z)",
+            Pattern.MULTILINE | Pattern.DOTALL);
+    private static final Pattern ORDER_BY = Pattern.compile("^ORDER BY (.*)$", Pattern.MULTILINE);
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    private TaskChangeRepository taskChangeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(newUser("planuser"));
+        User other = userRepository.save(newUser("otheruser"));
+        for (int i = 0; i < 20; i++) {
+            Task task = new Task("Task " + i, "Description " + i, i % 2 == 0 ? user : other);
+            if (i % 3 == 0) {
+                task.markAsCompleted();
+            }
+            taskRepository.save(task);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Every query method declared on the task repositories, with an
+     * invocation that makes Hibernate issue its SQL (page 1 of size 1 forces the count query as well)
+     */
+    private Map<String, Runnable> repositoryQueries() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("TaskRepository.findByUserAndCompletedFalseOrderByCreatedAtDesc",
+                () -> taskRepository.findByUserAndCompletedFalseOrderByCreatedAtDesc(user, PageRequest.of(1, 1)));
+        queries.put("TaskRepository.findByUserOrderByCreatedAtDesc",
+                () -> taskRepository.findByUserOrderByCreatedAtDesc(user, PageRequest.of(1, 1)));
+        queries.put("TaskRepository.findByIdAndUser",
+                () -> taskRepository.findByIdAndUser(1L, user));
+        queries.put("TaskRepository.countByUserAndCompletedFalse",
+                () -> taskRepository.countByUserAndCompletedFalse(user));
+        queries.put("TaskRepository.findByUserAndTitleOrDescriptionContainingIgnoreCase",
+                () -> taskRepository.findByUserAndTitleOrDescriptionContainingIgnoreCase(user, "task", PageRequest.of(1, 1)));
+        queries.put("TaskRepository.findRecentTasksByUser",
+                () -> taskRepository.findRecentTasksByUser(user, PageRequest.of(0, 5)));
+        queries.put("TaskRepository.countByUser",
+                () -> taskRepository.countByUser(user));
+        queries.put("TaskRepository.findArchivableTasks",
+                () -> taskRepository.findArchivableTasks(LocalDateTime.now().plusDays(1), PageRequest.of(0, 5)));
+        queries.put("TaskRepository.deleteByIdIn",
+                () -> taskRepository.deleteByIdIn(List.of(-1L)));
+        queries.put("TaskRepository.softDeleteByIdAndUser",
+                () -> taskRepository.softDeleteByIdAndUser(-1L, user, LocalDateTime.now()));
+        queries.put("TaskRepository.restoreByIdAndUserId",
+                () -> taskRepository.restoreByIdAndUserId(-1L, user.getId(), LocalDateTime.now()));
+        queries.put("TaskRepository.findPurgeableTaskIds",
+                () -> taskRepository.findPurgeableTaskIds(LocalDateTime.now(), 10));
+        queries.put("TaskRepository.purgeByIdIn",
+                () -> taskRepository.purgeByIdIn(List.of(-1L)));
+        queries.put("TaskRepository.findDueSoon",
+                () -> taskRepository.findDueSoon(user, LocalDateTime.now(), LocalDateTime.now().plusDays(1),
+                        PageRequest.of(0, 5)));
+        queries.put("TaskRepository.findRemindersBetween",
+                () -> taskRepository.findRemindersBetween(LocalDateTime.now(), LocalDateTime.now().plusHours(1)));
+        queries.put("TaskRepository.findTaggedTasksByUser",
+                () -> taskRepository.findTaggedTasksByUser(user));
+        queries.put("TaskRepository.findCompletionsSince",
+                () -> taskRepository.findCompletionsSince(user, LocalDateTime.now().minusDays(1)));
+        queries.put("TaskRepository.findByUserOrderByRankKeyAscIdAsc",
+                () -> taskRepository.findByUserOrderByRankKeyAscIdAsc(user, PageRequest.of(1, 1)));
+        queries.put("TaskRepository.findRankKeysAfter",
+                () -> taskRepository.findRankKeysAfter(user, "i", -1L, PageRequest.of(0, 1)));
+        queries.put("TaskRepository.updateRankKey",
+                () -> taskRepository.updateRankKey(-1L, user, "i"));
+        queries.put("TaskRepository.findIdsInRankOrder",
+                () -> taskRepository.findIdsInRankOrder(user.getId()));
+        queries.put("ArchivedTaskRepository.findByUserOrderByCreatedAtDesc",
+                () -> archivedTaskRepository.findByUserOrderByCreatedAtDesc(user, PageRequest.of(1, 1)));
+        queries.put("ArchivedTaskRepository.countByUser",
+                () -> archivedTaskRepository.countByUser(user));
+        queries.put("ArchivedTaskRepository.copyFromTasks",
+                () -> archivedTaskRepository.copyFromTasks(List.of(-1L), LocalDateTime.now()));
+        queries.put("ArchivedTaskRepository.findCompletionsSince",
+                () -> archivedTaskRepository.findCompletionsSince(user, LocalDateTime.now().minusDays(1)));
+        queries.put("TaskChangeRepository.findByUserIdAndIdGreaterThanOrderByIdAsc",
+                () -> taskChangeRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(user.getId(), 0L, PageRequest.of(0, 10)));
+        queries.put("TaskChangeRepository.findHeadIds",
+                () -> taskChangeRepository.findHeadIds(user.getId(), LocalDateTime.now(), PageRequest.of(0, 1)));
+        queries.put("TaskChangeRepository.append",
+                () -> taskChangeRepository.append(user.getId(), -1L, "UPDATED"));
+        queries.put("TaskChangeRepository.currentTime",
+                () -> taskChangeRepository.currentTime());
+        queries.put("TaskChangeRepository.appendArchived",
+                () -> taskChangeRepository.appendArchived(List.of(-1L)));
+        queries.put("TaskChangeRepository.findExpiredIds",
+                () -> taskChangeRepository.findExpiredIds(LocalDateTime.now(), 10));
+        queries.put("TaskChangeRepository.findIdsAfter",
+                () -> taskChangeRepository.findIdsAfter(0L, 10));
+        queries.put("TaskChangeRepository.deleteByIdIn",
+                () -> taskChangeRepository.deleteByIdIn(List.of(-1L)));
+        queries.put("TaskChangeRepository.deleteSupersededByIdIn",
+                () -> taskChangeRepository.deleteSupersededByIdIn(List.of(-1L), LocalDateTime.now()));
+        return queries;
+    }
+
+    @Test
+    void everyRepositoryQueryIsCovered() {
+        Set<String> declared = Stream.of(TaskRepository.class, ArchivedTaskRepository.class, TaskChangeRepository.class)
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods())
+                        .map(method -> repository.getSimpleName() + "." + method.getName()))
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        assertEquals(declared, new TreeSet<>(repositoryQueries().keySet()),
+                "Register new repository queries in repositoryQueries() so their plans are checked");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> queryPlansUseIndexesWithoutSorting() {
+        return repositoryQueries().entrySet().stream()
+                .map(entry -> DynamicTest.dynamicTest(entry.getKey(), () -> {
+                    List<String> statements = capture(entry.getValue());
+                    assertFalse(statements.isEmpty(), "No SQL captured for " + entry.getKey());
+                    for (String sql : statements) {
+                        assertIndexedAndSorted(entry.getKey(), sql);
+                    }
+                }));
+    }
+
+    private List<String> capture(Runnable query) {
+        entityManager.clear();
+        CapturingInspector.STATEMENTS.clear();
+        query.run();
+        return List.copyOf(CapturingInspector.STATEMENTS);
+    }
+
+    private void assertIndexedAndSorted(String method, String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        String context = method + "\nSQL: " + sql + "\nPlan:\n" + plan;
+        if (NO_TABLE_READ.matcher(plan).matches()) {
+            return;
+        }
+
+        assertFalse(plan.contains("tableScan"), "Full table scan in " + context);
+        assertTrue(INDEX_COMMENT.matcher(plan).find(), "No index access in " + context);
+
+        Matcher orderBy = ORDER_BY.matcher(plan);
+        if (!orderBy.find() || plan.contains("/* index sorted */")) {
+            return;
+        }
+
+        Set<String> equalityColumns = new TreeSet<>();
+        Set<String> rangeColumns = new TreeSet<>();
+        Matcher where = WHERE.matcher(plan);
+        if (where.find()) {
+            Matcher eq = EQUALITY.matcher(where.group(1));
+            while (eq.find()) {
+                equalityColumns.add(eq.group(1).toLowerCase());
+            }
+            Matcher range = RANGE.matcher(where.group(1));
+            while (range.find()) {
+                rangeColumns.add(range.group(1).toLowerCase());
+            }
+        }
+
+        List<String> selectList = Arrays.stream(SELECT_LIST.matcher(plan).results().findFirst()
+                        .orElseThrow().group(1).split(",\n"))
+                .map(TaskRepositoryQueryPlanTest::columnName)
+                .collect(Collectors.toList());
+        List<String[]> sortKeys = Arrays.stream(orderBy.group(1).split(", "))
+                .map(String::trim)
+                .map(key -> {
+                    String column = key.replaceAll(" (ASC|DESC)$", "");
+                    if (column.matches("\\d+")) {
+                        column = selectList.get(Integer.parseInt(column) - 1);
+                    }
+                    return new String[]{columnName(column), key.endsWith(" DESC") ? "DESC" : "ASC"};
+                })
+                .collect(Collectors.toList());
+
+        Matcher from = FROM_TABLE.matcher(plan);
+        assertTrue(from.find(), "No table in " + context);
+        Map<String, List<String[]>> indexes = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT index_name, column_name, ordering_specification FROM information_schema.index_columns "
+                        + "WHERE table_schema = ? AND table_name = ? ORDER BY index_name, ordinal_position",
+                rs -> {
+                    indexes.computeIfAbsent(rs.getString(1), name -> new ArrayList<>())
+                            .add(new String[]{rs.getString(2).toLowerCase(), rs.getString(3)});
+                },
+                from.group(1), from.group(2));
+
+        boolean servedByIndex = indexes.values().stream()
+                .anyMatch(columns -> returnsRowsInOrder(columns, equalityColumns, rangeColumns, sortKeys));
+        assertTrue(servedByIndex, "Filesort needed (no index returns rows in ORDER BY order) in " + context);
+    }
+
+    /**
+     * MariaDB avoids a filesort when the index columns left after the equality-bound prefix
+     * (= or IS NULL) start with the ORDER BY columns, all read in the same direction (forwards
+     * or backwards), and the scan is bound by that prefix or by a range on the first column left.
+     * H2 does not apply this rule when choosing an index (it prefers any IS NULL index, where
+     * MariaDB's statistics show deleted_at IS NULL matches nearly every task), so it is checked
+     * against the schema.
+     */
+    private static boolean returnsRowsInOrder(List<String[]> indexColumns, Set<String> equalityColumns,
+                                              Set<String> rangeColumns, List<String[]> sortKeys) {
+        List<String[]> remaining = indexColumns.stream()
+                .dropWhile(column -> equalityColumns.contains(column[0]))
+                .collect(Collectors.toList());
+        if (sortKeys.size() > remaining.size()) {
+            return false;
+        }
+        if (remaining.size() == indexColumns.size() && !rangeColumns.contains(remaining.get(0)[0])) {
+            return false;
+        }
+
+        Boolean reversed = null;
+        for (int i = 0; i < sortKeys.size(); i++) {
+            if (!remaining.get(i)[0].equals(sortKeys.get(i)[0])) {
+                return false;
+            }
+            boolean flipped = !sortKeys.get(i)[1].equals(remaining.get(i)[1]);
+            if (reversed != null && reversed != flipped) {
+                return false;
+            }
+            reversed = flipped;
+        }
+        return true;
+    }
+
+    private static String columnName(String expression) {
+        return expression.trim().replaceAll(".*\\.", "").replace("\"", "").toLowerCase();
+    }
+
+    private static User newUser(String username) {
+        User user = new User(username, username + "@example.com");
+        user.setPasswordHash("hash");
+        return user;
+    }
+
+    /**
+     * Records every SQL statement Hibernate prepares
+     */
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
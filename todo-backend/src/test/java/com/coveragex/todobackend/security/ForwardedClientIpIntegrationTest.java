@@ -0,0 +1,75 @@
+package com.coveragex.todobackend.security;
+
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the per-IP rate limit behind a load balancer
+ * Runs on a real server, where Tomcat resolves the client address from X-Forwarded-For; every
+ * request comes from the loopback address, a trusted proxy, as from a balancer.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "rate-limit.user.read.rate-per-second=1000",
+        "rate-limit.user.read.burst=1000",
+        "rate-limit.ip.read.rate-per-second=0.01",
+        "rate-limit.ip.read.burst=2"
+})
+@ActiveProfiles("test")
+class ForwardedClientIpIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("forwardeduser", "forwarded@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void clientsBehindTheSameProxyHaveTheirOwnLimit() {
+        assertEquals(HttpStatus.OK, recentTasks("203.0.113.1"));
+        // An internal proxy hop after the client is skipped
+        assertEquals(HttpStatus.OK, recentTasks("203.0.113.1, 10.0.0.7"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, recentTasks("203.0.113.1"));
+
+        assertEquals(HttpStatus.OK, recentTasks("198.51.100.2"));
+        assertEquals(HttpStatus.OK, recentTasks("198.51.100.2"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, recentTasks("198.51.100.2"));
+    }
+
+    private HttpStatus recentTasks(String forwardedFor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(jwtUtil.generateToken("forwardeduser"));
+        headers.set("X-Forwarded-For", forwardedFor);
+        return HttpStatus.valueOf(restTemplate.exchange("/tasks/recent", HttpMethod.GET, new HttpEntity<>(headers), String.class)
+                .getStatusCode().value());
+    }
+}
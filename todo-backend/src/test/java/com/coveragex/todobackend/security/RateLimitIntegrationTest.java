@@ -0,0 +1,75 @@
+package com.coveragex.todobackend.security;
+
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration test for rate limiting in JwtAuthenticationFilter
+ */
+@SpringBootTest(properties = {
+        "rate-limit.user.read.rate-per-second=0.01",
+        "rate-limit.user.read.burst=3",
+        "rate-limit.ip.read.rate-per-second=1000",
+        "rate-limit.ip.read.burst=1000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @SpyBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("limiteduser", "limited@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void requestsOverTheUserLimitGet429WithoutLoadingTheUser() throws Exception {
+        String authorization = "Bearer " + jwtUtil.generateToken("limiteduser");
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/tasks/recent").header("Authorization", authorization))
+                    .andExpect(status().isOk());
+        }
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/tasks/recent").header("Authorization", authorization))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().exists("Retry-After"))
+                    .andExpect(jsonPath("$.success").value(false));
+        }
+
+        verify(userDetailsService, times(3)).loadUserByUsername("limiteduser");
+    }
+}
@@ -0,0 +1,92 @@
+package com.coveragex.todobackend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenBucket and RateLimiter
+ */
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tokenBucket_AllowsBurstThenRefillsAtRate() {
+        // 2 per second, burst 3
+        long interval = SECOND / 2;
+        long tolerance = 2 * interval;
+        TokenBucket bucket = new TokenBucket(0);
+
+        assertEquals(0, bucket.tryAcquire(0, interval, tolerance));
+        assertEquals(0, bucket.tryAcquire(0, interval, tolerance));
+        assertEquals(0, bucket.tryAcquire(0, interval, tolerance));
+        assertEquals(interval, bucket.tryAcquire(0, interval, tolerance));
+
+        assertEquals(interval / 2, bucket.tryAcquire(interval / 2, interval, tolerance));
+        assertEquals(0, bucket.tryAcquire(interval, interval, tolerance));
+        assertTrue(bucket.tryAcquire(interval, interval, tolerance) > 0);
+    }
+
+    @Test
+    void tryAcquire_LimitsUsersAndIpsPerEndpointClass() {
+        RateLimiter limiter = new RateLimiter(properties(0.001, 2), new SimpleMeterRegistry());
+
+        assertEquals(0, limiter.tryAcquire(EndpointClass.WRITE, "alice", "10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire(EndpointClass.WRITE, "alice", "10.0.0.2"));
+        assertTrue(limiter.tryAcquire(EndpointClass.WRITE, "alice", "10.0.0.3") > 0);
+
+        // Other users, and other endpoint classes of the same user, have their own buckets
+        assertEquals(0, limiter.tryAcquire(EndpointClass.WRITE, "bob", "10.0.0.4"));
+        assertEquals(0, limiter.tryAcquire(EndpointClass.SEARCH, "alice", "10.0.0.5"));
+        // Reads are not limited in this configuration
+        assertEquals(0, limiter.tryAcquire(EndpointClass.READ, "alice", "10.0.0.6"));
+    }
+
+    @Test
+    void evictIdleBuckets_DropsOnlyRefilledBuckets() {
+        RateLimitProperties properties = properties(1_000_000, 1);
+        properties.setIdleEvictionMs(0);
+        RateLimiter limiter = new RateLimiter(properties, new SimpleMeterRegistry());
+        limiter.tryAcquire(EndpointClass.WRITE, "alice", "10.0.0.1");
+        assertEquals(1, limiter.bucketCount());
+
+        limiter.evictIdleBuckets();
+
+        assertEquals(0, limiter.bucketCount());
+    }
+
+    @Test
+    void tryAcquire_DoesNotAllocateOnceTheBucketExists() {
+        RateLimiter limiter = new RateLimiter(properties(1_000_000_000, 1_000), new SimpleMeterRegistry());
+        String username = "alice";
+        for (int i = 0; i < 200_000; i++) {
+            limiter.tryAcquire(EndpointClass.WRITE, username, null);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            limiter.tryAcquire(EndpointClass.WRITE, username, null);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Tolerates the measuring call itself, not a per-call allocation
+        assertTrue(allocated < 10_000, "Fast path allocated " + allocated + " bytes for 100k calls");
+    }
+
+    private static RateLimitProperties properties(double writesPerSecond, int burst) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setRatePerSecond(writesPerSecond);
+        limit.setBurst(burst);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getUser().put(EndpointClass.WRITE, limit);
+        properties.getUser().put(EndpointClass.SEARCH, limit);
+        return properties;
+    }
+}
@@ -0,0 +1,144 @@
+package com.coveragex.todobackend.service;
+
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.repository.AccountDeletionRepository;
+import com.coveragex.todobackend.repository.AccountDeletionRepository.AccountDeletion;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.shard.ShardRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for AccountDeleter
+ * Runs real deletion batches against the test database
+ */
+@SpringBootTest(properties = {
+        "account-deletion.batch-size=2",
+        "account-deletion.throttle-ratio=0",
+        "account-deletion.resume-initial-delay-ms=3600000"
+})
+@ActiveProfiles("test")
+class AccountDeleterTest {
+
+    @Autowired
+    private AccountDeleter accountDeleter;
+
+    @Autowired
+    private AccountDeletionRepository deletions;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("deleteuser", "delete@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+        for (int i = 0; i < 5; i++) {
+            taskService.createTask("deleteuser", new TaskRequest("Task " + i, null));
+        }
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("INSERT INTO tasks_archive (id, title, user_id, created_at, archived_at) "
+                    + "VALUES (?, ?, ?, ?, ?)", 900_000 + i, "Archived " + i, user.getId(),
+                    LocalDateTime.now(), LocalDateTime.now());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM account_deletions WHERE user_id = ?", user.getId());
+        userRepository.findById(user.getId()).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void run_DeletesEveryRowInBatchesThenTheUser() {
+        deletions.create(user.getId(), "deleteuser", ShardRegistry.PRIMARY, LocalDateTime.now());
+
+        accountDeleter.run(user.getId());
+
+        assertEquals(0, rowsOf("tasks"));
+        assertEquals(0, rowsOf("tasks_archive"));
+        assertEquals(0, rowsOf("task_changes"));
+        assertFalse(userRepository.existsById(user.getId()));
+        AccountDeletion deletion = deletions.findByUserId(user.getId()).orElseThrow();
+        assertEquals(AccountDeletion.State.COMPLETED, deletion.state());
+        // 5 tasks, 3 archived tasks, 5 change log entries and the user
+        assertEquals(14L, deletion.totalRows());
+        assertEquals(14L, deletion.deletedRows());
+        assertNotNull(deletion.completedAt());
+    }
+
+    @Test
+    void run_ResumesAStaleJobFromItsCursor() {
+        List<Long> taskIds = jdbcTemplate.queryForList("SELECT id FROM tasks WHERE user_id = ? ORDER BY id",
+                Long.class, user.getId());
+        // A node deleted the first two tasks and crashed before its next batch
+        deletions.create(user.getId(), "deleteuser", ShardRegistry.PRIMARY, LocalDateTime.now());
+        deletions.setTotalRows(user.getId(), 14);
+        jdbcTemplate.update("DELETE FROM tasks WHERE id IN (?, ?)", taskIds.get(0), taskIds.get(1));
+        deletions.recordBatch(user.getId(), "tasks", taskIds.get(1), 2, LocalDateTime.now().minusHours(1));
+
+        accountDeleter.run(user.getId());
+
+        assertFalse(userRepository.existsById(user.getId()));
+        AccountDeletion deletion = deletions.findByUserId(user.getId()).orElseThrow();
+        assertEquals(AccountDeletion.State.COMPLETED, deletion.state());
+        assertEquals(14L, deletion.deletedRows());
+    }
+
+    @Test
+    void request_LeavesAJobAnotherNodeIsWorkingOn() throws InterruptedException {
+        LocalDateTime requestedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        deletions.create(user.getId(), "deleteuser", ShardRegistry.PRIMARY, requestedAt);
+        deletions.recordBatch(user.getId(), "tasks", 0, 0, LocalDateTime.now());
+
+        assertEquals(requestedAt, accountDeleter.request("deleteuser").requestedAt());
+        accountDeleter.run(user.getId());
+        Thread.sleep(200);
+
+        assertEquals(5, rowsOf("tasks"));
+        assertTrue(userRepository.existsById(user.getId()));
+        assertEquals(AccountDeletion.State.IN_PROGRESS,
+                deletions.findByUserId(user.getId()).orElseThrow().state());
+    }
+
+    @Test
+    void request_RunsInTheBackground() throws InterruptedException {
+        AccountDeletion requested = accountDeleter.request("deleteuser");
+        assertEquals(AccountDeletion.State.IN_PROGRESS, requested.state());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        AccountDeletion deletion = deletions.findByUserId(user.getId()).orElseThrow();
+        while (deletion.state() != AccountDeletion.State.COMPLETED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            deletion = deletions.findByUserId(user.getId()).orElseThrow();
+        }
+        assertEquals(AccountDeletion.State.COMPLETED, deletion.state());
+        assertFalse(userRepository.existsById(user.getId()));
+        assertEquals(0, rowsOf("tasks"));
+    }
+
+    private long rowsOf(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE user_id = ?",
+                Long.class, user.getId());
+    }
+}
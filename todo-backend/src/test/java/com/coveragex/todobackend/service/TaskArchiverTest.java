@@ -0,0 +1,103 @@
+package com.coveragex.todobackend.service;
+
+import com.coveragex.todobackend.dto.TaskPage;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.repository.ArchivedTaskRepository;
+import com.coveragex.todobackend.repository.TaskRepository;
+import com.coveragex.todobackend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for TaskArchiver
+ * Runs real archiving batches against the test database
+ */
+@SpringBootTest(properties = {
+        "archive.enabled=true",
+        "archive.initial-delay-ms=3600000",
+        "archive.batch-size=2",
+        "archive.throttle-ratio=0"
+})
+@ActiveProfiles("test")
+class TaskArchiverTest {
+
+    @Autowired
+    private TaskArchiver taskArchiver;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("archiveuser", "archive@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM tasks_archive WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void archiveCompletedTasks_MovesOnlyOldCompletedTasks() {
+        Task oldCompleted1 = saveTask("Old done 1", true, 60);
+        Task oldCompleted2 = saveTask("Old done 2", true, 45);
+        Task oldCompleted3 = saveTask("Old done 3", true, 31);
+        Task recentCompleted = saveTask("Recent done", true, 1);
+        Task oldPending = saveTask("Old pending", false, 90);
+
+        taskArchiver.archiveCompletedTasks();
+
+        assertFalse(taskRepository.existsById(oldCompleted1.getId()));
+        assertFalse(taskRepository.existsById(oldCompleted2.getId()));
+        assertFalse(taskRepository.existsById(oldCompleted3.getId()));
+        assertTrue(taskRepository.existsById(recentCompleted.getId()));
+        assertTrue(taskRepository.existsById(oldPending.getId()));
+        assertEquals(3, archivedTaskRepository.countByUser(user));
+
+        TaskPage history = taskService.getTaskHistory("archiveuser", 0, 10);
+        assertEquals(3, history.getTotalElements());
+        assertTrue(history.getContent().stream().allMatch(TaskResponse::getCompleted));
+        assertTrue(history.getContent().stream().anyMatch(task -> task.getId().equals(oldCompleted1.getId())));
+    }
+
+    private Task saveTask(String title, boolean completed, int daysSinceUpdate) {
+        Task task = new Task(title, "Description", user);
+        if (completed) {
+            task.markAsCompleted();
+        }
+        task = taskRepository.save(task);
+        // Auditing always stamps "now", so backdate the row directly
+        jdbcTemplate.update("UPDATE tasks SET updated_at = ? WHERE id = ?",
+                LocalDateTime.now().minusDays(daysSinceUpdate), task.getId());
+        return task;
+    }
+}
@@ -1,10 +1,17 @@
 package com.coveragex.todobackend.service;
 
+import com.coveragex.todobackend.analytics.CompletionSketches;
 import com.coveragex.todobackend.dto.TaskRequest;
 import com.coveragex.todobackend.dto.TaskResponse;
 import com.coveragex.todobackend.entity.Task;
 import com.coveragex.todobackend.entity.User;
-import com.coveragex.todobackend.repository.TaskRepository;
+import com.coveragex.todobackend.invalidation.InvalidationBus;
+import com.coveragex.todobackend.ranking.TaskRankRebalancer;
+import com.coveragex.todobackend.recent.RecentTasks;
+import com.coveragex.todobackend.reminder.ReminderScheduler;
+import com.coveragex.todobackend.sync.TaskChangeLog;
+import com.coveragex.todobackend.tagging.TagIndex;
+import com.coveragex.todobackend.store.TaskStore;
 import com.coveragex.todobackend.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,13 +19,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,11 +37,35 @@ import static org.mockito.Mockito.*;
 class TaskServiceTest {
 
     @Mock
-    private TaskRepository taskRepository;
+    private TaskStore taskStore;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @Mock
+    private ReminderScheduler reminderScheduler;
+
+    @Mock
+    private TagIndex tagIndex;
+
+    @Mock
+    private TaskRankRebalancer rankRebalancer;
+
+    @Mock
+    private TaskChangeLog taskChangeLog;
+
+    @Mock
+    private CompletionSketches completionSketches;
+
+    @Mock
+    private RecentTasks recentTasks;
+
     @InjectMocks
     private TaskService taskService;
 
@@ -67,10 +94,8 @@ class TaskServiceTest {
         // Arrange
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         
-        List<Task> tasks = Arrays.asList(testTask);
-        Page<Task> taskPage = new PageImpl<>(tasks);
-        when(taskRepository.findByUserAndCompletedFalseOrderByCreatedAtDesc(eq(testUser), any(Pageable.class)))
-            .thenReturn(taskPage);
+        when(recentTasks.newest(testUser, 0L, 5))
+            .thenReturn(List.of(TaskResponse.fromEntity(testTask)));
 
         // Act
         List<TaskResponse> result = taskService.getRecentTasks("testuser");
@@ -82,7 +107,8 @@ class TaskServiceTest {
         assertEquals("Test Description", result.get(0).getDescription());
         assertFalse(result.get(0).getCompleted());
 
-        verify(taskRepository).findByUserAndCompletedFalseOrderByCreatedAtDesc(eq(testUser), any(Pageable.class));
+        verify(recentTasks).newest(testUser, 0L, 5);
+        verifyNoInteractions(taskStore);
     }
 
     @Test
@@ -90,7 +116,7 @@ class TaskServiceTest {
         // Arrange
         TaskRequest taskRequest = new TaskRequest("New Task", "New Description");
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(taskRepository.save(any(Task.class))).thenReturn(testTask);
+        when(taskStore.save(any(Task.class))).thenReturn(testTask);
 
         // Act
         TaskResponse result = taskService.createTask("testuser", taskRequest);
@@ -98,15 +124,15 @@ class TaskServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("Test Task", result.getTitle());
-        verify(taskRepository).save(any(Task.class));
+        verify(taskStore).save(any(Task.class));
     }
 
     @Test
     void markTaskAsCompleted_MarksTaskSuccessfully() {
         // Arrange
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(taskRepository.findByIdAndUser(1L, testUser)).thenReturn(Optional.of(testTask));
-        when(taskRepository.save(testTask)).thenReturn(testTask);
+        when(taskStore.findByIdAndUser(1L, testUser)).thenReturn(Optional.of(testTask));
+        when(taskStore.save(testTask)).thenReturn(testTask);
 
         // Act
         TaskResponse result = taskService.markTaskAsCompleted("testuser", 1L);
@@ -114,7 +140,7 @@ class TaskServiceTest {
         // Assert
         assertNotNull(result);
         assertTrue(testTask.getCompleted());
-        verify(taskRepository).save(testTask);
+        verify(taskStore).save(testTask);
     }
 
     @Test
@@ -133,7 +159,7 @@ class TaskServiceTest {
     void markTaskAsCompleted_TaskNotFound_ThrowsException() {
         // Arrange
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(taskRepository.findByIdAndUser(999L, testUser)).thenReturn(Optional.empty());
+        when(taskStore.findByIdAndUser(999L, testUser)).thenReturn(Optional.empty());
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, 
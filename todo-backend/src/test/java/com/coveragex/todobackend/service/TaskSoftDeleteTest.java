@@ -0,0 +1,99 @@
+package com.coveragex.todobackend.service;
+
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for soft delete, restore and the background purge
+ */
+@SpringBootTest(properties = {
+        "purge.enabled=true",
+        "purge.initial-delay-ms=3600000",
+        "purge.retention-minutes=60",
+        "purge.throttle-ratio=0"
+})
+@ActiveProfiles("test")
+class TaskSoftDeleteTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskPurger taskPurger;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("deleteuser", "delete@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void deleteTask_HidesTaskUntilRestored() {
+        TaskResponse kept = taskService.createTask("deleteuser", new TaskRequest("Kept", null));
+        TaskResponse deleted = taskService.createTask("deleteuser", new TaskRequest("Deleted", null));
+
+        taskService.deleteTask("deleteuser", deleted.getId());
+
+        assertEquals(1, taskService.getAllTasks("deleteuser", 0, 10).getTotalElements());
+        assertEquals(1, taskService.getRecentTasks("deleteuser").size());
+        assertEquals(1, taskService.getTaskStats("deleteuser").total);
+        assertThrows(RuntimeException.class, () -> taskService.getTaskById("deleteuser", deleted.getId()));
+        assertThrows(RuntimeException.class, () -> taskService.deleteTask("deleteuser", deleted.getId()));
+        assertEquals(kept.getId(), taskService.getRecentTasks("deleteuser").get(0).getId());
+
+        TaskResponse restored = taskService.restoreTask("deleteuser", deleted.getId());
+
+        assertEquals("Deleted", restored.getTitle());
+        assertEquals(2, taskService.getTaskStats("deleteuser").total);
+    }
+
+    @Test
+    void purgeDeletedTasks_RemovesOnlyTombstonesPastTheUndoWindow() {
+        TaskResponse live = taskService.createTask("deleteuser", new TaskRequest("Live", null));
+        TaskResponse recent = taskService.createTask("deleteuser", new TaskRequest("Recently deleted", null));
+        TaskResponse old = taskService.createTask("deleteuser", new TaskRequest("Deleted long ago", null));
+        taskService.deleteTask("deleteuser", recent.getId());
+        taskService.deleteTask("deleteuser", old.getId());
+        jdbcTemplate.update("UPDATE tasks SET deleted_at = ? WHERE id = ?",
+                LocalDateTime.now().minusHours(2), old.getId());
+
+        taskPurger.purgeDeletedTasks();
+
+        assertEquals(1, rowCount(live.getId()));
+        assertEquals(1, rowCount(recent.getId()));
+        assertEquals(0, rowCount(old.getId()));
+        assertThrows(RuntimeException.class, () -> taskService.restoreTask("deleteuser", old.getId()));
+    }
+
+    private int rowCount(Long taskId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tasks WHERE id = ?", Integer.class, taskId);
+    }
+}
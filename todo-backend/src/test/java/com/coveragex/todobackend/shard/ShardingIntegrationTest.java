@@ -0,0 +1,202 @@
+package com.coveragex.todobackend.shard;
+
+import com.coveragex.todobackend.dto.RegisterRequest;
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.service.AuthService;
+import com.coveragex.todobackend.service.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for sharding over three in-memory H2 databases
+ * (the test primary plus two extra shards)
+ */
+@SpringBootTest(properties = {
+        "sharding.enabled=true",
+        "sharding.shards[0].url=jdbc:h2:mem:shard1;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "sharding.shards[0].username=sa",
+        "sharding.shards[1].url=jdbc:h2:mem:shard2;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "sharding.shards[1].username=sa",
+        "sharding.drain-ms=0",
+        "sharding.rebalance-batch-size=2"
+})
+@ActiveProfiles("test")
+class ShardingIntegrationTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ShardRegistry registry;
+
+    @Autowired
+    private ShardRouter router;
+
+    @Autowired
+    private ShardRebalancer rebalancer;
+
+    private final List<String> usernames = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (int shard : registry.shardIds()) {
+            for (String username : usernames) {
+                registry.jdbc(shard).update(
+                        "DELETE FROM tasks WHERE user_id IN (SELECT id FROM users WHERE username = ?)", username);
+                registry.jdbc(shard).update("DELETE FROM users WHERE username = ?", username);
+            }
+        }
+    }
+
+    @Test
+    void registeredUsersAreSpreadAcrossShardsWithTheirTasks() {
+        Set<Integer> usedShards = new HashSet<>();
+        Set<Long> taskIds = new HashSet<>();
+
+        for (int i = 0; i < 12; i++) {
+            String username = register("sharduser" + i);
+            long userId = router.userIdFor(username);
+            int shard = router.shardFor(userId);
+            usedShards.add(shard);
+
+            TaskResponse task = taskService.createTask(username, new TaskRequest("Task " + i, null));
+            assertTrue(taskIds.add(task.getId()), "Task ids must be unique across shards");
+
+            for (int other : registry.shardIds()) {
+                assertEquals(other == shard ? 1 : 0, taskRows(other, userId), "tasks of user " + i + " on shard " + other);
+            }
+            assertEquals(1, taskService.getTaskStats(username).total);
+        }
+
+        assertTrue(usedShards.size() > 1, "New users should be spread over several shards: " + usedShards);
+    }
+
+    @Test
+    void moveUser_KeepsTaskIdsAndServesFromTheTarget() throws InterruptedException {
+        String username = register("movinguser");
+        long userId = router.userIdFor(username);
+        int source = router.shardFor(userId);
+        int target = (source + 1) % registry.shardIds().size();
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(taskService.createTask(username, new TaskRequest("Task " + i, null)).getId());
+        }
+        taskService.markTaskAsCompleted(username, ids.get(0));
+        taskService.deleteTask(username, ids.get(1));
+
+        ShardRebalancer.MoveResult result = rebalancer.moveUser(userId, target);
+
+        assertEquals(source, result.fromShard());
+        assertEquals(5, result.tasks());
+        assertEquals(target, router.shardFor(userId));
+        assertEquals(0, taskRows(source, userId));
+        assertEquals(5, taskRows(target, userId));
+
+        Set<Long> served = taskService.getAllTasks(username, 0, 10).getContent().stream()
+                .map(TaskResponse::getId)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of(ids.get(0), ids.get(2), ids.get(3), ids.get(4)), served);
+        assertEquals("Task 1", taskService.restoreTask(username, ids.get(1)).getTitle());
+        assertTrue(taskService.getTaskById(username, ids.get(0)).getCompleted());
+
+        TaskResponse created = taskService.createTask(username, new TaskRequest("After move", null));
+        assertFalse(ids.contains(created.getId()));
+        assertEquals(6, taskRows(target, userId));
+    }
+
+    @Test
+    void writesAreRefusedWhileUserIsMoving() {
+        String username = register("frozenuser");
+        long userId = router.userIdFor(username);
+        int shard = router.shardFor(userId);
+        taskService.createTask(username, new TaskRequest("Before move", null));
+
+        router.beginMove(userId, shard);
+        try {
+            assertThrows(ShardMigrationInProgressException.class,
+                    () -> taskService.createTask(username, new TaskRequest("During move", null)));
+            assertEquals(1, taskService.getAllTasks(username, 0, 10).getTotalElements());
+        } finally {
+            router.abortMove(userId, shard);
+        }
+
+        taskService.createTask(username, new TaskRequest("After move", null));
+        assertEquals(2, taskRows(shard, userId));
+    }
+
+    @Test
+    void moveWaitsForAWriteInFlightOnTheSource() throws Exception {
+        String username = register("inflightuser");
+        long userId = router.userIdFor(username);
+        int source = router.shardFor(userId);
+        int target = (source + 1) % registry.shardIds().size();
+        long taskId = taskService.createTask(username, new TaskRequest("Before move", null)).getId();
+
+        // A write that routed to the source and holds the user's row lock, as TaskService writes do
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread writer = new Thread(() -> registry.transactionTemplate(source).executeWithoutResult(status -> {
+            registry.jdbc(source).queryForObject(
+                    "SELECT tasks_frozen FROM users WHERE id = ? FOR UPDATE", Boolean.class, userId);
+            locked.countDown();
+            sleep(300);
+            registry.jdbc(source).update("UPDATE tasks SET title = 'In flight' WHERE id = ?", taskId);
+        }));
+        writer.start();
+        locked.await();
+
+        rebalancer.moveUser(userId, target);
+        writer.join();
+
+        assertEquals("In flight", taskService.getTaskById(username, taskId).getTitle());
+    }
+
+    @Test
+    void writesReachingAFrozenShardAreRefused() {
+        String username = register("staleuser");
+        long userId = router.userIdFor(username);
+        int shard = router.shardFor(userId);
+        long taskId = taskService.createTask(username, new TaskRequest("Before move", null)).getId();
+
+        // As left on the source by a move, for writes routed by a stale directory entry
+        registry.jdbc(shard).update("UPDATE users SET tasks_frozen = TRUE WHERE id = ?", userId);
+
+        assertThrows(ShardMigrationInProgressException.class,
+                () -> taskService.updateTask(username, taskId, new TaskRequest("Stale", null)));
+        assertEquals("Before move", taskService.getTaskById(username, taskId).getTitle());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String register(String username) {
+        usernames.add(username);
+        authService.register(new RegisterRequest(username, username + "@example.com", "password123"));
+        return username;
+    }
+
+    private int taskRows(int shard, long userId) {
+        return registry.jdbc(shard).queryForObject("SELECT COUNT(*) FROM tasks WHERE user_id = ?", Integer.class, userId);
+    }
+}
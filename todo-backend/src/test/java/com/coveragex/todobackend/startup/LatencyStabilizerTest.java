@@ -0,0 +1,50 @@
+package com.coveragex.todobackend.startup;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the warm-up stability rule
+ */
+class LatencyStabilizerTest {
+
+    @Test
+    void record_StableOnlyOnceConsecutiveWindowMediansAgree() {
+        LatencyStabilizer stabilizer = new LatencyStabilizer(3, 0.1);
+
+        // Improving: each window is twice as fast as the one before
+        assertFalse(recordWindow(stabilizer, 800, 900, 850));
+        assertEquals(850, stabilizer.lastMedianNanos());
+        assertFalse(recordWindow(stabilizer, 400, 450, 420));
+        assertFalse(recordWindow(stabilizer, 200, 210, 205));
+
+        // Within 10% of the previous median, despite an outlier
+        assertTrue(recordWindow(stabilizer, 195, 5000, 200));
+    }
+
+    @Test
+    void record_OnlyDecidesAtWindowBoundaries() {
+        LatencyStabilizer stabilizer = new LatencyStabilizer(2, 0.5);
+
+        assertFalse(stabilizer.record(100));
+        assertEquals(-1, stabilizer.lastMedianNanos());
+        assertFalse(stabilizer.record(100));
+        assertFalse(stabilizer.record(100));
+        assertTrue(stabilizer.record(100));
+    }
+
+    @Test
+    void median_OfPartiallyFilledSamples() {
+        assertEquals(0, LatencyStabilizer.median(new long[4], 0));
+        assertEquals(3, LatencyStabilizer.median(new long[]{5, 1, 3, 99}, 3));
+    }
+
+    private static boolean recordWindow(LatencyStabilizer stabilizer, long... nanos) {
+        boolean stable = false;
+        for (long value : nanos) {
+            stable = stabilizer.record(value);
+        }
+        return stable;
+    }
+}
@@ -0,0 +1,104 @@
+package com.coveragex.todobackend.startup;
+
+import com.coveragex.todobackend.controller.TaskController;
+import com.coveragex.todobackend.dto.RegisterRequest;
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.security.JwtUtil;
+import com.coveragex.todobackend.service.AuthService;
+import com.coveragex.todobackend.service.TaskService;
+import com.coveragex.todobackend.shard.ShardRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Integration test for the warm-up that runs before the instance reports ready
+ */
+@SpringBootTest(properties = {
+        "warmup.enabled=true",
+        "warmup.username=warmuptest",
+        "warmup.seed-tasks=5",
+        "warmup.window-rounds=5",
+        "warmup.max-duration-ms=5000"
+})
+@ActiveProfiles("test")
+class WarmUpRunnerTest {
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByUsername("warmuptest").ifPresent(user -> {
+            jdbcTemplate.update("DELETE FROM task_changes WHERE user_id = ?", user.getId());
+            jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+            userRepository.deleteById(user.getId());
+        });
+    }
+
+    @Test
+    void warmUp_RunsHotPathsBeforeReadinessAndReportsLatency() {
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+
+        Long userId = userRepository.findByUsername("warmuptest").orElseThrow().getId();
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tasks WHERE user_id = ?", Integer.class, userId));
+
+        TimeGauge duration = meterRegistry.get("warmup.duration").timeGauge();
+        assertTrue(duration.value(TimeUnit.MILLISECONDS) > 0);
+        assertTrue(duration.value(TimeUnit.MILLISECONDS) < 10_000);
+
+        Set<String> operations = meterRegistry.get("warmup.latency").timeGauges().stream()
+                .map(gauge -> gauge.getId().getTag("operation"))
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("jwt", "user", "list", "recent", "search", "stats"), operations);
+        meterRegistry.get("warmup.latency").timeGauges()
+                .forEach(gauge -> assertTrue(gauge.value(TimeUnit.NANOSECONDS) > 0, gauge.getId().toString()));
+    }
+
+    @Test
+    void ensureSyntheticUser_LeavesSeedingToTheInstanceThatRegisteredIt() {
+        UserRepository users = mock(UserRepository.class);
+        AuthService authService = mock(AuthService.class);
+        TaskService taskService = mock(TaskService.class);
+        WarmUpRunner runner = new WarmUpRunner(mock(JwtUtil.class), mock(UserDetailsService.class), users,
+                authService, taskService, mock(TaskController.class), new ObjectMapper(), mock(ShardRegistry.class),
+                meterRegistry, "racinguser", 5, 1000, 5, 0.1);
+        // Another instance registers the user between the existence check and the insert
+        when(users.existsByUsername("racinguser")).thenReturn(false);
+        when(authService.register(any(RegisterRequest.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'racinguser'"));
+
+        runner.ensureSyntheticUser();
+
+        verify(taskService, never()).createTask(anyString(), any(TaskRequest.class));
+    }
+}
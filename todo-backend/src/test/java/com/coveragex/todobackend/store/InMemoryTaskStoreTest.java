@@ -0,0 +1,18 @@
+package com.coveragex.todobackend.store;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TaskStore contract against the in-memory store
+ */
+@ActiveProfiles({"test", "in-memory"})
+class InMemoryTaskStoreTest extends TaskStoreContractTest {
+
+    @Test
+    void usesTheInMemoryStore() {
+        assertInstanceOf(InMemoryTaskStore.class, taskStore);
+    }
+}
@@ -0,0 +1,188 @@
+package com.coveragex.todobackend.store;
+
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.transaction.support.TransactionSynchronization.STATUS_ROLLED_BACK;
+
+/**
+ * Crash recovery of JournalTaskStore
+ *
+ * A crash is an instance that is simply abandoned: no shutdown snapshot, journal left open.
+ * Recovery by a new instance on the same directory must give back every acknowledged write.
+ */
+class JournalRecoveryTest {
+
+    @TempDir
+    Path dir;
+
+    private final User user = user(1L);
+
+    @Test
+    void replaysTheJournalAfterACrash() throws IOException {
+        JournalTaskStore crashed = open();
+        Task kept = crashed.save(task("Kept"));
+        Task done = crashed.save(task("Done"));
+        Task deleted = crashed.save(task("Deleted"));
+        done.setCompleted(true);
+        crashed.save(done);
+        crashed.softDelete(deleted.getId(), user, LocalDateTime.now());
+        crashed.updateRankKey(kept.getId(), user, "z");
+
+        JournalTaskStore recovered = open();
+
+        assertEquals(List.of("Done", "Kept"), titles(recovered));
+        assertEquals(1, recovered.countIncomplete(user));
+        assertEquals("z", recovered.findById(kept.getId()).orElseThrow().getRankKey());
+        assertEquals(kept.getCreatedAt(), recovered.findById(kept.getId()).orElseThrow().getCreatedAt());
+        assertEquals(1, recovered.restore(deleted.getId(), user.getId(), LocalDateTime.now()));
+        // Ids continue after the recovered ones
+        assertTrue(recovered.save(task("New")).getId() > deleted.getId());
+    }
+
+    @Test
+    void rolledBackWritesStayUndoneAfterACrash() throws IOException {
+        JournalTaskStore crashed = open();
+        Task kept = crashed.save(task("Kept"));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            crashed.save(task("Rolled back"));
+            kept.setTitle("Renamed");
+            crashed.save(kept);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of("Kept"), titles(crashed));
+
+        JournalTaskStore recovered = open();
+
+        assertEquals(List.of("Kept"), titles(recovered));
+        assertEquals(1, recovered.countByUser(user));
+    }
+
+    @Test
+    void loadsTheSnapshotAndThenTheJournalTail() throws IOException {
+        JournalTaskStore crashed = open();
+        crashed.save(task("Before snapshot"));
+        crashed.snapshot();
+        Task after = crashed.save(task("After snapshot"));
+        after.setTitle("Edited after snapshot");
+        crashed.save(after);
+
+        assertEquals(1, files("snapshot-").size());
+        assertEquals(List.of("journal-1.log"), files("journal-"));
+
+        JournalTaskStore recovered = open();
+        assertEquals(List.of("Edited after snapshot", "Before snapshot"), titles(recovered));
+    }
+
+    @Test
+    void dropsATornRecordAtTheEndOfTheJournal() throws IOException {
+        JournalTaskStore crashed = open();
+        crashed.save(task("Whole"));
+        Path segment = dir.resolve("journal-0.log");
+        long whole = Files.size(segment);
+        crashed.save(task("Torn"));
+        // Cut the last record short, as a crash in the middle of its write would
+        try (var channel = Files.newByteChannel(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(segment) - 5);
+        }
+
+        JournalTaskStore recovered = open();
+        assertEquals(List.of("Whole"), titles(recovered));
+        assertEquals(whole, Files.size(segment));
+
+        // Appends after the truncated tail are read back
+        recovered.save(task("Later"));
+        assertEquals(List.of("Later", "Whole"), titles(open()));
+    }
+
+    @Test
+    void ignoresASnapshotCutShortByACrash() throws IOException {
+        JournalTaskStore crashed = open();
+        crashed.save(task("Journaled"));
+        Files.write(dir.resolve("snapshot-1.tmp"), new byte[]{1, 2, 3});
+
+        JournalTaskStore recovered = open();
+        assertEquals(List.of("Journaled"), titles(recovered));
+
+        recovered.close();
+        assertEquals(List.of("Journaled"), titles(open()));
+        assertTrue(files("snapshot-").stream().noneMatch(name -> name.endsWith(".tmp")));
+    }
+
+    @Test
+    void concurrentWritersAreAllDurable() throws Exception {
+        JournalTaskStore crashed = open();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Task>> saves = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                User owner = user(1L + i % 4);
+                Task task = new Task("Task " + i, null, owner);
+                saves.add(executor.submit(() -> crashed.save(task)));
+            }
+            for (Future<Task> save : saves) {
+                save.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        JournalTaskStore recovered = open();
+        for (long id = 1; id <= 4; id++) {
+            assertEquals(100, recovered.countByUser(user(id)));
+        }
+    }
+
+    private JournalTaskStore open() throws IOException {
+        return new JournalTaskStore(new SimpleMeterRegistry(), dir.toString(), true, 0);
+    }
+
+    private Task task(String title) {
+        Task task = new Task(title, null, user);
+        task.setRankKey("m");
+        return task;
+    }
+
+    private List<String> titles(JournalTaskStore store) {
+        return store.findNewestFirst(user, PageRequest.of(0, 10)).getContent().stream()
+                .map(Task::getTitle)
+                .toList();
+    }
+
+    private List<String> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
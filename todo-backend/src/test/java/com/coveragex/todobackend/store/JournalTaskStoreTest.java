@@ -0,0 +1,31 @@
+package com.coveragex.todobackend.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TaskStore contract against the journal store
+ */
+@ActiveProfiles({"test", "journal"})
+class JournalTaskStoreTest extends TaskStoreContractTest {
+
+    @TempDir
+    static Path journalDir;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("journal.dir", journalDir::toString);
+    }
+
+    @Test
+    void usesTheJournalStore() {
+        assertInstanceOf(JournalTaskStore.class, taskStore);
+    }
+}
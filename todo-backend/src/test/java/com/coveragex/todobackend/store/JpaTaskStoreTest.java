@@ -0,0 +1,18 @@
+package com.coveragex.todobackend.store;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TaskStore contract against the tasks table
+ */
+@ActiveProfiles("test")
+class JpaTaskStoreTest extends TaskStoreContractTest {
+
+    @Test
+    void usesTheTasksTable() {
+        assertInstanceOf(JpaTaskStore.class, taskStore);
+    }
+}
@@ -0,0 +1,56 @@
+package com.coveragex.todobackend.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LongMap
+ */
+class LongMapTest {
+
+    @Test
+    void randomOperations_MatchAHashMap() {
+        LongMap<String> map = new LongMap<>(4);
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            // Small key range so puts, replacements and removals collide in long probe runs
+            long key = random.nextInt(2000) - 1000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (long key = -1000; key < 1000; key++) {
+            assertEquals(expected.get(key), map.get(key), "Key " + key);
+        }
+
+        List<String> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertEquals(expected.values().stream().sorted().toList(), values.stream().sorted().toList());
+    }
+
+    @Test
+    void handlesExtremeKeys() {
+        LongMap<String> map = new LongMap<>();
+        map.put(0, "zero");
+        map.put(Long.MIN_VALUE, "min");
+        map.put(Long.MAX_VALUE, "max");
+
+        assertEquals("zero", map.get(0));
+        assertEquals("min", map.remove(Long.MIN_VALUE));
+        assertNull(map.get(Long.MIN_VALUE));
+        assertEquals("max", map.get(Long.MAX_VALUE));
+        assertEquals(2, map.size());
+    }
+}
@@ -0,0 +1,270 @@
+package com.coveragex.todobackend.store;
+
+import com.coveragex.todobackend.dto.TaskChangesResponse;
+import com.coveragex.todobackend.dto.TaskPage;
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.exception.NotFoundException;
+import com.coveragex.todobackend.ranking.TaskRankRebalancer;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.service.TaskService;
+import com.coveragex.todobackend.service.TaskService.TaskStatsResponse;
+import com.coveragex.todobackend.tagging.TagIndex;
+import com.coveragex.todobackend.tagging.TagMatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TaskService behaviour every TaskStore must give, run against each implementation
+ * (JpaTaskStoreTest, InMemoryTaskStoreTest)
+ */
+@SpringBootTest(properties = {
+        "ranking.max-key-length=4",
+        "sync.settle-delay-ms=0"
+})
+abstract class TaskStoreContractTest {
+
+    @Autowired
+    protected TaskStore taskStore;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRankRebalancer rankRebalancer;
+
+    @Autowired
+    private TagIndex tagIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private User otherUser;
+
+    @BeforeEach
+    void setUp() {
+        user = saveUser("storeuser");
+        otherUser = saveUser("storeother");
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (User owner : List.of(user, otherUser)) {
+            jdbcTemplate.update("DELETE FROM task_changes WHERE user_id = ?", owner.getId());
+            jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", owner.getId());
+            userRepository.deleteById(owner.getId());
+            tagIndex.invalidate(owner.getId());
+        }
+    }
+
+    @Test
+    void listsNewestFirstWithAnIncompleteViewAndCounts() {
+        TaskResponse first = create("First");
+        TaskResponse second = create("Second");
+        TaskResponse third = create("Third");
+        taskService.markTaskAsCompleted("storeuser", second.getId());
+        create("Foreign", "storeother");
+
+        TaskPage all = taskService.getAllTasks("storeuser", 0, 2);
+        assertEquals(List.of(third.getId(), second.getId()), ids(all.getContent()));
+        assertEquals(3, all.getTotalElements());
+        assertEquals(List.of(first.getId()), ids(taskService.getAllTasks("storeuser", 1, 2).getContent()));
+        assertEquals(List.of(third.getId(), first.getId()), ids(taskService.getRecentTasks("storeuser")));
+
+        taskService.markTaskAsPending("storeuser", second.getId());
+        assertEquals(List.of(third.getId(), second.getId(), first.getId()), ids(taskService.getRecentTasks("storeuser")));
+        taskService.markTaskAsCompleted("storeuser", first.getId());
+
+        TaskStatsResponse stats = taskService.getTaskStats("storeuser");
+        assertEquals(3, stats.total);
+        assertEquals(1, stats.completed);
+        assertEquals(2, stats.incomplete);
+    }
+
+    @Test
+    void updatesKeepTheCreationTimeAndOwnership() {
+        TaskResponse task = create("Draft");
+        TaskRequest edit = new TaskRequest("Final", "Done editing");
+        edit.setTags(List.of("work"));
+
+        TaskResponse updated = taskService.updateTask("storeuser", task.getId(), edit);
+
+        assertEquals("Final", updated.getTitle());
+        assertEquals(List.of("work"), updated.getTags());
+        // The tasks table keeps microseconds
+        assertEquals(task.getCreatedAt().truncatedTo(ChronoUnit.MILLIS), updated.getCreatedAt().truncatedTo(ChronoUnit.MILLIS));
+        assertEquals("Done editing", taskService.getTaskById("storeuser", task.getId()).getDescription());
+        assertThrows(NotFoundException.class, () -> taskService.getTaskById("storeother", task.getId()));
+        assertThrows(NotFoundException.class, () -> taskService.updateTask("storeother", task.getId(), edit));
+        assertThrows(NotFoundException.class, () -> taskService.deleteTask("storeother", task.getId()));
+    }
+
+    @Test
+    void deletedTasksAreHiddenUntilRestored() {
+        TaskResponse kept = create("Kept");
+        TaskResponse deleted = create("Deleted");
+        String cursor = taskService.getChangesSince("storeuser", null, 100).getCursor();
+
+        taskService.deleteTask("storeuser", deleted.getId());
+
+        assertEquals(List.of(kept.getId()), ids(taskService.getAllTasks("storeuser", 0, 10).getContent()));
+        assertEquals(List.of(kept.getId()), ids(taskService.getRecentTasks("storeuser")));
+        assertEquals(List.of(kept.getId()),
+                ids(taskService.getAllTasksInManualOrder("storeuser", 0, 10).getContent()));
+        assertEquals(1, taskService.getTaskStats("storeuser").total);
+        assertTrue(taskService.searchTasks("storeuser", "deleted", 0, 10).isEmpty());
+        assertThrows(NotFoundException.class, () -> taskService.getTaskById("storeuser", deleted.getId()));
+        assertThrows(NotFoundException.class, () -> taskService.deleteTask("storeuser", deleted.getId()));
+        assertThrows(NotFoundException.class, () -> taskService.restoreTask("storeother", deleted.getId()));
+
+        TaskChangesResponse changes = taskService.getChangesSince("storeuser", cursor, 100);
+        assertEquals(1, changes.getChanges().size());
+        assertEquals(deleted.getId(), changes.getChanges().get(0).getTaskId());
+        assertTrue(changes.getChanges().get(0).isDeleted());
+
+        assertEquals("Deleted", taskService.restoreTask("storeuser", deleted.getId()).getTitle());
+        assertEquals(List.of(deleted.getId(), kept.getId()),
+                ids(taskService.getAllTasks("storeuser", 0, 10).getContent()));
+        assertThrows(NotFoundException.class, () -> taskService.restoreTask("storeuser", deleted.getId()));
+    }
+
+    @Test
+    void movesAndRebalancesTheManualOrder() {
+        TaskResponse a = create("A");
+        TaskResponse b = create("B");
+        TaskResponse c = create("C");
+        assertEquals(List.of("C", "B", "A"), manualOrder());
+
+        taskService.moveTask("storeuser", a.getId(), null);
+        assertEquals(List.of("A", "C", "B"), manualOrder());
+        taskService.moveTask("storeuser", c.getId(), b.getId());
+        assertEquals(List.of("A", "B", "C"), manualOrder());
+
+        // Keep moving into the same gap until a key passes the limit, then rebalance
+        for (int i = 0; i < 20; i++) {
+            taskService.moveTask("storeuser", i % 2 == 0 ? b.getId() : c.getId(), a.getId());
+        }
+        List<String> order = manualOrder();
+        taskService.deleteTask("storeuser", a.getId());
+        rankRebalancer.rebalancePending();
+        taskService.restoreTask("storeuser", a.getId());
+
+        assertEquals(order, manualOrder());
+        assertEquals(3, taskStore.findIdsInRankOrder(user.getId()).size());
+        assertTrue(taskService.getAllTasksInManualOrder("storeuser", 0, 10).getContent().stream()
+                .allMatch(task -> taskStore.findById(task.getId()).orElseThrow().getRankKey().length() <= 2));
+    }
+
+    @Test
+    void searchesDueDatesAndTags() {
+        LocalDateTime now = LocalDateTime.now();
+        TaskResponse report = create("Quarterly REPORT", null, now.plusHours(5), "work");
+        TaskResponse review = create("Review", "the report draft", now.plusHours(1), "work", "urgent");
+        TaskResponse later = create("Later", null, now.plusDays(3), "home");
+        TaskResponse done = create("Done report", null, now.plusHours(2));
+        taskService.markTaskAsCompleted("storeuser", done.getId());
+
+        TaskPage found = taskService.searchTasks("storeuser", "report", 0, 10);
+        assertEquals(3, found.getTotalElements());
+        assertEquals(List.of(done.getId(), review.getId(), report.getId()),
+                ids(found.getContent()).stream().sorted((x, y) -> Long.compare(y, x)).toList());
+
+        assertEquals(List.of(review.getId(), report.getId()),
+                ids(taskService.getDueSoonTasks("storeuser", 24, 10)));
+        assertEquals(List.of(review.getId()), ids(taskService.getDueSoonTasks("storeuser", 24, 1)));
+
+        assertEquals(List.of(review.getId(), report.getId()),
+                ids(taskService.getTasksByTags("storeuser", List.of("work"), TagMatch.ANY, null, 0, 10).getContent()));
+        assertEquals(List.of(later.getId()),
+                ids(taskService.getTasksByTags("storeuser", List.of("home"), TagMatch.ANY, false, 0, 10).getContent()));
+    }
+
+    @Test
+    void createsTasksOfSeveralUsersInOneBatch() {
+        TaskResponse existing = create("Existing");
+
+        List<TaskResponse> created = taskService.createTasks(List.of(
+                new TaskService.NewTask("storeuser", new TaskRequest("One", null)),
+                new TaskService.NewTask("storeother", new TaskRequest("Other", null)),
+                new TaskService.NewTask("storeuser", new TaskRequest("Two", null))));
+
+        assertTrue(created.stream().allMatch(task -> task.getId() != null && task.getCreatedAt() != null));
+        assertEquals(List.of("Two", "One", "Existing"), manualOrder());
+        assertEquals(3, taskService.getTaskStats("storeuser").total);
+        assertEquals(List.of(created.get(1).getId()), ids(taskService.getRecentTasks("storeother")));
+        assertNotNull(existing.getId());
+    }
+
+    @Test
+    void writesOfARolledBackTransactionAreUndone() {
+        TaskResponse kept = create("Kept");
+        TaskResponse deleted = create("Deleted");
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            create("Created");
+            taskService.createTasks(List.of(new TaskService.NewTask("storeuser", new TaskRequest("Batched", null))));
+            taskService.updateTask("storeuser", kept.getId(), new TaskRequest("Renamed", null));
+            taskService.markTaskAsCompleted("storeuser", kept.getId());
+            taskService.deleteTask("storeuser", deleted.getId());
+            throw new IllegalStateException("Failed after the writes");
+        }));
+
+        assertEquals(List.of(deleted.getId(), kept.getId()),
+                ids(taskService.getAllTasks("storeuser", 0, 10).getContent()));
+        assertEquals(List.of("Deleted", "Kept"), manualOrder());
+        TaskResponse unchanged = taskService.getTaskById("storeuser", kept.getId());
+        assertEquals("Kept", unchanged.getTitle());
+        assertFalse(unchanged.getCompleted());
+        assertEquals(2, taskService.getTaskStats("storeuser").incomplete);
+    }
+
+    private User saveUser(String username) {
+        User saved = new User(username, username + "@example.com");
+        saved.setPasswordHash("hash");
+        return userRepository.save(saved);
+    }
+
+    private TaskResponse create(String title) {
+        return create(title, "storeuser");
+    }
+
+    private TaskResponse create(String title, String username) {
+        return taskService.createTask(username, new TaskRequest(title, null));
+    }
+
+    private TaskResponse create(String title, String description, LocalDateTime dueAt, String... tags) {
+        TaskRequest request = new TaskRequest(title, description);
+        request.setDueAt(dueAt);
+        request.setTags(List.of(tags));
+        return taskService.createTask("storeuser", request);
+    }
+
+    private List<String> manualOrder() {
+        return taskService.getAllTasksInManualOrder("storeuser", 0, 10).getContent().stream()
+                .map(TaskResponse::getTitle)
+                .toList();
+    }
+
+    private static List<Long> ids(List<TaskResponse> tasks) {
+        return tasks.stream().map(TaskResponse::getId).toList();
+    }
+}
@@ -0,0 +1,173 @@
+package com.coveragex.todobackend.sync;
+
+import com.coveragex.todobackend.dto.TaskChangeResponse;
+import com.coveragex.todobackend.dto.TaskChangesResponse;
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.exception.BadRequestException;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.service.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for incremental sync from the task change log and its compaction
+ */
+@SpringBootTest(properties = {
+        "sync.settle-delay-ms=0",
+        "sync.compaction.enabled=true",
+        "sync.compaction.initial-delay-ms=3600000",
+        "sync.compaction.compact-after-minutes=60"
+})
+@ActiveProfiles("test")
+class TaskChangeSyncTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskChangeCompactor compactor;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("syncuser", "sync@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM task_changes WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void getChangesSince_ReturnsEachChangedTaskOnceWithTombstones() {
+        TaskResponse before = taskService.createTask("syncuser", new TaskRequest("Before first sync", null));
+        TaskChangesResponse first = changes(null, 100);
+        assertTrue(first.isReset());
+        assertTrue(first.getChanges().isEmpty());
+
+        TaskResponse a = taskService.createTask("syncuser", new TaskRequest("A", null));
+        TaskResponse b = taskService.createTask("syncuser", new TaskRequest("B", null));
+        taskService.updateTask("syncuser", a.getId(), new TaskRequest("A edited", null));
+        taskService.markTaskAsCompleted("syncuser", b.getId());
+        taskService.deleteTask("syncuser", a.getId());
+
+        TaskChangesResponse next = changes(first.getCursor(), 100);
+
+        assertFalse(next.isReset());
+        assertFalse(next.isHasMore());
+        assertEquals(List.of(b.getId(), a.getId()), taskIds(next));
+        TaskChangeResponse completed = next.getChanges().get(0);
+        assertEquals("COMPLETED", completed.getType());
+        assertFalse(completed.isDeleted());
+        assertTrue(completed.getTask().getCompleted());
+        TaskChangeResponse deleted = next.getChanges().get(1);
+        assertEquals("DELETED", deleted.getType());
+        assertTrue(deleted.isDeleted());
+        assertNull(deleted.getTask());
+        assertFalse(taskIds(next).contains(before.getId()));
+
+        TaskChangesResponse idle = changes(next.getCursor(), 100);
+        assertFalse(idle.isReset());
+        assertTrue(idle.getChanges().isEmpty());
+
+        taskService.restoreTask("syncuser", a.getId());
+        TaskChangesResponse restored = changes(idle.getCursor(), 100);
+        assertEquals(List.of(a.getId()), taskIds(restored));
+        assertEquals("A edited", restored.getChanges().get(0).getTask().getTitle());
+    }
+
+    @Test
+    void getChangesSince_PagesThroughTheLog() {
+        String cursor = changes(null, 100).getCursor();
+        for (int i = 0; i < 5; i++) {
+            taskService.createTask("syncuser", new TaskRequest("Task " + i, null));
+        }
+
+        TaskChangesResponse page1 = changes(cursor, 3);
+        TaskChangesResponse page2 = changes(page1.getCursor(), 3);
+
+        assertTrue(page1.isHasMore());
+        assertEquals(3, page1.getChanges().size());
+        assertFalse(page2.isHasMore());
+        assertEquals(2, page2.getChanges().size());
+    }
+
+    @Test
+    void getChangesSince_ResetsCursorsItCannotResume() {
+        String stale = new SyncCursor(0, 0, LocalDateTime.now().minusDays(31)).toString();
+        String otherShard = new SyncCursor(7, 0, LocalDateTime.now()).toString();
+
+        assertTrue(changes(stale, 100).isReset());
+        assertTrue(changes(otherShard, 100).isReset());
+        assertThrows(BadRequestException.class, () -> taskService.getChangesSince("syncuser", "garbage", 100));
+    }
+
+    @Test
+    void compact_DropsSupersededAndExpiredEntriesOnly() {
+        String cursor = changes(null, 100).getCursor();
+        TaskResponse edited = taskService.createTask("syncuser", new TaskRequest("Edited", null));
+        taskService.updateTask("syncuser", edited.getId(), new TaskRequest("Edited twice", null));
+        TaskResponse untouched = taskService.createTask("syncuser", new TaskRequest("Untouched", null));
+        TaskResponse recent = taskService.createTask("syncuser", new TaskRequest("Recent", null));
+        taskService.updateTask("syncuser", recent.getId(), new TaskRequest("Recent edit", null));
+        jdbcTemplate.update("UPDATE task_changes SET changed_at = ? WHERE task_id IN (?, ?)",
+                LocalDateTime.now().minusHours(2), edited.getId(), untouched.getId());
+
+        compactor.compact();
+
+        assertEquals(1, entryCount(edited.getId()));
+        assertEquals(1, entryCount(untouched.getId()));
+        assertEquals(2, entryCount(recent.getId()));
+        assertEquals(List.of(edited.getId(), untouched.getId(), recent.getId()), taskIds(changes(cursor, 100)));
+
+        jdbcTemplate.update("UPDATE task_changes SET changed_at = ? WHERE task_id = ?",
+                LocalDateTime.now().minusDays(31), untouched.getId());
+
+        compactor.compact();
+
+        assertEquals(0, entryCount(untouched.getId()));
+        assertEquals(1, entryCount(edited.getId()));
+    }
+
+    private TaskChangesResponse changes(String since, int limit) {
+        try {
+            // Entries are only read once they are older than the (here zero) settle delay
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return taskService.getChangesSince("syncuser", since, limit);
+    }
+
+    private int entryCount(Long taskId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task_changes WHERE task_id = ?", Integer.class, taskId);
+    }
+
+    private static List<Long> taskIds(TaskChangesResponse response) {
+        return response.getChanges().stream().map(TaskChangeResponse::getTaskId).collect(Collectors.toList());
+    }
+}
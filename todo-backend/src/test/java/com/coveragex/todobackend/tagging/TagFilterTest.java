@@ -0,0 +1,112 @@
+package com.coveragex.todobackend.tagging;
+
+import com.coveragex.todobackend.dto.TaskRequest;
+import com.coveragex.todobackend.dto.TaskResponse;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.exception.BadRequestException;
+import com.coveragex.todobackend.repository.UserRepository;
+import com.coveragex.todobackend.service.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for tag filtering through TaskService and TagIndex
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TagFilterTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TagIndex tagIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("taguser", "tag@example.com");
+        user.setPasswordHash("hash");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", user.getId());
+        userRepository.deleteById(user.getId());
+        tagIndex.invalidate(user.getId());
+    }
+
+    @Test
+    void filtersByAnyOrAllTagsAndCompletedStatus() {
+        TaskResponse report = create("Report", "Work", " urgent ");
+        TaskResponse groceries = create("Groceries", "home");
+        TaskResponse deploy = create("Deploy", "work");
+        taskService.markTaskAsCompleted("taguser", deploy.getId());
+
+        assertEquals(List.of("work", "urgent"), report.getTags());
+        assertEquals(List.of(deploy.getId(), report.getId()), ids(List.of("work"), TagMatch.ANY, null));
+        assertEquals(List.of(report.getId()), ids(List.of("work", "urgent"), TagMatch.ALL, null));
+        assertEquals(List.of(groceries.getId(), report.getId()), ids(List.of("urgent", "home"), TagMatch.ANY, null));
+        assertEquals(List.of(report.getId()), ids(List.of("work"), TagMatch.ANY, false));
+        assertEquals(List.of(deploy.getId()), ids(List.of(), TagMatch.ANY, true));
+    }
+
+    @Test
+    void writesKeepTheBuiltBitmapsCurrent() {
+        TaskResponse first = create("First", "a");
+        assertEquals(List.of(first.getId()), ids(List.of("a"), TagMatch.ANY, null));
+
+        TaskResponse second = create("Second", "a", "b");
+        TaskRequest retag = new TaskRequest("First", null);
+        retag.setTags(List.of("b"));
+        taskService.updateTask("taguser", first.getId(), retag);
+
+        assertEquals(List.of(second.getId()), ids(List.of("a"), TagMatch.ANY, null));
+        assertEquals(List.of(second.getId(), first.getId()), ids(List.of("b"), TagMatch.ANY, null));
+
+        taskService.deleteTask("taguser", second.getId());
+        assertEquals(List.of(first.getId()), ids(List.of("b"), TagMatch.ANY, null));
+
+        taskService.restoreTask("taguser", second.getId());
+        assertEquals(List.of(second.getId(), first.getId()), ids(List.of("b"), TagMatch.ANY, null));
+
+        // A rebuild from the database gives the same answer
+        tagIndex.invalidate(user.getId());
+        assertEquals(List.of(second.getId(), first.getId()), ids(List.of("b"), TagMatch.ANY, null));
+    }
+
+    @Test
+    void rejectsMalformedTags() {
+        assertThrows(BadRequestException.class, () -> create("Bad", "no spaces"));
+        assertThrows(BadRequestException.class, () -> ids(List.of("a,b"), TagMatch.ANY, null));
+    }
+
+    private TaskResponse create(String title, String... tags) {
+        TaskRequest request = new TaskRequest(title, null);
+        request.setTags(List.of(tags));
+        return taskService.createTask("taguser", request);
+    }
+
+    private List<Long> ids(List<String> tags, TagMatch match, Boolean completed) {
+        return taskService.getTasksByTags("taguser", tags, match, completed, 0, 10).getContent().stream()
+                .map(TaskResponse::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,70 @@
+package com.coveragex.todobackend.tagging;
+
+import com.coveragex.todobackend.entity.Task;
+import com.coveragex.todobackend.entity.User;
+import com.coveragex.todobackend.store.TaskStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TagIndex builds racing with committed writes
+ */
+class TagIndexTest {
+
+    private TaskStore taskStore;
+    private TagIndex tagIndex;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        taskStore = mock(TaskStore.class);
+        tagIndex = new TagIndex(taskStore, new SimpleMeterRegistry(), 1000, 300);
+        user = new User("taguser", "tag@example.com");
+        user.setId(1L);
+    }
+
+    @Test
+    void writeCommittedDuringAColdBuildIsNotLost() {
+        // The reader's snapshot starts before the create commits, so its build misses the task
+        when(taskStore.findTaggedTasks(user)).thenReturn(
+                List.of(new TaggedTask(1L, false, List.of("work"))),
+                List.of(new TaggedTask(1L, false, List.of("work")), new TaggedTask(2L, false, List.of("work"))));
+        long generation = tagIndex.generation("taguser");
+
+        // The create commits while nothing is built yet, so there is nothing to update
+        tagIndex.taskWrittenAfterCommit(task(2L, "work"));
+
+        assertEquals(List.of(1L), ids(generation));
+        assertEquals(List.of(2L, 1L), ids(tagIndex.generation("taguser")));
+        verify(taskStore, times(2)).findTaggedTasks(user);
+    }
+
+    @Test
+    void buildIsKeptWhenNoWriteCommitted() {
+        when(taskStore.findTaggedTasks(user)).thenReturn(List.of(new TaggedTask(1L, false, List.of("work"))));
+
+        assertEquals(List.of(1L), ids(tagIndex.generation("taguser")));
+        tagIndex.taskWrittenAfterCommit(task(2L, "work"));
+
+        assertEquals(List.of(2L, 1L), ids(tagIndex.generation("taguser")));
+        verify(taskStore, times(1)).findTaggedTasks(user);
+    }
+
+    private List<Long> ids(long generation) {
+        return tagIndex.query(user, generation, List.of("work"), TagMatch.ANY, null, PageRequest.of(0, 10)).getContent();
+    }
+
+    private Task task(Long id, String... tags) {
+        Task task = new Task("Task " + id, null, user);
+        task.setId(id);
+        task.setTags(List.of(tags));
+        return task;
+    }
+}
@@ -0,0 +1,113 @@
+package com.coveragex.todobackend.tagging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UserTagBitmaps (and the OrdinalSet containers behind it)
+ */
+class UserTagBitmapsTest {
+
+    private static final List<String> TAGS = List.of("work", "home", "urgent", "rare", "errand");
+
+    @Test
+    void query_MatchesANaiveScanForEveryFilter() {
+        Random random = new Random(7);
+        UserTagBitmaps bitmaps = new UserTagBitmaps();
+        List<Long> tasks = new ArrayList<>();
+        List<Set<String>> taskTags = new ArrayList<>();
+        Set<Long> deleted = new HashSet<>();
+        Set<Long> completed = new HashSet<>();
+
+        for (long id = 1; id <= 3000; id++) {
+            Set<String> tags = randomTags(random);
+            boolean done = random.nextInt(3) == 0;
+            bitmaps.put(id, done, tags);
+            tasks.add(id);
+            taskTags.add(tags);
+            if (done) {
+                completed.add(id);
+            }
+        }
+        // Edit, complete and delete a share of the tasks
+        for (int i = 0; i < 600; i++) {
+            int index = random.nextInt(tasks.size());
+            long id = tasks.get(index);
+            if (deleted.contains(id)) {
+                continue;
+            }
+            switch (i % 3) {
+                case 0 -> {
+                    Set<String> tags = randomTags(random);
+                    taskTags.set(index, tags);
+                    bitmaps.put(id, completed.contains(id), tags);
+                }
+                case 1 -> {
+                    completed.add(id);
+                    bitmaps.put(id, true, taskTags.get(index));
+                }
+                default -> {
+                    deleted.add(id);
+                    bitmaps.remove(id);
+                }
+            }
+        }
+
+        for (TagMatch match : TagMatch.values()) {
+            for (List<String> filter : List.<List<String>>of(List.of("work"), List.of("rare"), List.of("work", "urgent"),
+                    List.of("rare", "errand", "home"), List.of("missing"), List.of())) {
+                for (Boolean done : new Boolean[]{null, true, false}) {
+                    List<Long> expected = new ArrayList<>();
+                    for (int i = tasks.size() - 1; i >= 0; i--) {
+                        long id = tasks.get(i);
+                        Set<String> tags = taskTags.get(i);
+                        boolean tagged = filter.isEmpty() || (match == TagMatch.ANY
+                                ? filter.stream().anyMatch(tags::contains)
+                                : tags.containsAll(filter));
+                        if (!deleted.contains(id) && tagged && (done == null || done == completed.contains(id))) {
+                            expected.add(id);
+                        }
+                    }
+
+                    UserTagBitmaps.Matches page = bitmaps.query(filter, match, done, 10, 25);
+                    String context = match + " " + filter + " completed=" + done;
+                    assertEquals(expected.size(), page.total(), context);
+                    assertEquals(expected.subList(Math.min(10, expected.size()), Math.min(35, expected.size())),
+                            page.taskIds(), context);
+                }
+            }
+        }
+    }
+
+    @Test
+    void restoreBringsADeletedTaskBackInPlace() {
+        UserTagBitmaps bitmaps = new UserTagBitmaps();
+        bitmaps.put(1, false, List.of("a"));
+        bitmaps.put(2, false, List.of("a"));
+        bitmaps.put(3, false, List.of("a"));
+
+        bitmaps.remove(2);
+        assertEquals(List.of(3L, 1L), bitmaps.query(List.of("a"), TagMatch.ANY, null, 0, 10).taskIds());
+
+        bitmaps.put(2, false, List.of("a"));
+        assertEquals(List.of(3L, 2L, 1L), bitmaps.query(List.of("a"), TagMatch.ANY, null, 0, 10).taskIds());
+    }
+
+    private static Set<String> randomTags(Random random) {
+        Set<String> tags = new HashSet<>();
+        for (String tag : TAGS) {
+            // "rare" stays sparse so its set remains an array container
+            if (random.nextInt(tag.equals("rare") ? 200 : 3) == 0) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+}
@@ -145,6 +145,46 @@ class TaskService {
     }
   }
 
+  /**
+   * Restore a deleted task (undo delete)
+   */
+  async restoreTask(id) {
+    try {
+      const response = await taskAPI.put(`/tasks/${id}/restore`);
+      return {
+        success: true,
+        data: response.data.data,
+        message: response.data.message
+      };
+    } catch (error) {
+      return {
+        success: false,
+        data: null,
+        message: error.response?.data?.message || 'Failed to restore task'
+      };
+    }
+  }
+
+  /**
+   * Move a task in the manual order, right after another task (null moves it to the top)
+   */
+  async moveTask(id, afterId = null) {
+    try {
+      const response = await taskAPI.put(`/tasks/${id}/move`, { afterId });
+      return {
+        success: true,
+        data: response.data.data,
+        message: response.data.message
+      };
+    } catch (error) {
+      return {
+        success: false,
+        data: null,
+        message: error.response?.data?.message || 'Failed to move task'
+      };
+    }
+  }
+
   /**
    * Get task by ID
    */
@@ -185,6 +225,95 @@ class TaskService {
     }
   }
 
+  /**
+   * Get tasks filtered by tags (mode 'any' or 'all') and optionally by completed status
+   */
+  async getTasksByTags(tags, mode = 'any', completed = null, page = 0, size = 10) {
+    try {
+      const params = new URLSearchParams({ tags: tags.join(','), mode, page, size });
+      if (completed !== null) {
+        params.append('completed', completed);
+      }
+      const response = await taskAPI.get(`/tasks?${params.toString()}`);
+      return {
+        success: true,
+        data: response.data.data,
+        message: response.data.message
+      };
+    } catch (error) {
+      return {
+        success: false,
+        data: { content: [], totalElements: 0, totalPages: 0 },
+        message: error.response?.data?.message || 'Failed to fetch tasks'
+      };
+    }
+  }
+
+  /**
+   * Get incomplete tasks due within the next hours, soonest first
+   */
+  async getDueSoonTasks(hours = 24) {
+    try {
+      const response = await taskAPI.get(`/tasks/due-soon?hours=${hours}`);
+      return {
+        success: true,
+        data: response.data.data,
+        message: response.data.message
+      };
+    } catch (error) {
+      return {
+        success: false,
+        data: [],
+        message: error.response?.data?.message || 'Failed to fetch tasks due soon'
+      };
+    }
+  }
+
+  /**
+   * Get tasks changed since a sync cursor (omit it for the first sync)
+   * When data.reset is true, reload all tasks and keep data.cursor for the next call
+   */
+  async getChanges(since = null, limit = 100) {
+    try {
+      const params = new URLSearchParams({ limit });
+      if (since) {
+        params.append('since', since);
+      }
+      const response = await taskAPI.get(`/tasks/changes?${params}`);
+      return {
+        success: true,
+        data: response.data.data,
+        message: response.data.message
+      };
+    } catch (error) {
+      return {
+        success: false,
+        data: null,
+        message: error.response?.data?.message || 'Failed to fetch task changes'
+      };
+    }
+  }
+
+  /**
+   * Get archived task history (old completed tasks)
+   */
+  async getTaskHistory(page = 0, size = 10) {
+    try {
+      const response = await taskAPI.get(`/tasks/history?page=${page}&size=${size}`);
+      return {
+        success: true,
+        data: response.data.data,
+        message: response.data.message
+      };
+    } catch (error) {
+      return {
+        success: false,
+        data: { content: [], totalElements: 0, totalPages: 0 },
+        message: error.response?.data?.message || 'Failed to fetch task history'
+      };
+    }
+  }
+
   /**
    * Get task statistics
    */
@@ -11,7 +11,12 @@ export const API_ENDPOINTS = {
     COMPLETE: (id) => `/tasks/${id}/complete`,
     PENDING: (id) => `/tasks/${id}/pending`,
     DELETE: (id) => `/tasks/${id}`,
+    RESTORE: (id) => `/tasks/${id}/restore`,
+    MOVE: (id) => `/tasks/${id}/move`,
     SEARCH: '/tasks/search',
+    HISTORY: '/tasks/history',
+    DUE_SOON: '/tasks/due-soon',
+    CHANGES: '/tasks/changes',
     STATS: '/tasks/stats'
   }
 };